@@ -1,6 +1,9 @@
 package com.cgvsu;
 
 import com.cgvsu.model.Model;
+import com.cgvsu.model.ModelBounds;
+import com.cgvsu.objreader.ObjReadOptions;
+import com.cgvsu.objreader.ObjReadStatistics;
 import com.cgvsu.objreader.ObjReader;
 import com.cgvsu.objreader.ObjReaderException;
 import javafx.animation.AnimationTimer;
@@ -17,7 +20,6 @@ import javafx.scene.paint.Color;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 
 public class GuiController {
 
@@ -82,42 +84,29 @@ public class GuiController {
                 return;
             }
 
-            String content = Files.readString(file.toPath());
+            ObjReadStatistics statistics = new ObjReadStatistics();
+            ObjReadOptions options = new ObjReadOptions();
+            options.setParallel(true);
+            options.setCacheEnabled(true);
+            options.setStatistics(statistics);
 
-            if (content.trim().isEmpty()) {
-                statusLabel.setText("File is empty");
-                System.err.println("File contains only whitespace");
-                return;
-            }
+            currentModel = ObjReader.read(file.toPath(), options);
 
-            System.out.println("FILE CONTENT (first 10 lines)");
-            String[] lines = content.split("\n");
-            for (int i = 0; i < Math.min(10, lines.length); i++) {
-                System.out.println((i+1) + ": " + lines[i].trim());
+            if (!statistics.isValid()) {
+                currentModel = null;
+                statusLabel.setText("Invalid OBJ format");
+                System.err.println("File contains no vertex definitions");
+                return;
             }
-            System.out.println("END FILE CONTENT");
-
-            System.out.println("Calling ObjReader.read()...");
-            currentModel = ObjReader.read(content);
 
             statusLabel.setText("Loaded: " + file.getName());
             System.out.println("MODEL LOADED SUCCESSFULLY");
             System.out.println("Model name: " + file.getName());
-            System.out.println("Vertices: " + currentModel.vertices.size());
-            System.out.println("Polygons: " + currentModel.polygons.size());
-
-            if (!currentModel.vertices.isEmpty()) {
-                System.out.println("First 3 vertices:");
-                for (int i = 0; i < Math.min(3, currentModel.vertices.size()); i++) {
-                    com.cgvsu.math.Vector3f v = currentModel.vertices.get(i);
-                    System.out.println("  v" + (i+1) + ": (" + v.x + ", " + v.y + ", " + v.z + ")");
-                }
-            }
-
-            if (!currentModel.polygons.isEmpty()) {
-                System.out.println("First polygon vertex indices: " +
-                        currentModel.polygons.get(0).getVertexIndices());
-            }
+            System.out.println("Lines: " + statistics.getLineCount()
+                    + (statistics.isFromCache() ? " (from cache)" : ""));
+            System.out.println("Vertices: " + statistics.getVertexCount());
+            System.out.println("Polygons: " + statistics.getPolygonCount());
+            System.out.println("Read time: " + statistics.getReadTimeNanos() / 1_000_000 + " ms");
 
             centerModel();
 
@@ -147,15 +136,10 @@ public class GuiController {
 
         System.out.println("CENTERING MODEL");
 
-        float minX = Float.MAX_VALUE, maxX = Float.MIN_VALUE;
-        float minY = Float.MAX_VALUE, maxY = Float.MIN_VALUE;
-
-        for (com.cgvsu.math.Vector3f vertex : currentModel.vertices) {
-            minX = Math.min(minX, vertex.x);
-            maxX = Math.max(maxX, vertex.x);
-            minY = Math.min(minY, vertex.y);
-            maxY = Math.max(maxY, vertex.y);
-        }
+        // Габариты кэшируются в модели.
+        ModelBounds bounds = currentModel.getBounds();
+        float minX = bounds.getMinX(), maxX = bounds.getMaxX();
+        float minY = bounds.getMinY(), maxY = bounds.getMaxY();
 
         System.out.println("Model bounds:");
         System.out.println("  X: " + minX + " to " + maxX + " (width: " + (maxX - minX) + ")");
@@ -449,17 +433,19 @@ public class GuiController {
         gc.setFill(Color.YELLOW);
         int verticesDrawn = 0;
 
-        for (int i = 0; i < currentModel.vertices.size(); i++) {
-            com.cgvsu.math.Vector3f vertex = currentModel.vertices.get(i);
+        com.cgvsu.model.Vector3fList vertices = currentModel.vertices;
+        for (int i = 0; i < vertices.size(); i++) {
+            float x = vertices.getX(i);
+            float y = vertices.getY(i);
 
-            double screenX = canvas.getWidth() / 2 + (vertex.x + offsetX) * scale;
-            double screenY = canvas.getHeight() / 2 - (vertex.y + offsetY) * scale;
+            double screenX = canvas.getWidth() / 2 + (x + offsetX) * scale;
+            double screenY = canvas.getHeight() / 2 - (y + offsetY) * scale;
 
             gc.fillOval(screenX - 3, screenY - 3, 6, 6);
             verticesDrawn++;
 
             if (i < 3) {
-                System.out.println("Vertex " + i + " world: (" + vertex.x + ", " + vertex.y +
+                System.out.println("Vertex " + i + " world: (" + x + ", " + y +
                         ") screen: (" + screenX + ", " + screenY + ")");
             }
         }
@@ -477,30 +463,27 @@ public class GuiController {
     }
 
     private int drawPolygon(com.cgvsu.model.Polygon polygon) {
-        java.util.List<Integer> vertexIndices = polygon.getVertexIndices();
-        if (vertexIndices == null || vertexIndices.isEmpty()) {
+        int vertexCount = polygon.getVertexCount();
+        if (vertexCount == 0) {
             return 0;
         }
 
+        com.cgvsu.model.Vector3fList vertices = currentModel.vertices;
         int linesDrawn = 0;
-        int vertexCount = vertexIndices.size();
 
         for (int i = 0; i < vertexCount; i++) {
-            int idx1 = vertexIndices.get(i);
-            int idx2 = vertexIndices.get((i + 1) % vertexCount);
+            int idx1 = polygon.getVertexIndex(i);
+            int idx2 = polygon.getVertexIndex((i + 1) % vertexCount);
 
-            if (idx1 < 0 || idx1 >= currentModel.vertices.size() ||
-                    idx2 < 0 || idx2 >= currentModel.vertices.size()) {
+            if (idx1 < 0 || idx1 >= vertices.size() ||
+                    idx2 < 0 || idx2 >= vertices.size()) {
                 continue;
             }
 
-            com.cgvsu.math.Vector3f v1 = currentModel.vertices.get(idx1);
-            com.cgvsu.math.Vector3f v2 = currentModel.vertices.get(idx2);
-
-            double x1 = canvas.getWidth() / 2 + (v1.x + offsetX) * scale;
-            double y1 = canvas.getHeight() / 2 - (v1.y + offsetY) * scale;
-            double x2 = canvas.getWidth() / 2 + (v2.x + offsetX) * scale;
-            double y2 = canvas.getHeight() / 2 - (v2.y + offsetY) * scale;
+            double x1 = canvas.getWidth() / 2 + (vertices.getX(idx1) + offsetX) * scale;
+            double y1 = canvas.getHeight() / 2 - (vertices.getY(idx1) + offsetY) * scale;
+            double x2 = canvas.getWidth() / 2 + (vertices.getX(idx2) + offsetX) * scale;
+            double y2 = canvas.getHeight() / 2 - (vertices.getY(idx2) + offsetY) * scale;
 
             gc.strokeLine(x1, y1, x2, y2);
             linesDrawn++;
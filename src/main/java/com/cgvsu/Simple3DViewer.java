@@ -1,9 +1,9 @@
 package com.cgvsu;
 
-import com.cgvsu.model.Model;
-import com.cgvsu.objreader.ObjReader;
+import com.cgvsu.objreader.ObjReadStatistics;
 import com.cgvsu.objreader.ObjReaderException;
 import com.cgvsu.render_engine.Camera;
+import com.cgvsu.scene.ModelLoadService;
 import com.cgvsu.scene.SceneManager;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
@@ -23,7 +23,7 @@ import javafx.util.Duration;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.util.List;
 import javafx.scene.input.*;
 
 public class Simple3DViewer extends Application {
@@ -39,6 +39,8 @@ public class Simple3DViewer extends Application {
     private Canvas canvas;
     private ListView<String> objectListView;
     private Label statusLabel;
+    private ProgressBar loadProgressBar;
+    private Button cancelLoadBtn;
 
     @Override
     public void start(Stage primaryStage) {
@@ -49,6 +51,7 @@ public class Simple3DViewer extends Application {
             });
         });
         try {
+            sceneManager = new SceneManager();
             themeManager = new ThemeManager();
             animationManager = new AnimationManager();
             uiManager = new UIManager(themeManager, animationManager);
@@ -70,6 +73,13 @@ public class Simple3DViewer extends Application {
         }
     }
 
+    @Override
+    public void stop() {
+        if (sceneManager != null) {
+            sceneManager.shutdown();
+        }
+    }
+
     private void buildInterface() {
         root.setTop(createTopPanel());
         root.setLeft(createObjectListPanel());
@@ -209,13 +219,14 @@ public class Simple3DViewer extends Application {
             Dragboard db = event.getDragboard();
             boolean success = false;
             if (db.hasFiles()) {
-                File file = db.getFiles().get(0);
-                if (file.exists() && file.isFile()) {
-                    open3DModelFile(file);
-                    success = true;
-                } else {
-                    AlertManager.showError("Invalid file",
-                            "Dropped item is not a valid file.");
+                for (File file : db.getFiles()) {
+                    if (file.exists() && file.isFile()) {
+                        open3DModelFile(file);
+                        success = true;
+                    } else {
+                        AlertManager.showError("Invalid file",
+                                "Dropped item is not a valid file:\n" + file.getName());
+                    }
                 }
             }
             event.setDropCompleted(success);
@@ -337,7 +348,13 @@ public class Simple3DViewer extends Application {
         ProgressBar memoryBar = new ProgressBar(0.5);
         memoryBar.setPrefWidth(100);
         indicators.getChildren().addAll(fpsLabel, memoryLabel, memoryBar);
-        statusPanel.getChildren().addAll(statusLabel, new Separator(), indicators);
+        loadProgressBar = new ProgressBar(0);
+        loadProgressBar.setPrefWidth(150);
+        loadProgressBar.setVisible(false);
+        cancelLoadBtn = uiManager.createIconButton("Cancel", "Cancel model loading");
+        cancelLoadBtn.setOnAction(e -> sceneManager.getModelLoadService().cancelAll());
+        cancelLoadBtn.setVisible(false);
+        statusPanel.getChildren().addAll(statusLabel, loadProgressBar, cancelLoadBtn, new Separator(), indicators);
         HBox.setHgrow(statusLabel, Priority.ALWAYS);
         return statusPanel;
     }
@@ -387,29 +404,76 @@ public class Simple3DViewer extends Application {
                 if (!proceed) return;
             }
 
-            statusLabel.setText("Loading: " + file.getName() + "...");
-
-            String fileContent = Files.readString(file.toPath());
-
-            if (!isValidObjFormat(fileContent)) {
-                AlertManager.showError("Invalid OBJ Format",
-                        "The file does not appear to be a valid OBJ file.\n" +
-                                "OBJ files should start with vertex definitions (v x y z).\n\n" +
-                                "Try opening a different OBJ file.");
-                statusLabel.setText("Invalid OBJ Format");
-                statusLabel.setStyle("-fx-text-fill: #ff6b6b; -fx-font-weight: bold;");
-                Timeline timeline = new Timeline(new KeyFrame(
-                        Duration.seconds(3),
-                        ae -> statusLabel.setStyle("-fx-text-fill: #ffffff; -fx-font-weight: normal;")
-                ));
-                timeline.play();
-                return;
+            ModelLoadService.LoadTask task = sceneManager.loadModelAsync(file);
+            task.progressProperty().addListener((observable, oldValue, newValue) -> updateLoadProgress());
+            task.setOnSucceeded(e -> {
+                updateLoadProgress();
+                if (!task.getStatistics().isValid()) {
+                    showInvalidObjFormat();
+                    return;
+                }
+                onModelLoadedSuccessfully(file, task.getStatistics());
+            });
+            task.setOnFailed(e -> {
+                updateLoadProgress();
+                onModelLoadFailed(file, task.getException());
+            });
+            task.setOnCancelled(e -> {
+                updateLoadProgress();
+                statusLabel.setText("Loading cancelled: " + file.getName());
+            });
+            updateLoadProgress();
+
+        } catch (Exception e) {
+            AlertManager.showError("Unexpected error",
+                    "Failed to load model:\n" + file.getName() +
+                            "\n\nError: " + e.getClass().getSimpleName() +
+                            "\nMessage: " + e.getMessage());
+            statusLabel.setText("Load failed");
+            e.printStackTrace();
+        }
+    }
+
+    // Общий прогресс всех идущих загрузок по байтам.
+    private void updateLoadProgress() {
+        List<ModelLoadService.LoadTask> loads = sceneManager.getModelLoadService().getActiveLoads();
+        loadProgressBar.setVisible(!loads.isEmpty());
+        cancelLoadBtn.setVisible(!loads.isEmpty());
+        if (loads.isEmpty()) {
+            return;
+        }
+
+        double workDone = 0;
+        double totalWork = 0;
+        for (ModelLoadService.LoadTask load : loads) {
+            if (load.getTotalWork() > 0) {
+                workDone += load.getWorkDone();
+                totalWork += load.getTotalWork();
             }
+        }
+        double fraction = totalWork > 0 ? workDone / totalWork : 0;
+        loadProgressBar.setProgress(totalWork > 0 ? fraction : ProgressBar.INDETERMINATE_PROGRESS);
+
+        String target = loads.size() == 1 ? loads.get(0).getFile().getName() : loads.size() + " files";
+        statusLabel.setText(String.format("Loading: %s... %d%%", target, Math.round(fraction * 100)));
+    }
 
-            Model model = ObjReader.read(fileContent);
-            onModelLoadedSuccessfully(file, model);
+    private void showInvalidObjFormat() {
+        AlertManager.showError("Invalid OBJ Format",
+                "The file does not appear to be a valid OBJ file.\n" +
+                        "OBJ files should start with vertex definitions (v x y z).\n\n" +
+                        "Try opening a different OBJ file.");
+        statusLabel.setText("Invalid OBJ Format");
+        statusLabel.setStyle("-fx-text-fill: #ff6b6b; -fx-font-weight: bold;");
+        Timeline timeline = new Timeline(new KeyFrame(
+                Duration.seconds(3),
+                ae -> statusLabel.setStyle("-fx-text-fill: #ffffff; -fx-font-weight: normal;")
+        ));
+        timeline.play();
+    }
 
-        } catch (NullPointerException e) {
+    private void onModelLoadFailed(File file, Throwable error) {
+        if (error instanceof NullPointerException) {
             AlertManager.showError("Parser Error - Null Pointer",
                     "Cannot parse the OBJ file.\n" +
                             "Possible issues:\n" +
@@ -424,13 +488,13 @@ public class Simple3DViewer extends Application {
                     ae -> statusLabel.setStyle("-fx-text-fill: #ffffff; -fx-font-weight: normal;")
             ));
             timeline.play();
-            e.printStackTrace();
-        } catch (ObjReaderException e) {
-            int lineNumber = extractLineNumber(e);
+            error.printStackTrace();
+        } else if (error instanceof ObjReaderException) {
+            int lineNumber = extractLineNumber((ObjReaderException) error);
             AlertManager.showObjReaderError(
                     file.getName(),
                     lineNumber,
-                    e.getMessage()
+                    error.getMessage()
             );
             statusLabel.setText("OBJ Error at line " + lineNumber);
             statusLabel.setStyle("-fx-text-fill: #ff6b6b; -fx-font-weight: bold;");
@@ -439,40 +503,21 @@ public class Simple3DViewer extends Application {
                     ae -> statusLabel.setStyle("-fx-text-fill: #ffffff; -fx-font-weight: normal;")
             ));
             timeline.play();
-        } catch (IOException e) {
+        } else if (error instanceof IOException) {
             AlertManager.showError("File read error",
                     "Cannot read the file:\n" + file.getAbsolutePath() +
-                            "\n\nError: " + e.getMessage());
+                            "\n\nError: " + error.getMessage());
             statusLabel.setText("Error reading file");
-        } catch (Exception e) {
+        } else {
             AlertManager.showError("Unexpected error",
                     "Failed to load model:\n" + file.getName() +
-                            "\n\nError: " + e.getClass().getSimpleName() +
-                            "\nMessage: " + e.getMessage());
+                            "\n\nError: " + error.getClass().getSimpleName() +
+                            "\nMessage: " + error.getMessage());
             statusLabel.setText("Load failed");
-            e.printStackTrace();
+            error.printStackTrace();
         }
     }
 
-    private boolean isValidObjFormat(String content) {
-        if (content == null || content.trim().isEmpty()) {
-            return false;
-        }
-
-        String[] lines = content.split("\n");
-        boolean hasVertex = false;
-
-        for (String line : lines) {
-            line = line.trim();
-            if (line.startsWith("v ")) {
-                hasVertex = true;
-                break;
-            }
-        }
-
-        return hasVertex;
-    }
-
     private int extractLineNumber(ObjReaderException e) {
         try {
             java.lang.reflect.Method getLineMethod = e.getClass().getMethod("getLineIndex");
@@ -505,30 +550,10 @@ public class Simple3DViewer extends Application {
         return 0;
     }
 
-    private void onModelLoadedSuccessfully(File file, Model model) {
+    private void onModelLoadedSuccessfully(File file, ObjReadStatistics statistics) {
         try {
-            int vertices = 0;
-            int polygons = 0;
-
-            try {
-                java.lang.reflect.Field verticesField = model.getClass().getDeclaredField("vertices");
-                verticesField.setAccessible(true);
-                java.util.List<?> verticesList = (java.util.List<?>) verticesField.get(model);
-                vertices = verticesList.size();
-
-                java.lang.reflect.Field facesField = model.getClass().getDeclaredField("polygons");
-                facesField.setAccessible(true);
-                java.util.List<?> facesList = (java.util.List<?>) facesField.get(model);
-                polygons = facesList.size();
-            } catch (Exception e) {
-                try {
-                    vertices = model.getVertices().size();
-                    polygons = model.getPolygons().size();
-                } catch (Exception e2) {
-                    vertices = 0;
-                    polygons = 0;
-                }
-            }
+            int vertices = statistics.getVertexCount();
+            int polygons = statistics.getPolygonCount();
 
             String modelName = file.getName().replaceFirst("[.][^.]+$", "");
 
@@ -554,9 +579,15 @@ public class Simple3DViewer extends Application {
                                     "Name: %s\n" +
                                     "Vertices: %d\n" +
                                     "Polygons: %d\n" +
-                                    "Size: %.2f KB",
+                                    "Bounds: [%.3f, %.3f, %.3f] - [%.3f, %.3f, %.3f]\n" +
+                                    "Size: %.2f KB\n" +
+                                    "Read in %d ms%s",
                             modelName, vertices, polygons,
-                            file.length() / 1024.0));
+                            statistics.getMinX(), statistics.getMinY(), statistics.getMinZ(),
+                            statistics.getMaxX(), statistics.getMaxY(), statistics.getMaxZ(),
+                            statistics.getByteCount() / 1024.0,
+                            statistics.getReadTimeNanos() / 1_000_000,
+                            statistics.isFromCache() ? " (from cache)" : ""));
 
         } catch (Exception e) {
             AlertManager.showError("Display Error",
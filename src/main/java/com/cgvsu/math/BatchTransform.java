@@ -0,0 +1,151 @@
+package com.cgvsu.math;
+
+// Пакетные преобразования точек в раздельных массивах координат (SoA: xs, ys, zs).
+//
+// Циклы написаны так, чтобы C2 векторизовал их сам (SuperWord): на AVX2 по 8, на AVX-512
+// по 16 float за инструкцию. Цикл с тремя-четырьмя строками матрицы и делением C2 уже не
+// векторизует, поэтому каждое преобразование разбито на короткие циклы по одному-двум
+// выходным массивам, а точки идут блоками по BLOCK_SIZE, чтобы между этими циклами блок
+// оставался в L1. Без C2 (интерпретатор, C1, -XX:-UseSuperWord) те же циклы выполняются
+// скалярно с тем же результатом. Для координат подряд (xyz, как в Vector3fList) -
+// скалярные Matrix4f.transformPoints; deinterleave/interleave переводят одно
+// представление в другое.
+//
+// Выходные массивы transform и project не должны совпадать с входными: входы читаются
+// несколькими циклами. perspectiveDivide и toViewport работают на месте.
+public final class BatchTransform {
+
+    static final int BLOCK_SIZE = 1 << 10;
+
+    private BatchTransform() {
+    }
+
+    // Однородные координаты отсечения (x, y, z, w) = M * (x, y, z, 1).
+    public static void transform(float[] xs, float[] ys, float[] zs, int count, Matrix4f m,
+                                 float[] outX, float[] outY, float[] outZ, float[] outW) {
+        checkLength(count, Math.min(Math.min(xs.length, ys.length), zs.length));
+        checkLength(count, Math.min(Math.min(outX.length, outY.length), Math.min(outZ.length, outW.length)));
+        float m00 = m.m00, m01 = m.m01, m02 = m.m02, m03 = m.m03;
+        float m10 = m.m10, m11 = m.m11, m12 = m.m12, m13 = m.m13;
+        float m20 = m.m20, m21 = m.m21, m22 = m.m22, m23 = m.m23;
+        float m30 = m.m30, m31 = m.m31, m32 = m.m32, m33 = m.m33;
+        for (int from = 0; from < count; from += BLOCK_SIZE) {
+            int to = Math.min(count, from + BLOCK_SIZE);
+            for (int i = from; i < to; i++) {
+                float x = xs[i];
+                float y = ys[i];
+                float z = zs[i];
+                outX[i] = m00 * x + m01 * y + m02 * z + m03;
+                outY[i] = m10 * x + m11 * y + m12 * z + m13;
+            }
+            for (int i = from; i < to; i++) {
+                float x = xs[i];
+                float y = ys[i];
+                float z = zs[i];
+                outZ[i] = m20 * x + m21 * y + m22 * z + m23;
+                outW[i] = m30 * x + m31 * y + m32 * z + m33;
+            }
+        }
+    }
+
+    // Деление на w: координаты отсечения -> нормализованные [-1, 1]. w не меняется.
+    public static void perspectiveDivide(float[] xs, float[] ys, float[] zs, float[] ws, int count) {
+        checkLength(count, Math.min(Math.min(xs.length, ys.length), Math.min(zs.length, ws.length)));
+        for (int from = 0; from < count; from += BLOCK_SIZE) {
+            int to = Math.min(count, from + BLOCK_SIZE);
+            for (int i = from; i < to; i++) {
+                xs[i] /= ws[i];
+            }
+            for (int i = from; i < to; i++) {
+                ys[i] /= ws[i];
+            }
+            for (int i = from; i < to; i++) {
+                zs[i] /= ws[i];
+            }
+        }
+    }
+
+    // Нормализованные x, y из [-1, 1] -> пиксели окна width x height, ось Y вниз.
+    public static void toViewport(float[] xs, float[] ys, int count, int width, int height) {
+        checkLength(count, Math.min(xs.length, ys.length));
+        float halfWidth = width / 2.0f;
+        float halfHeight = height / 2.0f;
+        for (int i = 0; i < count; i++) {
+            xs[i] = (xs[i] + 1) * halfWidth;
+            ys[i] = (1 - ys[i]) * halfHeight;
+        }
+    }
+
+    // transform, perspectiveDivide и toViewport за один проход по блокам: экранные x, y и
+    // глубина z / w. Видимые точки (между near и far) получают глубину из [-1, 1], точки
+    // за камерой - больше 1, так что их отсекает та же проверка глубины.
+    public static void project(float[] xs, float[] ys, float[] zs, int count, Matrix4f m, int width, int height,
+                               float[] screenX, float[] screenY, float[] depth) {
+        checkLength(count, Math.min(Math.min(xs.length, ys.length), zs.length));
+        checkLength(count, Math.min(Math.min(screenX.length, screenY.length), depth.length));
+        float halfWidth = width / 2.0f;
+        float halfHeight = height / 2.0f;
+        // Вьюпорт сразу в строках матрицы: sx = (x / w + 1) * hw = (hw * x + hw * w) / w.
+        float m00 = halfWidth * (m.m00 + m.m30), m01 = halfWidth * (m.m01 + m.m31);
+        float m02 = halfWidth * (m.m02 + m.m32), m03 = halfWidth * (m.m03 + m.m33);
+        float m10 = halfHeight * (m.m30 - m.m10), m11 = halfHeight * (m.m31 - m.m11);
+        float m12 = halfHeight * (m.m32 - m.m12), m13 = halfHeight * (m.m33 - m.m13);
+        float m20 = m.m20, m21 = m.m21, m22 = m.m22, m23 = m.m23;
+        float m30 = m.m30, m31 = m.m31, m32 = m.m32, m33 = m.m33;
+        for (int from = 0; from < count; from += BLOCK_SIZE) {
+            int to = Math.min(count, from + BLOCK_SIZE);
+            // 1 / w временно хранится в depth.
+            for (int i = from; i < to; i++) {
+                depth[i] = 1 / (m30 * xs[i] + m31 * ys[i] + m32 * zs[i] + m33);
+            }
+            for (int i = from; i < to; i++) {
+                float x = xs[i];
+                float y = ys[i];
+                float z = zs[i];
+                float inverseW = depth[i];
+                screenX[i] = (m00 * x + m01 * y + m02 * z + m03) * inverseW;
+                screenY[i] = (m10 * x + m11 * y + m12 * z + m13) * inverseW;
+            }
+            for (int i = from; i < to; i++) {
+                depth[i] *= m20 * xs[i] + m21 * ys[i] + m22 * zs[i] + m23;
+            }
+        }
+    }
+
+    // xyz подряд -> три массива.
+    public static void deinterleave(float[] xyz, int count, float[] xs, float[] ys, float[] zs) {
+        checkInterleaved(xyz, count);
+        checkLength(count, Math.min(Math.min(xs.length, ys.length), zs.length));
+        for (int i = 0; i < count; i++) {
+            xs[i] = xyz[3 * i];
+            ys[i] = xyz[3 * i + 1];
+            zs[i] = xyz[3 * i + 2];
+        }
+    }
+
+    public static void interleave(float[] xs, float[] ys, float[] zs, int count, float[] xyz) {
+        checkInterleaved(xyz, count);
+        checkLength(count, Math.min(Math.min(xs.length, ys.length), zs.length));
+        for (int i = 0; i < count; i++) {
+            xyz[3 * i] = xs[i];
+            xyz[3 * i + 1] = ys[i];
+            xyz[3 * i + 2] = zs[i];
+        }
+    }
+
+    // length - длина самого короткого из массивов.
+    private static void checkLength(int count, int length) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Negative point count: " + count);
+        }
+        if (length < count) {
+            throw new IndexOutOfBoundsException("Array of length " + length + " for " + count + " points");
+        }
+    }
+
+    private static void checkInterleaved(float[] xyz, int count) {
+        if (count >= 0 && xyz.length < 3L * count) {
+            throw new IndexOutOfBoundsException("Array of length " + xyz.length + " for " + count + " points");
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.cgvsu.math;
+
+// Матрица 3x3 для направлений и нормалей; соглашения те же, что у Matrix4f: mRC - строка
+// R, столбец C, вектор-столбец справа, операции на месте без создания объектов.
+public final class Matrix3f {
+
+    public float m00, m01, m02;
+    public float m10, m11, m12;
+    public float m20, m21, m22;
+
+    public Matrix3f() {
+        setIdentity();
+    }
+
+    public Matrix3f(Matrix3f other) {
+        set(other);
+    }
+
+    public Matrix3f setIdentity() {
+        m00 = 1; m01 = 0; m02 = 0;
+        m10 = 0; m11 = 1; m12 = 0;
+        m20 = 0; m21 = 0; m22 = 1;
+        return this;
+    }
+
+    public Matrix3f set(Matrix3f other) {
+        m00 = other.m00; m01 = other.m01; m02 = other.m02;
+        m10 = other.m10; m11 = other.m11; m12 = other.m12;
+        m20 = other.m20; m21 = other.m21; m22 = other.m22;
+        return this;
+    }
+
+    // Левый верхний блок 3x3.
+    public Matrix3f set(Matrix4f other) {
+        m00 = other.m00; m01 = other.m01; m02 = other.m02;
+        m10 = other.m10; m11 = other.m11; m12 = other.m12;
+        m20 = other.m20; m21 = other.m21; m22 = other.m22;
+        return this;
+    }
+
+    // Матрица нормалей модели: (M^-1)^T левого верхнего блока. С ней нормали остаются
+    // перпендикулярны граням и при неравномерном масштабе.
+    public Matrix3f setNormalMatrix(Matrix4f model) {
+        return set(model).invert().transpose();
+    }
+
+    // this = this * right
+    public Matrix3f mul(Matrix3f right) {
+        return mul(this, right);
+    }
+
+    // this = left * right
+    public Matrix3f mul(Matrix3f left, Matrix3f right) {
+        float a00 = left.m00, a01 = left.m01, a02 = left.m02;
+        float a10 = left.m10, a11 = left.m11, a12 = left.m12;
+        float a20 = left.m20, a21 = left.m21, a22 = left.m22;
+        float b00 = right.m00, b01 = right.m01, b02 = right.m02;
+        float b10 = right.m10, b11 = right.m11, b12 = right.m12;
+        float b20 = right.m20, b21 = right.m21, b22 = right.m22;
+        m00 = a00 * b00 + a01 * b10 + a02 * b20;
+        m01 = a00 * b01 + a01 * b11 + a02 * b21;
+        m02 = a00 * b02 + a01 * b12 + a02 * b22;
+        m10 = a10 * b00 + a11 * b10 + a12 * b20;
+        m11 = a10 * b01 + a11 * b11 + a12 * b21;
+        m12 = a10 * b02 + a11 * b12 + a12 * b22;
+        m20 = a20 * b00 + a21 * b10 + a22 * b20;
+        m21 = a20 * b01 + a21 * b11 + a22 * b21;
+        m22 = a20 * b02 + a21 * b12 + a22 * b22;
+        return this;
+    }
+
+    public Matrix3f transpose() {
+        float t;
+        t = m01; m01 = m10; m10 = t;
+        t = m02; m02 = m20; m20 = t;
+        t = m12; m12 = m21; m21 = t;
+        return this;
+    }
+
+    public float determinant() {
+        return m00 * (m11 * m22 - m12 * m21)
+                - m01 * (m10 * m22 - m12 * m20)
+                + m02 * (m10 * m21 - m11 * m20);
+    }
+
+    // Через присоединённую матрицу: обратная = adj / det.
+    public Matrix3f invert() {
+        float c00 = m11 * m22 - m12 * m21;
+        float c01 = m02 * m21 - m01 * m22;
+        float c02 = m01 * m12 - m02 * m11;
+        float c10 = m12 * m20 - m10 * m22;
+        float c11 = m00 * m22 - m02 * m20;
+        float c12 = m02 * m10 - m00 * m12;
+        float c20 = m10 * m21 - m11 * m20;
+        float c21 = m01 * m20 - m00 * m21;
+        float c22 = m00 * m11 - m01 * m10;
+        float determinant = m00 * c00 + m01 * c10 + m02 * c20;
+        if (determinant == 0 || !Float.isFinite(determinant)) {
+            throw new ArithmeticException("Matrix is singular");
+        }
+        float inverse = 1 / determinant;
+        m00 = c00 * inverse; m01 = c01 * inverse; m02 = c02 * inverse;
+        m10 = c10 * inverse; m11 = c11 * inverse; m12 = c12 * inverse;
+        m20 = c20 * inverse; m21 = c21 * inverse; m22 = c22 * inverse;
+        return this;
+    }
+
+    // target = M * source; target может совпадать с source.
+    public void transform(Vector3f source, Vector3f target) {
+        float x = source.x;
+        float y = source.y;
+        float z = source.z;
+        target.x = m00 * x + m01 * y + m02 * z;
+        target.y = m10 * x + m11 * y + m12 * z;
+        target.z = m20 * x + m21 * y + m22 * z;
+    }
+
+    // Векторы xyz подряд, сколько помещается и в src, и в dst.
+    public static void transformVectors(float[] src, float[] dst, Matrix3f m) {
+        int count = Math.min(src.length, dst.length) / 3;
+        float m00 = m.m00, m01 = m.m01, m02 = m.m02;
+        float m10 = m.m10, m11 = m.m11, m12 = m.m12;
+        float m20 = m.m20, m21 = m.m21, m22 = m.m22;
+        for (int i = 0; i < count; i++) {
+            int o = 3 * i;
+            float x = src[o];
+            float y = src[o + 1];
+            float z = src[o + 2];
+            dst[o] = m00 * x + m01 * y + m02 * z;
+            dst[o + 1] = m10 * x + m11 * y + m12 * z;
+            dst[o + 2] = m20 * x + m21 * y + m22 * z;
+        }
+    }
+
+    // Как transformVectors, но результат нормируется; нулевой вектор остаётся нулевым.
+    public static void transformNormals(float[] src, float[] dst, Matrix3f m) {
+        int count = Math.min(src.length, dst.length) / 3;
+        float m00 = m.m00, m01 = m.m01, m02 = m.m02;
+        float m10 = m.m10, m11 = m.m11, m12 = m.m12;
+        float m20 = m.m20, m21 = m.m21, m22 = m.m22;
+        for (int i = 0; i < count; i++) {
+            int o = 3 * i;
+            float x = src[o];
+            float y = src[o + 1];
+            float z = src[o + 2];
+            float nx = m00 * x + m01 * y + m02 * z;
+            float ny = m10 * x + m11 * y + m12 * z;
+            float nz = m20 * x + m21 * y + m22 * z;
+            float length = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
+            float inverseLength = length > 0 ? 1 / length : 0;
+            dst[o] = nx * inverseLength;
+            dst[o + 1] = ny * inverseLength;
+            dst[o + 2] = nz * inverseLength;
+        }
+    }
+
+    public boolean epsilonEquals(Matrix3f other, float epsilon) {
+        return Math.abs(m00 - other.m00) <= epsilon && Math.abs(m01 - other.m01) <= epsilon
+                && Math.abs(m02 - other.m02) <= epsilon && Math.abs(m10 - other.m10) <= epsilon
+                && Math.abs(m11 - other.m11) <= epsilon && Math.abs(m12 - other.m12) <= epsilon
+                && Math.abs(m20 - other.m20) <= epsilon && Math.abs(m21 - other.m21) <= epsilon
+                && Math.abs(m22 - other.m22) <= epsilon;
+    }
+
+    @Override
+    public String toString() {
+        return "Matrix3f{" +
+                "\n  " + m00 + ", " + m01 + ", " + m02 +
+                "\n  " + m10 + ", " + m11 + ", " + m12 +
+                "\n  " + m20 + ", " + m21 + ", " + m22 +
+                "\n}";
+    }
+}
@@ -0,0 +1,410 @@
+package com.cgvsu.math;
+
+// Матрица 4x4 для однородных координат. Поле mRC - элемент строки R и столбца C; вектор
+// - столбец справа: p' = M * p, поэтому в произведении A * B сначала действует B.
+// Все операции меняют матрицу на месте и не создают объектов; источники могут совпадать
+// с приёмником (this), значения читаются до записи.
+public final class Matrix4f {
+
+    public float m00, m01, m02, m03;
+    public float m10, m11, m12, m13;
+    public float m20, m21, m22, m23;
+    public float m30, m31, m32, m33;
+
+    public Matrix4f() {
+        setIdentity();
+    }
+
+    public Matrix4f(Matrix4f other) {
+        set(other);
+    }
+
+    public Matrix4f setIdentity() {
+        m00 = 1; m01 = 0; m02 = 0; m03 = 0;
+        m10 = 0; m11 = 1; m12 = 0; m13 = 0;
+        m20 = 0; m21 = 0; m22 = 1; m23 = 0;
+        m30 = 0; m31 = 0; m32 = 0; m33 = 1;
+        return this;
+    }
+
+    public Matrix4f set(Matrix4f other) {
+        m00 = other.m00; m01 = other.m01; m02 = other.m02; m03 = other.m03;
+        m10 = other.m10; m11 = other.m11; m12 = other.m12; m13 = other.m13;
+        m20 = other.m20; m21 = other.m21; m22 = other.m22; m23 = other.m23;
+        m30 = other.m30; m31 = other.m31; m32 = other.m32; m33 = other.m33;
+        return this;
+    }
+
+    // 16 значений по строкам, начиная с offset.
+    public Matrix4f set(float[] values, int offset) {
+        m00 = values[offset]; m01 = values[offset + 1]; m02 = values[offset + 2]; m03 = values[offset + 3];
+        m10 = values[offset + 4]; m11 = values[offset + 5]; m12 = values[offset + 6]; m13 = values[offset + 7];
+        m20 = values[offset + 8]; m21 = values[offset + 9]; m22 = values[offset + 10]; m23 = values[offset + 11];
+        m30 = values[offset + 12]; m31 = values[offset + 13]; m32 = values[offset + 14]; m33 = values[offset + 15];
+        return this;
+    }
+
+    public void get(float[] target, int offset) {
+        target[offset] = m00; target[offset + 1] = m01; target[offset + 2] = m02; target[offset + 3] = m03;
+        target[offset + 4] = m10; target[offset + 5] = m11; target[offset + 6] = m12; target[offset + 7] = m13;
+        target[offset + 8] = m20; target[offset + 9] = m21; target[offset + 10] = m22; target[offset + 11] = m23;
+        target[offset + 12] = m30; target[offset + 13] = m31; target[offset + 14] = m32; target[offset + 15] = m33;
+    }
+
+    public Matrix4f setTranslation(float x, float y, float z) {
+        setIdentity();
+        m03 = x;
+        m13 = y;
+        m23 = z;
+        return this;
+    }
+
+    public Matrix4f setScale(float x, float y, float z) {
+        setIdentity();
+        m00 = x;
+        m11 = y;
+        m22 = z;
+        return this;
+    }
+
+    // Повороты против часовой стрелки, если смотреть с конца оси; углы в радианах.
+    public Matrix4f setRotationX(float radians) {
+        float cos = (float) Math.cos(radians);
+        float sin = (float) Math.sin(radians);
+        setIdentity();
+        m11 = cos;
+        m12 = -sin;
+        m21 = sin;
+        m22 = cos;
+        return this;
+    }
+
+    public Matrix4f setRotationY(float radians) {
+        float cos = (float) Math.cos(radians);
+        float sin = (float) Math.sin(radians);
+        setIdentity();
+        m00 = cos;
+        m02 = sin;
+        m20 = -sin;
+        m22 = cos;
+        return this;
+    }
+
+    public Matrix4f setRotationZ(float radians) {
+        float cos = (float) Math.cos(radians);
+        float sin = (float) Math.sin(radians);
+        setIdentity();
+        m00 = cos;
+        m01 = -sin;
+        m10 = sin;
+        m11 = cos;
+        return this;
+    }
+
+    // T * Rz * Ry * Rx * S: масштаб, поворот вокруг X, затем Y, затем Z, затем перенос.
+    // Синусы и косинусы считаются один раз на матрицу.
+    public Matrix4f setTransform(float translationX, float translationY, float translationZ,
+                                 float rotationX, float rotationY, float rotationZ,
+                                 float scaleX, float scaleY, float scaleZ) {
+        float ca = (float) Math.cos(rotationX);
+        float sa = (float) Math.sin(rotationX);
+        float cb = (float) Math.cos(rotationY);
+        float sb = (float) Math.sin(rotationY);
+        float cc = (float) Math.cos(rotationZ);
+        float sc = (float) Math.sin(rotationZ);
+        m00 = cc * cb * scaleX;
+        m01 = (cc * sb * sa - sc * ca) * scaleY;
+        m02 = (cc * sb * ca + sc * sa) * scaleZ;
+        m03 = translationX;
+        m10 = sc * cb * scaleX;
+        m11 = (sc * sb * sa + cc * ca) * scaleY;
+        m12 = (sc * sb * ca - cc * sa) * scaleZ;
+        m13 = translationY;
+        m20 = -sb * scaleX;
+        m21 = cb * sa * scaleY;
+        m22 = cb * ca * scaleZ;
+        m23 = translationZ;
+        m30 = 0;
+        m31 = 0;
+        m32 = 0;
+        m33 = 1;
+        return this;
+    }
+
+    // Видовая матрица правой системы: камера в eye смотрит на target, вверх - проекция up.
+    // После неё камера в начале координат и смотрит вдоль -Z.
+    public Matrix4f setLookAt(Vector3f eye, Vector3f target, Vector3f up) {
+        float fx = target.x - eye.x;
+        float fy = target.y - eye.y;
+        float fz = target.z - eye.z;
+        float length = (float) Math.sqrt(fx * fx + fy * fy + fz * fz);
+        if (length == 0) {
+            throw new ArithmeticException("Camera target coincides with position");
+        }
+        fx /= length;
+        fy /= length;
+        fz /= length;
+        // right = forward x up
+        float rx = fy * up.z - fz * up.y;
+        float ry = fz * up.x - fx * up.z;
+        float rz = fx * up.y - fy * up.x;
+        length = (float) Math.sqrt(rx * rx + ry * ry + rz * rz);
+        if (length == 0) {
+            throw new ArithmeticException("Camera up vector is parallel to view direction");
+        }
+        rx /= length;
+        ry /= length;
+        rz /= length;
+        // trueUp = right x forward
+        float ux = ry * fz - rz * fy;
+        float uy = rz * fx - rx * fz;
+        float uz = rx * fy - ry * fx;
+        m00 = rx; m01 = ry; m02 = rz; m03 = -(rx * eye.x + ry * eye.y + rz * eye.z);
+        m10 = ux; m11 = uy; m12 = uz; m13 = -(ux * eye.x + uy * eye.y + uz * eye.z);
+        m20 = -fx; m21 = -fy; m22 = -fz; m23 = fx * eye.x + fy * eye.y + fz * eye.z;
+        m30 = 0; m31 = 0; m32 = 0; m33 = 1;
+        return this;
+    }
+
+    // Перспективная проекция (как glFrustum): видимая область -far <= z <= -near переходит
+    // в z / w из [-1, 1], w = -z. fovY - полный вертикальный угол в радианах.
+    public Matrix4f setPerspective(float fovY, float aspectRatio, float near, float far) {
+        if (!(fovY > 0 && fovY < Math.PI) || !(aspectRatio > 0) || !(near > 0) || !(far > near)) {
+            throw new IllegalArgumentException("Invalid perspective: fov=" + fovY + ", aspect=" + aspectRatio
+                    + ", near=" + near + ", far=" + far);
+        }
+        float f = 1 / (float) Math.tan(fovY / 2);
+        setIdentity();
+        m00 = f / aspectRatio;
+        m11 = f;
+        m22 = (far + near) / (near - far);
+        m23 = 2 * far * near / (near - far);
+        m32 = -1;
+        m33 = 0;
+        return this;
+    }
+
+    // this = this * right
+    public Matrix4f mul(Matrix4f right) {
+        return mul(this, right);
+    }
+
+    // this = left * this
+    public Matrix4f premul(Matrix4f left) {
+        return mul(left, this);
+    }
+
+    // this = left * right
+    public Matrix4f mul(Matrix4f left, Matrix4f right) {
+        float a00 = left.m00, a01 = left.m01, a02 = left.m02, a03 = left.m03;
+        float a10 = left.m10, a11 = left.m11, a12 = left.m12, a13 = left.m13;
+        float a20 = left.m20, a21 = left.m21, a22 = left.m22, a23 = left.m23;
+        float a30 = left.m30, a31 = left.m31, a32 = left.m32, a33 = left.m33;
+        float b00 = right.m00, b01 = right.m01, b02 = right.m02, b03 = right.m03;
+        float b10 = right.m10, b11 = right.m11, b12 = right.m12, b13 = right.m13;
+        float b20 = right.m20, b21 = right.m21, b22 = right.m22, b23 = right.m23;
+        float b30 = right.m30, b31 = right.m31, b32 = right.m32, b33 = right.m33;
+        m00 = a00 * b00 + a01 * b10 + a02 * b20 + a03 * b30;
+        m01 = a00 * b01 + a01 * b11 + a02 * b21 + a03 * b31;
+        m02 = a00 * b02 + a01 * b12 + a02 * b22 + a03 * b32;
+        m03 = a00 * b03 + a01 * b13 + a02 * b23 + a03 * b33;
+        m10 = a10 * b00 + a11 * b10 + a12 * b20 + a13 * b30;
+        m11 = a10 * b01 + a11 * b11 + a12 * b21 + a13 * b31;
+        m12 = a10 * b02 + a11 * b12 + a12 * b22 + a13 * b32;
+        m13 = a10 * b03 + a11 * b13 + a12 * b23 + a13 * b33;
+        m20 = a20 * b00 + a21 * b10 + a22 * b20 + a23 * b30;
+        m21 = a20 * b01 + a21 * b11 + a22 * b21 + a23 * b31;
+        m22 = a20 * b02 + a21 * b12 + a22 * b22 + a23 * b32;
+        m23 = a20 * b03 + a21 * b13 + a22 * b23 + a23 * b33;
+        m30 = a30 * b00 + a31 * b10 + a32 * b20 + a33 * b30;
+        m31 = a30 * b01 + a31 * b11 + a32 * b21 + a33 * b31;
+        m32 = a30 * b02 + a31 * b12 + a32 * b22 + a33 * b32;
+        m33 = a30 * b03 + a31 * b13 + a32 * b23 + a33 * b33;
+        return this;
+    }
+
+    public Matrix4f transpose() {
+        float t;
+        t = m01; m01 = m10; m10 = t;
+        t = m02; m02 = m20; m20 = t;
+        t = m03; m03 = m30; m30 = t;
+        t = m12; m12 = m21; m21 = t;
+        t = m13; m13 = m31; m31 = t;
+        t = m23; m23 = m32; m32 = t;
+        return this;
+    }
+
+    public float determinant() {
+        float s0 = m00 * m11 - m10 * m01;
+        float s1 = m00 * m12 - m10 * m02;
+        float s2 = m00 * m13 - m10 * m03;
+        float s3 = m01 * m12 - m11 * m02;
+        float s4 = m01 * m13 - m11 * m03;
+        float s5 = m02 * m13 - m12 * m03;
+        float c5 = m22 * m33 - m32 * m23;
+        float c4 = m21 * m33 - m31 * m23;
+        float c3 = m21 * m32 - m31 * m22;
+        float c2 = m20 * m33 - m30 * m23;
+        float c1 = m20 * m32 - m30 * m22;
+        float c0 = m20 * m31 - m30 * m21;
+        return s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+    }
+
+    public Matrix4f invert() {
+        return invert(this);
+    }
+
+    // this = source^-1 через миноры 2x2 верхних и нижних строк (метод Лапласа).
+    public Matrix4f invert(Matrix4f source) {
+        float a00 = source.m00, a01 = source.m01, a02 = source.m02, a03 = source.m03;
+        float a10 = source.m10, a11 = source.m11, a12 = source.m12, a13 = source.m13;
+        float a20 = source.m20, a21 = source.m21, a22 = source.m22, a23 = source.m23;
+        float a30 = source.m30, a31 = source.m31, a32 = source.m32, a33 = source.m33;
+        float s0 = a00 * a11 - a10 * a01;
+        float s1 = a00 * a12 - a10 * a02;
+        float s2 = a00 * a13 - a10 * a03;
+        float s3 = a01 * a12 - a11 * a02;
+        float s4 = a01 * a13 - a11 * a03;
+        float s5 = a02 * a13 - a12 * a03;
+        float c5 = a22 * a33 - a32 * a23;
+        float c4 = a21 * a33 - a31 * a23;
+        float c3 = a21 * a32 - a31 * a22;
+        float c2 = a20 * a33 - a30 * a23;
+        float c1 = a20 * a32 - a30 * a22;
+        float c0 = a20 * a31 - a30 * a21;
+        float determinant = s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+        if (determinant == 0 || !Float.isFinite(determinant)) {
+            throw new ArithmeticException("Matrix is singular");
+        }
+        float inverse = 1 / determinant;
+        m00 = (a11 * c5 - a12 * c4 + a13 * c3) * inverse;
+        m01 = (-a01 * c5 + a02 * c4 - a03 * c3) * inverse;
+        m02 = (a31 * s5 - a32 * s4 + a33 * s3) * inverse;
+        m03 = (-a21 * s5 + a22 * s4 - a23 * s3) * inverse;
+        m10 = (-a10 * c5 + a12 * c2 - a13 * c1) * inverse;
+        m11 = (a00 * c5 - a02 * c2 + a03 * c1) * inverse;
+        m12 = (-a30 * s5 + a32 * s2 - a33 * s1) * inverse;
+        m13 = (a20 * s5 - a22 * s2 + a23 * s1) * inverse;
+        m20 = (a10 * c4 - a11 * c2 + a13 * c0) * inverse;
+        m21 = (-a00 * c4 + a01 * c2 - a03 * c0) * inverse;
+        m22 = (a30 * s4 - a31 * s2 + a33 * s0) * inverse;
+        m23 = (-a20 * s4 + a21 * s2 - a23 * s0) * inverse;
+        m30 = (-a10 * c3 + a11 * c1 - a12 * c0) * inverse;
+        m31 = (a00 * c3 - a01 * c1 + a02 * c0) * inverse;
+        m32 = (-a30 * s3 + a31 * s1 - a32 * s0) * inverse;
+        m33 = (a20 * s3 - a21 * s1 + a22 * s0) * inverse;
+        return this;
+    }
+
+    // Нижняя строка (0, 0, 0, 1): w точки не меняется, деление не нужно.
+    public boolean isAffine() {
+        return m30 == 0 && m31 == 0 && m32 == 0 && m33 == 1;
+    }
+
+    // target = M * (source, 1) с делением на w; target может совпадать с source.
+    public void transformPoint(Vector3f source, Vector3f target) {
+        float x = source.x;
+        float y = source.y;
+        float z = source.z;
+        float w = m30 * x + m31 * y + m32 * z + m33;
+        float inverseW = w == 1 ? 1 : 1 / w;
+        target.x = (m00 * x + m01 * y + m02 * z + m03) * inverseW;
+        target.y = (m10 * x + m11 * y + m12 * z + m13) * inverseW;
+        target.z = (m20 * x + m21 * y + m22 * z + m23) * inverseW;
+    }
+
+    // target = M * (source, 0): направление, перенос не действует.
+    public void transformDirection(Vector3f source, Vector3f target) {
+        float x = source.x;
+        float y = source.y;
+        float z = source.z;
+        target.x = m00 * x + m01 * y + m02 * z;
+        target.y = m10 * x + m11 * y + m12 * z;
+        target.z = m20 * x + m21 * y + m22 * z;
+    }
+
+    // Точки xyz подряд: все точки из src, сколько помещается и в src, и в dst.
+    public static void transformPoints(float[] src, float[] dst, Matrix4f m) {
+        transformPoints(src, 0, dst, 0, Math.min(src.length, dst.length) / 3, m);
+    }
+
+    // count точек xyz из src[srcOffset..] в dst[dstOffset..] с делением на w. Массивы могут
+    // совпадать при равных смещениях. Для аффинной матрицы деления нет.
+    public static void transformPoints(float[] src, int srcOffset, float[] dst, int dstOffset, int count, Matrix4f m) {
+        checkRange(src, srcOffset, count);
+        checkRange(dst, dstOffset, count);
+        float m00 = m.m00, m01 = m.m01, m02 = m.m02, m03 = m.m03;
+        float m10 = m.m10, m11 = m.m11, m12 = m.m12, m13 = m.m13;
+        float m20 = m.m20, m21 = m.m21, m22 = m.m22, m23 = m.m23;
+        if (m.isAffine()) {
+            for (int i = 0; i < count; i++) {
+                int s = srcOffset + 3 * i;
+                int d = dstOffset + 3 * i;
+                float x = src[s];
+                float y = src[s + 1];
+                float z = src[s + 2];
+                dst[d] = m00 * x + m01 * y + m02 * z + m03;
+                dst[d + 1] = m10 * x + m11 * y + m12 * z + m13;
+                dst[d + 2] = m20 * x + m21 * y + m22 * z + m23;
+            }
+            return;
+        }
+        float m30 = m.m30, m31 = m.m31, m32 = m.m32, m33 = m.m33;
+        for (int i = 0; i < count; i++) {
+            int s = srcOffset + 3 * i;
+            int d = dstOffset + 3 * i;
+            float x = src[s];
+            float y = src[s + 1];
+            float z = src[s + 2];
+            float inverseW = 1 / (m30 * x + m31 * y + m32 * z + m33);
+            dst[d] = (m00 * x + m01 * y + m02 * z + m03) * inverseW;
+            dst[d + 1] = (m10 * x + m11 * y + m12 * z + m13) * inverseW;
+            dst[d + 2] = (m20 * x + m21 * y + m22 * z + m23) * inverseW;
+        }
+    }
+
+    // Направления xyz подряд (w = 0): действует только левый верхний блок 3x3.
+    public static void transformDirections(float[] src, float[] dst, Matrix4f m) {
+        int count = Math.min(src.length, dst.length) / 3;
+        float m00 = m.m00, m01 = m.m01, m02 = m.m02;
+        float m10 = m.m10, m11 = m.m11, m12 = m.m12;
+        float m20 = m.m20, m21 = m.m21, m22 = m.m22;
+        for (int i = 0; i < count; i++) {
+            int o = 3 * i;
+            float x = src[o];
+            float y = src[o + 1];
+            float z = src[o + 2];
+            dst[o] = m00 * x + m01 * y + m02 * z;
+            dst[o + 1] = m10 * x + m11 * y + m12 * z;
+            dst[o + 2] = m20 * x + m21 * y + m22 * z;
+        }
+    }
+
+    public boolean epsilonEquals(Matrix4f other, float epsilon) {
+        return Math.abs(m00 - other.m00) <= epsilon && Math.abs(m01 - other.m01) <= epsilon
+                && Math.abs(m02 - other.m02) <= epsilon && Math.abs(m03 - other.m03) <= epsilon
+                && Math.abs(m10 - other.m10) <= epsilon && Math.abs(m11 - other.m11) <= epsilon
+                && Math.abs(m12 - other.m12) <= epsilon && Math.abs(m13 - other.m13) <= epsilon
+                && Math.abs(m20 - other.m20) <= epsilon && Math.abs(m21 - other.m21) <= epsilon
+                && Math.abs(m22 - other.m22) <= epsilon && Math.abs(m23 - other.m23) <= epsilon
+                && Math.abs(m30 - other.m30) <= epsilon && Math.abs(m31 - other.m31) <= epsilon
+                && Math.abs(m32 - other.m32) <= epsilon && Math.abs(m33 - other.m33) <= epsilon;
+    }
+
+    private static void checkRange(float[] array, int offset, int count) {
+        if (offset < 0 || count < 0 || offset > array.length - 3L * count) {
+            throw new IndexOutOfBoundsException("Points [" + offset + ", " + offset + " + 3 * " + count
+                    + ") out of array of length " + array.length);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Matrix4f{" +
+                "\n  " + m00 + ", " + m01 + ", " + m02 + ", " + m03 +
+                "\n  " + m10 + ", " + m11 + ", " + m12 + ", " + m13 +
+                "\n  " + m20 + ", " + m21 + ", " + m22 + ", " + m23 +
+                "\n  " + m30 + ", " + m31 + ", " + m32 + ", " + m33 +
+                "\n}";
+    }
+}
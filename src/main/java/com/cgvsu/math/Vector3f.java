@@ -80,6 +80,20 @@ public class Vector3f {
         );
     }
 
+    // (b - a) x (c - a) для точек из плоского массива координат (смещения a, b, c
+    // указывают на x); результат прибавляется к result[offset..offset + 2].
+    public static void addCross(float[] positions, int a, int b, int c, float[] result, int offset) {
+        float ux = positions[b] - positions[a];
+        float uy = positions[b + 1] - positions[a + 1];
+        float uz = positions[b + 2] - positions[a + 2];
+        float vx = positions[c] - positions[a];
+        float vy = positions[c + 1] - positions[a + 1];
+        float vz = positions[c + 2] - positions[a + 2];
+        result[offset] += uy * vz - uz * vy;
+        result[offset + 1] += uz * vx - ux * vz;
+        result[offset + 2] += ux * vy - uy * vx;
+    }
+
     public float getX() {
         return x;
     }
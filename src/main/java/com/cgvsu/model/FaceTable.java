@@ -0,0 +1,515 @@
+package com.cgvsu.model;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+// Грани в формате CSR: грань f занимает ячейки [faceOffsets[f], faceOffsets[f + 1])
+// сразу в трёх параллельных массивах индексов: вершин, текстурных координат и нормалей.
+// Атрибут грани - это префикс её ячеек до первого ABSENT, поэтому у грани может быть
+// меньше индексов текстур или нормалей, чем вершин (как у "f 1/1 2 3").
+// Массивы текстур и нормалей не создаются, пока хотя бы одна грань их не использует.
+public class FaceTable {
+
+    public static final int VERTEX = 0;
+    public static final int TEXTURE = 1;
+    public static final int NORMAL = 2;
+
+    public static final int ABSENT = Integer.MIN_VALUE;
+
+    private static final int DEFAULT_FACE_CAPACITY = 10;
+    private static final int[] EMPTY = new int[0];
+
+    private int faceCount;
+    private int[] faceOffsets;
+    private final int[][] indices = new int[3][];
+    private int modificationCount;
+    private int firstChangedFace;
+
+    public FaceTable() {
+        this(DEFAULT_FACE_CAPACITY, 0);
+    }
+
+    public FaceTable(int faceCapacity, int slotCapacity) {
+        faceOffsets = new int[faceCapacity + 1];
+        indices[VERTEX] = slotCapacity == 0 ? EMPTY : new int[slotCapacity];
+    }
+
+    // Массивы переходят во владение таблицы; textureIndices и normalIndices могут быть null.
+    public static FaceTable wrap(int faceCount, int[] faceOffsets, int[] vertexIndices,
+                                 int[] textureIndices, int[] normalIndices) {
+        if (faceOffsets.length < faceCount + 1 || faceOffsets[0] != 0) {
+            throw new IllegalArgumentException("Invalid face offsets for " + faceCount + " faces");
+        }
+        int slotCount = faceOffsets[faceCount];
+        for (int f = 0; f < faceCount; f++) {
+            if (faceOffsets[f] > faceOffsets[f + 1]) {
+                throw new IllegalArgumentException("Face offsets are not monotonic at face " + f);
+            }
+        }
+        if (vertexIndices.length < slotCount
+                || (textureIndices != null && textureIndices.length < slotCount)
+                || (normalIndices != null && normalIndices.length < slotCount)) {
+            throw new IllegalArgumentException("Index arrays too short for " + slotCount + " slots");
+        }
+
+        FaceTable table = new FaceTable(0, 0);
+        table.faceCount = faceCount;
+        table.faceOffsets = faceOffsets;
+        table.indices[VERTEX] = vertexIndices;
+        table.indices[TEXTURE] = textureIndices;
+        table.indices[NORMAL] = normalIndices;
+        return table;
+    }
+
+    public int getFaceCount() {
+        return faceCount;
+    }
+
+    public int getSlotCount() {
+        return faceOffsets[faceCount];
+    }
+
+    // Внутренние массивы для горячих циклов; значимы первые getFaceCount() + 1
+    // смещений и getSlotCount() индексов. getIndices() для TEXTURE/NORMAL может вернуть null.
+    public int[] getFaceOffsets() {
+        return faceOffsets;
+    }
+
+    public int[] getIndices(int attribute) {
+        return indices[attribute];
+    }
+
+    public boolean hasAttribute(int attribute) {
+        return indices[attribute] != null;
+    }
+
+    // Растёт при каждом изменении таблицы; по нему MeshAdjacency понимает, что устарела.
+    // Кто пишет прямо в getIndices(), должен вызвать markModified().
+    public int getModificationCount() {
+        return modificationCount;
+    }
+
+    // Наименьший номер грани, изменённой со времени прошлого вызова; грани до него
+    // (и их номера) не менялись. Для одного потребителя - инкрементальной триангуляции.
+    public int takeFirstChangedFace() {
+        int face = Math.min(firstChangedFace, faceCount);
+        firstChangedFace = faceCount;
+        return face;
+    }
+
+    public void markModified() {
+        touch(0);
+    }
+
+    public int getFaceStart(int face) {
+        return faceOffsets[face];
+    }
+
+    public int getFaceSize(int face) {
+        return faceOffsets[face + 1] - faceOffsets[face];
+    }
+
+    public int getCount(int attribute, int face) {
+        int[] values = indices[attribute];
+        int start = faceOffsets[face];
+        int end = faceOffsets[face + 1];
+        if (values == null || start == end) {
+            return 0;
+        }
+        if (values[end - 1] != ABSENT) {
+            return end - start;
+        }
+        int count = 0;
+        while (values[start + count] != ABSENT) {
+            count++;
+        }
+        return count;
+    }
+
+    public int getIndex(int attribute, int face, int position) {
+        return indices[attribute][faceOffsets[face] + position];
+    }
+
+    public void setIndex(int attribute, int face, int position, int value) {
+        touch(face);
+        indices[attribute][faceOffsets[face] + position] = value;
+    }
+
+    public int addFace() {
+        touch(faceCount);
+        ensureFaceCapacity(faceCount + 1);
+        faceOffsets[faceCount + 1] = faceOffsets[faceCount];
+        return faceCount++;
+    }
+
+    public void addIndex(int attribute, int face, int value) {
+        touch(face);
+        int count = getCount(attribute, face);
+        if (count == getFaceSize(face)) {
+            resizeFace(face, count + 1);
+        }
+        ensureAttribute(attribute);
+        indices[attribute][faceOffsets[face] + count] = value;
+    }
+
+    public void removeIndex(int attribute, int face, int position) {
+        touch(face);
+        int[] values = indices[attribute];
+        int start = faceOffsets[face];
+        int count = getCount(attribute, face);
+        System.arraycopy(values, start + position + 1, values, start + position, count - position - 1);
+        values[start + count - 1] = ABSENT;
+        trimFace(face);
+    }
+
+    public void setIndices(int attribute, int face, int[] values, int count) {
+        touch(face);
+        if (count > 0) {
+            ensureAttribute(attribute);
+        }
+        if (count > getFaceSize(face)) {
+            resizeFace(face, count);
+        }
+        if (indices[attribute] != null) {
+            int start = faceOffsets[face];
+            System.arraycopy(values, 0, indices[attribute], start, count);
+            Arrays.fill(indices[attribute], start + count, faceOffsets[face + 1], ABSENT);
+        }
+        trimFace(face);
+    }
+
+    public int[] copyIndices(int attribute, int face) {
+        int count = getCount(attribute, face);
+        if (count == 0) {
+            return EMPTY;
+        }
+        int start = faceOffsets[face];
+        return Arrays.copyOfRange(indices[attribute], start, start + count);
+    }
+
+    public int appendFace(FaceTable source, int sourceFace) {
+        int size = source.getFaceSize(sourceFace);
+        int face = addFace();
+        resizeFace(face, size);
+        copyRow(source, sourceFace, faceOffsets[face], size);
+        return face;
+    }
+
+    public void appendAll(FaceTable source) {
+        touch(faceCount);
+        int slotCount = getSlotCount();
+        int sourceSlots = source.getSlotCount();
+        ensureFaceCapacity(faceCount + source.faceCount);
+        ensureSlotCapacity(slotCount + sourceSlots);
+        for (int f = 1; f <= source.faceCount; f++) {
+            faceOffsets[faceCount + f] = slotCount + source.faceOffsets[f];
+        }
+        for (int attribute = VERTEX; attribute <= NORMAL; attribute++) {
+            if (source.indices[attribute] != null) {
+                ensureAttribute(attribute);
+                System.arraycopy(source.indices[attribute], 0, indices[attribute], slotCount, sourceSlots);
+            } else if (indices[attribute] != null) {
+                Arrays.fill(indices[attribute], slotCount, slotCount + sourceSlots, ABSENT);
+            }
+        }
+        faceCount += source.faceCount;
+    }
+
+    // Добавляет веер треугольников (0, i, i + 1) грани source. Атрибут переносится,
+    // только если он задан для всех вершин грани.
+    public void appendFan(FaceTable source, int sourceFace) {
+        touch(faceCount);
+        int vertexCount = source.getCount(VERTEX, sourceFace);
+        if (vertexCount < 3) {
+            return;
+        }
+        int sourceStart = source.faceOffsets[sourceFace];
+        ensureFaceCapacity(faceCount + vertexCount - 2);
+        ensureSlotCapacity(getSlotCount() + 3 * (vertexCount - 2));
+        for (int attribute = VERTEX; attribute <= NORMAL; attribute++) {
+            if (source.getCount(attribute, sourceFace) == vertexCount) {
+                ensureAttribute(attribute);
+            }
+        }
+
+        for (int i = 1; i < vertexCount - 1; i++) {
+            int start = faceOffsets[faceCount];
+            for (int attribute = VERTEX; attribute <= NORMAL; attribute++) {
+                int[] values = indices[attribute];
+                if (values == null) {
+                    continue;
+                }
+                if (source.getCount(attribute, sourceFace) == vertexCount) {
+                    int[] sourceValues = source.indices[attribute];
+                    values[start] = sourceValues[sourceStart];
+                    values[start + 1] = sourceValues[sourceStart + i];
+                    values[start + 2] = sourceValues[sourceStart + i + 1];
+                } else {
+                    Arrays.fill(values, start, start + 3, ABSENT);
+                }
+            }
+            faceOffsets[faceCount + 1] = start + 3;
+            faceCount++;
+        }
+    }
+
+    public void insertFace(int face, FaceTable source, int sourceFace) {
+        appendFace(source, sourceFace);
+        touch(face);
+        if (face < faceCount - 1) {
+            moveLastFaceTo(face);
+        }
+    }
+
+    public void replaceFace(int face, FaceTable source, int sourceFace) {
+        touch(face);
+        int size = source.getFaceSize(sourceFace);
+        resizeFace(face, size);
+        copyRow(source, sourceFace, faceOffsets[face], size);
+    }
+
+    public void removeFaces(int fromFace, int toFace) {
+        touch(fromFace);
+        if (fromFace >= toFace) {
+            return;
+        }
+        int from = faceOffsets[fromFace];
+        int to = faceOffsets[toFace];
+        int slotCount = getSlotCount();
+        for (int[] values : indices) {
+            if (values != null) {
+                System.arraycopy(values, to, values, from, slotCount - to);
+            }
+        }
+        int removed = toFace - fromFace;
+        for (int f = toFace; f <= faceCount; f++) {
+            faceOffsets[f - removed] = faceOffsets[f] - (to - from);
+        }
+        faceCount -= removed;
+    }
+
+    // Удаляет грани, для которых predicate истинен, за один проход со сдвигом влево.
+    public int removeFacesIf(IntPredicate predicate) {
+        modificationCount++;
+        int writeFace = 0;
+        int writeSlot = 0;
+        for (int f = 0; f < faceCount; f++) {
+            int start = faceOffsets[f];
+            int size = faceOffsets[f + 1] - start;
+            if (predicate.test(f)) {
+                if (writeFace == f) {
+                    touch(f);
+                }
+                continue;
+            }
+            if (writeSlot != start) {
+                for (int[] values : indices) {
+                    if (values != null) {
+                        System.arraycopy(values, start, values, writeSlot, size);
+                    }
+                }
+            }
+            faceOffsets[writeFace] = writeSlot;
+            writeSlot += size;
+            writeFace++;
+        }
+        faceOffsets[writeFace] = writeSlot;
+        int removed = faceCount - writeFace;
+        faceCount = writeFace;
+        return removed;
+    }
+
+    // Удаляет грани с установленными битами. Большие таблицы собираются параллельно
+    // в новые массивы: смещения - префиксной суммой размеров, строки - независимыми копиями.
+    public int removeFaces(BitSet removed) {
+        touch(Math.max(0, Math.min(faceCount, removed.nextSetBit(0))));
+        if (getSlotCount() < ParallelRange.THRESHOLD) {
+            return removeFacesIf(removed::get);
+        }
+
+        int[] keptFaces = IntStream.range(0, faceCount).parallel().filter(f -> !removed.get(f)).toArray();
+        int removedCount = faceCount - keptFaces.length;
+        if (removedCount > 0) {
+            rebuild(keptFaces);
+        }
+        return removedCount;
+    }
+
+    // Переставляет грани: новая грань i - это старая order[i].
+    public void reorderFaces(int[] order) {
+        if (order.length != faceCount) {
+            throw new IllegalArgumentException("Order length " + order.length + " != face count " + faceCount);
+        }
+        touch(0);
+        rebuild(order);
+    }
+
+    // Переписывает индексы атрибута по таблице "старый индекс -> новый"; индексы вне
+    // таблицы (битые и ABSENT) не трогаются.
+    public void remapIndices(int attribute, int[] newIndices) {
+        int[] values = indices[attribute];
+        if (values == null) {
+            return;
+        }
+        ParallelRange.range(getSlotCount(), getSlotCount() >= ParallelRange.THRESHOLD).forEach(slot -> {
+            int value = values[slot];
+            if (value >= 0 && value < newIndices.length) {
+                values[slot] = newIndices[value];
+            }
+        });
+        touch(0);
+    }
+
+    public void clear() {
+        touch(0);
+        faceCount = 0;
+        faceOffsets[0] = 0;
+    }
+
+    public void ensureCapacity(int faceCapacity, int slotCapacity) {
+        ensureFaceCapacity(faceCapacity);
+        ensureSlotCapacity(slotCapacity);
+    }
+
+    // Собирает новые массивы из граней order: смещения - префиксной суммой размеров,
+    // строки - независимыми копиями (параллельно для больших таблиц).
+    private void rebuild(int[] order) {
+        int count = order.length;
+        boolean parallel = getSlotCount() >= ParallelRange.THRESHOLD;
+        int[] offsets = new int[Math.max(count + 1, faceOffsets.length)];
+        ParallelRange.range(count, parallel).forEach(i -> offsets[i + 1] = getFaceSize(order[i]));
+        if (parallel) {
+            Arrays.parallelPrefix(offsets, 0, count + 1, Integer::sum);
+        } else {
+            for (int i = 0; i < count; i++) {
+                offsets[i + 1] += offsets[i];
+            }
+        }
+
+        int slotCapacity = Math.max(offsets[count], 1);
+        for (int attribute = VERTEX; attribute <= NORMAL; attribute++) {
+            int[] values = indices[attribute];
+            if (values == null) {
+                continue;
+            }
+            int[] rebuilt = new int[slotCapacity];
+            ParallelRange.range(count, parallel).forEach(i -> {
+                int start = faceOffsets[order[i]];
+                System.arraycopy(values, start, rebuilt, offsets[i], offsets[i + 1] - offsets[i]);
+            });
+            indices[attribute] = rebuilt;
+        }
+        faceOffsets = offsets;
+        faceCount = count;
+    }
+
+    private void touch(int face) {
+        modificationCount++;
+        if (face < firstChangedFace) {
+            firstChangedFace = face;
+        }
+    }
+
+    private void copyRow(FaceTable source, int sourceFace, int targetStart, int size) {
+        int sourceStart = source.faceOffsets[sourceFace];
+        for (int attribute = VERTEX; attribute <= NORMAL; attribute++) {
+            int[] sourceValues = source.indices[attribute];
+            if (sourceValues != null && source.getCount(attribute, sourceFace) > 0) {
+                ensureAttribute(attribute);
+                System.arraycopy(sourceValues, sourceStart, indices[attribute], targetStart, size);
+            } else if (indices[attribute] != null) {
+                Arrays.fill(indices[attribute], targetStart, targetStart + size, ABSENT);
+            }
+        }
+    }
+
+    // Меняет число ячеек грани; новые ячейки заполняются ABSENT. Для последней грани
+    // (так растут грани при чтении) хвост сдвигать не нужно.
+    private void resizeFace(int face, int size) {
+        int start = faceOffsets[face];
+        int end = faceOffsets[face + 1];
+        int delta = size - (end - start);
+        if (delta == 0) {
+            return;
+        }
+
+        int slotCount = getSlotCount();
+        ensureSlotCapacity(slotCount + delta);
+        for (int[] values : indices) {
+            if (values != null) {
+                System.arraycopy(values, end, values, end + delta, slotCount - end);
+                if (delta > 0) {
+                    Arrays.fill(values, end, end + delta, ABSENT);
+                }
+            }
+        }
+        for (int f = face + 1; f <= faceCount; f++) {
+            faceOffsets[f] += delta;
+        }
+    }
+
+    private void trimFace(int face) {
+        int start = faceOffsets[face];
+        int end = faceOffsets[face + 1];
+        int size = end - start;
+        while (size > 0 && isEmptySlot(start + size - 1)) {
+            size--;
+        }
+        resizeFace(face, size);
+    }
+
+    private boolean isEmptySlot(int slot) {
+        for (int[] values : indices) {
+            if (values != null && values[slot] != ABSENT) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void moveLastFaceTo(int face) {
+        int last = faceCount - 1;
+        int lastStart = faceOffsets[last];
+        int size = faceOffsets[faceCount] - lastStart;
+        int start = faceOffsets[face];
+        for (int[] values : indices) {
+            if (values != null) {
+                int[] row = Arrays.copyOfRange(values, lastStart, lastStart + size);
+                System.arraycopy(values, start, values, start + size, lastStart - start);
+                System.arraycopy(row, 0, values, start, size);
+            }
+        }
+        for (int f = last; f > face; f--) {
+            faceOffsets[f] = faceOffsets[f - 1] + size;
+        }
+    }
+
+    private void ensureAttribute(int attribute) {
+        if (indices[attribute] == null) {
+            int[] values = new int[indices[VERTEX].length];
+            Arrays.fill(values, ABSENT);
+            indices[attribute] = values;
+        }
+    }
+
+    private void ensureFaceCapacity(int faceCapacity) {
+        if (faceCapacity + 1 > faceOffsets.length) {
+            int grown = Math.max(faceCapacity + 1, faceOffsets.length + (faceOffsets.length >> 1));
+            faceOffsets = Arrays.copyOf(faceOffsets, grown);
+        }
+    }
+
+    private void ensureSlotCapacity(int slotCapacity) {
+        int length = indices[VERTEX].length;
+        if (slotCapacity > length) {
+            int grown = Math.max(slotCapacity, Math.max(8, length + (length >> 1)));
+            for (int attribute = VERTEX; attribute <= NORMAL; attribute++) {
+                if (indices[attribute] != null) {
+                    indices[attribute] = Arrays.copyOf(indices[attribute], grown);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.cgvsu.model;
+
+import java.util.BitSet;
+
+// Таблица "старый индекс -> новый" после удаления элементов removed из списка длины size.
+// removedBefore[i] - сколько удалённых индексов меньше i (префиксная сумма), так что
+// новый индекс выжившего элемента i равен i - removedBefore[i].
+public class IndexRemap {
+    private final int size;
+    private final int[] removedBefore;
+
+    private IndexRemap(int size, int[] removedBefore) {
+        this.size = size;
+        this.removedBefore = removedBefore;
+    }
+
+    public static IndexRemap of(BitSet removed, int size) {
+        int[] removedBefore = new int[size + 1];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            removedBefore[i] = count;
+            if (removed.get(i)) {
+                count++;
+            }
+        }
+        removedBefore[size] = count;
+        return new IndexRemap(size, removedBefore);
+    }
+
+    public int getOldSize() {
+        return size;
+    }
+
+    public int getNewSize() {
+        return size - removedBefore[size];
+    }
+
+    public int getRemovedCount() {
+        return removedBefore[size];
+    }
+
+    public boolean isRemoved(int index) {
+        return index >= 0 && index < size && removedBefore[index + 1] != removedBefore[index];
+    }
+
+    // Отрицательные индексы (в том числе FaceTable.ABSENT) не меняются; индекс удалённого
+    // элемента переходит на следующий выживший, индексы за концом списка сдвигаются на
+    // общее число удалённых.
+    public int map(int index) {
+        if (index < 0) {
+            return index;
+        }
+        return index - removedBefore[Math.min(index, size)];
+    }
+
+    public void apply(int[] indices, int count) {
+        if (count >= ParallelRange.THRESHOLD) {
+            ParallelRange.range(count, true).forEach(i -> indices[i] = map(indices[i]));
+        } else {
+            for (int i = 0; i < count; i++) {
+                indices[i] = map(indices[i]);
+            }
+        }
+    }
+}
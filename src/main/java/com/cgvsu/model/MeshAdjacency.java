@@ -0,0 +1,247 @@
+package com.cgvsu.model;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+// Смежность сетки поверх FaceTable. Полуребро - это ячейка вершины в таблице граней:
+// полуребро h идёт из вершины origin(h) в вершину следующей ячейки той же грани,
+// поэтому next/prev считаются арифметикой по смещениям граней и не хранятся.
+// Хранятся: грань каждого полуребра, twin (-1 у края), номер неориентированного ребра
+// и CSR "вершина -> исходящие полурёбра / грани". Ячейки вне диапазона вершин
+// (битые индексы, лишние ячейки текстур) полурёбрами не считаются: origin = -1.
+//
+// Неманифолдное ребро (больше двух полурёбер) получает twin только у одной пары, остальные
+// его полурёбра считаются краевыми; поэтому getTwin(getTwin(h)) == h у любого не краевого h.
+public class MeshAdjacency {
+    private final FaceTable table;
+    private final int modificationCount;
+    private final int vertexCount;
+    private final int faceCount;
+
+    private final int[] faceOffsets;
+    private final int[] faceVertexCounts;
+    private final int[] origins;
+    private final int[] halfEdgeFaces;
+    private final int[] twins;
+    private final int[] edges;
+    private final int edgeCount;
+
+    private final int[] vertexOffsets;
+    private final int[] vertexHalfEdges;
+    private final int[] vertexFaces;
+
+    private MeshAdjacency(FaceTable table, int vertexCount) {
+        this.table = table;
+        this.modificationCount = table.getModificationCount();
+        this.vertexCount = vertexCount;
+        this.faceCount = table.getFaceCount();
+
+        int slotCount = table.getSlotCount();
+        boolean parallel = slotCount >= ParallelRange.THRESHOLD;
+        faceOffsets = Arrays.copyOf(table.getFaceOffsets(), faceCount + 1);
+        faceVertexCounts = new int[faceCount];
+        origins = new int[slotCount];
+        halfEdgeFaces = new int[slotCount];
+
+        int[] vertexIndices = table.getIndices(FaceTable.VERTEX);
+        ParallelRange.range(faceCount, parallel).forEach(face -> {
+            int start = faceOffsets[face];
+            int count = table.getCount(FaceTable.VERTEX, face);
+            faceVertexCounts[face] = count;
+            for (int slot = start; slot < faceOffsets[face + 1]; slot++) {
+                int vertex = slot < start + count ? vertexIndices[slot] : -1;
+                origins[slot] = vertex >= 0 && vertex < vertexCount ? vertex : -1;
+                halfEdgeFaces[slot] = face;
+            }
+        });
+
+        // Исходящие полурёбра по вершинам: сортировка ключей (origin << 32 | h)
+        // даёт и порядок внутри вершины (по номеру полуребра), и границы групп.
+        long[] keys = ParallelRange.range(slotCount, parallel)
+                .filter(h -> origins[h] >= 0)
+                .mapToLong(h -> ((long) origins[h] << 32) | h)
+                .toArray();
+        if (parallel) {
+            Arrays.parallelSort(keys);
+        } else {
+            Arrays.sort(keys);
+        }
+        vertexOffsets = new int[vertexCount + 1];
+        vertexHalfEdges = new int[keys.length];
+        vertexFaces = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            int h = (int) keys[i];
+            vertexHalfEdges[i] = h;
+            vertexFaces[i] = halfEdgeFaces[h];
+            vertexOffsets[origins[h] + 1]++;
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            vertexOffsets[v + 1] += vertexOffsets[v];
+        }
+
+        // twin - только взаимная пара: у неманифолдного ребра несколько полурёбер выбирают
+        // один и тот же кандидат, но он в ответ выбирает лишь одно из них.
+        int[] candidates = new int[slotCount];
+        ParallelRange.range(slotCount, parallel).forEach(h -> candidates[h] = findTwin(h));
+        twins = new int[slotCount];
+        ParallelRange.range(slotCount, parallel).forEach(h -> {
+            int candidate = candidates[h];
+            twins[h] = candidate >= 0 && candidates[candidate] == h ? candidate : -1;
+        });
+
+        edges = new int[slotCount];
+        int edgeId = 0;
+        for (int h = 0; h < slotCount; h++) {
+            if (origins[h] < 0) {
+                edges[h] = -1;
+                continue;
+            }
+            int twin = twins[h];
+            if (twin >= 0 && twin < h) {
+                edges[h] = edges[twin];
+            } else {
+                edges[h] = edgeId++;
+            }
+        }
+        edgeCount = edgeId;
+    }
+
+    public static MeshAdjacency build(FaceTable table, int vertexCount) {
+        return new MeshAdjacency(table, vertexCount);
+    }
+
+    // Построена ли смежность по текущему состоянию этой таблицы и числу вершин.
+    public boolean isCurrent(FaceTable table, int vertexCount) {
+        return this.table == table
+                && this.modificationCount == table.getModificationCount()
+                && this.vertexCount == vertexCount;
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    public int getFaceCount() {
+        return faceCount;
+    }
+
+    public int getHalfEdgeCount() {
+        return origins.length;
+    }
+
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    public boolean isHalfEdge(int halfEdge) {
+        return origins[halfEdge] >= 0;
+    }
+
+    public int getOrigin(int halfEdge) {
+        return origins[halfEdge];
+    }
+
+    public int getTarget(int halfEdge) {
+        return origins[getNext(halfEdge)];
+    }
+
+    public int getFace(int halfEdge) {
+        return halfEdgeFaces[halfEdge];
+    }
+
+    public int getNext(int halfEdge) {
+        int face = halfEdgeFaces[halfEdge];
+        int start = faceOffsets[face];
+        return halfEdge + 1 < start + faceVertexCounts[face] ? halfEdge + 1 : start;
+    }
+
+    public int getPrev(int halfEdge) {
+        int face = halfEdgeFaces[halfEdge];
+        int start = faceOffsets[face];
+        return halfEdge > start ? halfEdge - 1 : start + faceVertexCounts[face] - 1;
+    }
+
+    public int getTwin(int halfEdge) {
+        return twins[halfEdge];
+    }
+
+    public boolean isBoundary(int halfEdge) {
+        return twins[halfEdge] < 0;
+    }
+
+    public int getEdge(int halfEdge) {
+        return edges[halfEdge];
+    }
+
+    // Полурёбра и грани вершины v занимают [getVertexStart(v), getVertexEnd(v))
+    // в getVertexHalfEdges() и getVertexFaces(); грань повторяется, если обходит v дважды.
+    public int getVertexStart(int vertex) {
+        return vertexOffsets[vertex];
+    }
+
+    public int getVertexEnd(int vertex) {
+        return vertexOffsets[vertex + 1];
+    }
+
+    public int[] getVertexHalfEdges() {
+        return vertexHalfEdges;
+    }
+
+    public int[] getVertexFaces() {
+        return vertexFaces;
+    }
+
+    public int getVertexDegree(int vertex) {
+        return vertexOffsets[vertex + 1] - vertexOffsets[vertex];
+    }
+
+    public void forEachFaceOfVertex(int vertex, IntConsumer action) {
+        for (int i = vertexOffsets[vertex]; i < vertexOffsets[vertex + 1]; i++) {
+            action.accept(vertexFaces[i]);
+        }
+    }
+
+    // Соседи по рёбрам граней; у внутренней вершины каждый сосед встречается дважды.
+    public void forEachNeighbor(int vertex, IntConsumer action) {
+        for (int i = vertexOffsets[vertex]; i < vertexOffsets[vertex + 1]; i++) {
+            int halfEdge = vertexHalfEdges[i];
+            int next = origins[getNext(halfEdge)];
+            int prev = origins[getPrev(halfEdge)];
+            if (next >= 0) {
+                action.accept(next);
+            }
+            if (prev >= 0) {
+                action.accept(prev);
+            }
+        }
+    }
+
+    // Грани, делящие с face ребро.
+    public void forEachEdgeNeighbor(int face, IntConsumer action) {
+        int start = faceOffsets[face];
+        for (int h = start; h < start + faceVertexCounts[face]; h++) {
+            int twin = twins[h];
+            if (twin >= 0) {
+                action.accept(halfEdgeFaces[twin]);
+            }
+        }
+    }
+
+    private int findTwin(int halfEdge) {
+        int origin = origins[halfEdge];
+        if (origin < 0) {
+            return -1;
+        }
+        int target = origins[getNext(halfEdge)];
+        if (target < 0 || target == origin) {
+            return -1;
+        }
+        for (int i = vertexOffsets[target]; i < vertexOffsets[target + 1]; i++) {
+            int candidate = vertexHalfEdges[i];
+            if (origins[getNext(candidate)] == origin) {
+                return candidate;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,31 @@
+package com.cgvsu.model;
+
+// Геометрия модели только для чтения, независимо от хранилища: Model держит её в
+// массивах на куче, OffHeapGeometry - в буферах вне кучи. По этому интерфейсу читают
+// отрисовка и экспорт. Индексы граней - как в FaceTable: атрибут грани - префикс её
+// углов до ABSENT, у отсутствующего атрибута все индексы ABSENT.
+public interface MeshGeometry {
+
+    int getVertexCount();
+
+    int getTextureVertexCount();
+
+    int getNormalCount();
+
+    // Координаты элементов [from, to) подряд в target начиная с offset:
+    // по 3 float на вершину и нормаль, по 2 на текстурную координату.
+    void getVertexCoordinates(int from, int to, float[] target, int offset);
+
+    void getTextureVertexCoordinates(int from, int to, float[] target, int offset);
+
+    void getNormalCoordinates(int from, int to, float[] target, int offset);
+
+    int getFaceCount();
+
+    boolean hasFaceAttribute(int attribute);
+
+    // Число углов грани.
+    int getFaceSize(int face);
+
+    int getFaceIndex(int attribute, int face, int corner);
+}
@@ -0,0 +1,289 @@
+package com.cgvsu.model;
+
+import java.util.Arrays;
+
+// Перестановка вершин и граней для локальности в памяти.
+//
+// Вершины сортируются вдоль кривой Мортона (Z-порядок) по 10 бит на ось внутри AABB,
+// так что близкие в пространстве вершины оказываются рядом в Vector3fList. Грани затем
+// упорядочиваются жадно по Форсайту (Linear-Speed Vertex Cache Optimisation): следующей
+// берётся грань с наибольшей суммой оценок вершин, где оценка растёт, если вершина
+// недавно использовалась (в модели LRU-кэша на CACHE_SIZE вершин) и если у неё мало
+// оставшихся граней. Индексы в гранях и выделения переводятся на новые номера;
+// текстурные координаты и нормали из файла не переставляются.
+public final class MeshLayoutOptimizer {
+
+    public static final int CACHE_SIZE = 32;
+
+    private static final int MORTON_BITS = 10;
+    private static final float LAST_FACE_SCORE = 0.75f;
+    private static final double CACHE_DECAY_POWER = 1.5;
+    private static final float VALENCE_BOOST_SCALE = 2.0f;
+    private static final double VALENCE_BOOST_POWER = 0.5;
+    private static final int MAX_SCORED_VALENCE = 64;
+
+    private static final float[] CACHE_SCORES = new float[CACHE_SIZE];
+    private static final float[] VALENCE_SCORES = new float[MAX_SCORED_VALENCE];
+
+    static {
+        for (int position = 0; position < CACHE_SIZE; position++) {
+            CACHE_SCORES[position] = position < 3 ? LAST_FACE_SCORE
+                    : (float) Math.pow(1 - (position - 3) / (double) (CACHE_SIZE - 3), CACHE_DECAY_POWER);
+        }
+        for (int valence = 1; valence < MAX_SCORED_VALENCE; valence++) {
+            VALENCE_SCORES[valence] = VALENCE_BOOST_SCALE * (float) Math.pow(valence, -VALENCE_BOOST_POWER);
+        }
+    }
+
+    private MeshLayoutOptimizer() {
+    }
+
+    public static void optimize(Model model) {
+        reorderVertices(model);
+        reorderFaces(model);
+    }
+
+    public static void reorderVertices(Model model) {
+        int vertexCount = model.vertices.size();
+        if (vertexCount < 2) {
+            return;
+        }
+        int[] order = mortonOrder(model.vertices.array(), vertexCount);
+        int[] newIndices = inverse(order);
+        model.polygons.getTable().remapIndices(FaceTable.VERTEX, newIndices);
+        model.vertices.reorder(order);
+        model.remapVertexSelection(newIndices);
+    }
+
+    public static void reorderFaces(Model model) {
+        FaceTable table = model.polygons.getTable();
+        if (table.getFaceCount() < 2) {
+            return;
+        }
+        int[] order = vertexCacheOrder(table, model.vertices.size());
+        table.reorderFaces(order);
+        model.remapPolygonSelection(inverse(order));
+    }
+
+    // Порядок вершин по коду Мортона: order[i] - старый номер i-й вершины. Ключ -
+    // код (30 бит) << 32 | номер, так что вершины одной ячейки сохраняют исходный порядок.
+    static int[] mortonOrder(float[] positions, int vertexCount) {
+        ModelBounds bounds = ModelBounds.of(positions, vertexCount);
+        float minX = bounds.getMinX();
+        float minY = bounds.getMinY();
+        float minZ = bounds.getMinZ();
+        int cells = 1 << MORTON_BITS;
+        float scaleX = bounds.getWidth() > 0 ? cells / bounds.getWidth() : 0;
+        float scaleY = bounds.getHeight() > 0 ? cells / bounds.getHeight() : 0;
+        float scaleZ = bounds.getDepth() > 0 ? cells / bounds.getDepth() : 0;
+
+        boolean parallel = vertexCount >= ParallelRange.THRESHOLD;
+        long[] keys = ParallelRange.range(vertexCount, parallel).mapToLong(i -> {
+            int x = quantize((positions[3 * i] - minX) * scaleX, cells);
+            int y = quantize((positions[3 * i + 1] - minY) * scaleY, cells);
+            int z = quantize((positions[3 * i + 2] - minZ) * scaleZ, cells);
+            long code = spreadBits(x) | (spreadBits(y) << 1) | (spreadBits(z) << 2);
+            return (code << 32) | i;
+        }).toArray();
+        if (parallel) {
+            Arrays.parallelSort(keys);
+        } else {
+            Arrays.sort(keys);
+        }
+        int[] order = new int[vertexCount];
+        ParallelRange.range(vertexCount, parallel).forEach(i -> order[i] = (int) keys[i]);
+        return order;
+    }
+
+    // Жадный порядок граней по Форсайту; order[i] - старый номер i-й грани.
+    static int[] vertexCacheOrder(FaceTable table, int vertexCount) {
+        int faceCount = table.getFaceCount();
+        MeshAdjacency adjacency = MeshAdjacency.build(table, vertexCount);
+        int[] vertexFaces = adjacency.getVertexFaces();
+        int[] offsets = table.getFaceOffsets();
+        int[] vertexIndices = table.getIndices(FaceTable.VERTEX);
+
+        int[] remaining = new int[vertexCount];
+        int[] cachePositions = new int[vertexCount];
+        float[] vertexScores = new float[vertexCount];
+        for (int v = 0; v < vertexCount; v++) {
+            remaining[v] = adjacency.getVertexDegree(v);
+            cachePositions[v] = -1;
+            vertexScores[v] = score(-1, remaining[v]);
+        }
+        float[] faceScores = new float[faceCount];
+        for (int face = 0; face < faceCount; face++) {
+            int start = offsets[face];
+            for (int slot = start; slot < start + table.getCount(FaceTable.VERTEX, face); slot++) {
+                int vertex = vertexIndices[slot];
+                if (vertex >= 0 && vertex < vertexCount) {
+                    faceScores[face] += vertexScores[vertex];
+                }
+            }
+        }
+
+        boolean[] emitted = new boolean[faceCount];
+        int[] order = new int[faceCount];
+        int[] cache = new int[CACHE_SIZE];
+        int[] nextCache = new int[CACHE_SIZE];
+        int cacheSize = 0;
+        int vertexScan = 0;
+        int faceScan = 0;
+        int best = -1;
+        for (int i = 0; i < faceCount; i++) {
+            // Кэш исчерпан: продолжаем с первой по номеру вершины, у которой остались
+            // грани (после reorderVertices это ближайшая по кривой Мортона область).
+            while (best < 0 && vertexScan < vertexCount) {
+                for (int j = adjacency.getVertexStart(vertexScan); j < adjacency.getVertexEnd(vertexScan); j++) {
+                    if (!emitted[vertexFaces[j]]) {
+                        best = vertexFaces[j];
+                        break;
+                    }
+                }
+                if (best < 0) {
+                    vertexScan++;
+                }
+            }
+            if (best < 0) {
+                while (emitted[faceScan]) {
+                    faceScan++;
+                }
+                best = faceScan;
+            }
+            order[i] = best;
+            emitted[best] = true;
+
+            // Вершины грани встают в начало кэша, остальные сдвигаются, лишние вытесняются.
+            int start = offsets[best];
+            int count = table.getCount(FaceTable.VERTEX, best);
+            int nextSize = 0;
+            for (int slot = start; slot < start + count && nextSize < CACHE_SIZE; slot++) {
+                int vertex = vertexIndices[slot];
+                if (vertex < 0 || vertex >= vertexCount || cachePositions[vertex] == -2) {
+                    continue;
+                }
+                remaining[vertex]--;
+                cachePositions[vertex] = -2;
+                nextCache[nextSize++] = vertex;
+            }
+            for (int k = 0; k < cacheSize; k++) {
+                int vertex = cache[k];
+                if (cachePositions[vertex] == -2) {
+                    continue;
+                }
+                if (nextSize < CACHE_SIZE) {
+                    nextCache[nextSize++] = vertex;
+                } else {
+                    cachePositions[vertex] = -1;
+                    updateScore(vertex, -1, remaining, vertexScores, faceScores, adjacency, vertexFaces, emitted);
+                }
+            }
+
+            // Обновляются оценки вершин кэша и их граней; лучшая из них - следующая.
+            best = -1;
+            float bestScore = -1;
+            for (int k = 0; k < nextSize; k++) {
+                int vertex = nextCache[k];
+                cachePositions[vertex] = k;
+                updateScore(vertex, k, remaining, vertexScores, faceScores, adjacency, vertexFaces, emitted);
+            }
+            for (int k = 0; k < nextSize; k++) {
+                int vertex = nextCache[k];
+                for (int j = adjacency.getVertexStart(vertex); j < adjacency.getVertexEnd(vertex); j++) {
+                    int face = vertexFaces[j];
+                    if (!emitted[face] && faceScores[face] > bestScore) {
+                        bestScore = faceScores[face];
+                        best = face;
+                    }
+                }
+            }
+            int[] swap = cache;
+            cache = nextCache;
+            nextCache = swap;
+            cacheSize = nextSize;
+        }
+        return order;
+    }
+
+    // Среднее число промахов LRU-кэша вершин на треугольник (ACMR) при выводе граней
+    // веерами в текущем порядке; меньше - лучше, для треугольной сетки предел около 0.5.
+    public static double averageCacheMissRatio(FaceTable table, int vertexCount, int cacheSize) {
+        int[] offsets = table.getFaceOffsets();
+        int[] vertexIndices = table.getIndices(FaceTable.VERTEX);
+        int[] cache = new int[cacheSize];
+        long misses = 0;
+        long triangles = 0;
+        int size = 0;
+        for (int face = 0; face < table.getFaceCount(); face++) {
+            int start = offsets[face];
+            int count = table.getCount(FaceTable.VERTEX, face);
+            triangles += Math.max(0, count - 2);
+            for (int slot = start; slot < start + count; slot++) {
+                int vertex = vertexIndices[slot];
+                if (vertex < 0 || vertex >= vertexCount) {
+                    continue;
+                }
+                int position = 0;
+                while (position < size && cache[position] != vertex) {
+                    position++;
+                }
+                if (position == size) {
+                    misses++;
+                    if (size < cacheSize) {
+                        size++;
+                    }
+                    position = size - 1;
+                }
+                System.arraycopy(cache, 0, cache, 1, position);
+                cache[0] = vertex;
+            }
+        }
+        return triangles == 0 ? 0 : (double) misses / triangles;
+    }
+
+    private static void updateScore(int vertex, int cachePosition, int[] remaining, float[] vertexScores,
+                                    float[] faceScores, MeshAdjacency adjacency, int[] vertexFaces,
+                                    boolean[] emitted) {
+        float score = score(cachePosition, remaining[vertex]);
+        float delta = score - vertexScores[vertex];
+        if (delta == 0) {
+            return;
+        }
+        vertexScores[vertex] = score;
+        for (int j = adjacency.getVertexStart(vertex); j < adjacency.getVertexEnd(vertex); j++) {
+            int face = vertexFaces[j];
+            if (!emitted[face]) {
+                faceScores[face] += delta;
+            }
+        }
+    }
+
+    private static float score(int cachePosition, int remaining) {
+        if (remaining <= 0) {
+            return -1;
+        }
+        float score = cachePosition >= 0 ? CACHE_SCORES[cachePosition] : 0;
+        return score + (remaining < MAX_SCORED_VALENCE ? VALENCE_SCORES[remaining]
+                : VALENCE_BOOST_SCALE * (float) Math.pow(remaining, -VALENCE_BOOST_POWER));
+    }
+
+    private static int quantize(float value, int cells) {
+        return Math.max(0, Math.min(cells - 1, (int) value));
+    }
+
+    // Раздвигает 10 младших бит через два: abc -> a00b00c.
+    private static long spreadBits(int value) {
+        long x = value & 0x3ff;
+        x = (x | (x << 16)) & 0x30000ffL;
+        x = (x | (x << 8)) & 0x300f00fL;
+        x = (x | (x << 4)) & 0x30c30c3L;
+        x = (x | (x << 2)) & 0x9249249L;
+        return x;
+    }
+
+    private static int[] inverse(int[] order) {
+        int[] inverse = new int[order.length];
+        ParallelRange.range(order.length, order.length >= ParallelRange.THRESHOLD).forEach(i -> inverse[order[i]] = i);
+        return inverse;
+    }
+}
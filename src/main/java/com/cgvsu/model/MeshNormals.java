@@ -0,0 +1,201 @@
+package com.cgvsu.model;
+
+import com.cgvsu.math.Vector3f;
+
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+// Вычисленные нормали сетки (не путать с Model.normals из строк vn): единичная нормаль
+// и площадь каждой грани, нормаль каждой вершины как взвешенная сумма нормалей её граней.
+// Нормаль грани - сумма векторных произведений веера (0, i, i + 1), то есть нормаль
+// Ньюэлла, длина которой равна удвоенной площади; так корректно считаются и n-угольники.
+// Большие сетки считаются параллельными потоками в общем ForkJoinPool.
+public class MeshNormals {
+
+    public enum Weighting {
+        // Вклад грани пропорционален её площади.
+        AREA,
+        // Вклад грани пропорционален углу грани при вершине.
+        ANGLE
+    }
+
+    private final Weighting weighting;
+    private float[] faceNormals = new float[0];
+    private float[] faceAreas = new float[0];
+    private float[] vertexNormals = new float[0];
+    private int faceCount;
+    private int vertexCount;
+
+    private MeshNormals(Weighting weighting) {
+        this.weighting = weighting;
+    }
+
+    public static MeshNormals compute(FaceTable table, Vector3fList vertices, MeshAdjacency adjacency,
+                                      Weighting weighting) {
+        MeshNormals normals = new MeshNormals(weighting);
+        normals.faceCount = table.getFaceCount();
+        normals.vertexCount = vertices.size();
+        normals.faceNormals = new float[3 * normals.faceCount];
+        normals.faceAreas = new float[normals.faceCount];
+        normals.vertexNormals = new float[3 * normals.vertexCount];
+
+        // array() до параллельных проходов: упакованный список распаковывается один раз.
+        float[] positions = vertices.array();
+        boolean parallel = table.getSlotCount() >= ParallelRange.THRESHOLD;
+        ParallelRange.range(normals.faceCount, parallel).forEach(face -> normals.computeFace(table, positions, face));
+        ParallelRange.range(normals.vertexCount, parallel)
+                .forEach(vertex -> normals.computeVertex(positions, adjacency, vertex));
+        return normals;
+    }
+
+    // Пересчитывает только грани, касающиеся вершин changedVertices, и вершины этих граней.
+    // Топология (грани и число вершин) должна быть той же, что при compute().
+    public void update(FaceTable table, Vector3fList vertices, MeshAdjacency adjacency, BitSet changedVertices) {
+        BitSet faces = new BitSet(faceCount);
+        int[] vertexFaces = adjacency.getVertexFaces();
+        for (int v = changedVertices.nextSetBit(0); v >= 0 && v < vertexCount; v = changedVertices.nextSetBit(v + 1)) {
+            for (int i = adjacency.getVertexStart(v); i < adjacency.getVertexEnd(v); i++) {
+                faces.set(vertexFaces[i]);
+            }
+        }
+
+        BitSet affected = new BitSet(vertexCount);
+        int[] offsets = table.getFaceOffsets();
+        int[] vertexIndices = table.getIndices(FaceTable.VERTEX);
+        for (int face = faces.nextSetBit(0); face >= 0; face = faces.nextSetBit(face + 1)) {
+            int start = offsets[face];
+            int count = table.getCount(FaceTable.VERTEX, face);
+            for (int slot = start; slot < start + count; slot++) {
+                int vertex = vertexIndices[slot];
+                if (vertex >= 0 && vertex < vertexCount) {
+                    affected.set(vertex);
+                }
+            }
+        }
+
+        float[] positions = vertices.array();
+        boolean parallel = affected.cardinality() >= ParallelRange.THRESHOLD;
+        IntStream faceStream = faces.stream();
+        (parallel ? faceStream.parallel() : faceStream).forEach(face -> computeFace(table, positions, face));
+        IntStream vertexStream = affected.stream();
+        (parallel ? vertexStream.parallel() : vertexStream)
+                .forEach(vertex -> computeVertex(positions, adjacency, vertex));
+    }
+
+    public Weighting getWeighting() {
+        return weighting;
+    }
+
+    public int getFaceCount() {
+        return faceCount;
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    // 3 float на грань / вершину; у вырожденных граней и изолированных вершин - нули.
+    public float[] getFaceNormals() {
+        return faceNormals;
+    }
+
+    public float[] getFaceAreas() {
+        return faceAreas;
+    }
+
+    public float[] getVertexNormals() {
+        return vertexNormals;
+    }
+
+    public Vector3f getFaceNormal(int face) {
+        return new Vector3f(faceNormals[3 * face], faceNormals[3 * face + 1], faceNormals[3 * face + 2]);
+    }
+
+    public Vector3f getVertexNormal(int vertex) {
+        return new Vector3f(vertexNormals[3 * vertex], vertexNormals[3 * vertex + 1], vertexNormals[3 * vertex + 2]);
+    }
+
+    private void computeFace(FaceTable table, float[] positions, int face) {
+        int o = 3 * face;
+        faceNormals[o] = 0;
+        faceNormals[o + 1] = 0;
+        faceNormals[o + 2] = 0;
+
+        int[] vertexIndices = table.getIndices(FaceTable.VERTEX);
+        int start = table.getFaceStart(face);
+        int count = table.getCount(FaceTable.VERTEX, face);
+        faceAreas[face] = 0;
+        if (count < 3) {
+            return;
+        }
+        for (int slot = start; slot < start + count; slot++) {
+            int vertex = vertexIndices[slot];
+            if (vertex < 0 || vertex >= vertexCount) {
+                return;
+            }
+        }
+
+        int first = 3 * vertexIndices[start];
+        for (int i = 1; i < count - 1; i++) {
+            Vector3f.addCross(positions, first, 3 * vertexIndices[start + i], 3 * vertexIndices[start + i + 1],
+                    faceNormals, o);
+        }
+        float length = normalize(faceNormals, o);
+        faceAreas[face] = length / 2;
+    }
+
+    private void computeVertex(float[] positions, MeshAdjacency adjacency, int vertex) {
+        int o = 3 * vertex;
+        float nx = 0;
+        float ny = 0;
+        float nz = 0;
+        int[] halfEdges = adjacency.getVertexHalfEdges();
+        for (int i = adjacency.getVertexStart(vertex); i < adjacency.getVertexEnd(vertex); i++) {
+            int halfEdge = halfEdges[i];
+            int face = adjacency.getFace(halfEdge);
+            float weight;
+            if (weighting == Weighting.AREA) {
+                weight = faceAreas[face];
+            } else {
+                int prev = adjacency.getOrigin(adjacency.getPrev(halfEdge));
+                int next = adjacency.getTarget(halfEdge);
+                weight = prev < 0 || next < 0 ? 0 : angle(positions, 3 * vertex, 3 * prev, 3 * next);
+            }
+            nx += weight * faceNormals[3 * face];
+            ny += weight * faceNormals[3 * face + 1];
+            nz += weight * faceNormals[3 * face + 2];
+        }
+        vertexNormals[o] = nx;
+        vertexNormals[o + 1] = ny;
+        vertexNormals[o + 2] = nz;
+        normalize(vertexNormals, o);
+    }
+
+    private static float angle(float[] positions, int at, int a, int b) {
+        float ux = positions[a] - positions[at];
+        float uy = positions[a + 1] - positions[at + 1];
+        float uz = positions[a + 2] - positions[at + 2];
+        float vx = positions[b] - positions[at];
+        float vy = positions[b + 1] - positions[at + 1];
+        float vz = positions[b + 2] - positions[at + 2];
+        double lengths = Math.sqrt((double) (ux * ux + uy * uy + uz * uz) * (vx * vx + vy * vy + vz * vz));
+        if (lengths == 0) {
+            return 0;
+        }
+        double cos = (ux * vx + uy * vy + uz * vz) / lengths;
+        return (float) Math.acos(Math.max(-1, Math.min(1, cos)));
+    }
+
+    private static float normalize(float[] values, int offset) {
+        float x = values[offset];
+        float y = values[offset + 1];
+        float z = values[offset + 2];
+        float length = (float) Math.sqrt(x * x + y * y + z * z);
+        if (length > 0) {
+            values[offset] = x / length;
+            values[offset + 1] = y / length;
+            values[offset + 2] = z / length;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,522 @@
+package com.cgvsu.model;
+
+import java.util.Arrays;
+
+// Упрощение сетки стягиванием рёбер по квадрикам ошибки (Garland, Heckbert).
+//
+// У каждой вершины есть квадрика - сумма квадратов расстояний до плоскостей её
+// треугольников (с весом площади); у краевых рёбер добавляется плоскость, перпендикулярная
+// грани, чтобы не съедался контур. Ребро (a, b) стягивается в точку, минимизирующую
+// Qa + Qb, в порядке возрастания ошибки, пока треугольников больше заданного числа.
+// Стягивание отменяется, если переворачивает соседний треугольник или склеивает
+// несмежные части (условие связности: общих соседей не больше, чем общих треугольников).
+//
+// Плоскости, квадрики и начальные стоимости рёбер считаются параллельно; очередь -
+// двоичная куча ключей (биты ошибки << 32 | номер записи). Записи не удаляются из кучи,
+// а устаревают: запись хранит сумму счётчиков изменений концов ребра.
+public final class MeshSimplifier {
+
+    // Вес плоскостей, удерживающих краевые рёбра.
+    private static final double BOUNDARY_WEIGHT = 1000;
+    // Минимальный косинус между нормалями треугольника до и после стягивания.
+    private static final double MIN_NORMAL_COSINE = 0.2;
+
+    private final int vertexCount;
+    private final float[] positions;
+    private final int[] triangles;
+    private final boolean[] deadTriangles;
+    private int aliveTriangles;
+
+    private final double[] quadrics;
+    private final boolean[] deadVertices;
+    private final int[] stamps;
+    private final int[] marks;
+    private int mark;
+
+    // Треугольники вершины v: refs[refStart[v] .. refStart[v] + refCount[v]); после
+    // стягивания новый список дописывается в конец refs. Мёртвые треугольники пропускаются.
+    private int[] refs;
+    private int refSize;
+    private final int[] refStart;
+    private final int[] refCount;
+
+    private long[] heap;
+    private int heapSize;
+    private int[] entryA;
+    private int[] entryB;
+    private int[] entryStamp;
+    private int entryCount;
+
+    private final double[] solution = new double[3];
+
+    private MeshSimplifier(float[] positions, int vertexCount, int[] triangles, int triangleCount) {
+        this.vertexCount = vertexCount;
+        this.positions = positions;
+        this.triangles = triangles;
+        this.deadTriangles = new boolean[triangleCount];
+        this.aliveTriangles = triangleCount;
+        this.quadrics = new double[10 * vertexCount];
+        this.deadVertices = new boolean[vertexCount];
+        this.stamps = new int[vertexCount];
+        this.marks = new int[vertexCount];
+        this.refStart = new int[vertexCount];
+        this.refCount = new int[vertexCount];
+    }
+
+    // Треугольники модели (веером из FaceTable) упрощаются до targetTriangles или до
+    // первого невозможного стягивания. Результат - новая модель из треугольников;
+    // текстурные координаты и нормали из файла не переносятся. Исходная модель не меняется.
+    public static Model simplify(Model model, int targetTriangles) {
+        int vertexCount = model.vertices.size();
+        TriangleBuffer buffer = TriangleBuffer.build(model.polygons.getTable(), model.vertices,
+                TriangleBuffer.Triangulation.FAN);
+
+        int[] source = buffer.getIndices();
+        int[] triangles = new int[3 * buffer.getTriangleCount()];
+        int triangleCount = 0;
+        for (int t = 0; t < buffer.getTriangleCount(); t++) {
+            int a = source[3 * t];
+            int b = source[3 * t + 1];
+            int c = source[3 * t + 2];
+            if (a < 0 || a >= vertexCount || b < 0 || b >= vertexCount || c < 0 || c >= vertexCount
+                    || a == b || b == c || c == a) {
+                continue;
+            }
+            triangles[3 * triangleCount] = a;
+            triangles[3 * triangleCount + 1] = b;
+            triangles[3 * triangleCount + 2] = c;
+            triangleCount++;
+        }
+
+        float[] positions = new float[3 * vertexCount];
+        model.vertices.getCoordinates(0, vertexCount, positions, 0);
+        MeshSimplifier simplifier = new MeshSimplifier(positions, vertexCount, triangles, triangleCount);
+        simplifier.prepare();
+        simplifier.collapse(Math.max(0, targetTriangles));
+        return simplifier.toModel();
+    }
+
+    private void prepare() {
+        int triangleCount = deadTriangles.length;
+        int[] offsets = new int[triangleCount + 1];
+        for (int t = 0; t <= triangleCount; t++) {
+            offsets[t] = 3 * t;
+        }
+        FaceTable table = FaceTable.wrap(triangleCount, offsets, triangles, null, null);
+        MeshAdjacency adjacency = MeshAdjacency.build(table, vertexCount);
+        boolean parallel = 3 * triangleCount >= ParallelRange.THRESHOLD;
+
+        // Плоскость треугольника (a, b, c, d) с единичной нормалью и его площадь.
+        double[] planes = new double[5 * triangleCount];
+        ParallelRange.range(triangleCount, parallel).forEach(t -> computePlane(t, planes));
+
+        ParallelRange.range(vertexCount, parallel).forEach(v -> {
+            int[] halfEdges = adjacency.getVertexHalfEdges();
+            for (int i = adjacency.getVertexStart(v); i < adjacency.getVertexEnd(v); i++) {
+                int halfEdge = halfEdges[i];
+                int t = adjacency.getFace(halfEdge);
+                double area = planes[5 * t + 4];
+                addPlane(v, planes[5 * t], planes[5 * t + 1], planes[5 * t + 2], planes[5 * t + 3], area);
+                if (adjacency.isBoundary(halfEdge)) {
+                    addBoundaryPlane(v, v, adjacency.getTarget(halfEdge), planes, t);
+                }
+                int prev = adjacency.getPrev(halfEdge);
+                if (adjacency.isBoundary(prev)) {
+                    addBoundaryPlane(v, adjacency.getOrigin(prev), v, planes, t);
+                }
+            }
+        });
+
+        refs = new int[Math.max(16, 6 * triangleCount)];
+        int[] vertexFaces = adjacency.getVertexFaces();
+        refSize = vertexFaces.length;
+        System.arraycopy(vertexFaces, 0, refs, 0, refSize);
+        for (int v = 0; v < vertexCount; v++) {
+            refStart[v] = adjacency.getVertexStart(v);
+            refCount[v] = adjacency.getVertexDegree(v);
+        }
+
+        // Одно ребро - одно полуребро: с меньшим номером из пары или краевое.
+        int halfEdgeCount = adjacency.getHalfEdgeCount();
+        int[] edgeHalfEdges = ParallelRange.range(halfEdgeCount, parallel)
+                .filter(h -> adjacency.getTwin(h) < 0 || h < adjacency.getTwin(h))
+                .toArray();
+        int edgeCount = edgeHalfEdges.length;
+        entryA = new int[Math.max(16, 2 * edgeCount)];
+        entryB = new int[entryA.length];
+        entryStamp = new int[entryA.length];
+        heap = new long[entryA.length];
+        entryCount = edgeCount;
+        heapSize = edgeCount;
+        ParallelRange.range(edgeCount, parallel).forEach(e -> {
+            int halfEdge = edgeHalfEdges[e];
+            int a = adjacency.getOrigin(halfEdge);
+            int b = adjacency.getTarget(halfEdge);
+            entryA[e] = a;
+            entryB[e] = b;
+            heap[e] = key(evaluate(a, b, new double[3]), e);
+        });
+        // Отсортированный массив - корректная куча.
+        if (parallel) {
+            Arrays.parallelSort(heap, 0, heapSize);
+        } else {
+            Arrays.sort(heap, 0, heapSize);
+        }
+    }
+
+    private void collapse(int targetTriangles) {
+        while (aliveTriangles > targetTriangles && heapSize > 0) {
+            int entry = (int) poll();
+            int a = entryA[entry];
+            int b = entryB[entry];
+            if (deadVertices[a] || deadVertices[b] || entryStamp[entry] != stamps[a] + stamps[b]) {
+                continue;
+            }
+            evaluate(a, b, solution);
+            float x = (float) solution[0];
+            float y = (float) solution[1];
+            float z = (float) solution[2];
+            if (!isLinkValid(a, b) || flips(a, b, x, y, z) || flips(b, a, x, y, z)) {
+                continue;
+            }
+
+            for (int i = 0; i < 10; i++) {
+                quadrics[10 * a + i] += quadrics[10 * b + i];
+            }
+            positions[3 * a] = x;
+            positions[3 * a + 1] = y;
+            positions[3 * a + 2] = z;
+
+            // Новый список треугольников a: живые из a и b, кроме общих (они вырождаются).
+            ensureRefCapacity(refSize + refCount[a] + refCount[b]);
+            int start = refSize;
+            for (int i = refStart[a]; i < refStart[a] + refCount[a]; i++) {
+                int t = refs[i];
+                if (deadTriangles[t]) {
+                    continue;
+                }
+                if (contains(t, b)) {
+                    deadTriangles[t] = true;
+                    aliveTriangles--;
+                } else {
+                    refs[refSize++] = t;
+                }
+            }
+            for (int i = refStart[b]; i < refStart[b] + refCount[b]; i++) {
+                int t = refs[i];
+                if (deadTriangles[t]) {
+                    continue;
+                }
+                for (int k = 3 * t; k < 3 * t + 3; k++) {
+                    if (triangles[k] == b) {
+                        triangles[k] = a;
+                    }
+                }
+                refs[refSize++] = t;
+            }
+            refStart[a] = start;
+            refCount[a] = refSize - start;
+            deadVertices[b] = true;
+            stamps[a]++;
+
+            mark++;
+            marks[a] = mark;
+            for (int i = refStart[a]; i < refStart[a] + refCount[a]; i++) {
+                int t = refs[i];
+                for (int k = 3 * t; k < 3 * t + 3; k++) {
+                    int neighbor = triangles[k];
+                    if (marks[neighbor] != mark) {
+                        marks[neighbor] = mark;
+                        push(a, neighbor);
+                    }
+                }
+            }
+        }
+    }
+
+    // Общих соседей у a и b должно быть не больше, чем общих треугольников (2 или 1 на краю).
+    private boolean isLinkValid(int a, int b) {
+        mark++;
+        int shared = 0;
+        for (int i = refStart[a]; i < refStart[a] + refCount[a]; i++) {
+            int t = refs[i];
+            if (deadTriangles[t]) {
+                continue;
+            }
+            if (contains(t, b)) {
+                shared++;
+            }
+            for (int k = 3 * t; k < 3 * t + 3; k++) {
+                marks[triangles[k]] = mark;
+            }
+        }
+        int common = 0;
+        int commonMark = ++mark;
+        for (int i = refStart[b]; i < refStart[b] + refCount[b]; i++) {
+            int t = refs[i];
+            if (deadTriangles[t]) {
+                continue;
+            }
+            for (int k = 3 * t; k < 3 * t + 3; k++) {
+                int v = triangles[k];
+                if (v != a && v != b && marks[v] == commonMark - 1) {
+                    marks[v] = commonMark;
+                    common++;
+                }
+            }
+        }
+        return common <= shared;
+    }
+
+    // Переворачивается ли какой-нибудь треугольник вершины moved (без вершины other),
+    // если moved переместить в (x, y, z).
+    private boolean flips(int moved, int other, float x, float y, float z) {
+        for (int i = refStart[moved]; i < refStart[moved] + refCount[moved]; i++) {
+            int t = refs[i];
+            if (deadTriangles[t] || contains(t, other)) {
+                continue;
+            }
+            int k = 3 * t;
+            int corner = triangles[k] == moved ? 0 : triangles[k + 1] == moved ? 1 : 2;
+            int p = 3 * triangles[k + (corner + 1) % 3];
+            int q = 3 * triangles[k + (corner + 2) % 3];
+            int o = 3 * moved;
+
+            double ux = positions[p] - positions[o], uy = positions[p + 1] - positions[o + 1];
+            double uz = positions[p + 2] - positions[o + 2];
+            double vx = positions[q] - positions[o], vy = positions[q + 1] - positions[o + 1];
+            double vz = positions[q + 2] - positions[o + 2];
+            double nx = uy * vz - uz * vy, ny = uz * vx - ux * vz, nz = ux * vy - uy * vx;
+            if (nx == 0 && ny == 0 && nz == 0) {
+                continue;
+            }
+
+            ux = positions[p] - x;
+            uy = positions[p + 1] - y;
+            uz = positions[p + 2] - z;
+            vx = positions[q] - x;
+            vy = positions[q + 1] - y;
+            vz = positions[q + 2] - z;
+            double mx = uy * vz - uz * vy, my = uz * vx - ux * vz, mz = ux * vy - uy * vx;
+
+            double lengths = Math.sqrt((nx * nx + ny * ny + nz * nz) * (mx * mx + my * my + mz * mz));
+            if (lengths == 0 || (nx * mx + ny * my + nz * mz) < MIN_NORMAL_COSINE * lengths) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Ошибка стягивания (a, b) и лучшая точка в result. Если матрица квадрики вырождена,
+    // выбирается лучшая из точек a, b и середины ребра.
+    private double evaluate(int a, int b, double[] result) {
+        int qa = 10 * a;
+        int qb = 10 * b;
+        double q11 = quadrics[qa] + quadrics[qb];
+        double q12 = quadrics[qa + 1] + quadrics[qb + 1];
+        double q13 = quadrics[qa + 2] + quadrics[qb + 2];
+        double q14 = quadrics[qa + 3] + quadrics[qb + 3];
+        double q22 = quadrics[qa + 4] + quadrics[qb + 4];
+        double q23 = quadrics[qa + 5] + quadrics[qb + 5];
+        double q24 = quadrics[qa + 6] + quadrics[qb + 6];
+        double q33 = quadrics[qa + 7] + quadrics[qb + 7];
+        double q34 = quadrics[qa + 8] + quadrics[qb + 8];
+        double q44 = quadrics[qa + 9] + quadrics[qb + 9];
+
+        double c11 = q22 * q33 - q23 * q23;
+        double c12 = q13 * q23 - q12 * q33;
+        double c13 = q12 * q23 - q13 * q22;
+        double det = q11 * c11 + q12 * c12 + q13 * c13;
+        double scale = q11 * q22 * q33;
+        if (det != 0 && Math.abs(det) > 1e-6 * Math.abs(scale)) {
+            double c22 = q11 * q33 - q13 * q13;
+            double c23 = q12 * q13 - q11 * q23;
+            double c33 = q11 * q22 - q12 * q12;
+            result[0] = -(c11 * q14 + c12 * q24 + c13 * q34) / det;
+            result[1] = -(c12 * q14 + c22 * q24 + c23 * q34) / det;
+            result[2] = -(c13 * q14 + c23 * q24 + c33 * q34) / det;
+            return error(q11, q12, q13, q14, q22, q23, q24, q33, q34, q44, result[0], result[1], result[2]);
+        }
+
+        double best = Double.POSITIVE_INFINITY;
+        for (int candidate = 0; candidate < 3; candidate++) {
+            double x, y, z;
+            if (candidate < 2) {
+                int o = 3 * (candidate == 0 ? a : b);
+                x = positions[o];
+                y = positions[o + 1];
+                z = positions[o + 2];
+            } else {
+                x = (positions[3 * a] + positions[3 * b]) / 2.0;
+                y = (positions[3 * a + 1] + positions[3 * b + 1]) / 2.0;
+                z = (positions[3 * a + 2] + positions[3 * b + 2]) / 2.0;
+            }
+            double error = error(q11, q12, q13, q14, q22, q23, q24, q33, q34, q44, x, y, z);
+            if (error < best) {
+                best = error;
+                result[0] = x;
+                result[1] = y;
+                result[2] = z;
+            }
+        }
+        return best;
+    }
+
+    private static double error(double q11, double q12, double q13, double q14, double q22, double q23,
+                                double q24, double q33, double q34, double q44, double x, double y, double z) {
+        double error = q11 * x * x + 2 * q12 * x * y + 2 * q13 * x * z + 2 * q14 * x
+                + q22 * y * y + 2 * q23 * y * z + 2 * q24 * y
+                + q33 * z * z + 2 * q34 * z + q44;
+        return Math.max(0, error);
+    }
+
+    private void computePlane(int t, double[] planes) {
+        int a = 3 * triangles[3 * t];
+        int b = 3 * triangles[3 * t + 1];
+        int c = 3 * triangles[3 * t + 2];
+        double ux = positions[b] - positions[a], uy = positions[b + 1] - positions[a + 1];
+        double uz = positions[b + 2] - positions[a + 2];
+        double vx = positions[c] - positions[a], vy = positions[c + 1] - positions[a + 1];
+        double vz = positions[c + 2] - positions[a + 2];
+        double nx = uy * vz - uz * vy, ny = uz * vx - ux * vz, nz = ux * vy - uy * vx;
+        double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+        int o = 5 * t;
+        if (length > 0) {
+            planes[o] = nx / length;
+            planes[o + 1] = ny / length;
+            planes[o + 2] = nz / length;
+            planes[o + 3] = -(planes[o] * positions[a] + planes[o + 1] * positions[a + 1]
+                    + planes[o + 2] * positions[a + 2]);
+            planes[o + 4] = length / 2;
+        }
+    }
+
+    // Плоскость через краевое ребро (from, to) перпендикулярно треугольнику t.
+    private void addBoundaryPlane(int vertex, int from, int to, double[] planes, int t) {
+        int p = 3 * from;
+        int q = 3 * to;
+        double ex = positions[q] - positions[p];
+        double ey = positions[q + 1] - positions[p + 1];
+        double ez = positions[q + 2] - positions[p + 2];
+        double nx = planes[5 * t], ny = planes[5 * t + 1], nz = planes[5 * t + 2];
+        double px = ey * nz - ez * ny, py = ez * nx - ex * nz, pz = ex * ny - ey * nx;
+        double length = Math.sqrt(px * px + py * py + pz * pz);
+        if (length == 0) {
+            return;
+        }
+        px /= length;
+        py /= length;
+        pz /= length;
+        double d = -(px * positions[p] + py * positions[p + 1] + pz * positions[p + 2]);
+        addPlane(vertex, px, py, pz, d, BOUNDARY_WEIGHT * (ex * ex + ey * ey + ez * ez));
+    }
+
+    private void addPlane(int vertex, double a, double b, double c, double d, double weight) {
+        int o = 10 * vertex;
+        quadrics[o] += weight * a * a;
+        quadrics[o + 1] += weight * a * b;
+        quadrics[o + 2] += weight * a * c;
+        quadrics[o + 3] += weight * a * d;
+        quadrics[o + 4] += weight * b * b;
+        quadrics[o + 5] += weight * b * c;
+        quadrics[o + 6] += weight * b * d;
+        quadrics[o + 7] += weight * c * c;
+        quadrics[o + 8] += weight * c * d;
+        quadrics[o + 9] += weight * d * d;
+    }
+
+    private boolean contains(int t, int vertex) {
+        return triangles[3 * t] == vertex || triangles[3 * t + 1] == vertex || triangles[3 * t + 2] == vertex;
+    }
+
+    private Model toModel() {
+        int[] newIndices = new int[vertexCount];
+        Arrays.fill(newIndices, -1);
+        int triangleCount = aliveTriangles;
+        int[] faceOffsets = new int[triangleCount + 1];
+        int[] vertexIndices = new int[3 * triangleCount];
+        float[] coordinates = new float[3 * Math.min(vertexCount, 3 * triangleCount)];
+        int newVertexCount = 0;
+        int slot = 0;
+        for (int t = 0; t < deadTriangles.length; t++) {
+            if (deadTriangles[t]) {
+                continue;
+            }
+            for (int k = 3 * t; k < 3 * t + 3; k++) {
+                int vertex = triangles[k];
+                if (newIndices[vertex] < 0) {
+                    newIndices[vertex] = newVertexCount;
+                    System.arraycopy(positions, 3 * vertex, coordinates, 3 * newVertexCount, 3);
+                    newVertexCount++;
+                }
+                vertexIndices[slot++] = newIndices[vertex];
+            }
+            faceOffsets[slot / 3] = slot;
+        }
+
+        Model model = new Model();
+        model.vertices = Vector3fList.wrap(coordinates, newVertexCount);
+        model.polygons = new PolygonList(FaceTable.wrap(triangleCount, faceOffsets, vertexIndices, null, null));
+        return model;
+    }
+
+    private void push(int a, int b) {
+        if (entryCount == entryA.length) {
+            int grown = entryCount + (entryCount >> 1);
+            entryA = Arrays.copyOf(entryA, grown);
+            entryB = Arrays.copyOf(entryB, grown);
+            entryStamp = Arrays.copyOf(entryStamp, grown);
+        }
+        int entry = entryCount++;
+        entryA[entry] = a;
+        entryB[entry] = b;
+        entryStamp[entry] = stamps[a] + stamps[b];
+
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heapSize + (heapSize >> 1));
+        }
+        long key = key(evaluate(a, b, solution), entry);
+        int i = heapSize++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= key) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = key;
+    }
+
+    // Возвращает номер записи с наименьшей ошибкой.
+    private long poll() {
+        long top = heap[0];
+        long last = heap[--heapSize];
+        int i = 0;
+        int half = heapSize >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (last <= heap[child]) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return top & 0xffffffffL;
+    }
+
+    // Для неотрицательных float порядок битов совпадает с порядком значений.
+    private static long key(double error, int entry) {
+        return ((long) Float.floatToIntBits((float) error) << 32) | (entry & 0xffffffffL);
+    }
+
+    private void ensureRefCapacity(int capacity) {
+        if (refs.length < capacity) {
+            refs = Arrays.copyOf(refs, Math.max(capacity, refs.length + (refs.length >> 1)));
+        }
+    }
+}
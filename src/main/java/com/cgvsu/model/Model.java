@@ -5,185 +5,523 @@ import com.cgvsu.math.Vector3f;
 
 import java.util.*;
 
-public class Model {
-    public ArrayList<Vector3f> vertices = new ArrayList<>();
-    public ArrayList<Vector2f> textureVertices = new ArrayList<>();
-    public ArrayList<Vector3f> normals = new ArrayList<>();
-    public ArrayList<Polygon> polygons = new ArrayList<>();
+public class Model implements MeshGeometry {
+    // Координаты хранятся в float[] (см. Vector3fList): get() отдаёт копию.
+    public Vector3fList vertices = new Vector3fList();
+    public Vector2fList textureVertices = new Vector2fList();
+    public Vector3fList normals = new Vector3fList();
+    // Грани хранятся в FaceTable (CSR): polygons.get() отдаёт представление строки таблицы.
+    public PolygonList polygons = new PolygonList();
+
+    private final Selection vertexSelection = new Selection();
+    private final Selection polygonSelection = new Selection();
+    private MeshAdjacency adjacency;
+    private ModelBounds bounds;
+    private TriangleBuffer triangles;
+    private FaceTable trianglesTable;
+    private int trianglesVertexModificationCount;
+    private MeshNormals computedNormals;
+    private FaceTable normalsTable;
+    private Vector3fList normalsVertices;
+    private int normalsTableModificationCount;
+    private int normalsVertexModificationCount;
+    // Вершины, изменённые через setVertex() после последнего расчёта нормалей.
+    private final BitSet editedVertices = new BitSet();
+    private int editedVertexModifications;
+    private Vector3fList boundsVertices;
+    private int boundsModificationCount;
+    // Строится в фоновом потоке (ModelLoadService), читается при отрисовке.
+    private volatile ModelLod lod;
+
+    // Удаление за O(V + F): префиксная таблица переиндексации (IndexRemap) и по одному
+    // проходу сжатия для вершин и граней. Грани, использующие удалённую вершину, удаляются.
+    public void deleteSelectedVertices() {
+        if (vertexSelection.isEmpty()) return;
+
+        int vertexCount = vertices.size();
+        vertexSelection.truncate(vertexCount);
+        BitSet removed = vertexSelection.toBitSet();
+        vertexSelection.clear();
+        if (removed.isEmpty()) return;
+
+        IndexRemap remap = IndexRemap.of(removed, vertexCount);
+        int faceCount = polygons.size();
+        BitSet removedFaces = removePolygonsUsingVertices(remap);
+        polygonSelection.remap(IndexRemap.of(removedFaces, faceCount));
+
+        // Текстурные координаты и нормали удаляются по тем же номерам, что и вершины.
+        FaceTable table = polygons.getTable();
+        for (int attribute = FaceTable.VERTEX; attribute <= FaceTable.NORMAL; attribute++) {
+            if (table.hasAttribute(attribute)) {
+                remap.apply(table.getIndices(attribute), table.getSlotCount());
+                table.markModified();
+            }
+        }
+        vertices.compact(removed);
+        textureVertices.compact(removed);
+        normals.compact(removed);
+    }
 
-    private Set<Integer> selectedVertexIndices = new HashSet<>();
-    private Set<Integer> selectedPolygonIndices = new HashSet<>();
+    private BitSet removePolygonsUsingVertices(IndexRemap remap) {
+        BitSet removedFaces = new BitSet();
+        FaceTable table = polygons.getTable();
+        int[] offsets = table.getFaceOffsets();
+        int[] vertexIndices = table.getIndices(FaceTable.VERTEX);
+        int vertexCount = remap.getOldSize();
+        polygons.removeFacesIf(face -> {
+            int count = table.getCount(FaceTable.VERTEX, face);
+            int start = offsets[face];
+            for (int slot = start; slot < start + count; slot++) {
+                int vertexIndex = vertexIndices[slot];
+                if (vertexIndex < 0 || vertexIndex >= vertexCount || remap.isRemoved(vertexIndex)) {
+                    removedFaces.set(face);
+                    return true;
+                }
+            }
+            if (count < 3) {
+                removedFaces.set(face);
+                return true;
+            }
+            return false;
+        });
+        return removedFaces;
+    }
 
-    public void deleteSelectedVertices() {
-        if (selectedVertexIndices.isEmpty()) return;
+    public void deleteSelectedPolygons() {
+        deleteSelectedPolygons(true);
+    }
 
-        List<Integer> sortedIndices = new ArrayList<>(selectedVertexIndices);
-        sortedIndices.sort(Collections.reverseOrder());
+    // Удаляет выбранные грани одним проходом сжатия FaceTable по битовой карте выделения.
+    // С removeUnreferenced удаляются и вершины (а также текстурные координаты и нормали),
+    // на которые ссылались только удалённые грани; выделение вершин переиндексируется.
+    public void deleteSelectedPolygons(boolean removeUnreferenced) {
+        if (polygonSelection.isEmpty()) return;
+
+        polygonSelection.truncate(polygons.size());
+        BitSet removedFaces = polygonSelection.toBitSet();
+        polygonSelection.clear();
+        if (removedFaces.isEmpty()) return;
+
+        FaceTable table = polygons.getTable();
+        BitSet[] unreferenced = removeUnreferenced ? findOrphanedIndices(table, removedFaces) : null;
+        polygons.removeFaces(removedFaces);
+        if (unreferenced == null) return;
+
+        IndexRemap vertexRemap = IndexRemap.of(unreferenced[FaceTable.VERTEX], vertices.size());
+        removeIndexed(FaceTable.VERTEX, vertexRemap);
+        vertices.compact(unreferenced[FaceTable.VERTEX]);
+        vertexSelection.remap(vertexRemap);
+
+        removeIndexed(FaceTable.TEXTURE, IndexRemap.of(unreferenced[FaceTable.TEXTURE], textureVertices.size()));
+        textureVertices.compact(unreferenced[FaceTable.TEXTURE]);
+        removeIndexed(FaceTable.NORMAL, IndexRemap.of(unreferenced[FaceTable.NORMAL], normals.size()));
+        normals.compact(unreferenced[FaceTable.NORMAL]);
+    }
 
-        for (int vertexIndex : sortedIndices) {
-            if (vertexIndex >= 0 && vertexIndex < vertices.size()) {
-                vertices.remove(vertexIndex);
+    // Индексы каждого атрибута, на которые ссылаются удаляемые грани и не ссылаются остальные.
+    private BitSet[] findOrphanedIndices(FaceTable table, BitSet removedFaces) {
+        int[] sizes = {vertices.size(), textureVertices.size(), normals.size()};
+        BitSet[] orphaned = new BitSet[3];
+        int[] offsets = table.getFaceOffsets();
+        for (int attribute = FaceTable.VERTEX; attribute <= FaceTable.NORMAL; attribute++) {
+            orphaned[attribute] = new BitSet(sizes[attribute]);
+            int[] indices = table.getIndices(attribute);
+            if (indices == null) {
+                continue;
+            }
+            for (int face = removedFaces.nextSetBit(0); face >= 0; face = removedFaces.nextSetBit(face + 1)) {
+                markIndices(orphaned[attribute], indices, offsets[face], offsets[face + 1], sizes[attribute], true);
+            }
+            for (int face = removedFaces.nextClearBit(0); face < table.getFaceCount();
+                 face = removedFaces.nextClearBit(face + 1)) {
+                markIndices(orphaned[attribute], indices, offsets[face], offsets[face + 1], sizes[attribute], false);
+            }
+        }
+        return orphaned;
+    }
 
-                if (vertexIndex < textureVertices.size()) {
-                    textureVertices.remove(vertexIndex);
-                }
-                if (vertexIndex < normals.size()) {
-                    normals.remove(vertexIndex);
-                }
+    private static void markIndices(BitSet bits, int[] indices, int from, int to, int size, boolean value) {
+        for (int slot = from; slot < to; slot++) {
+            int index = indices[slot];
+            if (index >= 0 && index < size) {
+                bits.set(index, value);
             }
         }
+    }
 
-        updatePolygonIndicesAfterVertexDeletion(sortedIndices);
-        selectedVertexIndices.clear();
+    private void removeIndexed(int attribute, IndexRemap remap) {
+        FaceTable table = polygons.getTable();
+        if (remap.getRemovedCount() > 0 && table.hasAttribute(attribute)) {
+            remap.apply(table.getIndices(attribute), table.getSlotCount());
+            table.markModified();
+        }
     }
 
-    private void updatePolygonIndicesAfterVertexDeletion(List<Integer> deletedIndices) {
-        for (Polygon polygon : polygons) {
-            for (int i = 0; i < polygon.getVertexIndices().size(); i++) {
-                int vertexIndex = polygon.getVertexIndices().get(i);
-                int adjustment = 0;
+    // Сваривает вершины, лежащие ближе epsilon друг к другу (см. VertexWelder).
+    public int weldVertices(float epsilon) {
+        return VertexWelder.weld(this, epsilon);
+    }
 
-                for (int deletedIdx : deletedIndices) {
-                    if (vertexIndex > deletedIdx) {
-                        adjustment++;
-                    }
-                }
+    // Компактное хранение для больших моделей: позиции по 16 бит на ось внутри AABB,
+    // нормали из файла - октаэдрическим кодом, текстурные координаты - half float
+    // (ошибки описаны в VectorPacking). Чтение через get/getX декодирует на лету,
+    // RenderEngine проецирует упакованные позиции сам; правка вершин и всё, что берёт
+    // vertices.array() (нормали, сварка, перестановка), распаковывает списки обратно.
+    public void pack() {
+        vertices.pack(Vector3fList.Packing.QUANTIZED);
+        normals.pack(Vector3fList.Packing.OCTAHEDRAL);
+        textureVertices.pack();
+        computedNormals = null;
+    }
 
-                polygon.getVertexIndices().set(i, vertexIndex - adjustment);
-            }
+    public void unpack() {
+        vertices.unpack();
+        normals.unpack();
+        textureVertices.unpack();
+    }
 
-            if (!polygon.getTextureVertexIndices().isEmpty()) {
-                for (int i = 0; i < polygon.getTextureVertexIndices().size(); i++) {
-                    int texIndex = polygon.getTextureVertexIndices().get(i);
-                    int adjustment = 0;
+    public boolean isPacked() {
+        return vertices.getPacking() != Vector3fList.Packing.NONE;
+    }
 
-                    for (int deletedIdx : deletedIndices) {
-                        if (texIndex > deletedIdx) {
-                            adjustment++;
-                        }
-                    }
+    // Байт в массивах вершин, нормалей и текстурных координат (включая запас ёмкости).
+    public long getGeometryBytes() {
+        return vertices.getStorageBytes() + normals.getStorageBytes() + textureVertices.getStorageBytes();
+    }
 
-                    polygon.getTextureVertexIndices().set(i, texIndex - adjustment);
-                }
-            }
+    // Переставляет вершины и грани для локальности кэша (см. MeshLayoutOptimizer).
+    public void optimizeLayout() {
+        MeshLayoutOptimizer.optimize(this);
+    }
 
-            if (!polygon.getNormalIndices().isEmpty()) {
-                for (int i = 0; i < polygon.getNormalIndices().size(); i++) {
-                    int normIndex = polygon.getNormalIndices().get(i);
-                    int adjustment = 0;
+    // Выделение переводится по таблице "старый индекс -> новый" (несколько старых
+    // вершин могут перейти в одну).
+    void remapVertexSelection(int[] newIndices) {
+        vertexSelection.remap(newIndices);
+    }
 
-                    for (int deletedIdx : deletedIndices) {
-                        if (normIndex > deletedIdx) {
-                            adjustment++;
-                        }
-                    }
+    void remapPolygonSelection(int[] newIndices) {
+        polygonSelection.remap(newIndices);
+    }
 
-                    polygon.getNormalIndices().set(i, normIndex - adjustment);
+    // Удаляет грани, у которых после слияния вершин осталось меньше трёх разных
+    // соседних по контуру вершин.
+    void removeDegeneratePolygons() {
+        FaceTable table = polygons.getTable();
+        int[] offsets = table.getFaceOffsets();
+        int[] vertexIndices = table.getIndices(FaceTable.VERTEX);
+        int faceCount = polygons.size();
+        BitSet removedFaces = new BitSet();
+        polygons.removeFacesIf(face -> {
+            int start = offsets[face];
+            int count = table.getCount(FaceTable.VERTEX, face);
+            int distinct = 0;
+            for (int i = 0; i < count; i++) {
+                int previous = vertexIndices[start + (i + count - 1) % count];
+                if (vertexIndices[start + i] != previous) {
+                    distinct++;
                 }
             }
-        }
-
-        polygons.removeIf(polygon -> {
-            for (int idx : polygon.getVertexIndices()) {
-                if (idx < 0 || idx >= vertices.size()) {
-                    return true;
-                }
+            if (distinct < 3) {
+                removedFaces.set(face);
+                return true;
             }
-            return polygon.getVertexIndices().size() < 3;
+            return false;
         });
+        polygonSelection.remap(IndexRemap.of(removedFaces, faceCount));
     }
 
-    public void deleteSelectedPolygons() {
-        if (selectedPolygonIndices.isEmpty()) return;
-
-        List<Integer> sortedIndices = new ArrayList<>(selectedPolygonIndices);
-        sortedIndices.sort(Collections.reverseOrder());
-
-        for (int polygonIndex : sortedIndices) {
-            if (polygonIndex >= 0 && polygonIndex < polygons.size()) {
-                polygons.remove(polygonIndex);
-            }
+    public void selectVertex(int index, boolean addToSelection) {
+        if (!addToSelection) {
+            vertexSelection.clear();
+        }
+        if (index >= 0 && index < vertices.size()) {
+            vertexSelection.add(index);
         }
-
-        selectedPolygonIndices.clear();
     }
 
-    public void selectVertex(int index, boolean addToSelection) {
+    // Выделяет вершины [from, to), обрезая диапазон по числу вершин.
+    public void selectVertexRange(int from, int to, boolean addToSelection) {
         if (!addToSelection) {
-            selectedVertexIndices.clear();
+            vertexSelection.clear();
         }
-        if (index >= 0 && index < vertices.size()) {
-            selectedVertexIndices.add(index);
+        from = Math.max(from, 0);
+        to = Math.min(to, vertices.size());
+        if (from < to) {
+            vertexSelection.addRange(from, to);
         }
     }
 
+    public void selectAllVertices() {
+        selectVertexRange(0, vertices.size(), false);
+    }
+
+    public void invertVertexSelection() {
+        vertexSelection.invert(vertices.size());
+    }
+
     public void deselectVertex(int index) {
-        selectedVertexIndices.remove(index);
+        vertexSelection.remove(index);
     }
 
     public void clearVertexSelection() {
-        selectedVertexIndices.clear();
+        vertexSelection.clear();
+    }
+
+    // Живое выделение: обход по возрастанию без упаковки (forEach, next, stream).
+    public Selection getVertexSelection() {
+        return vertexSelection;
     }
 
     public Set<Integer> getSelectedVertexIndices() {
-        return Collections.unmodifiableSet(selectedVertexIndices);
+        return vertexSelection.asSet();
     }
 
     public boolean isVertexSelected(int index) {
-        return selectedVertexIndices.contains(index);
+        return vertexSelection.contains(index);
     }
 
     public void selectPolygon(int index, boolean addToSelection) {
         if (!addToSelection) {
-            selectedPolygonIndices.clear();
+            polygonSelection.clear();
         }
         if (index >= 0 && index < polygons.size()) {
-            selectedPolygonIndices.add(index);
+            polygonSelection.add(index);
         }
     }
 
+    public void selectPolygonRange(int from, int to, boolean addToSelection) {
+        if (!addToSelection) {
+            polygonSelection.clear();
+        }
+        from = Math.max(from, 0);
+        to = Math.min(to, polygons.size());
+        if (from < to) {
+            polygonSelection.addRange(from, to);
+        }
+    }
+
+    public void selectAllPolygons() {
+        selectPolygonRange(0, polygons.size(), false);
+    }
+
+    public void invertPolygonSelection() {
+        polygonSelection.invert(polygons.size());
+    }
+
     public void deselectPolygon(int index) {
-        selectedPolygonIndices.remove(index);
+        polygonSelection.remove(index);
     }
 
     public void clearPolygonSelection() {
-        selectedPolygonIndices.clear();
+        polygonSelection.clear();
+    }
+
+    public Selection getPolygonSelection() {
+        return polygonSelection;
     }
 
     public Set<Integer> getSelectedPolygonIndices() {
-        return Collections.unmodifiableSet(selectedPolygonIndices);
+        return polygonSelection.asSet();
     }
 
     public boolean isPolygonSelected(int index) {
-        return selectedPolygonIndices.contains(index);
+        return polygonSelection.contains(index);
     }
 
-    public List<Vector3f> getSelectedVertices() {
-        List<Vector3f> selected = new ArrayList<>();
-        for (int idx : selectedVertexIndices) {
-            if (idx >= 0 && idx < vertices.size()) {
-                selected.add(vertices.get(idx));
+    // Габариты считаются при первом запросе и хранятся, пока не изменятся вершины
+    // (Vector3fList.getModificationCount()) или сам список вершин.
+    public ModelBounds getBounds() {
+        if (bounds == null || boundsVertices != vertices
+                || boundsModificationCount != vertices.getModificationCount()) {
+            bounds = ModelBounds.of(vertices);
+            boundsVertices = vertices;
+            boundsModificationCount = vertices.getModificationCount();
+        }
+        return bounds;
+    }
+
+    public TriangleBuffer getTriangles() {
+        return getTriangles(TriangleBuffer.Triangulation.FAN);
+    }
+
+    // Буфер треугольников строится один раз и дальше обновляется с первой изменённой
+    // грани (FaceTable.takeFirstChangedFace()). Отсечение ушей зависит от координат,
+    // поэтому в этом режиме изменение вершин пересобирает буфер целиком.
+    public TriangleBuffer getTriangles(TriangleBuffer.Triangulation triangulation) {
+        FaceTable table = polygons.getTable();
+        int firstChangedFace = table.takeFirstChangedFace();
+        if (triangles == null || triangles.getTriangulation() != triangulation || trianglesTable != table) {
+            triangles = new TriangleBuffer(triangulation);
+            trianglesTable = table;
+            firstChangedFace = 0;
+        } else if (triangulation == TriangleBuffer.Triangulation.EAR_CLIPPING
+                && trianglesVertexModificationCount != vertices.getModificationCount()) {
+            firstChangedFace = 0;
+        }
+        if (firstChangedFace < table.getFaceCount() || triangles.getFaceCount() != table.getFaceCount()) {
+            triangles.update(table, vertices, firstChangedFace);
+        }
+        trianglesVertexModificationCount = vertices.getModificationCount();
+        return triangles;
+    }
+
+    // Строит уровни детализации (см. ModelLod) и запоминает их. Модель не меняется,
+    // поэтому метод можно вызывать в фоновом потоке, пока модель не редактируется.
+    public ModelLod buildLod(float... ratios) {
+        ModelLod built = ModelLod.build(this, ratios);
+        lod = built;
+        return built;
+    }
+
+    // Уровни детализации или null, если они не строились или грани и вершины с тех пор менялись.
+    public ModelLod getLod() {
+        ModelLod current = lod;
+        return current != null && current.isCurrent(this) ? current : null;
+    }
+
+    public void setVertex(int index, float x, float y, float z) {
+        vertices.set(index, x, y, z);
+        editedVertices.set(index);
+        editedVertexModifications++;
+    }
+
+    public void translateSelectedVertices(float dx, float dy, float dz) {
+        int vertexCount = vertices.size();
+        for (int i = vertexSelection.next(0); i >= 0 && i < vertexCount; i = vertexSelection.next(i + 1)) {
+            setVertex(i, vertices.getX(i) + dx, vertices.getY(i) + dy, vertices.getZ(i) + dz);
+        }
+    }
+
+    public MeshNormals getComputedNormals() {
+        return getComputedNormals(MeshNormals.Weighting.AREA);
+    }
+
+    // Нормали граней и вершин, вычисленные по геометрии. Хранятся до изменения граней
+    // или вершин; если вершины менялись только через setVertex(), пересчитывается лишь
+    // окрестность изменённых вершин.
+    public MeshNormals getComputedNormals(MeshNormals.Weighting weighting) {
+        FaceTable table = polygons.getTable();
+        int vertexModificationCount = vertices.getModificationCount();
+        boolean topologyCurrent = computedNormals != null
+                && computedNormals.getWeighting() == weighting
+                && normalsTable == table
+                && normalsTableModificationCount == table.getModificationCount()
+                && normalsVertices == vertices
+                && computedNormals.getVertexCount() == vertices.size();
+
+        if (!topologyCurrent) {
+            computedNormals = MeshNormals.compute(table, vertices, getAdjacency(), weighting);
+        } else if (vertexModificationCount != normalsVertexModificationCount) {
+            if (vertexModificationCount - normalsVertexModificationCount == editedVertexModifications) {
+                computedNormals.update(table, vertices, getAdjacency(), editedVertices);
+            } else {
+                computedNormals = MeshNormals.compute(table, vertices, getAdjacency(), weighting);
             }
         }
+
+        normalsTable = table;
+        normalsVertices = vertices;
+        normalsTableModificationCount = table.getModificationCount();
+        normalsVertexModificationCount = vertexModificationCount;
+        editedVertices.clear();
+        editedVertexModifications = 0;
+        return computedNormals;
+    }
+
+    // Смежность строится при первом запросе и перестраивается, если с тех пор
+    // изменились грани (FaceTable.getModificationCount()) или число вершин.
+    public MeshAdjacency getAdjacency() {
+        FaceTable table = polygons.getTable();
+        if (adjacency == null || !adjacency.isCurrent(table, vertices.size())) {
+            adjacency = MeshAdjacency.build(table, vertices.size());
+        }
+        return adjacency;
+    }
+
+    // Добавляет к выделению соседей выделенных вершин по рёбрам граней.
+    public void growVertexSelection() {
+        if (vertexSelection.isEmpty()) return;
+        MeshAdjacency adjacency = getAdjacency();
+        Selection grown = new Selection();
+        vertexSelection.forEach(vertex -> {
+            if (vertex < adjacency.getVertexCount()) {
+                adjacency.forEachNeighbor(vertex, grown::add);
+            }
+        });
+        vertexSelection.union(grown);
+    }
+
+    // Снимает выделение с вершин, у которых есть невыделенный сосед.
+    public void shrinkVertexSelection() {
+        if (vertexSelection.isEmpty()) return;
+        MeshAdjacency adjacency = getAdjacency();
+        Selection border = new Selection();
+        vertexSelection.forEach(vertex -> {
+            if (vertex < adjacency.getVertexCount()) {
+                adjacency.forEachNeighbor(vertex, neighbor -> {
+                    if (!vertexSelection.contains(neighbor)) {
+                        border.add(vertex);
+                    }
+                });
+            }
+        });
+        vertexSelection.subtract(border);
+    }
+
+    // Добавляет к выделению грани, делящие ребро с выделенными.
+    public void growPolygonSelection() {
+        if (polygonSelection.isEmpty()) return;
+        MeshAdjacency adjacency = getAdjacency();
+        Selection grown = new Selection();
+        polygonSelection.forEach(face -> {
+            if (face < adjacency.getFaceCount()) {
+                adjacency.forEachEdgeNeighbor(face, grown::add);
+            }
+        });
+        polygonSelection.union(grown);
+    }
+
+    public void shrinkPolygonSelection() {
+        if (polygonSelection.isEmpty()) return;
+        MeshAdjacency adjacency = getAdjacency();
+        Selection border = new Selection();
+        polygonSelection.forEach(face -> {
+            if (face < adjacency.getFaceCount()) {
+                adjacency.forEachEdgeNeighbor(face, neighbor -> {
+                    if (!polygonSelection.contains(neighbor)) {
+                        border.add(face);
+                    }
+                });
+            }
+        });
+        polygonSelection.subtract(border);
+    }
+
+    public List<Vector3f> getSelectedVertices() {
+        List<Vector3f> selected = new ArrayList<>(vertexSelection.size());
+        int vertexCount = vertices.size();
+        for (int idx = vertexSelection.next(0); idx >= 0 && idx < vertexCount; idx = vertexSelection.next(idx + 1)) {
+            selected.add(vertices.get(idx));
+        }
         return selected;
     }
 
     public List<Polygon> getSelectedPolygons() {
-        List<Polygon> selected = new ArrayList<>();
-        for (int idx : selectedPolygonIndices) {
-            if (idx >= 0 && idx < polygons.size()) {
-                selected.add(polygons.get(idx));
-            }
+        List<Polygon> selected = new ArrayList<>(polygonSelection.size());
+        int polygonCount = polygons.size();
+        for (int idx = polygonSelection.next(0); idx >= 0 && idx < polygonCount; idx = polygonSelection.next(idx + 1)) {
+            selected.add(polygons.get(idx));
         }
         return selected;
     }
 
     public int getSelectedVertexCount() {
-        return selectedVertexIndices.size();
+        return vertexSelection.size();
     }
 
     public int getSelectedPolygonCount() {
-        return selectedPolygonIndices.size();
+        return polygonSelection.size();
     }
 
     public List<Vector3f> getVertices() {
@@ -201,4 +539,56 @@ public class Model {
     public List<Polygon> getPolygons() {
         return polygons;
     }
+
+    // MeshGeometry: чтение тех же списков и FaceTable, без копирования.
+    @Override
+    public int getVertexCount() {
+        return vertices.size();
+    }
+
+    @Override
+    public int getTextureVertexCount() {
+        return textureVertices.size();
+    }
+
+    @Override
+    public int getNormalCount() {
+        return normals.size();
+    }
+
+    @Override
+    public void getVertexCoordinates(int from, int to, float[] target, int offset) {
+        vertices.getCoordinates(from, to, target, offset);
+    }
+
+    @Override
+    public void getTextureVertexCoordinates(int from, int to, float[] target, int offset) {
+        textureVertices.getCoordinates(from, to, target, offset);
+    }
+
+    @Override
+    public void getNormalCoordinates(int from, int to, float[] target, int offset) {
+        normals.getCoordinates(from, to, target, offset);
+    }
+
+    @Override
+    public int getFaceCount() {
+        return polygons.getTable().getFaceCount();
+    }
+
+    @Override
+    public boolean hasFaceAttribute(int attribute) {
+        return polygons.getTable().hasAttribute(attribute);
+    }
+
+    @Override
+    public int getFaceSize(int face) {
+        return polygons.getTable().getFaceSize(face);
+    }
+
+    @Override
+    public int getFaceIndex(int attribute, int face, int corner) {
+        FaceTable table = polygons.getTable();
+        return table.hasAttribute(attribute) ? table.getIndex(attribute, face, corner) : FaceTable.ABSENT;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,226 @@
+package com.cgvsu.model;
+
+// Габариты модели: AABB и описанная сфера с центром в центре AABB.
+// Неизменяемы; Model пересчитывает их, только когда меняются вершины.
+public final class ModelBounds {
+    public static final ModelBounds EMPTY = new ModelBounds(0, 0, 0, 0, 0, 0, 0, true);
+
+    // Вершин в одном блоке параллельного прохода.
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    private final float minX, minY, minZ;
+    private final float maxX, maxY, maxZ;
+    private final float radius;
+    private final boolean empty;
+
+    private ModelBounds(float minX, float minY, float minZ, float maxX, float maxY, float maxZ,
+                        float radius, boolean empty) {
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+        this.radius = radius;
+        this.empty = empty;
+    }
+
+    // Упакованный список не распаковывается: каждый блок декодируется во временный массив.
+    public static ModelBounds of(Vector3fList vertices) {
+        if (vertices.getPacking() == Vector3fList.Packing.NONE) {
+            return of(vertices.array(), vertices.size());
+        }
+        return ofBlocks(vertices.size(), (from, to, block) -> vertices.getCoordinates(from, to, block, 0));
+    }
+
+    // Геометрия вне кучи (или любая другая) читается теми же блоками.
+    public static ModelBounds of(MeshGeometry geometry) {
+        if (geometry instanceof Model) {
+            return ((Model) geometry).getBounds();
+        }
+        return ofBlocks(geometry.getVertexCount(),
+                (from, to, block) -> geometry.getVertexCoordinates(from, to, block, 0));
+    }
+
+    // Большие массивы обходятся блоками параллельно: сначала min/max, затем радиус.
+    public static ModelBounds of(float[] positions, int vertexCount) {
+        if (vertexCount == 0) {
+            return EMPTY;
+        }
+        int chunkCount = (vertexCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        float[] box = ParallelRange.range(chunkCount, chunkCount > 1)
+                .mapToObj(chunk -> boxOf(positions, chunk * CHUNK_SIZE,
+                        Math.min(vertexCount, (chunk + 1) * CHUNK_SIZE)))
+                .reduce(ModelBounds::mergeBoxes)
+                .orElseThrow(IllegalStateException::new);
+
+        float centerX = (box[0] + box[3]) / 2;
+        float centerY = (box[1] + box[4]) / 2;
+        float centerZ = (box[2] + box[5]) / 2;
+        double radiusSquared = ParallelRange.range(chunkCount, chunkCount > 1)
+                .mapToDouble(chunk -> maxDistanceSquared(positions, chunk * CHUNK_SIZE,
+                        Math.min(vertexCount, (chunk + 1) * CHUNK_SIZE), centerX, centerY, centerZ))
+                .max()
+                .orElse(0);
+
+        return new ModelBounds(box[0], box[1], box[2], box[3], box[4], box[5],
+                (float) Math.sqrt(radiusSquared), false);
+    }
+
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    public float getMinX() {
+        return minX;
+    }
+
+    public float getMinY() {
+        return minY;
+    }
+
+    public float getMinZ() {
+        return minZ;
+    }
+
+    public float getMaxX() {
+        return maxX;
+    }
+
+    public float getMaxY() {
+        return maxY;
+    }
+
+    public float getMaxZ() {
+        return maxZ;
+    }
+
+    public float getCenterX() {
+        return (minX + maxX) / 2;
+    }
+
+    public float getCenterY() {
+        return (minY + maxY) / 2;
+    }
+
+    public float getCenterZ() {
+        return (minZ + maxZ) / 2;
+    }
+
+    public float getWidth() {
+        return maxX - minX;
+    }
+
+    public float getHeight() {
+        return maxY - minY;
+    }
+
+    public float getDepth() {
+        return maxZ - minZ;
+    }
+
+    public float getRadius() {
+        return radius;
+    }
+
+    public boolean contains(float x, float y, float z) {
+        return !empty && x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+    }
+
+    public boolean intersects(ModelBounds other) {
+        return !empty && !other.empty
+                && minX <= other.maxX && maxX >= other.minX
+                && minY <= other.maxY && maxY >= other.minY
+                && minZ <= other.maxZ && maxZ >= other.minZ;
+    }
+
+    // Для отсечения: лежит ли сфера целиком по отрицательную сторону плоскости
+    // a*x + b*y + c*z + d = 0 (нормаль (a, b, c) единичная).
+    public boolean isOutside(float a, float b, float c, float d) {
+        return !empty && a * getCenterX() + b * getCenterY() + c * getCenterZ() + d < -radius;
+    }
+
+    @Override
+    public String toString() {
+        if (empty) {
+            return "ModelBounds[empty]";
+        }
+        return String.format("ModelBounds[(%.3f, %.3f, %.3f) - (%.3f, %.3f, %.3f), r=%.3f]",
+                minX, minY, minZ, maxX, maxY, maxZ, radius);
+    }
+
+    private interface BlockReader {
+        void read(int from, int to, float[] block);
+    }
+
+    private static ModelBounds ofBlocks(int vertexCount, BlockReader reader) {
+        if (vertexCount == 0) {
+            return EMPTY;
+        }
+        int chunkCount = (vertexCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        float[] box = ParallelRange.range(chunkCount, chunkCount > 1)
+                .mapToObj(chunk -> {
+                    float[] block = readBlock(reader, vertexCount, chunk);
+                    return boxOf(block, 0, block.length / 3);
+                })
+                .reduce(ModelBounds::mergeBoxes)
+                .orElseThrow(IllegalStateException::new);
+        float centerX = (box[0] + box[3]) / 2;
+        float centerY = (box[1] + box[4]) / 2;
+        float centerZ = (box[2] + box[5]) / 2;
+        double radiusSquared = ParallelRange.range(chunkCount, chunkCount > 1)
+                .mapToDouble(chunk -> {
+                    float[] block = readBlock(reader, vertexCount, chunk);
+                    return maxDistanceSquared(block, 0, block.length / 3, centerX, centerY, centerZ);
+                })
+                .max()
+                .orElse(0);
+        return new ModelBounds(box[0], box[1], box[2], box[3], box[4], box[5],
+                (float) Math.sqrt(radiusSquared), false);
+    }
+
+    private static float[] readBlock(BlockReader reader, int vertexCount, int chunk) {
+        int from = chunk * CHUNK_SIZE;
+        int to = Math.min(vertexCount, from + CHUNK_SIZE);
+        float[] block = new float[3 * (to - from)];
+        reader.read(from, to, block);
+        return block;
+    }
+
+    private static float[] boxOf(float[] positions, int from, int to) {
+        float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY, maxZ = Float.NEGATIVE_INFINITY;
+        for (int i = 3 * from; i < 3 * to; i += 3) {
+            float x = positions[i];
+            float y = positions[i + 1];
+            float z = positions[i + 2];
+            if (x < minX) minX = x;
+            if (x > maxX) maxX = x;
+            if (y < minY) minY = y;
+            if (y > maxY) maxY = y;
+            if (z < minZ) minZ = z;
+            if (z > maxZ) maxZ = z;
+        }
+        return new float[]{minX, minY, minZ, maxX, maxY, maxZ};
+    }
+
+    private static float[] mergeBoxes(float[] a, float[] b) {
+        return new float[]{
+                Math.min(a[0], b[0]), Math.min(a[1], b[1]), Math.min(a[2], b[2]),
+                Math.max(a[3], b[3]), Math.max(a[4], b[4]), Math.max(a[5], b[5])
+        };
+    }
+
+    private static double maxDistanceSquared(float[] positions, int from, int to,
+                                             float centerX, float centerY, float centerZ) {
+        double max = 0;
+        for (int i = 3 * from; i < 3 * to; i += 3) {
+            double dx = positions[i] - centerX;
+            double dy = positions[i + 1] - centerY;
+            double dz = positions[i + 2] - centerZ;
+            double distance = dx * dx + dy * dy + dz * dz;
+            if (distance > max) max = distance;
+        }
+        return max;
+    }
+}
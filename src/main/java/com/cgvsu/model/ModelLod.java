@@ -0,0 +1,95 @@
+package com.cgvsu.model;
+
+// Уровни детализации модели: уровень 0 - сама модель, следующие - её упрощённые копии
+// (MeshSimplifier), каждая строится из предыдущей. Уровень выбирается по размеру модели
+// на экране: берётся самый грубый уровень, у которого треугольников не меньше, чем
+// нужно для её площади в пикселях.
+public class ModelLod {
+
+    // Доли треугольников исходной модели по умолчанию: 50%, 10% и 1%.
+    public static final float[] DEFAULT_RATIOS = {0.5f, 0.1f, 0.01f};
+    // Сколько пикселей экрана приходится на один треугольник подходящего уровня.
+    public static final float PIXELS_PER_TRIANGLE = 2;
+
+    private final Model[] levels;
+    private final int[] triangleCounts;
+    private final FaceTable sourceTable;
+    private final int sourceTableModificationCount;
+    private final Vector3fList sourceVertices;
+    private final int sourceVertexModificationCount;
+
+    private ModelLod(Model model, Model[] levels, int[] triangleCounts,
+                     int tableModificationCount, int vertexModificationCount) {
+        this.levels = levels;
+        this.triangleCounts = triangleCounts;
+        this.sourceTable = model.polygons.getTable();
+        this.sourceTableModificationCount = tableModificationCount;
+        this.sourceVertices = model.vertices;
+        this.sourceVertexModificationCount = vertexModificationCount;
+    }
+
+    // ratios - доли треугольников исходной модели по убыванию, каждая в (0, 1).
+    public static ModelLod build(Model model, float... ratios) {
+        for (int i = 0; i < ratios.length; i++) {
+            if (!(ratios[i] > 0 && ratios[i] < 1) || (i > 0 && ratios[i] >= ratios[i - 1])) {
+                throw new IllegalArgumentException("LOD ratios must decrease within (0, 1): " + ratios[i]);
+            }
+        }
+        int tableModificationCount = model.polygons.getTable().getModificationCount();
+        int vertexModificationCount = model.vertices.getModificationCount();
+
+        Model[] levels = new Model[ratios.length + 1];
+        int[] triangleCounts = new int[ratios.length + 1];
+        levels[0] = model;
+        triangleCounts[0] = countTriangles(model.polygons.getTable());
+        for (int i = 0; i < ratios.length; i++) {
+            levels[i + 1] = MeshSimplifier.simplify(levels[i], (int) (ratios[i] * triangleCounts[0]));
+            triangleCounts[i + 1] = levels[i + 1].polygons.size();
+        }
+        return new ModelLod(model, levels, triangleCounts, tableModificationCount, vertexModificationCount);
+    }
+
+    // Построены ли уровни по текущим граням и вершинам модели.
+    public boolean isCurrent(Model model) {
+        return model.polygons.getTable() == sourceTable
+                && sourceTable.getModificationCount() == sourceTableModificationCount
+                && model.vertices == sourceVertices
+                && sourceVertices.getModificationCount() == sourceVertexModificationCount;
+    }
+
+    public int getLevelCount() {
+        return levels.length;
+    }
+
+    public Model getLevel(int level) {
+        return levels[level];
+    }
+
+    public int getTriangleCount(int level) {
+        return triangleCounts[level];
+    }
+
+    // projectedSize - диаметр описанной сферы модели на экране в пикселях.
+    public int selectLevel(float projectedSize) {
+        double needed = (double) projectedSize * projectedSize / PIXELS_PER_TRIANGLE;
+        for (int level = levels.length - 1; level > 0; level--) {
+            if (triangleCounts[level] >= needed) {
+                return level;
+            }
+        }
+        return 0;
+    }
+
+    public Model select(float projectedSize) {
+        return levels[selectLevel(projectedSize)];
+    }
+
+    // Число треугольников веерной триангуляции, без построения буфера.
+    private static int countTriangles(FaceTable table) {
+        int count = 0;
+        for (int face = 0; face < table.getFaceCount(); face++) {
+            count += Math.max(0, table.getCount(FaceTable.VERTEX, face) - 2);
+        }
+        return count;
+    }
+}
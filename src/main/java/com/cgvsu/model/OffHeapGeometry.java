@@ -0,0 +1,457 @@
+package com.cgvsu.model;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+// Геометрия вне кучи: позиции, текстурные координаты, нормали и грани в формате FaceTable
+// (смещения и индексы) лежат в direct-буферах или в буферах, отображённых прямо из файла
+// кэша (MeshCache.map). Сборщик мусора их не обходит и не копирует, поэтому модель на
+// несколько гигабайт не раздувает кучу. Геометрия только читается; для правки её
+// переносят на кучу через toModel().
+//
+// Массив длиннее окна (2^28 элементов, 1 ГБ) разбит на несколько буферов. close()
+// освобождает память сразу, не дожидаясь сборщика; после этого чтение бросает
+// IllegalStateException. Закрывать геометрию, пока её читает другой поток, нельзя.
+public final class OffHeapGeometry implements MeshGeometry, AutoCloseable {
+
+    private static final int WINDOW_SHIFT = 28;
+    private static final int WINDOW_ELEMENTS = 1 << WINDOW_SHIFT;
+    private static final long WINDOW_MASK = WINDOW_ELEMENTS - 1;
+    // Элементов за один перенос между кучей и буферами.
+    private static final int COPY_BLOCK = 1 << 16;
+
+    // sun.misc.Unsafe.invokeCleaner (Java 9+) освобождает direct- и отображённый буфер
+    // немедленно. Если он недоступен, память вернётся вместе с последней ссылкой на буфер.
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> type = Class.forName("sun.misc.Unsafe");
+            Field field = type.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            unsafe = null;
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private final int vertexCount;
+    private final int textureVertexCount;
+    private final int normalCount;
+    private final int faceCount;
+    private final Segment positions;
+    private final Segment textureCoordinates;
+    private final Segment normals;
+    private final Segment faceOffsets;
+    private final Segment[] indices;
+    private ModelBounds bounds;
+    private volatile boolean closed;
+
+    private OffHeapGeometry(int vertexCount, int textureVertexCount, int normalCount, int faceCount,
+                            Segment positions, Segment textureCoordinates, Segment normals,
+                            Segment faceOffsets, Segment[] indices) {
+        this.vertexCount = vertexCount;
+        this.textureVertexCount = textureVertexCount;
+        this.normalCount = normalCount;
+        this.faceCount = faceCount;
+        this.positions = positions;
+        this.textureCoordinates = textureCoordinates;
+        this.normals = normals;
+        this.faceOffsets = faceOffsets;
+        this.indices = indices;
+    }
+
+    // Копия геометрии в direct-буферах; источник после этого можно отпустить.
+    public static OffHeapGeometry copyOf(MeshGeometry source) {
+        int vertexCount = source.getVertexCount();
+        int textureVertexCount = source.getTextureVertexCount();
+        int normalCount = source.getNormalCount();
+        int faceCount = source.getFaceCount();
+
+        Segment positions = copyCoordinates(vertexCount, 3, source::getVertexCoordinates);
+        Segment textureCoordinates = copyCoordinates(textureVertexCount, 2, source::getTextureVertexCoordinates);
+        Segment normals = copyCoordinates(normalCount, 3, source::getNormalCoordinates);
+
+        Segment faceOffsets = Segment.allocate(faceCount + 1L);
+        int[] block = new int[COPY_BLOCK];
+        int filled = 0;
+        long written = 0;
+        int slotCount = 0;
+        for (int face = 0; face <= faceCount; face++) {
+            block[filled++] = slotCount;
+            if (face < faceCount) {
+                slotCount += source.getFaceSize(face);
+            }
+            if (filled == COPY_BLOCK || face == faceCount) {
+                faceOffsets.putInts(written, block, 0, filled);
+                written += filled;
+                filled = 0;
+            }
+        }
+
+        Segment[] indices = new Segment[3];
+        for (int attribute = FaceTable.VERTEX; attribute <= FaceTable.NORMAL; attribute++) {
+            if (attribute == FaceTable.VERTEX || source.hasFaceAttribute(attribute)) {
+                indices[attribute] = copyIndices(source, attribute, slotCount, block);
+            }
+        }
+        return new OffHeapGeometry(vertexCount, textureVertexCount, normalCount, faceCount,
+                positions, textureCoordinates, normals, faceOffsets, indices);
+    }
+
+    // Отображает массивы, лежащие в файле подряд начиная с position: позиции (3 float на
+    // вершину), текстурные координаты (2 float), нормали (3 float), смещения граней
+    // (faceCount + 1 int), индексы вершин и, если есть, текстур и нормалей (по int на
+    // ячейку); little-endian. Отображения остаются действительными после закрытия канала.
+    public static OffHeapGeometry map(FileChannel channel, long position, int vertexCount,
+                                      int textureVertexCount, int normalCount, int faceCount, int slotCount,
+                                      boolean hasTextureIndices, boolean hasNormalIndices) throws IOException {
+        Segment positions = Segment.map(channel, position, 3L * vertexCount);
+        position += 4 * positions.count;
+        Segment textureCoordinates = Segment.map(channel, position, 2L * textureVertexCount);
+        position += 4 * textureCoordinates.count;
+        Segment normals = Segment.map(channel, position, 3L * normalCount);
+        position += 4 * normals.count;
+        Segment faceOffsets = Segment.map(channel, position, faceCount + 1L);
+        position += 4 * faceOffsets.count;
+
+        Segment[] indices = new Segment[3];
+        indices[FaceTable.VERTEX] = Segment.map(channel, position, slotCount);
+        position += 4L * slotCount;
+        if (hasTextureIndices) {
+            indices[FaceTable.TEXTURE] = Segment.map(channel, position, slotCount);
+            position += 4L * slotCount;
+        }
+        if (hasNormalIndices) {
+            indices[FaceTable.NORMAL] = Segment.map(channel, position, slotCount);
+        }
+
+        OffHeapGeometry geometry = new OffHeapGeometry(vertexCount, textureVertexCount, normalCount, faceCount,
+                positions, textureCoordinates, normals, faceOffsets, indices);
+        try {
+            geometry.checkFaceOffsets(slotCount);
+        } catch (IllegalArgumentException e) {
+            geometry.close();
+            throw e;
+        }
+        return geometry;
+    }
+
+    @Override
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    @Override
+    public int getTextureVertexCount() {
+        return textureVertexCount;
+    }
+
+    @Override
+    public int getNormalCount() {
+        return normalCount;
+    }
+
+    @Override
+    public void getVertexCoordinates(int from, int to, float[] target, int offset) {
+        readCoordinates(positions, vertexCount, 3, from, to, target, offset);
+    }
+
+    @Override
+    public void getTextureVertexCoordinates(int from, int to, float[] target, int offset) {
+        readCoordinates(textureCoordinates, textureVertexCount, 2, from, to, target, offset);
+    }
+
+    @Override
+    public void getNormalCoordinates(int from, int to, float[] target, int offset) {
+        readCoordinates(normals, normalCount, 3, from, to, target, offset);
+    }
+
+    @Override
+    public int getFaceCount() {
+        return faceCount;
+    }
+
+    @Override
+    public boolean hasFaceAttribute(int attribute) {
+        return indices[attribute] != null;
+    }
+
+    @Override
+    public int getFaceSize(int face) {
+        checkOpen();
+        checkFace(face);
+        return faceOffsets.getInt(face + 1L) - faceOffsets.getInt(face);
+    }
+
+    @Override
+    public int getFaceIndex(int attribute, int face, int corner) {
+        checkOpen();
+        checkFace(face);
+        int start = faceOffsets.getInt(face);
+        if (corner < 0 || corner >= faceOffsets.getInt(face + 1L) - start) {
+            throw new IndexOutOfBoundsException("Corner: " + corner + ", Face: " + face);
+        }
+        Segment values = indices[attribute];
+        return values == null ? FaceTable.ABSENT : values.getInt(start + (long) corner);
+    }
+
+    // Габариты считаются при первом запросе: геометрия не меняется.
+    public ModelBounds getBounds() {
+        checkOpen();
+        if (bounds == null) {
+            bounds = ModelBounds.of(this);
+        }
+        return bounds;
+    }
+
+    // Байт во всех буферах геометрии.
+    public long getStorageBytes() {
+        long bytes = 4 * (positions.count + textureCoordinates.count + normals.count + faceOffsets.count);
+        for (Segment values : indices) {
+            if (values != null) {
+                bytes += 4 * values.count;
+            }
+        }
+        return bytes;
+    }
+
+    // Копия на куче для правки и операций, которым нужны массивы Model.
+    public Model toModel() {
+        checkOpen();
+        Model model = new Model();
+        model.vertices = Vector3fList.wrap(positions.toFloatArray(), vertexCount);
+        model.textureVertices = Vector2fList.wrap(textureCoordinates.toFloatArray(), textureVertexCount);
+        model.normals = Vector3fList.wrap(normals.toFloatArray(), normalCount);
+        model.polygons = new PolygonList(FaceTable.wrap(faceCount, faceOffsets.toIntArray(),
+                indices[FaceTable.VERTEX].toIntArray(),
+                indices[FaceTable.TEXTURE] != null ? indices[FaceTable.TEXTURE].toIntArray() : null,
+                indices[FaceTable.NORMAL] != null ? indices[FaceTable.NORMAL].toIntArray() : null));
+        return model;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    // Повторный вызов ничего не делает.
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        positions.release();
+        textureCoordinates.release();
+        normals.release();
+        faceOffsets.release();
+        for (Segment values : indices) {
+            if (values != null) {
+                values.release();
+            }
+        }
+    }
+
+    private void readCoordinates(Segment segment, int count, int components, int from, int to,
+                                 float[] target, int offset) {
+        checkOpen();
+        if (from < 0 || to > count || from > to) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + "), Size: " + count);
+        }
+        segment.getFloats((long) components * from, target, offset, components * (to - from));
+    }
+
+    private void checkFaceOffsets(int slotCount) {
+        int[] block = new int[COPY_BLOCK];
+        int previous = 0;
+        for (long from = 0; from < faceOffsets.count; from += COPY_BLOCK) {
+            int length = (int) Math.min(COPY_BLOCK, faceOffsets.count - from);
+            faceOffsets.getInts(from, block, 0, length);
+            if (from == 0 && block[0] != 0) {
+                throw new IllegalArgumentException("Invalid face offsets for " + faceCount + " faces");
+            }
+            for (int i = 0; i < length; i++) {
+                if (block[i] < previous) {
+                    throw new IllegalArgumentException("Face offsets are not monotonic at face " + (from + i - 1));
+                }
+                previous = block[i];
+            }
+        }
+        if (previous != slotCount) {
+            throw new IllegalArgumentException("Face offsets end at " + previous + ", expected " + slotCount);
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Geometry is closed");
+        }
+    }
+
+    private void checkFace(int face) {
+        if (face < 0 || face >= faceCount) {
+            throw new IndexOutOfBoundsException("Face: " + face + ", Count: " + faceCount);
+        }
+    }
+
+    private interface CoordinateReader {
+        void read(int from, int to, float[] target, int offset);
+    }
+
+    private static Segment copyCoordinates(int count, int components, CoordinateReader reader) {
+        Segment segment = Segment.allocate((long) components * count);
+        float[] block = new float[components * COPY_BLOCK];
+        for (int from = 0; from < count; from += COPY_BLOCK) {
+            int to = Math.min(count, from + COPY_BLOCK);
+            reader.read(from, to, block, 0);
+            segment.putFloats((long) components * from, block, 0, components * (to - from));
+        }
+        return segment;
+    }
+
+    private static Segment copyIndices(MeshGeometry source, int attribute, int slotCount, int[] block) {
+        Segment segment = Segment.allocate(slotCount);
+        int filled = 0;
+        long written = 0;
+        for (int face = 0; face < source.getFaceCount(); face++) {
+            int size = source.getFaceSize(face);
+            for (int corner = 0; corner < size; corner++) {
+                block[filled++] = source.getFaceIndex(attribute, face, corner);
+                if (filled == block.length) {
+                    segment.putInts(written, block, 0, filled);
+                    written += filled;
+                    filled = 0;
+                }
+            }
+        }
+        segment.putInts(written, block, 0, filled);
+        return segment;
+    }
+
+    private static void free(ByteBuffer buffer) {
+        if (INVOKE_CLEANER == null || !buffer.isDirect()) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Буфер освободит сборщик мусора.
+        }
+    }
+
+    // Массив из count элементов по 4 байта (float или int) в окнах по WINDOW_ELEMENTS.
+    private static final class Segment {
+        private final ByteBuffer[] windows;
+        private final long count;
+
+        private Segment(ByteBuffer[] windows, long count) {
+            this.windows = windows;
+            this.count = count;
+        }
+
+        static Segment allocate(long count) {
+            ByteBuffer[] windows = new ByteBuffer[windowCount(count)];
+            for (int w = 0; w < windows.length; w++) {
+                windows[w] = ByteBuffer.allocateDirect(4 * windowLength(count, w)).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            return new Segment(windows, count);
+        }
+
+        static Segment map(FileChannel channel, long position, long count) throws IOException {
+            ByteBuffer[] windows = new ByteBuffer[windowCount(count)];
+            for (int w = 0; w < windows.length; w++) {
+                windows[w] = channel.map(FileChannel.MapMode.READ_ONLY, position + 4L * w * WINDOW_ELEMENTS,
+                        4L * windowLength(count, w)).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            return new Segment(windows, count);
+        }
+
+        int getInt(long index) {
+            return windows[(int) (index >>> WINDOW_SHIFT)].getInt(4 * (int) (index & WINDOW_MASK));
+        }
+
+        void getFloats(long from, float[] target, int offset, int length) {
+            while (length > 0) {
+                int chunk = Math.min(length, WINDOW_ELEMENTS - (int) (from & WINDOW_MASK));
+                view(from).asFloatBuffer().get(target, offset, chunk);
+                from += chunk;
+                offset += chunk;
+                length -= chunk;
+            }
+        }
+
+        void putFloats(long from, float[] source, int offset, int length) {
+            while (length > 0) {
+                int chunk = Math.min(length, WINDOW_ELEMENTS - (int) (from & WINDOW_MASK));
+                view(from).asFloatBuffer().put(source, offset, chunk);
+                from += chunk;
+                offset += chunk;
+                length -= chunk;
+            }
+        }
+
+        void getInts(long from, int[] target, int offset, int length) {
+            while (length > 0) {
+                int chunk = Math.min(length, WINDOW_ELEMENTS - (int) (from & WINDOW_MASK));
+                view(from).asIntBuffer().get(target, offset, chunk);
+                from += chunk;
+                offset += chunk;
+                length -= chunk;
+            }
+        }
+
+        void putInts(long from, int[] source, int offset, int length) {
+            while (length > 0) {
+                int chunk = Math.min(length, WINDOW_ELEMENTS - (int) (from & WINDOW_MASK));
+                view(from).asIntBuffer().put(source, offset, chunk);
+                from += chunk;
+                offset += chunk;
+                length -= chunk;
+            }
+        }
+
+        float[] toFloatArray() {
+            float[] values = new float[Math.toIntExact(count)];
+            getFloats(0, values, 0, values.length);
+            return values;
+        }
+
+        int[] toIntArray() {
+            int[] values = new int[Math.toIntExact(count)];
+            getInts(0, values, 0, values.length);
+            return values;
+        }
+
+        void release() {
+            for (ByteBuffer window : windows) {
+                free(window);
+            }
+        }
+
+        // Своя позиция у каждого представления: параллельные чтения не мешают друг другу.
+        private ByteBuffer view(long index) {
+            ByteBuffer view = windows[(int) (index >>> WINDOW_SHIFT)].duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            view.position(4 * (int) (index & WINDOW_MASK));
+            return view;
+        }
+
+        private static int windowCount(long count) {
+            return (int) ((count + WINDOW_ELEMENTS - 1) >>> WINDOW_SHIFT);
+        }
+
+        private static int windowLength(long count, int window) {
+            return (int) Math.min(WINDOW_ELEMENTS, count - (long) window * WINDOW_ELEMENTS);
+        }
+    }
+}
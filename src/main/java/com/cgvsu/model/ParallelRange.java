@@ -0,0 +1,19 @@
+package com.cgvsu.model;
+
+import java.util.stream.IntStream;
+
+// Общий порог и диапазон индексов для проходов по массивам сетки, которые при большом
+// числе элементов идут параллельно (в общем ForkJoinPool).
+final class ParallelRange {
+    // С какого числа элементов проход идёт параллельно.
+    static final int THRESHOLD = 1 << 16;
+
+    private ParallelRange() {
+    }
+
+    // [0, count), параллельный, если parallel.
+    static IntStream range(int count, boolean parallel) {
+        IntStream range = IntStream.range(0, count);
+        return parallel ? range.parallel() : range;
+    }
+}
@@ -2,143 +2,172 @@ package com.cgvsu.model;
 
 import java.util.*;
 
+// Полигон - это строка FaceTable. Полигоны из Model.polygons - лёгкие представления
+// строк общей таблицы модели; созданный через new Polygon() владеет собственной
+// таблицей из одной строки.
+//
+// В отличие от прежнего списка объектов Polygon, Model.polygons.add()/set() копируют
+// индексы в таблицу модели: правка переданного полигона после add() модель больше не
+// меняет, править нужно полигон из get() или addNew(). Представление из get() привязано
+// к номеру строки и после структурного изменения списка (удаление, вставка,
+// перестановка граней) показывает уже другую грань или становится недействительным -
+// его нужно получить заново.
 public class Polygon {
-    private List<Integer> vertexIndices;
-    private List<Integer> textureVertexIndices;
-    private List<Integer> normalIndices;
+    private final FaceTable table;
+    private final int face;
 
     public Polygon() {
-        vertexIndices = new ArrayList<>();
-        textureVertexIndices = new ArrayList<>();
-        normalIndices = new ArrayList<>();
+        table = new FaceTable(1, 4);
+        face = table.addFace();
     }
 
     public Polygon(Polygon other) {
-        this.vertexIndices = new ArrayList<>(other.vertexIndices);
-        this.textureVertexIndices = new ArrayList<>(other.textureVertexIndices);
-        this.normalIndices = new ArrayList<>(other.normalIndices);
+        table = new FaceTable(1, other.table.getFaceSize(other.face));
+        face = table.appendFace(other.table, other.face);
+    }
+
+    Polygon(FaceTable table, int face) {
+        this.table = table;
+        this.face = face;
+    }
+
+    FaceTable getTable() {
+        return table;
+    }
+
+    int getFace() {
+        return face;
     }
 
     public void addVertexIndex(int vertexIndex) {
-        vertexIndices.add(vertexIndex);
+        table.addIndex(FaceTable.VERTEX, face, vertexIndex);
     }
 
     public void addVertexIndices(int... indices) {
         for (int index : indices) {
-            vertexIndices.add(index);
+            addVertexIndex(index);
         }
     }
 
     public void setVertexIndices(List<Integer> vertexIndices) {
-        this.vertexIndices = new ArrayList<>(vertexIndices);
+        setIndices(FaceTable.VERTEX, vertexIndices);
     }
 
     public List<Integer> getVertexIndices() {
-        return vertexIndices;
+        return new IndexList(FaceTable.VERTEX);
     }
 
     public int getVertexIndex(int position) {
-        if (position >= 0 && position < vertexIndices.size()) {
-            return vertexIndices.get(position);
-        }
-        return -1;
+        return getIndex(FaceTable.VERTEX, position);
     }
 
     public int getVertexCount() {
-        return vertexIndices.size();
+        return table.getCount(FaceTable.VERTEX, face);
     }
 
     public boolean containsVertexIndex(int vertexIndex) {
-        return vertexIndices.contains(vertexIndex);
+        int count = getVertexCount();
+        for (int i = 0; i < count; i++) {
+            if (table.getIndex(FaceTable.VERTEX, face, i) == vertexIndex) {
+                return true;
+            }
+        }
+        return false;
     }
 
     public void removeVertexIndex(int position) {
-        if (position >= 0 && position < vertexIndices.size()) {
-            vertexIndices.remove(position);
+        if (position >= 0 && position < getVertexCount()) {
+            table.removeIndex(FaceTable.VERTEX, face, position);
         }
     }
 
     public void updateVertexIndex(int oldIndex, int newIndex) {
-        for (int i = 0; i < vertexIndices.size(); i++) {
-            if (vertexIndices.get(i) == oldIndex) {
-                vertexIndices.set(i, newIndex);
+        int count = getVertexCount();
+        for (int i = 0; i < count; i++) {
+            if (table.getIndex(FaceTable.VERTEX, face, i) == oldIndex) {
+                table.setIndex(FaceTable.VERTEX, face, i, newIndex);
             }
         }
     }
 
     public void addTextureVertexIndex(int textureVertexIndex) {
-        textureVertexIndices.add(textureVertexIndex);
+        table.addIndex(FaceTable.TEXTURE, face, textureVertexIndex);
     }
 
     public void addTextureVertexIndices(int... indices) {
         for (int index : indices) {
-            textureVertexIndices.add(index);
+            addTextureVertexIndex(index);
         }
     }
 
     public void setTextureVertexIndices(List<Integer> textureVertexIndices) {
-        this.textureVertexIndices = new ArrayList<>(textureVertexIndices);
+        setIndices(FaceTable.TEXTURE, textureVertexIndices);
     }
 
     public List<Integer> getTextureVertexIndices() {
-        return textureVertexIndices;
+        return new IndexList(FaceTable.TEXTURE);
     }
 
     public int getTextureVertexIndex(int position) {
-        if (position >= 0 && position < textureVertexIndices.size()) {
-            return textureVertexIndices.get(position);
-        }
-        return -1;
+        return getIndex(FaceTable.TEXTURE, position);
+    }
+
+    public int getTextureVertexCount() {
+        return table.getCount(FaceTable.TEXTURE, face);
     }
 
     public boolean hasTextureCoordinates() {
-        return !textureVertexIndices.isEmpty();
+        return getTextureVertexCount() > 0;
     }
 
     public void addNormalIndex(int normalIndex) {
-        normalIndices.add(normalIndex);
+        table.addIndex(FaceTable.NORMAL, face, normalIndex);
     }
 
     public void addNormalIndices(int... indices) {
         for (int index : indices) {
-            normalIndices.add(index);
+            addNormalIndex(index);
         }
     }
 
     public void setNormalIndices(List<Integer> normalIndices) {
-        this.normalIndices = new ArrayList<>(normalIndices);
+        setIndices(FaceTable.NORMAL, normalIndices);
     }
 
     public List<Integer> getNormalIndices() {
-        return normalIndices;
+        return new IndexList(FaceTable.NORMAL);
     }
 
     public int getNormalIndex(int position) {
-        if (position >= 0 && position < normalIndices.size()) {
-            return normalIndices.get(position);
-        }
-        return -1;
+        return getIndex(FaceTable.NORMAL, position);
+    }
+
+    public int getNormalCount() {
+        return table.getCount(FaceTable.NORMAL, face);
     }
 
     public boolean hasNormals() {
-        return !normalIndices.isEmpty();
+        return getNormalCount() > 0;
     }
 
     public boolean isValid() {
         // Полигон должен иметь хотя бы 3 вершины
-        if (vertexIndices.size() < 3) {
+        int vertexCount = getVertexCount();
+        if (vertexCount < 3) {
             return false;
         }
 
-        for (int index : vertexIndices) {
-            if (index < 0) return false;
+        for (int i = 0; i < vertexCount; i++) {
+            if (table.getIndex(FaceTable.VERTEX, face, i) < 0) return false;
         }
 
-        if (!textureVertexIndices.isEmpty() && textureVertexIndices.size() != vertexIndices.size()) {
+        int textureCount = getTextureVertexCount();
+        if (textureCount != 0 && textureCount != vertexCount) {
             return false;
         }
 
-        if (!normalIndices.isEmpty() && normalIndices.size() != vertexIndices.size()) {
+        int normalCount = getNormalCount();
+        if (normalCount != 0 && normalCount != vertexCount) {
             return false;
         }
 
@@ -179,58 +208,25 @@ public class Polygon {
         return polygon;
     }
 
+    // Раньше строил треугольники и выбрасывал их. Треугольники модели хранятся
+    // в Model.getTriangles(); для отдельного полигона - getTriangles().
+    @Deprecated
     public void triangulate() {
-        // Триангуляция полигона (разбиение на треугольники)
-        if (vertexIndices.size() <= 3) return;
-
-        List<Polygon> triangles = new ArrayList<>();
-        for (int i = 1; i < vertexIndices.size() - 1; i++) {
-            Polygon triangle = new Polygon();
-            triangle.addVertexIndex(vertexIndices.get(0));
-            triangle.addVertexIndex(vertexIndices.get(i));
-            triangle.addVertexIndex(vertexIndices.get(i + 1));
-
-            if (hasTextureCoordinates()) {
-                triangle.addTextureVertexIndex(textureVertexIndices.get(0));
-                triangle.addTextureVertexIndex(textureVertexIndices.get(i));
-                triangle.addTextureVertexIndex(textureVertexIndices.get(i + 1));
-            }
-
-            if (hasNormals()) {
-                triangle.addNormalIndex(normalIndices.get(0));
-                triangle.addNormalIndex(normalIndices.get(i));
-                triangle.addNormalIndex(normalIndices.get(i + 1));
-            }
-
-            triangles.add(triangle);
-        }
     }
 
+    // Треугольники веера - представления строк одной новой FaceTable. Для граней модели
+    // дешевле Model.getTriangles(): он не создаёт объектов на каждый вызов.
     public List<Polygon> getTriangles() {
         List<Polygon> triangles = new ArrayList<>();
 
-        if (vertexIndices.size() == 3) {
+        int vertexCount = getVertexCount();
+        if (vertexCount == 3) {
             triangles.add(this);
-        } else if (vertexIndices.size() > 3) {
-            for (int i = 1; i < vertexIndices.size() - 1; i++) {
-                Polygon triangle = new Polygon();
-                triangle.addVertexIndex(vertexIndices.get(0));
-                triangle.addVertexIndex(vertexIndices.get(i));
-                triangle.addVertexIndex(vertexIndices.get(i + 1));
-
-                if (hasTextureCoordinates()) {
-                    triangle.addTextureVertexIndex(textureVertexIndices.get(0));
-                    triangle.addTextureVertexIndex(textureVertexIndices.get(i));
-                    triangle.addTextureVertexIndex(textureVertexIndices.get(i + 1));
-                }
-
-                if (hasNormals()) {
-                    triangle.addNormalIndex(normalIndices.get(0));
-                    triangle.addNormalIndex(normalIndices.get(i));
-                    triangle.addNormalIndex(normalIndices.get(i + 1));
-                }
-
-                triangles.add(triangle);
+        } else if (vertexCount > 3) {
+            FaceTable fan = new FaceTable(vertexCount - 2, 3 * (vertexCount - 2));
+            fan.appendFan(table, face);
+            for (int i = 0; i < fan.getFaceCount(); i++) {
+                triangles.add(new Polygon(fan, i));
             }
         }
 
@@ -238,7 +234,7 @@ public class Polygon {
     }
 
     public String getType() {
-        int vertexCount = vertexIndices.size();
+        int vertexCount = getVertexCount();
         switch (vertexCount) {
             case 1: return "Point";
             case 2: return "Line";
@@ -249,15 +245,15 @@ public class Polygon {
     }
 
     public boolean isTriangle() {
-        return vertexIndices.size() == 3;
+        return getVertexCount() == 3;
     }
 
     public boolean isQuad() {
-        return vertexIndices.size() == 4;
+        return getVertexCount() == 4;
     }
 
     public boolean isNgon() {
-        return vertexIndices.size() > 4;
+        return getVertexCount() > 4;
     }
 
     @Override
@@ -265,23 +261,24 @@ public class Polygon {
         StringBuilder sb = new StringBuilder();
         sb.append("f ");
 
-        for (int i = 0; i < vertexIndices.size(); i++) {
-            sb.append(vertexIndices.get(i) + 1);
+        int vertexCount = getVertexCount();
+        for (int i = 0; i < vertexCount; i++) {
+            sb.append(getVertexIndex(i) + 1);
 
             if (hasTextureCoordinates() || hasNormals()) {
                 sb.append("/");
 
                 if (hasTextureCoordinates()) {
-                    sb.append(textureVertexIndices.get(i) + 1);
+                    sb.append(getTextureVertexIndex(i) + 1);
                 }
 
                 if (hasNormals()) {
                     sb.append("/");
-                    sb.append(normalIndices.get(i) + 1);
+                    sb.append(getNormalIndex(i) + 1);
                 }
             }
 
-            if (i < vertexIndices.size() - 1) {
+            if (i < vertexCount - 1) {
                 sb.append(" ");
             }
         }
@@ -292,7 +289,7 @@ public class Polygon {
     public String toDetailedString() {
         return String.format(
                 "Polygon[vertices=%d, hasTex=%b, hasNorm=%b, valid=%b]",
-                vertexIndices.size(),
+                getVertexCount(),
                 hasTextureCoordinates(),
                 hasNormals(),
                 isValid()
@@ -300,35 +297,22 @@ public class Polygon {
     }
 
     public void shiftIndices(int shift) {
-        for (int i = 0; i < vertexIndices.size(); i++) {
-            vertexIndices.set(i, vertexIndices.get(i) + shift);
-        }
-
-        for (int i = 0; i < textureVertexIndices.size(); i++) {
-            textureVertexIndices.set(i, textureVertexIndices.get(i) + shift);
-        }
-
-        for (int i = 0; i < normalIndices.size(); i++) {
-            normalIndices.set(i, normalIndices.get(i) + shift);
+        for (int attribute = FaceTable.VERTEX; attribute <= FaceTable.NORMAL; attribute++) {
+            int count = table.getCount(attribute, face);
+            for (int i = 0; i < count; i++) {
+                table.setIndex(attribute, face, i, table.getIndex(attribute, face, i) + shift);
+            }
         }
     }
 
     public void decrementIndices() {
-        for (int i = 0; i < vertexIndices.size(); i++) {
-            if (vertexIndices.get(i) > 0) {
-                vertexIndices.set(i, vertexIndices.get(i) - 1);
-            }
-        }
-
-        for (int i = 0; i < textureVertexIndices.size(); i++) {
-            if (textureVertexIndices.get(i) > 0) {
-                textureVertexIndices.set(i, textureVertexIndices.get(i) - 1);
-            }
-        }
-
-        for (int i = 0; i < normalIndices.size(); i++) {
-            if (normalIndices.get(i) > 0) {
-                normalIndices.set(i, normalIndices.get(i) - 1);
+        for (int attribute = FaceTable.VERTEX; attribute <= FaceTable.NORMAL; attribute++) {
+            int count = table.getCount(attribute, face);
+            for (int i = 0; i < count; i++) {
+                int index = table.getIndex(attribute, face, i);
+                if (index > 0) {
+                    table.setIndex(attribute, face, i, index - 1);
+                }
             }
         }
     }
@@ -344,16 +328,107 @@ public class Polygon {
 
         Polygon polygon = (Polygon) o;
 
-        if (!vertexIndices.equals(polygon.vertexIndices)) return false;
-        if (!textureVertexIndices.equals(polygon.textureVertexIndices)) return false;
-        return normalIndices.equals(polygon.normalIndices);
+        for (int attribute = FaceTable.VERTEX; attribute <= FaceTable.NORMAL; attribute++) {
+            int count = table.getCount(attribute, face);
+            if (count != polygon.table.getCount(attribute, polygon.face)) return false;
+            for (int i = 0; i < count; i++) {
+                if (table.getIndex(attribute, face, i) != polygon.table.getIndex(attribute, polygon.face, i)) {
+                    return false;
+                }
+            }
+        }
+        return true;
     }
 
+    // Совпадает с прежним хешем по трём спискам индексов.
     @Override
     public int hashCode() {
-        int result = vertexIndices.hashCode();
-        result = 31 * result + textureVertexIndices.hashCode();
-        result = 31 * result + normalIndices.hashCode();
+        int result = 0;
+        for (int attribute = FaceTable.VERTEX; attribute <= FaceTable.NORMAL; attribute++) {
+            int listHash = 1;
+            int count = table.getCount(attribute, face);
+            for (int i = 0; i < count; i++) {
+                listHash = 31 * listHash + table.getIndex(attribute, face, i);
+            }
+            result = 31 * result + listHash;
+        }
         return result;
     }
-}
\ No newline at end of file
+
+    private int getIndex(int attribute, int position) {
+        if (position >= 0 && position < table.getCount(attribute, face)) {
+            return table.getIndex(attribute, face, position);
+        }
+        return -1;
+    }
+
+    private void setIndices(int attribute, List<Integer> indices) {
+        int[] values = new int[indices.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = indices.get(i);
+        }
+        table.setIndices(attribute, face, values, values.length);
+    }
+
+    // Живое представление индексов одного атрибута строки в виде List<Integer>.
+    private class IndexList extends AbstractList<Integer> implements RandomAccess {
+        private final int attribute;
+
+        IndexList(int attribute) {
+            this.attribute = attribute;
+        }
+
+        @Override
+        public int size() {
+            return table.getCount(attribute, face);
+        }
+
+        @Override
+        public Integer get(int index) {
+            checkIndex(index, size());
+            return table.getIndex(attribute, face, index);
+        }
+
+        @Override
+        public Integer set(int index, Integer value) {
+            checkIndex(index, size());
+            int previous = table.getIndex(attribute, face, index);
+            table.setIndex(attribute, face, index, value);
+            return previous;
+        }
+
+        @Override
+        public void add(int index, Integer value) {
+            int count = size();
+            if (index < 0 || index > count) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+            }
+            if (index == count) {
+                table.addIndex(attribute, face, value);
+            } else {
+                int[] values = new int[count + 1];
+                int[] current = table.copyIndices(attribute, face);
+                System.arraycopy(current, 0, values, 0, index);
+                values[index] = value;
+                System.arraycopy(current, index, values, index + 1, count - index);
+                table.setIndices(attribute, face, values, values.length);
+            }
+            modCount++;
+        }
+
+        @Override
+        public Integer remove(int index) {
+            checkIndex(index, size());
+            int previous = table.getIndex(attribute, face, index);
+            table.removeIndex(attribute, face, index);
+            modCount++;
+            return previous;
+        }
+
+        private void checkIndex(int index, int size) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.cgvsu.model;
+
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.RandomAccess;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+// Список полигонов модели поверх одной FaceTable. get() возвращает представление строки
+// таблицы; add()/set() копируют индексы переданного полигона в таблицу, так что сам
+// переданный полигон с моделью не связан (см. Polygon).
+public class PolygonList extends AbstractList<Polygon> implements RandomAccess {
+    private final FaceTable table;
+
+    public PolygonList() {
+        this(new FaceTable());
+    }
+
+    public PolygonList(FaceTable table) {
+        this.table = table;
+    }
+
+    public FaceTable getTable() {
+        return table;
+    }
+
+    @Override
+    public int size() {
+        return table.getFaceCount();
+    }
+
+    @Override
+    public Polygon get(int index) {
+        checkIndex(index);
+        return new Polygon(table, index);
+    }
+
+    @Override
+    public Polygon set(int index, Polygon polygon) {
+        checkIndex(index);
+        Polygon source = detach(polygon);
+        Polygon previous = new Polygon(get(index));
+        table.replaceFace(index, source.getTable(), source.getFace());
+        return previous;
+    }
+
+    @Override
+    public boolean add(Polygon polygon) {
+        Polygon source = detach(polygon);
+        table.appendFace(source.getTable(), source.getFace());
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public void add(int index, Polygon polygon) {
+        if (index < 0 || index > size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        Polygon source = detach(polygon);
+        table.insertFace(index, source.getTable(), source.getFace());
+        modCount++;
+    }
+
+    // Добавляет пустую грань и возвращает её представление для заполнения индексами.
+    public Polygon addNew() {
+        int face = table.addFace();
+        modCount++;
+        return new Polygon(table, face);
+    }
+
+    @Override
+    public Polygon remove(int index) {
+        checkIndex(index);
+        Polygon previous = new Polygon(get(index));
+        table.removeFaces(index, index + 1);
+        modCount++;
+        return previous;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        table.removeFaces(fromIndex, toIndex);
+        modCount++;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super Polygon> filter) {
+        int removed = table.removeFacesIf(face -> filter.test(new Polygon(table, face)));
+        if (removed > 0) {
+            modCount++;
+        }
+        return removed > 0;
+    }
+
+    // То же, что removeIf, но по номеру грани, без создания представлений полигонов.
+    public int removeFacesIf(IntPredicate predicate) {
+        int removed = table.removeFacesIf(predicate);
+        if (removed > 0) {
+            modCount++;
+        }
+        return removed;
+    }
+
+    public int removeFaces(BitSet removed) {
+        int count = table.removeFaces(removed);
+        if (count > 0) {
+            modCount++;
+        }
+        return count;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Polygon> polygons) {
+        if (polygons instanceof PolygonList) {
+            FaceTable source = ((PolygonList) polygons).table;
+            if (source == table) {
+                source = new FaceTable(table.getFaceCount(), table.getSlotCount());
+                source.appendAll(table);
+            }
+            table.appendAll(source);
+            modCount++;
+            return source.getFaceCount() > 0;
+        }
+        return super.addAll(polygons);
+    }
+
+    @Override
+    public void clear() {
+        table.clear();
+        modCount++;
+    }
+
+    public void ensureCapacity(int polygonCount) {
+        table.ensureCapacity(polygonCount, 3 * polygonCount);
+    }
+
+    // Полигон из этой же таблицы копируется: его строка может сдвинуться при изменении.
+    private Polygon detach(Polygon polygon) {
+        return polygon.getTable() == table ? new Polygon(polygon) : polygon;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+    }
+}
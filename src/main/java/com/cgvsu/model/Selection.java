@@ -0,0 +1,163 @@
+package com.cgvsu.model;
+
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+// Выделение вершин или граней как битовая карта индексов: без упаковки в Integer,
+// с операциями над диапазонами и обходом по возрастанию индексов.
+public class Selection {
+    private final BitSet bits = new BitSet();
+
+    public boolean contains(int index) {
+        return index >= 0 && bits.get(index);
+    }
+
+    public void add(int index) {
+        bits.set(index);
+    }
+
+    // Полуинтервал [from, to).
+    public void addRange(int from, int to) {
+        bits.set(from, to);
+    }
+
+    public void remove(int index) {
+        if (index >= 0) {
+            bits.clear(index);
+        }
+    }
+
+    public void removeRange(int from, int to) {
+        bits.clear(from, to);
+    }
+
+    // Инвертирует выделение в пределах [0, size); индексы за size снимаются.
+    public void invert(int size) {
+        bits.clear(size, Math.max(size, bits.length()));
+        bits.flip(0, size);
+    }
+
+    public void union(Selection other) {
+        bits.or(other.bits);
+    }
+
+    public void intersect(Selection other) {
+        bits.and(other.bits);
+    }
+
+    public void subtract(Selection other) {
+        bits.andNot(other.bits);
+    }
+
+    public void clear() {
+        bits.clear();
+    }
+
+    // Снимает выделение с индексов не меньше size (после удаления элементов).
+    public void truncate(int size) {
+        bits.clear(size, Math.max(size, bits.length()));
+    }
+
+    public boolean isEmpty() {
+        return bits.isEmpty();
+    }
+
+    public int size() {
+        return bits.cardinality();
+    }
+
+    // Следующий выделенный индекс не меньше from или -1.
+    public int next(int from) {
+        return bits.nextSetBit(from);
+    }
+
+    public void forEach(IntConsumer action) {
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            action.accept(i);
+        }
+    }
+
+    public IntStream stream() {
+        return bits.stream();
+    }
+
+    public BitSet toBitSet() {
+        return (BitSet) bits.clone();
+    }
+
+    // Переводит индексы через remap; выделение удалённых элементов снимается.
+    public void remap(IndexRemap remap) {
+        if (remap.getRemovedCount() == 0) {
+            return;
+        }
+        BitSet remapped = new BitSet(remap.getNewSize());
+        for (int i = bits.nextSetBit(0); i >= 0 && i < remap.getOldSize(); i = bits.nextSetBit(i + 1)) {
+            if (!remap.isRemoved(i)) {
+                remapped.set(remap.map(i));
+            }
+        }
+        bits.clear();
+        bits.or(remapped);
+    }
+
+    // Переводит индексы по таблице "старый индекс -> новый" (перестановка или слияние);
+    // индексы за концом таблицы снимаются.
+    public void remap(int[] newIndices) {
+        if (bits.isEmpty()) {
+            return;
+        }
+        BitSet remapped = new BitSet(newIndices.length);
+        for (int i = bits.nextSetBit(0); i >= 0 && i < newIndices.length; i = bits.nextSetBit(i + 1)) {
+            remapped.set(newIndices[i]);
+        }
+        bits.clear();
+        bits.or(remapped);
+    }
+
+    // Неизменяемое представление в виде Set<Integer> для старого API.
+    public Set<Integer> asSet() {
+        return new AbstractSet<Integer>() {
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof Integer && Selection.this.contains((Integer) o);
+            }
+
+            @Override
+            public int size() {
+                return Selection.this.size();
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return Selection.this.isEmpty();
+            }
+
+            @Override
+            public Iterator<Integer> iterator() {
+                return new Iterator<Integer>() {
+                    private int next = bits.nextSetBit(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return next >= 0;
+                    }
+
+                    @Override
+                    public Integer next() {
+                        if (next < 0) {
+                            throw new NoSuchElementException();
+                        }
+                        int current = next;
+                        next = bits.nextSetBit(current + 1);
+                        return current;
+                    }
+                };
+            }
+        };
+    }
+}
@@ -0,0 +1,230 @@
+package com.cgvsu.model;
+
+import java.util.Arrays;
+
+// Триангулированные грани модели в плоских массивах: у треугольника t вершины
+// getIndices()[3t..3t+2], ячейки FaceTable (для индексов текстур и нормалей)
+// getCorners()[3t..3t+2] и исходная грань getFaceIds()[t]. Треугольники грани f -
+// это [getFaceStart(f), getFaceStart(f + 1)).
+//
+// По умолчанию грань режется веером (0, i, i + 1); в режиме EAR_CLIPPING невыпуклые
+// многоугольники режутся отсечением ушей в проекции на плоскость грани.
+public class TriangleBuffer {
+
+    public enum Triangulation {
+        FAN,
+        EAR_CLIPPING
+    }
+
+    private final Triangulation triangulation;
+    private int triangleCount;
+    private int faceCount;
+    private int[] indices = new int[0];
+    private int[] corners = new int[0];
+    private int[] faceIds = new int[0];
+    private int[] faceOffsets = new int[1];
+
+    public TriangleBuffer(Triangulation triangulation) {
+        this.triangulation = triangulation;
+    }
+
+    public static TriangleBuffer build(FaceTable table, Vector3fList vertices, Triangulation triangulation) {
+        TriangleBuffer buffer = new TriangleBuffer(triangulation);
+        buffer.update(table, vertices, 0);
+        return buffer;
+    }
+
+    public Triangulation getTriangulation() {
+        return triangulation;
+    }
+
+    public int getTriangleCount() {
+        return triangleCount;
+    }
+
+    public int getFaceCount() {
+        return faceCount;
+    }
+
+    // Внутренние массивы; значимы первые 3 * getTriangleCount() (getFaceIds() - getTriangleCount()).
+    public int[] getIndices() {
+        return indices;
+    }
+
+    public int[] getCorners() {
+        return corners;
+    }
+
+    public int[] getFaceIds() {
+        return faceIds;
+    }
+
+    public int getFaceStart(int face) {
+        return faceOffsets[face];
+    }
+
+    // Пересобирает треугольники граней начиная с firstChangedFace; треугольники
+    // предыдущих граней остаются как есть.
+    public void update(FaceTable table, Vector3fList vertices, int firstChangedFace) {
+        int from = Math.min(firstChangedFace, Math.min(faceCount, table.getFaceCount()));
+        triangleCount = faceOffsets[from];
+        faceCount = table.getFaceCount();
+        if (faceOffsets.length < faceCount + 1) {
+            faceOffsets = Arrays.copyOf(faceOffsets, Math.max(faceCount + 1, faceOffsets.length * 3 / 2));
+        }
+
+        int[] offsets = table.getFaceOffsets();
+        int[] vertexIndices = table.getIndices(FaceTable.VERTEX);
+        int estimated = triangleCount + Math.max(0, table.getSlotCount() - offsets[from] - 2 * (faceCount - from));
+        ensureCapacity(estimated);
+
+        int[] polygon = new int[0];
+        for (int face = from; face < faceCount; face++) {
+            faceOffsets[face] = triangleCount;
+            int start = offsets[face];
+            int count = table.getCount(FaceTable.VERTEX, face);
+            if (count < 3) {
+                continue;
+            }
+            ensureCapacity(triangleCount + count - 2);
+            if (count == 3 || triangulation == Triangulation.FAN) {
+                for (int i = 1; i < count - 1; i++) {
+                    addTriangle(vertexIndices, start, start + i, start + i + 1, face);
+                }
+            } else {
+                if (polygon.length < count) {
+                    polygon = new int[count];
+                }
+                for (int i = 0; i < count; i++) {
+                    polygon[i] = start + i;
+                }
+                clipEars(vertexIndices, vertices, polygon, count, face);
+            }
+        }
+        faceOffsets[faceCount] = triangleCount;
+    }
+
+    private void addTriangle(int[] vertexIndices, int a, int b, int c, int face) {
+        int i = 3 * triangleCount;
+        corners[i] = a;
+        corners[i + 1] = b;
+        corners[i + 2] = c;
+        indices[i] = vertexIndices[a];
+        indices[i + 1] = vertexIndices[b];
+        indices[i + 2] = vertexIndices[c];
+        faceIds[triangleCount] = face;
+        triangleCount++;
+    }
+
+    // Отсечение ушей за O(n^2). Многоугольник проецируется на координатную плоскость,
+    // перпендикулярную наибольшей компоненте нормали Ньюэлла. Если ухо не находится
+    // (вырожденный или самопересекающийся контур), остаток режется веером.
+    private void clipEars(int[] vertexIndices, Vector3fList vertices, int[] polygon, int count, int face) {
+        float[] positions = vertices.array();
+        int vertexCount = vertices.size();
+        for (int i = 0; i < count; i++) {
+            int vertex = vertexIndices[polygon[i]];
+            if (vertex < 0 || vertex >= vertexCount) {
+                for (int j = 1; j < count - 1; j++) {
+                    addTriangle(vertexIndices, polygon[0], polygon[j], polygon[j + 1], face);
+                }
+                return;
+            }
+        }
+
+        float nx = 0, ny = 0, nz = 0;
+        for (int i = 0; i < count; i++) {
+            int p = 3 * vertexIndices[polygon[i]];
+            int q = 3 * vertexIndices[polygon[(i + 1) % count]];
+            nx += (positions[p + 1] - positions[q + 1]) * (positions[p + 2] + positions[q + 2]);
+            ny += (positions[p + 2] - positions[q + 2]) * (positions[p] + positions[q]);
+            nz += (positions[p] - positions[q]) * (positions[p + 1] + positions[q + 1]);
+        }
+        int u;
+        int v;
+        float sign;
+        if (Math.abs(nx) >= Math.abs(ny) && Math.abs(nx) >= Math.abs(nz)) {
+            u = 1;
+            v = 2;
+            sign = Math.signum(nx);
+        } else if (Math.abs(ny) >= Math.abs(nz)) {
+            u = 2;
+            v = 0;
+            sign = Math.signum(ny);
+        } else {
+            u = 0;
+            v = 1;
+            sign = Math.signum(nz);
+        }
+        if (sign == 0) {
+            sign = 1;
+        }
+
+        int remaining = count;
+        int guard = 0;
+        int i = 0;
+        while (remaining > 3 && guard < remaining) {
+            int prev = polygon[(i + remaining - 1) % remaining];
+            int current = polygon[i % remaining];
+            int next = polygon[(i + 1) % remaining];
+            if (isEar(vertexIndices, positions, polygon, remaining, prev, current, next, u, v, sign)) {
+                addTriangle(vertexIndices, prev, current, next, face);
+                int at = i % remaining;
+                System.arraycopy(polygon, at + 1, polygon, at, remaining - at - 1);
+                remaining--;
+                guard = 0;
+                if (at == remaining) {
+                    i = 0;
+                } else {
+                    i = at;
+                }
+            } else {
+                i = (i + 1) % remaining;
+                guard++;
+            }
+        }
+        for (int j = 1; j < remaining - 1; j++) {
+            addTriangle(vertexIndices, polygon[0], polygon[j], polygon[j + 1], face);
+        }
+    }
+
+    private static boolean isEar(int[] vertexIndices, float[] positions, int[] polygon, int remaining,
+                                 int prev, int current, int next, int u, int v, float sign) {
+        int a = 3 * vertexIndices[prev];
+        int b = 3 * vertexIndices[current];
+        int c = 3 * vertexIndices[next];
+        float ax = positions[a + u], ay = positions[a + v];
+        float bx = positions[b + u], by = positions[b + v];
+        float cx = positions[c + u], cy = positions[c + v];
+        if (sign * cross(ax, ay, bx, by, cx, cy) <= 0) {
+            return false;
+        }
+        for (int k = 0; k < remaining; k++) {
+            int slot = polygon[k];
+            if (slot == prev || slot == current || slot == next) {
+                continue;
+            }
+            int p = 3 * vertexIndices[slot];
+            float px = positions[p + u], py = positions[p + v];
+            if (sign * cross(ax, ay, bx, by, px, py) >= 0
+                    && sign * cross(bx, by, cx, cy, px, py) >= 0
+                    && sign * cross(cx, cy, ax, ay, px, py) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static float cross(float ax, float ay, float bx, float by, float cx, float cy) {
+        return (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
+    }
+
+    private void ensureCapacity(int triangles) {
+        if (faceIds.length < triangles) {
+            int grown = Math.max(triangles, faceIds.length + (faceIds.length >> 1));
+            indices = Arrays.copyOf(indices, 3 * grown);
+            corners = Arrays.copyOf(corners, 3 * grown);
+            faceIds = Arrays.copyOf(faceIds, grown);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.cgvsu.model;
+
+import com.cgvsu.math.Vector2f;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+// То же, что Vector3fList, для текстурных координат (u0 v0 u1 v1 ...). Упакованный
+// список (pack) хранит координаты как half float и декодирует их при чтении.
+public class Vector2fList extends AbstractList<Vector2f> implements RandomAccess {
+    private static final int DEFAULT_CAPACITY = 10;
+
+    private float[] data;
+    private int size;
+    private short[] packed;
+
+    public Vector2fList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public Vector2fList(int capacity) {
+        data = new float[2 * capacity];
+    }
+
+    public Vector2fList(Collection<? extends Vector2f> vectors) {
+        this(vectors.size());
+        addAll(vectors);
+    }
+
+    // Массив переходит во владение списка.
+    public static Vector2fList wrap(float[] coordinates, int size) {
+        if (coordinates.length < 2 * size) {
+            throw new IllegalArgumentException("Array too short for " + size + " vectors: " + coordinates.length);
+        }
+        Vector2fList list = new Vector2fList(0);
+        list.data = coordinates;
+        list.size = size;
+        return list;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Vector2f get(int index) {
+        return new Vector2f(getX(index), getY(index));
+    }
+
+    public float getX(int index) {
+        checkIndex(index);
+        return packed == null ? data[2 * index] : VectorPacking.halfToFloat(packed[2 * index]);
+    }
+
+    public float getY(int index) {
+        checkIndex(index);
+        return packed == null ? data[2 * index + 1] : VectorPacking.halfToFloat(packed[2 * index + 1]);
+    }
+
+    // Внутренний массив; значимы первые 2 * size() элементов. Действителен до следующего
+    // изменения размера списка. Упакованный список при этом распаковывается.
+    public float[] array() {
+        unpack();
+        return data;
+    }
+
+    // Координаты элементов [from, to) в target начиная с offset, без распаковки списка.
+    public void getCoordinates(int from, int to, float[] target, int offset) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + "), Size: " + size);
+        }
+        if (packed == null) {
+            System.arraycopy(data, 2 * from, target, offset, 2 * (to - from));
+            return;
+        }
+        for (int i = 2 * from; i < 2 * to; i++) {
+            target[offset + i - 2 * from] = VectorPacking.halfToFloat(packed[i]);
+        }
+    }
+
+    public boolean isPacked() {
+        return packed != null;
+    }
+
+    // Half float по 2 на элемент или null, если список не упакован.
+    public short[] packedArray() {
+        return packed;
+    }
+
+    public long getStorageBytes() {
+        return packed == null ? 4L * data.length : 2L * packed.length;
+    }
+
+    public void pack() {
+        if (packed != null) {
+            return;
+        }
+        short[] values = new short[2 * size];
+        for (int i = 0; i < 2 * size; i++) {
+            values[i] = VectorPacking.floatToHalf(data[i]);
+        }
+        packed = values;
+        data = null;
+    }
+
+    public void unpack() {
+        if (packed == null) {
+            return;
+        }
+        float[] values = new float[Math.max(2 * size, 2 * DEFAULT_CAPACITY)];
+        for (int i = 0; i < 2 * size; i++) {
+            values[i] = VectorPacking.halfToFloat(packed[i]);
+        }
+        data = values;
+        packed = null;
+    }
+
+    @Override
+    public Vector2f set(int index, Vector2f vector) {
+        Vector2f previous = get(index);
+        set(index, vector.x, vector.y);
+        return previous;
+    }
+
+    public void set(int index, float x, float y) {
+        checkIndex(index);
+        unpack();
+        int i = 2 * index;
+        data[i] = x;
+        data[i + 1] = y;
+    }
+
+    @Override
+    public boolean add(Vector2f vector) {
+        add(vector.x, vector.y);
+        return true;
+    }
+
+    public void add(float x, float y) {
+        ensureCapacity(size + 1);
+        int i = 2 * size;
+        data[i] = x;
+        data[i + 1] = y;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public void add(int index, Vector2f vector) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        ensureCapacity(size + 1);
+        System.arraycopy(data, 2 * index, data, 2 * index + 2, 2 * (size - index));
+        size++;
+        modCount++;
+        set(index, vector.x, vector.y);
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Vector2f> vectors) {
+        if (vectors instanceof Vector2fList) {
+            Vector2fList other = (Vector2fList) vectors;
+            ensureCapacity(size + other.size);
+            other.getCoordinates(0, other.size, data, 2 * size);
+            size += other.size;
+            modCount++;
+            return other.size > 0;
+        }
+        ensureCapacity(size + vectors.size());
+        for (Vector2f vector : vectors) {
+            add(vector);
+        }
+        return !vectors.isEmpty();
+    }
+
+    @Override
+    public Vector2f remove(int index) {
+        Vector2f previous = get(index);
+        unpack();
+        System.arraycopy(data, 2 * index + 2, data, 2 * index, 2 * (size - index - 1));
+        size--;
+        modCount++;
+        return previous;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        unpack();
+        System.arraycopy(data, 2 * toIndex, data, 2 * fromIndex, 2 * (size - toIndex));
+        size -= toIndex - fromIndex;
+        modCount++;
+    }
+
+    // Удаляет элементы с установленными битами за один проход; биты за size() не учитываются.
+    public void compact(BitSet removed) {
+        int write = removed.nextSetBit(0);
+        if (write < 0 || write >= size) {
+            return;
+        }
+        unpack();
+        int read = write;
+        while (read < size) {
+            int keepFrom = removed.nextClearBit(read);
+            if (keepFrom >= size) {
+                break;
+            }
+            int keepTo = Math.min(size, nextSetBit(removed, keepFrom));
+            System.arraycopy(data, 2 * keepFrom, data, 2 * write, 2 * (keepTo - keepFrom));
+            write += keepTo - keepFrom;
+            read = keepTo;
+        }
+        size = write;
+        modCount++;
+    }
+
+    @Override
+    public void clear() {
+        if (packed != null) {
+            data = new float[2 * DEFAULT_CAPACITY];
+            packed = null;
+        }
+        size = 0;
+        modCount++;
+    }
+
+    public void ensureCapacity(int capacity) {
+        unpack();
+        if (2L * capacity > data.length) {
+            long grown = Math.max(2L * capacity, data.length + (data.length >> 1));
+            data = Arrays.copyOf(data, (int) Math.min(grown, Integer.MAX_VALUE - 8));
+        }
+    }
+
+    public void trimToSize() {
+        if (data != null && data.length > 2 * size) {
+            data = Arrays.copyOf(data, 2 * size);
+        }
+    }
+
+    private static int nextSetBit(BitSet bits, int from) {
+        int next = bits.nextSetBit(from);
+        return next < 0 ? Integer.MAX_VALUE : next;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
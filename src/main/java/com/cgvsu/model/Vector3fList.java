@@ -0,0 +1,374 @@
+package com.cgvsu.model;
+
+import com.cgvsu.math.Vector3f;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.RandomAccess;
+import java.util.stream.IntStream;
+
+// Список векторов, хранящий координаты подряд в одном float[] (x0 y0 z0 x1 y1 z1 ...).
+// get() возвращает новый Vector3f-копию: менять вершину нужно через set(), а не через
+// поля полученного объекта. Горячие циклы читают координаты через getX/getY/getZ или array().
+//
+// Список можно упаковать (pack): позиции - по 16 бит на ось внутри AABB, направления -
+// октаэдрическим кодом (см. VectorPacking). Упакованный список читается через get/getX/
+// getY/getZ/getCoordinates с декодированием на лету; array() и любое изменение сначала
+// распаковывают его обратно во float[]. Распаковка не потокобезопасна.
+public class Vector3fList extends AbstractList<Vector3f> implements RandomAccess {
+    private static final int DEFAULT_CAPACITY = 10;
+
+    public enum Packing {
+        // 3 float, 12 байт на вектор.
+        NONE,
+        // 3 x 16 бит внутри AABB, 6 байт; для позиций вершин.
+        QUANTIZED,
+        // 2 x 16 бит октаэдрического кода, 4 байта; для единичных нормалей.
+        OCTAHEDRAL
+    }
+
+    private float[] data;
+    private int size;
+    private int modificationCount;
+    private Packing packing = Packing.NONE;
+    private short[] packed;
+    // Для QUANTIZED: начало (x, y, z) и шаг (x, y, z) квантования.
+    private final float[] quantization = new float[6];
+
+    public Vector3fList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public Vector3fList(int capacity) {
+        data = new float[3 * capacity];
+    }
+
+    public Vector3fList(Collection<? extends Vector3f> vectors) {
+        this(vectors.size());
+        addAll(vectors);
+    }
+
+    // Массив переходит во владение списка.
+    public static Vector3fList wrap(float[] coordinates, int size) {
+        if (coordinates.length < 3 * size) {
+            throw new IllegalArgumentException("Array too short for " + size + " vectors: " + coordinates.length);
+        }
+        Vector3fList list = new Vector3fList(0);
+        list.data = coordinates;
+        list.size = size;
+        return list;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Vector3f get(int index) {
+        checkIndex(index);
+        if (packing != Packing.NONE) {
+            return new Vector3f(unpackComponent(index, 0), unpackComponent(index, 1), unpackComponent(index, 2));
+        }
+        int i = 3 * index;
+        return new Vector3f(data[i], data[i + 1], data[i + 2]);
+    }
+
+    public float getX(int index) {
+        checkIndex(index);
+        return packing == Packing.NONE ? data[3 * index] : unpackComponent(index, 0);
+    }
+
+    public float getY(int index) {
+        checkIndex(index);
+        return packing == Packing.NONE ? data[3 * index + 1] : unpackComponent(index, 1);
+    }
+
+    public float getZ(int index) {
+        checkIndex(index);
+        return packing == Packing.NONE ? data[3 * index + 2] : unpackComponent(index, 2);
+    }
+
+    // Внутренний массив; значимы первые 3 * size() элементов. Действителен до следующего
+    // изменения размера списка. Упакованный список при этом распаковывается.
+    public float[] array() {
+        unpack();
+        return data;
+    }
+
+    // Координаты элементов [from, to) в target начиная с offset, без распаковки списка.
+    public void getCoordinates(int from, int to, float[] target, int offset) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + "), Size: " + size);
+        }
+        if (packing == Packing.NONE) {
+            System.arraycopy(data, 3 * from, target, offset, 3 * (to - from));
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            unpackVector(i, target, offset + 3 * (i - from));
+        }
+    }
+
+    public Packing getPacking() {
+        return packing;
+    }
+
+    // Упакованные значения (3 или 2 short на элемент) или null, если список не упакован.
+    public short[] packedArray() {
+        return packed;
+    }
+
+    public float getQuantizationOrigin(int axis) {
+        return quantization[axis];
+    }
+
+    public float getQuantizationStep(int axis) {
+        return quantization[3 + axis];
+    }
+
+    // Байт в массивах списка (без заголовков объектов).
+    public long getStorageBytes() {
+        return packing == Packing.NONE ? 4L * data.length : 2L * packed.length;
+    }
+
+    // Заменяет float[] упакованным представлением; значения округляются, поэтому
+    // getModificationCount() растёт. Большие списки кодируются параллельно.
+    public void pack(Packing packing) {
+        unpack();
+        if (packing == Packing.NONE) {
+            return;
+        }
+        float[] source = data;
+        IntStream indices = ParallelRange.range(size, size >= ParallelRange.THRESHOLD);
+        short[] encoded;
+        if (packing == Packing.QUANTIZED) {
+            ModelBounds bounds = ModelBounds.of(source, size);
+            quantization[0] = bounds.getMinX();
+            quantization[1] = bounds.getMinY();
+            quantization[2] = bounds.getMinZ();
+            quantization[3] = VectorPacking.quantizationStep(bounds.getMinX(), bounds.getMaxX());
+            quantization[4] = VectorPacking.quantizationStep(bounds.getMinY(), bounds.getMaxY());
+            quantization[5] = VectorPacking.quantizationStep(bounds.getMinZ(), bounds.getMaxZ());
+            short[] values = new short[3 * size];
+            indices.forEach(i -> {
+                for (int axis = 0; axis < 3; axis++) {
+                    values[3 * i + axis] = VectorPacking.quantize(source[3 * i + axis],
+                            quantization[axis], quantization[3 + axis]);
+                }
+            });
+            encoded = values;
+        } else {
+            short[] values = new short[2 * size];
+            indices.forEach(i -> VectorPacking.encodeDirection(source[3 * i], source[3 * i + 1],
+                    source[3 * i + 2], values, 2 * i));
+            encoded = values;
+        }
+        this.packed = encoded;
+        this.packing = packing;
+        data = null;
+        modificationCount++;
+    }
+
+    public void unpack() {
+        if (packing == Packing.NONE) {
+            return;
+        }
+        float[] unpacked = new float[Math.max(3 * size, 3 * DEFAULT_CAPACITY)];
+        IntStream indices = ParallelRange.range(size, size >= ParallelRange.THRESHOLD);
+        indices.forEach(i -> unpackVector(i, unpacked, 3 * i));
+        data = unpacked;
+        packed = null;
+        packing = Packing.NONE;
+    }
+
+    // Растёт при любом изменении координат или размера (в отличие от modCount, который
+    // учитывает только структурные изменения). Кто пишет прямо в array(), вызывает markModified().
+    public int getModificationCount() {
+        return modificationCount;
+    }
+
+    public void markModified() {
+        modificationCount++;
+    }
+
+    @Override
+    public Vector3f set(int index, Vector3f vector) {
+        Vector3f previous = get(index);
+        set(index, vector.x, vector.y, vector.z);
+        return previous;
+    }
+
+    public void set(int index, float x, float y, float z) {
+        checkIndex(index);
+        unpack();
+        int i = 3 * index;
+        data[i] = x;
+        data[i + 1] = y;
+        data[i + 2] = z;
+        modificationCount++;
+    }
+
+    @Override
+    public boolean add(Vector3f vector) {
+        add(vector.x, vector.y, vector.z);
+        return true;
+    }
+
+    public void add(float x, float y, float z) {
+        ensureCapacity(size + 1);
+        int i = 3 * size;
+        data[i] = x;
+        data[i + 1] = y;
+        data[i + 2] = z;
+        size++;
+        modCount++;
+        modificationCount++;
+    }
+
+    @Override
+    public void add(int index, Vector3f vector) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        ensureCapacity(size + 1);
+        System.arraycopy(data, 3 * index, data, 3 * index + 3, 3 * (size - index));
+        size++;
+        modCount++;
+        modificationCount++;
+        set(index, vector.x, vector.y, vector.z);
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Vector3f> vectors) {
+        if (vectors instanceof Vector3fList) {
+            Vector3fList other = (Vector3fList) vectors;
+            ensureCapacity(size + other.size);
+            other.getCoordinates(0, other.size, data, 3 * size);
+            size += other.size;
+            modCount++;
+            modificationCount++;
+            return other.size > 0;
+        }
+        ensureCapacity(size + vectors.size());
+        for (Vector3f vector : vectors) {
+            add(vector);
+        }
+        return !vectors.isEmpty();
+    }
+
+    @Override
+    public Vector3f remove(int index) {
+        Vector3f previous = get(index);
+        unpack();
+        System.arraycopy(data, 3 * index + 3, data, 3 * index, 3 * (size - index - 1));
+        size--;
+        modCount++;
+        modificationCount++;
+        return previous;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        unpack();
+        System.arraycopy(data, 3 * toIndex, data, 3 * fromIndex, 3 * (size - toIndex));
+        size -= toIndex - fromIndex;
+        modCount++;
+        modificationCount++;
+    }
+
+    // Удаляет элементы с установленными битами за один проход; биты за size() не учитываются.
+    public void compact(BitSet removed) {
+        int write = removed.nextSetBit(0);
+        if (write < 0 || write >= size) {
+            return;
+        }
+        unpack();
+        int read = write;
+        while (read < size) {
+            int keepFrom = removed.nextClearBit(read);
+            if (keepFrom >= size) {
+                break;
+            }
+            int keepTo = Math.min(size, nextSetBit(removed, keepFrom));
+            System.arraycopy(data, 3 * keepFrom, data, 3 * write, 3 * (keepTo - keepFrom));
+            write += keepTo - keepFrom;
+            read = keepTo;
+        }
+        size = write;
+        modCount++;
+        modificationCount++;
+    }
+
+    // Переставляет элементы: новый элемент i - это старый order[i].
+    public void reorder(int[] order) {
+        if (order.length != size) {
+            throw new IllegalArgumentException("Order length " + order.length + " != size " + size);
+        }
+        unpack();
+        float[] reordered = new float[Math.max(data.length, 3 * size)];
+        IntStream indices = ParallelRange.range(size, size >= ParallelRange.THRESHOLD);
+        float[] source = data;
+        indices.forEach(i -> System.arraycopy(source, 3 * order[i], reordered, 3 * i, 3));
+        data = reordered;
+        modCount++;
+        modificationCount++;
+    }
+
+    @Override
+    public void clear() {
+        if (packing != Packing.NONE) {
+            data = new float[3 * DEFAULT_CAPACITY];
+            packed = null;
+            packing = Packing.NONE;
+        }
+        size = 0;
+        modCount++;
+        modificationCount++;
+    }
+
+    public void ensureCapacity(int capacity) {
+        unpack();
+        if (3L * capacity > data.length) {
+            long grown = Math.max(3L * capacity, data.length + (data.length >> 1));
+            data = Arrays.copyOf(data, (int) Math.min(grown, Integer.MAX_VALUE - 8));
+        }
+    }
+
+    public void trimToSize() {
+        if (data != null && data.length > 3 * size) {
+            data = Arrays.copyOf(data, 3 * size);
+        }
+    }
+
+    private float unpackComponent(int index, int axis) {
+        if (packing == Packing.QUANTIZED) {
+            return VectorPacking.dequantize(packed[3 * index + axis], quantization[axis], quantization[3 + axis]);
+        }
+        return VectorPacking.decodeDirectionComponent(packed[2 * index], packed[2 * index + 1], axis);
+    }
+
+    private void unpackVector(int index, float[] target, int offset) {
+        if (packing == Packing.QUANTIZED) {
+            for (int axis = 0; axis < 3; axis++) {
+                target[offset + axis] = VectorPacking.dequantize(packed[3 * index + axis],
+                        quantization[axis], quantization[3 + axis]);
+            }
+        } else {
+            VectorPacking.decodeDirection(packed[2 * index], packed[2 * index + 1], target, offset);
+        }
+    }
+
+    private static int nextSetBit(BitSet bits, int from) {
+        int next = bits.nextSetBit(from);
+        return next < 0 ? Integer.MAX_VALUE : next;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.cgvsu.model;
+
+// Кодирование координат для компактного хранения (Vector3fList.pack, Vector2fList.pack).
+//
+// Позиции: 16 бит без знака на ось внутри AABB списка, x = origin + q * step, где
+// step = extent / 65535. Ошибка по оси не больше step / 2 (плюс округление float).
+// Направления: октаэдрическая развёртка единичной сферы на квадрат [-1, 1]^2, по 16 бит
+// со знаком на компоненту. Угловая ошибка не больше DIRECTION_ERROR; длина вектора не
+// хранится, нулевой вектор декодируется как (0, 0, 1).
+// Текстурные координаты: half float (IEEE 754 binary16), относительная ошибка не больше
+// 2^-11, на [0, 1] абсолютная не больше 2^-12; за пределами +-65504 - бесконечность.
+public final class VectorPacking {
+
+    public static final int QUANTIZATION_LEVELS = 65535;
+    // Угловая ошибка октаэдрического кода в радианах (с запасом, измерена на сфере).
+    public static final float DIRECTION_ERROR = 1e-4f;
+
+    private static final float SNORM_SCALE = 32767;
+
+    private VectorPacking() {
+    }
+
+    public static float quantizationStep(float min, float max) {
+        float extent = max - min;
+        return extent > 0 ? extent / QUANTIZATION_LEVELS : 0;
+    }
+
+    public static short quantize(float value, float origin, float step) {
+        if (step == 0) {
+            return 0;
+        }
+        int q = Math.round((value - origin) / step);
+        return (short) Math.max(0, Math.min(QUANTIZATION_LEVELS, q));
+    }
+
+    public static float dequantize(short value, float origin, float step) {
+        return origin + (value & 0xffff) * step;
+    }
+
+    // Записывает два компонента октаэдрического кода (x, y, z) в target[offset], target[offset + 1].
+    public static void encodeDirection(float x, float y, float z, short[] target, int offset) {
+        float length = Math.abs(x) + Math.abs(y) + Math.abs(z);
+        float u = 0;
+        float v = 0;
+        if (length > 0) {
+            u = x / length;
+            v = y / length;
+            if (z < 0) {
+                float folded = (1 - Math.abs(v)) * signNotZero(u);
+                v = (1 - Math.abs(u)) * signNotZero(v);
+                u = folded;
+            }
+        }
+        target[offset] = (short) Math.round(u * SNORM_SCALE);
+        target[offset + 1] = (short) Math.round(v * SNORM_SCALE);
+    }
+
+    // Единичный вектор в target[offset .. offset + 2].
+    public static void decodeDirection(short encodedU, short encodedV, float[] target, int offset) {
+        float u = Math.max(-1, encodedU / SNORM_SCALE);
+        float v = Math.max(-1, encodedV / SNORM_SCALE);
+        float z = 1 - Math.abs(u) - Math.abs(v);
+        if (z < 0) {
+            float folded = (1 - Math.abs(v)) * signNotZero(u);
+            v = (1 - Math.abs(u)) * signNotZero(v);
+            u = folded;
+        }
+        float length = (float) Math.sqrt(u * u + v * v + z * z);
+        target[offset] = u / length;
+        target[offset + 1] = v / length;
+        target[offset + 2] = z / length;
+    }
+
+    // Один компонент (axis: 0 - x, 1 - y, 2 - z) того же вектора, что и у decodeDirection,
+    // без массива: для чтения нормали по осям в цикле отрисовки.
+    public static float decodeDirectionComponent(short encodedU, short encodedV, int axis) {
+        float u = Math.max(-1, encodedU / SNORM_SCALE);
+        float v = Math.max(-1, encodedV / SNORM_SCALE);
+        float z = 1 - Math.abs(u) - Math.abs(v);
+        if (z < 0) {
+            float folded = (1 - Math.abs(v)) * signNotZero(u);
+            v = (1 - Math.abs(u)) * signNotZero(v);
+            u = folded;
+        }
+        float length = (float) Math.sqrt(u * u + v * v + z * z);
+        return (axis == 0 ? u : axis == 1 ? v : z) / length;
+    }
+
+    // Округление к ближайшему чётному, как в IEEE 754.
+    public static short floatToHalf(float value) {
+        int bits = Float.floatToRawIntBits(value);
+        int sign = (bits >>> 16) & 0x8000;
+        int exponent = (bits >>> 23) & 0xff;
+        int mantissa = bits & 0x7fffff;
+        if (exponent == 0xff) {
+            return (short) (sign | 0x7c00 | (mantissa != 0 ? 0x200 : 0));
+        }
+        int halfExponent = exponent - 127 + 15;
+        if (halfExponent >= 0x1f) {
+            return (short) (sign | 0x7c00);
+        }
+        if (halfExponent <= 0) {
+            if (halfExponent < -10) {
+                return (short) sign;
+            }
+            // Денормализованное half: значение = m * 2^-24.
+            mantissa |= 0x800000;
+            int shift = 14 - halfExponent;
+            int half = mantissa >> shift;
+            int rest = mantissa & ((1 << shift) - 1);
+            int halfway = 1 << (shift - 1);
+            if (rest > halfway || (rest == halfway && (half & 1) != 0)) {
+                half++;
+            }
+            return (short) (sign | half);
+        }
+        int half = (halfExponent << 10) | (mantissa >> 13);
+        int rest = mantissa & 0x1fff;
+        if (rest > 0x1000 || (rest == 0x1000 && (half & 1) != 0)) {
+            // Перенос в порядок корректен, вплоть до бесконечности.
+            half++;
+        }
+        return (short) (sign | half);
+    }
+
+    public static float halfToFloat(short half) {
+        int bits = half & 0xffff;
+        int sign = (bits & 0x8000) << 16;
+        int exponent = (bits >>> 10) & 0x1f;
+        int mantissa = bits & 0x3ff;
+        if (exponent == 0x1f) {
+            return Float.intBitsToFloat(sign | 0x7f800000 | (mantissa << 13));
+        }
+        if (exponent == 0) {
+            float value = mantissa * 0x1p-24f;
+            return sign != 0 ? -value : value;
+        }
+        return Float.intBitsToFloat(sign | ((exponent + 112) << 23) | (mantissa << 13));
+    }
+
+    private static float signNotZero(float value) {
+        return value >= 0 ? 1 : -1;
+    }
+}
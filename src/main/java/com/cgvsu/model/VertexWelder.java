@@ -0,0 +1,140 @@
+package com.cgvsu.model;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+// Сварка совпадающих вершин через хешированную равномерную сетку с ячейкой epsilon.
+//
+// Каждая вершина получает ключ (хеш ячейки << 32 | номер), ключи сортируются, и для
+// вершины i в её ячейке и 26 соседних ищется вершина с наименьшим номером j < i на
+// расстоянии не больше epsilon. Поиск независим для каждой вершины и идёт параллельно;
+// затем за один проход по возрастанию номеров i получает представителя j. Сварка
+// транзитивна: цепочка близких вершин может собраться в одну, даже если её концы
+// дальше epsilon друг от друга. При epsilon = 0 свариваются только точные дубликаты.
+public class VertexWelder {
+
+    private VertexWelder() {
+    }
+
+    // Возвращает число удалённых вершин. Индексы вершин в гранях переписываются,
+    // вырожденные после сварки грани (меньше трёх разных соседних вершин) удаляются.
+    public static int weld(Model model, float epsilon) {
+        Vector3fList vertices = model.vertices;
+        int vertexCount = vertices.size();
+        if (vertexCount < 2) {
+            return 0;
+        }
+        int[] representatives = findRepresentatives(vertices.array(), vertexCount, epsilon);
+
+        BitSet removed = new BitSet(vertexCount);
+        int[] newIndices = new int[vertexCount];
+        int next = 0;
+        for (int i = 0; i < vertexCount; i++) {
+            if (representatives[i] == i) {
+                newIndices[i] = next++;
+            } else {
+                removed.set(i);
+                newIndices[i] = newIndices[representatives[i]];
+            }
+        }
+        int removedCount = vertexCount - next;
+        if (removedCount == 0) {
+            return 0;
+        }
+
+        model.polygons.getTable().remapIndices(FaceTable.VERTEX, newIndices);
+        vertices.compact(removed);
+
+        model.remapVertexSelection(newIndices);
+        model.removeDegeneratePolygons();
+        return removedCount;
+    }
+
+    static int[] findRepresentatives(float[] positions, int vertexCount, float epsilon) {
+        boolean exact = !(epsilon > 0);
+        float cellSize = exact ? 1 : epsilon;
+        boolean parallel = vertexCount >= ParallelRange.THRESHOLD;
+
+        long[] keys = ParallelRange.range(vertexCount, parallel)
+                .mapToLong(i -> ((long) cellHash(positions, i, cellSize, exact, 0, 0, 0) << 32) | i)
+                .toArray();
+        if (parallel) {
+            Arrays.parallelSort(keys);
+        } else {
+            Arrays.sort(keys);
+        }
+
+        float epsilonSquared = exact ? 0 : epsilon * epsilon;
+        int reach = exact ? 0 : 1;
+        int[] candidates = new int[vertexCount];
+        ParallelRange.range(vertexCount, parallel).forEach(i -> {
+            int best = i;
+            for (int dx = -reach; dx <= reach; dx++) {
+                for (int dy = -reach; dy <= reach; dy++) {
+                    for (int dz = -reach; dz <= reach; dz++) {
+                        int hash = cellHash(positions, i, cellSize, exact, dx, dy, dz);
+                        int k = lowerBound(keys, (long) hash << 32);
+                        for (; k < keys.length && (int) (keys[k] >>> 32) == hash; k++) {
+                            int j = (int) keys[k];
+                            if (j >= best) {
+                                break;
+                            }
+                            if (distanceSquared(positions, i, j) <= epsilonSquared) {
+                                best = j;
+                                break;
+                            }
+                        }
+                    }
+                }
+            }
+            candidates[i] = best;
+        });
+
+        // Кандидат всегда меньше i, поэтому его представитель уже известен.
+        for (int i = 0; i < vertexCount; i++) {
+            candidates[i] = candidates[i] == i ? i : candidates[candidates[i]];
+        }
+        return candidates;
+    }
+
+    private static int cellHash(float[] positions, int vertex, float cellSize, boolean exact,
+                                int dx, int dy, int dz) {
+        int o = 3 * vertex;
+        long x;
+        long y;
+        long z;
+        if (exact) {
+            // +0.0f и -0.0f - одна точка.
+            x = Float.floatToIntBits(positions[o] + 0.0f);
+            y = Float.floatToIntBits(positions[o + 1] + 0.0f);
+            z = Float.floatToIntBits(positions[o + 2] + 0.0f);
+        } else {
+            x = (long) Math.floor(positions[o] / cellSize) + dx;
+            y = (long) Math.floor(positions[o + 1] / cellSize) + dy;
+            z = (long) Math.floor(positions[o + 2] / cellSize) + dz;
+        }
+        long hash = x * 73856093L ^ y * 19349663L ^ z * 83492791L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private static int lowerBound(long[] keys, long key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static float distanceSquared(float[] positions, int a, int b) {
+        float dx = positions[3 * a] - positions[3 * b];
+        float dy = positions[3 * a + 1] - positions[3 * b + 1];
+        float dz = positions[3 * a + 2] - positions[3 * b + 2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+}
@@ -0,0 +1,335 @@
+package com.cgvsu.objreader;
+
+import com.cgvsu.model.FaceTable;
+import com.cgvsu.model.Model;
+import com.cgvsu.model.OffHeapGeometry;
+import com.cgvsu.model.PolygonList;
+import com.cgvsu.model.Vector2fList;
+import com.cgvsu.model.Vector3fList;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+// Двоичный кэш разобранного OBJ рядом с исходником (model.obj.meshcache).
+//
+// Заголовок (64 байта, little-endian): magic, version, размер, mtime и CRC32C
+// исходного файла, число v/vt/vn/f, число ячеек граней и маска атрибутов граней.
+// Дальше без выравнивания идут массивы: позиции (3 float на вершину), UV (2 float),
+// нормали (3 float), затем FaceTable как есть: смещения граней (polygonCount + 1 int),
+// индексы вершин и, если есть в маске, индексы текстур и нормалей (по int на ячейку).
+public class MeshCache {
+
+    public static final String EXTENSION = ".meshcache";
+
+    private static final int MAGIC = 0x4F424A43;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 64;
+    private static final int MAX_WINDOW_SIZE = 1 << 30;
+    private static final int HASH_STEP = 16 << 20;
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    public static class Key {
+        private final long size;
+        private final long lastModified;
+        private final long hash;
+
+        Key(long size, long lastModified, long hash) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        public long getHash() {
+            return hash;
+        }
+
+        boolean matches(long size, long lastModified, long hash) {
+            return this.size == size && this.lastModified == lastModified && this.hash == hash;
+        }
+    }
+
+    public static Path cachePath(Path objPath) {
+        return objPath.resolveSibling(objPath.getFileName() + EXTENSION);
+    }
+
+    public static Key keyOf(Path objPath) throws IOException {
+        return keyOf(objPath, null);
+    }
+
+    static Key keyOf(Path objPath, ObjReadProgress progress) throws IOException {
+        long lastModified = Files.getLastModifiedTime(objPath).toMillis();
+        try (FileChannel channel = FileChannel.open(objPath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            CRC32C crc = new CRC32C();
+            for (long position = 0; position < size; position += MAX_WINDOW_SIZE) {
+                long length = Math.min(size - position, MAX_WINDOW_SIZE);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                for (int from = 0; from < length; from += HASH_STEP) {
+                    int to = (int) Math.min(length, (long) from + HASH_STEP);
+                    window.limit(to).position(from);
+                    crc.update(window);
+                    if (progress != null) {
+                        progress.checkCancelled();
+                        progress.advance(to - from);
+                    }
+                }
+            }
+            return new Key(size, lastModified, crc.getValue());
+        }
+    }
+
+    // Возвращает null, если кэша нет, он устарел или повреждён.
+    public static Model read(Path objPath, Key key) throws IOException {
+        return read(objPath, key, new ObjReadStatistics());
+    }
+
+    static Model read(Path objPath, Key key, ObjReadStatistics statistics) throws IOException {
+        Path cachePath = cachePath(objPath);
+        try (FileChannel channel = FileChannel.open(cachePath, StandardOpenOption.READ)) {
+            Header header = readHeader(channel, key);
+            if (header == null) {
+                return null;
+            }
+
+            long position = HEADER_SIZE;
+            float[] positions = readFloats(channel, position, 3 * header.vertexCount);
+            position += 4L * positions.length;
+            float[] uvs = readFloats(channel, position, 2 * header.textureVertexCount);
+            position += 4L * uvs.length;
+            float[] normals = readFloats(channel, position, 3 * header.normalCount);
+            position += 4L * normals.length;
+
+            int[] faceOffsets = readInts(channel, position, header.polygonCount + 1);
+            position += 4L * faceOffsets.length;
+            int[] vertexIndices = readInts(channel, position, header.slotCount);
+            position += 4L * header.slotCount;
+            int[] textureIndices = null;
+            if (header.hasTextureIndices) {
+                textureIndices = readInts(channel, position, header.slotCount);
+                position += 4L * header.slotCount;
+            }
+            int[] normalIndices = header.hasNormalIndices ? readInts(channel, position, header.slotCount) : null;
+
+            FaceTable faces;
+            try {
+                faces = FaceTable.wrap(header.polygonCount, faceOffsets, vertexIndices, textureIndices, normalIndices);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+            if (faceOffsets[header.polygonCount] != header.slotCount) {
+                return null;
+            }
+
+            Model model = new Model();
+            model.vertices = Vector3fList.wrap(positions, header.vertexCount);
+            model.textureVertices = Vector2fList.wrap(uvs, header.textureVertexCount);
+            model.normals = Vector3fList.wrap(normals, header.normalCount);
+            for (int i = 0; i < positions.length; i += 3) {
+                statistics.includeVertex(positions[i], positions[i + 1], positions[i + 2]);
+            }
+            model.polygons = new PolygonList(faces);
+            return model;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    // Отображает массивы кэша в память вне кучи без копирования (см. OffHeapGeometry).
+    // Возвращает null, если кэша нет, он устарел или повреждён.
+    public static OffHeapGeometry map(Path objPath, Key key) throws IOException {
+        Path cachePath = cachePath(objPath);
+        try (FileChannel channel = FileChannel.open(cachePath, StandardOpenOption.READ)) {
+            Header header = readHeader(channel, key);
+            if (header == null) {
+                return null;
+            }
+            return OffHeapGeometry.map(channel, HEADER_SIZE, header.vertexCount, header.textureVertexCount,
+                    header.normalCount, header.polygonCount, header.slotCount,
+                    header.hasTextureIndices, header.hasNormalIndices);
+        } catch (NoSuchFileException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public static void write(Path objPath, Key key, Model model) throws IOException {
+        Path cachePath = cachePath(objPath).toAbsolutePath();
+
+        FaceTable faces = model.polygons.getTable();
+        int slotCount = faces.getSlotCount();
+        int attributes = 0;
+        for (int attribute = FaceTable.VERTEX; attribute <= FaceTable.NORMAL; attribute++) {
+            if (faces.hasAttribute(attribute)) {
+                attributes |= 1 << attribute;
+            }
+        }
+
+        // Свой временный файл на каждую запись: один OBJ могут кэшировать две загрузки сразу.
+        Path tempPath = Files.createTempFile(cachePath.getParent(), cachePath.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+                buffer.putInt(MAGIC);
+                buffer.putInt(VERSION);
+                buffer.putLong(key.getSize());
+                buffer.putLong(key.getLastModified());
+                buffer.putLong(key.getHash());
+                buffer.putInt(model.vertices.size());
+                buffer.putInt(model.textureVertices.size());
+                buffer.putInt(model.normals.size());
+                buffer.putInt(model.polygons.size());
+                buffer.putInt(slotCount);
+                buffer.putInt(attributes);
+                while (buffer.position() < HEADER_SIZE) {
+                    buffer.put((byte) 0);
+                }
+
+                writeFloats(channel, buffer, model.vertices.array(), 3 * model.vertices.size());
+                writeFloats(channel, buffer, model.textureVertices.array(), 2 * model.textureVertices.size());
+                writeFloats(channel, buffer, model.normals.array(), 3 * model.normals.size());
+
+                writeInts(channel, buffer, faces.getFaceOffsets(), faces.getFaceCount() + 1);
+                for (int attribute = FaceTable.VERTEX; attribute <= FaceTable.NORMAL; attribute++) {
+                    if (faces.hasAttribute(attribute)) {
+                        writeInts(channel, buffer, faces.getIndices(attribute), slotCount);
+                    }
+                }
+
+                flush(channel, buffer);
+            }
+            // Канал закрыт до переноса: открытый файл на Windows не переименовать.
+            Files.move(tempPath, cachePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+    }
+
+    private static class Header {
+        int vertexCount;
+        int textureVertexCount;
+        int normalCount;
+        int polygonCount;
+        int slotCount;
+        boolean hasTextureIndices;
+        boolean hasNormalIndices;
+    }
+
+    // null, если заголовок не тот, ключ не совпал или размер файла не сходится со счётчиками.
+    private static Header readHeader(FileChannel channel, Key key) throws IOException {
+        if (channel.size() < HEADER_SIZE) {
+            return null;
+        }
+
+        ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            return null;
+        }
+        if (!key.matches(buffer.getLong(), buffer.getLong(), buffer.getLong())) {
+            return null;
+        }
+
+        Header header = new Header();
+        header.vertexCount = buffer.getInt();
+        header.textureVertexCount = buffer.getInt();
+        header.normalCount = buffer.getInt();
+        header.polygonCount = buffer.getInt();
+        header.slotCount = buffer.getInt();
+        int attributes = buffer.getInt();
+        if ((header.vertexCount | header.textureVertexCount | header.normalCount
+                | header.polygonCount | header.slotCount) < 0) {
+            return null;
+        }
+        header.hasTextureIndices = (attributes & (1 << FaceTable.TEXTURE)) != 0;
+        header.hasNormalIndices = (attributes & (1 << FaceTable.NORMAL)) != 0;
+        int indexArrays = 1 + (header.hasTextureIndices ? 1 : 0) + (header.hasNormalIndices ? 1 : 0);
+
+        long expectedSize = HEADER_SIZE
+                + 4L * (3L * header.vertexCount + 2L * header.textureVertexCount + 3L * header.normalCount)
+                + 4L * (header.polygonCount + 1L + (long) indexArrays * header.slotCount);
+        return channel.size() == expectedSize ? header : null;
+    }
+
+    // Массивы копируются в буфер записи целыми кусками через представление FloatBuffer/IntBuffer.
+    private static void writeFloats(FileChannel channel, ByteBuffer buffer, float[] values, int count)
+            throws IOException {
+        int done = 0;
+        while (done < count) {
+            ensureRemaining(channel, buffer, 4);
+            int length = Math.min(count - done, buffer.remaining() / 4);
+            buffer.asFloatBuffer().put(values, done, length);
+            buffer.position(buffer.position() + 4 * length);
+            done += length;
+        }
+    }
+
+    private static void writeInts(FileChannel channel, ByteBuffer buffer, int[] values, int count)
+            throws IOException {
+        int done = 0;
+        while (done < count) {
+            ensureRemaining(channel, buffer, 4);
+            int length = Math.min(count - done, buffer.remaining() / 4);
+            buffer.asIntBuffer().put(values, done, length);
+            buffer.position(buffer.position() + 4 * length);
+            done += length;
+        }
+    }
+
+    private static void ensureRemaining(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush(channel, buffer);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static float[] readFloats(FileChannel channel, long position, int count) throws IOException {
+        float[] result = new float[count];
+        int done = 0;
+        while (done < count) {
+            int length = Math.min(count - done, MAX_WINDOW_SIZE / 4);
+            map(channel, position + 4L * done, length).asFloatBuffer().get(result, done, length);
+            done += length;
+        }
+        return result;
+    }
+
+    private static int[] readInts(FileChannel channel, long position, int count) throws IOException {
+        int[] result = new int[count];
+        int done = 0;
+        while (done < count) {
+            int length = Math.min(count - done, MAX_WINDOW_SIZE / 4);
+            map(channel, position + 4L * done, length).asIntBuffer().get(result, done, length);
+            done += length;
+        }
+        return result;
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, int count) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, 4L * count);
+        return buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
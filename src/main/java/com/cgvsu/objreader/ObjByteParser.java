@@ -0,0 +1,340 @@
+package com.cgvsu.objreader;
+
+import com.cgvsu.model.Model;
+import com.cgvsu.model.Polygon;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Разбирает OBJ прямо из байтового буфера, не создавая строк для каждой строки файла.
+// Всё, что не укладывается в быстрый путь (ошибки, экзотические символы), повторно
+// разбирается через ObjReader.parseLine, поэтому результат и сообщения об ошибках
+// совпадают с ObjReader.read(String).
+class ObjByteParser {
+
+    private static final int PROGRESS_STEP = 1 << 20;
+
+    private final Model result;
+    private final ObjReadProgress progress;
+    private final ObjReadStatistics statistics;
+    private final ObjNumberScanner scanner = new ObjNumberScanner();
+    private ByteBuffer buffer;
+    private int lineInd;
+    private int lineStart;
+    private int lineEnd;
+
+    ObjByteParser(Model result) {
+        this(result, null, new ObjReadStatistics());
+    }
+
+    ObjByteParser(Model result, ObjReadProgress progress, ObjReadStatistics statistics) {
+        this.result = result;
+        this.progress = progress;
+        this.statistics = statistics;
+    }
+
+    int getLineIndex() {
+        return lineInd;
+    }
+
+    String currentLine() {
+        return text(lineStart, lineEnd);
+    }
+
+    void parse(ByteBuffer buffer, int from, int to) {
+        this.buffer = buffer;
+
+        int start = from;
+        int reported = from;
+        for (int i = from; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b == '\n' || b == '\r') {
+                parseLine(start, i);
+                if (b == '\r' && i + 1 < to && buffer.get(i + 1) == '\n') {
+                    i++;
+                }
+                start = i + 1;
+
+                if (progress != null && start - reported >= PROGRESS_STEP) {
+                    progress.checkCancelled();
+                    progress.advance(start - reported);
+                    reported = start;
+                }
+            }
+        }
+
+        if (start < to) {
+            parseLine(start, to);
+        }
+        if (progress != null) {
+            progress.advance(to - reported);
+        }
+    }
+
+    // Быстрый подсчёт строк v/vt/vn/f без разбора чисел, чтобы списки модели
+    // выделились один раз. Считает с запасом (строки с ошибками тоже), это не страшно.
+    void presize(ByteBuffer buffer, int from, int to) {
+        int vertexCount = 0;
+        int textureVertexCount = 0;
+        int normalCount = 0;
+        int polygonCount = 0;
+
+        int i = from;
+        while (i < to) {
+            while (i < to && isTrimmed(buffer.get(i))) {
+                i++;
+            }
+            if (i == to) {
+                break;
+            }
+
+            byte first = buffer.get(i);
+            byte second = i + 1 < to ? buffer.get(i + 1) : (byte) '\n';
+            if (first == 'v') {
+                if (isTrimmed(second)) {
+                    vertexCount++;
+                } else if (second == 't') {
+                    textureVertexCount++;
+                } else if (second == 'n') {
+                    normalCount++;
+                }
+            } else if (first == 'f' && isTrimmed(second)) {
+                polygonCount++;
+            }
+
+            while (i < to && buffer.get(i) != '\n' && buffer.get(i) != '\r') {
+                i++;
+            }
+        }
+
+        result.vertices.ensureCapacity(result.vertices.size() + vertexCount);
+        result.textureVertices.ensureCapacity(result.textureVertices.size() + textureVertexCount);
+        result.normals.ensureCapacity(result.normals.size() + normalCount);
+        result.polygons.ensureCapacity(result.polygons.size() + polygonCount);
+    }
+
+    static int lastLineEnd(ByteBuffer buffer, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (buffer.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        for (int i = length - 2; i >= 0; i--) {
+            if (buffer.get(i) == '\r') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private void parseLine(int start, int end) {
+        lineInd++;
+        lineStart = start;
+        lineEnd = end;
+
+        while (start < end && isTrimmed(buffer.get(start))) {
+            start++;
+        }
+        while (end > start && isTrimmed(buffer.get(end - 1))) {
+            end--;
+        }
+        if (start == end || buffer.get(start) == '#') {
+            return;
+        }
+
+        int tokenEnd = tokenEnd(start, end);
+        int tokenLength = tokenEnd - start;
+        byte first = buffer.get(start);
+
+        boolean parsed;
+        if (tokenLength == 1 && first == 'v') {
+            parsed = parseVertex(tokenEnd, end);
+        } else if (tokenLength == 2 && first == 'v' && buffer.get(start + 1) == 't') {
+            parsed = parseTextureVertex(tokenEnd, end);
+        } else if (tokenLength == 2 && first == 'v' && buffer.get(start + 1) == 'n') {
+            parsed = parseNormal(tokenEnd, end);
+        } else if (tokenLength == 1 && first == 'f') {
+            parsed = parseFace(tokenEnd, end);
+        } else {
+            parsed = true;
+        }
+
+        if (!parsed) {
+            int vertexCount = result.vertices.size();
+            statistics.addFallbackLine();
+            ObjReader.parseLine(text(start, end), lineInd, result);
+            if (result.vertices.size() > vertexCount) {
+                statistics.includeVertex(result.vertices.getX(vertexCount),
+                        result.vertices.getY(vertexCount), result.vertices.getZ(vertexCount));
+            }
+        }
+    }
+
+    private boolean parseVertex(int from, int end) {
+        int xStart = skipSeparators(from, end);
+        int xEnd = tokenEnd(xStart, end);
+        int yStart = skipSeparators(xEnd, end);
+        int yEnd = tokenEnd(yStart, end);
+        int zStart = skipSeparators(yEnd, end);
+        int zEnd = tokenEnd(zStart, end);
+        if (zStart == zEnd) {
+            return false;
+        }
+
+        if (!scanner.scanFloat(buffer, xStart, xEnd)) {
+            return false;
+        }
+        float x = scanner.floatValue();
+        if (!scanner.scanFloat(buffer, yStart, yEnd)) {
+            return false;
+        }
+        float y = scanner.floatValue();
+        if (!scanner.scanFloat(buffer, zStart, zEnd)) {
+            return false;
+        }
+        float z = scanner.floatValue();
+        result.vertices.add(x, y, z);
+        statistics.includeVertex(x, y, z);
+        return true;
+    }
+
+    private boolean parseTextureVertex(int from, int end) {
+        int uStart = skipSeparators(from, end);
+        int uEnd = tokenEnd(uStart, end);
+        int vStart = skipSeparators(uEnd, end);
+        int vEnd = tokenEnd(vStart, end);
+        if (vStart == vEnd) {
+            return false;
+        }
+
+        if (!scanner.scanFloat(buffer, uStart, uEnd)) {
+            return false;
+        }
+        float u = scanner.floatValue();
+        if (!scanner.scanFloat(buffer, vStart, vEnd)) {
+            return false;
+        }
+        result.textureVertices.add(u, scanner.floatValue());
+        return true;
+    }
+
+    private boolean parseNormal(int from, int end) {
+        int xStart = skipSeparators(from, end);
+        int xEnd = tokenEnd(xStart, end);
+        int yStart = skipSeparators(xEnd, end);
+        int yEnd = tokenEnd(yStart, end);
+        int zStart = skipSeparators(yEnd, end);
+        int zEnd = tokenEnd(zStart, end);
+        if (zStart == zEnd) {
+            return false;
+        }
+
+        if (!scanner.scanFloat(buffer, xStart, xEnd)) {
+            return false;
+        }
+        float x = scanner.floatValue();
+        if (!scanner.scanFloat(buffer, yStart, yEnd)) {
+            return false;
+        }
+        float y = scanner.floatValue();
+        if (!scanner.scanFloat(buffer, zStart, zEnd)) {
+            return false;
+        }
+        result.normals.add(x, y, scanner.floatValue());
+        return true;
+    }
+
+    // Индексы пишутся прямо в новую строку FaceTable модели; при ошибке строка убирается.
+    private boolean parseFace(int from, int end) {
+        Polygon polygon = result.polygons.addNew();
+
+        int wordStart = skipSeparators(from, end);
+        while (wordStart < end) {
+            int wordEnd = tokenEnd(wordStart, end);
+            if (!parseFaceWord(wordStart, wordEnd, polygon)) {
+                result.polygons.remove(result.polygons.size() - 1);
+                return false;
+            }
+            wordStart = skipSeparators(wordEnd, end);
+        }
+
+        if (polygon.getVertexCount() < 3) {
+            result.polygons.remove(result.polygons.size() - 1);
+            return false;
+        }
+
+        return true;
+    }
+
+    private boolean parseFaceWord(int start, int end, Polygon polygon) {
+        int firstSlash = indexOf('/', start, end);
+        int secondSlash = firstSlash < end ? indexOf('/', firstSlash + 1, end) : end;
+        if (secondSlash < end && indexOf('/', secondSlash + 1, end) < end) {
+            return false;
+        }
+        if (firstSlash == start) {
+            return false;
+        }
+
+        if (!scanner.scanInt(buffer, start, firstSlash)) {
+            return false;
+        }
+        polygon.addVertexIndex(scanner.intValue() - 1);
+
+        if (firstSlash < end && secondSlash > firstSlash + 1) {
+            if (!scanner.scanInt(buffer, firstSlash + 1, secondSlash)) {
+                return false;
+            }
+            polygon.addTextureVertexIndex(scanner.intValue() - 1);
+        }
+
+        if (secondSlash < end && end > secondSlash + 1) {
+            if (!scanner.scanInt(buffer, secondSlash + 1, end)) {
+                return false;
+            }
+            polygon.addNormalIndex(scanner.intValue() - 1);
+        }
+        return true;
+    }
+
+    private int indexOf(char c, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (buffer.get(i) == c) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    private int skipSeparators(int i, int end) {
+        while (i < end && isSeparator(buffer.get(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private int tokenEnd(int i, int end) {
+        while (i < end && !isSeparator(buffer.get(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private String text(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Соответствует \s в line.split("\\s+") после trim().
+    private static boolean isSeparator(byte b) {
+        return b == ' ' || b == '\t' || b == 0x0B || b == '\f';
+    }
+
+    // Соответствует String.trim(): все символы с кодом <= U+0020.
+    private static boolean isTrimmed(byte b) {
+        return (b & 0xFF) <= ' ';
+    }
+}
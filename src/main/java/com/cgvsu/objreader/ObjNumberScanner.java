@@ -0,0 +1,288 @@
+package com.cgvsu.objreader;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Разбор чисел OBJ без промежуточных строк. Принимает то же, что и прежний
+// parseFloatSafe: ',' считается точкой, все символы кроме [0-9.Ee-] (в том числе
+// Φ/φ и '+') выбрасываются, остаток разбирается по грамматике Float.parseFloat.
+// Результат совпадает с Float.parseFloat побитово: короткие мантиссы считаются
+// одним точным умножением/делением в double, остальное уходит в Float.parseFloat.
+final class ObjNumberScanner {
+
+    private static final int START = 0;
+    private static final int SIGN = 1;
+    private static final int INTEGER = 2;
+    private static final int FRACTION = 3;
+    private static final int EXPONENT_START = 4;
+    private static final int EXPONENT_SIGN = 5;
+    private static final int EXPONENT = 6;
+    private static final int ERROR = 7;
+
+    private static final int MAX_FAST_DIGITS = 18;
+    private static final int MAX_FAST_EXPONENT = 22;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final int EXPONENT_LIMIT = 100_000;
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private int state;
+    private boolean negative;
+    private boolean digitSeen;
+    private long mantissa;
+    private int significantDigits;
+    private int fractionDigits;
+    private boolean exponentNegative;
+    private int exponent;
+
+    private char[] cleaned = new char[32];
+    private int cleanedLength;
+
+    private float floatValue;
+    private int intValue;
+
+    boolean scanFloat(CharSequence value, int start, int end) {
+        resetFloat();
+        for (int i = start; i < end; i++) {
+            accept(value.charAt(i));
+        }
+        return finishFloat();
+    }
+
+    boolean scanFloat(ByteBuffer buffer, int start, int end) {
+        resetFloat();
+        for (int i = start; i < end; i++) {
+            accept(buffer.get(i) & 0xFF);
+        }
+        return finishFloat();
+    }
+
+    float floatValue() {
+        return floatValue;
+    }
+
+    // После неудачного scanFloat: остались ли вообще символы числа.
+    boolean isEmpty() {
+        return cleanedLength == 0;
+    }
+
+    // Повторяет Integer.parseInt(value.trim()).
+    boolean scanInt(CharSequence value, int start, int end) {
+        while (start < end && value.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return false;
+        }
+
+        boolean negativeInt = false;
+        char first = value.charAt(start);
+        if (first == '-' || first == '+') {
+            negativeInt = first == '-';
+            start++;
+            if (start == end) {
+                return false;
+            }
+        }
+
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            int digit = Character.digit(value.charAt(i), 10);
+            if (digit < 0) {
+                return false;
+            }
+            result = result * 10 + digit;
+            if (result > 1L + Integer.MAX_VALUE) {
+                return false;
+            }
+        }
+        return storeInt(negativeInt, result);
+    }
+
+    boolean scanInt(ByteBuffer buffer, int start, int end) {
+        while (start < end && (buffer.get(start) & 0xFF) <= ' ') {
+            start++;
+        }
+        while (end > start && (buffer.get(end - 1) & 0xFF) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return false;
+        }
+
+        boolean negativeInt = false;
+        byte first = buffer.get(start);
+        if (first == '-' || first == '+') {
+            negativeInt = first == '-';
+            start++;
+            if (start == end) {
+                return false;
+            }
+        }
+
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return false;
+            }
+            result = result * 10 + digit;
+            if (result > 1L + Integer.MAX_VALUE) {
+                return false;
+            }
+        }
+        return storeInt(negativeInt, result);
+    }
+
+    int intValue() {
+        return intValue;
+    }
+
+    private boolean storeInt(boolean negativeInt, long result) {
+        if (negativeInt) {
+            result = -result;
+        }
+        if (result > Integer.MAX_VALUE || result < Integer.MIN_VALUE) {
+            return false;
+        }
+        intValue = (int) result;
+        return true;
+    }
+
+    private void resetFloat() {
+        state = START;
+        negative = false;
+        digitSeen = false;
+        mantissa = 0;
+        significantDigits = 0;
+        fractionDigits = 0;
+        exponentNegative = false;
+        exponent = 0;
+        cleanedLength = 0;
+    }
+
+    private void accept(int c) {
+        if (c >= '0' && c <= '9') {
+            keep((char) c);
+            acceptDigit(c - '0');
+        } else if (c == '.' || c == ',') {
+            keep('.');
+            if (state == START || state == SIGN || state == INTEGER) {
+                state = FRACTION;
+            } else {
+                state = ERROR;
+            }
+        } else if (c == 'e' || c == 'E') {
+            keep((char) c);
+            if ((state == INTEGER || state == FRACTION) && digitSeen) {
+                state = EXPONENT_START;
+            } else {
+                state = ERROR;
+            }
+        } else if (c == '-') {
+            keep('-');
+            if (state == START) {
+                negative = true;
+                state = SIGN;
+            } else if (state == EXPONENT_START) {
+                exponentNegative = true;
+                state = EXPONENT_SIGN;
+            } else {
+                state = ERROR;
+            }
+        }
+    }
+
+    private void acceptDigit(int digit) {
+        switch (state) {
+            case START:
+            case SIGN:
+                state = INTEGER;
+                addMantissaDigit(digit, false);
+                break;
+            case INTEGER:
+                addMantissaDigit(digit, false);
+                break;
+            case FRACTION:
+                addMantissaDigit(digit, true);
+                break;
+            case EXPONENT_START:
+            case EXPONENT_SIGN:
+                state = EXPONENT;
+                exponent = digit;
+                break;
+            case EXPONENT:
+                if (exponent < EXPONENT_LIMIT) {
+                    exponent = exponent * 10 + digit;
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void addMantissaDigit(int digit, boolean fraction) {
+        digitSeen = true;
+        if (significantDigits == 0 && digit == 0) {
+            if (fraction) {
+                fractionDigits++;
+            }
+            return;
+        }
+        significantDigits++;
+        if (significantDigits <= MAX_FAST_DIGITS) {
+            mantissa = mantissa * 10 + digit;
+            if (fraction) {
+                fractionDigits++;
+            }
+        }
+    }
+
+    private void keep(char c) {
+        if (cleanedLength == cleaned.length) {
+            cleaned = Arrays.copyOf(cleaned, cleanedLength * 2);
+        }
+        cleaned[cleanedLength++] = c;
+    }
+
+    private boolean finishFloat() {
+        if (state == ERROR || !digitSeen
+                || state == EXPONENT_START || state == EXPONENT_SIGN) {
+            return false;
+        }
+
+        if (mantissa == 0) {
+            floatValue = negative ? -0.0f : 0.0f;
+            return true;
+        }
+
+        int decimalExponent = (exponentNegative ? -exponent : exponent) - fractionDigits;
+        if (significantDigits <= MAX_FAST_DIGITS && mantissa < MAX_EXACT_MANTISSA
+                && decimalExponent >= -MAX_FAST_EXPONENT && decimalExponent <= MAX_FAST_EXPONENT) {
+            double exact = decimalExponent >= 0
+                    ? mantissa * POWERS_OF_TEN[decimalExponent]
+                    : mantissa / POWERS_OF_TEN[-decimalExponent];
+            float rounded = (float) exact;
+            if ((double) rounded == exact || !isFloatMidpoint(exact, rounded)) {
+                floatValue = negative ? -rounded : rounded;
+                return true;
+            }
+        }
+
+        floatValue = Float.parseFloat(new String(cleaned, 0, cleanedLength));
+        return true;
+    }
+
+    // Двойное округление decimal -> double -> float ошибается только тогда, когда
+    // double попал ровно в середину между соседними float.
+    private static boolean isFloatMidpoint(double exact, float rounded) {
+        float neighbour = exact > rounded ? Math.nextUp(rounded) : Math.nextDown(rounded);
+        return ((double) rounded + (double) neighbour) / 2 == exact;
+    }
+}
@@ -0,0 +1,143 @@
+package com.cgvsu.objreader;
+
+import com.cgvsu.model.Model;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Делит отображённый файл на куски по границам строк, разбирает их параллельно
+// и склеивает результаты в порядке файла. Индексы в f хранятся как есть (без
+// разрешения относительных), поэтому при склейке их сдвигать не нужно.
+class ObjParallelReader {
+
+    static Model read(List<ByteBuffer> buffers, ForkJoinPool pool, int chunkSize,
+                      boolean presize, ObjReadProgress progress, ObjReadStatistics statistics) {
+        List<Chunk> chunks = new ArrayList<>();
+        for (ByteBuffer buffer : buffers) {
+            int end = buffer.limit();
+            int start = 0;
+            while (start < end) {
+                int chunkEnd = nextLineStart(buffer, (int) Math.min((long) start + chunkSize, end), end);
+                chunks.add(new Chunk(buffer, start, chunkEnd, presize, progress));
+                start = chunkEnd;
+            }
+        }
+
+        pool.invoke(new ParseTask(chunks, 0, chunks.size()));
+
+        int lineOffset = 0;
+        for (Chunk chunk : chunks) {
+            if (chunk.error != null) {
+                // Повторяем разбор упавшей строки уже с настоящим номером строки в файле.
+                ObjReader.parseLine(chunk.errorLine, lineOffset + chunk.errorLineInd, new Model());
+                throw chunk.error;
+            }
+            lineOffset += chunk.lineCount;
+            statistics.merge(chunk.statistics);
+        }
+        statistics.setLineCount(lineOffset);
+
+        return merge(chunks);
+    }
+
+    private static Model merge(List<Chunk> chunks) {
+        int vertexCount = 0;
+        int textureVertexCount = 0;
+        int normalCount = 0;
+        int polygonCount = 0;
+        for (Chunk chunk : chunks) {
+            vertexCount += chunk.model.vertices.size();
+            textureVertexCount += chunk.model.textureVertices.size();
+            normalCount += chunk.model.normals.size();
+            polygonCount += chunk.model.polygons.size();
+        }
+
+        Model result = new Model();
+        result.vertices.ensureCapacity(vertexCount);
+        result.textureVertices.ensureCapacity(textureVertexCount);
+        result.normals.ensureCapacity(normalCount);
+        result.polygons.ensureCapacity(polygonCount);
+
+        for (Chunk chunk : chunks) {
+            result.vertices.addAll(chunk.model.vertices);
+            result.textureVertices.addAll(chunk.model.textureVertices);
+            result.normals.addAll(chunk.model.normals);
+            result.polygons.addAll(chunk.model.polygons);
+        }
+
+        return result;
+    }
+
+    private static int nextLineStart(ByteBuffer buffer, int position, int end) {
+        for (int i = position; i < end; i++) {
+            if (buffer.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return end;
+    }
+
+    private static class Chunk {
+        private final ByteBuffer buffer;
+        private final int from;
+        private final int to;
+        private final boolean presize;
+        private final ObjReadProgress progress;
+        private final Model model = new Model();
+        private final ObjReadStatistics statistics = new ObjReadStatistics();
+        private int lineCount;
+        private ObjReaderException error;
+        private String errorLine;
+        private int errorLineInd;
+
+        Chunk(ByteBuffer buffer, int from, int to, boolean presize, ObjReadProgress progress) {
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+            this.presize = presize;
+            this.progress = progress;
+        }
+
+        void parse() {
+            ObjByteParser parser = new ObjByteParser(model, progress, statistics);
+            try {
+                if (presize) {
+                    parser.presize(buffer, from, to);
+                }
+                parser.parse(buffer, from, to);
+            } catch (ObjReaderException e) {
+                error = e;
+                errorLine = parser.currentLine();
+                errorLineInd = parser.getLineIndex();
+            }
+            lineCount = parser.getLineIndex();
+        }
+    }
+
+    private static class ParseTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Chunk> chunks;
+        private final int from;
+        private final int to;
+
+        ParseTask(List<Chunk> chunks, int from, int to) {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                chunks.get(from).parse();
+            } else if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ParseTask(chunks, from, middle), new ParseTask(chunks, middle, to));
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.cgvsu.objreader;
+
+import java.util.concurrent.ForkJoinPool;
+
+public class ObjReadOptions {
+    private boolean parallel = false;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private boolean cacheEnabled = false;
+    private boolean presizeEnabled = true;
+    private ObjReadProgress progress;
+    private ObjReadStatistics statistics;
+    private float weldEpsilon = -1;
+    private boolean layoutOptimized = false;
+    private boolean packed = false;
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public boolean isCacheEnabled() {
+        return cacheEnabled;
+    }
+
+    public void setCacheEnabled(boolean cacheEnabled) {
+        this.cacheEnabled = cacheEnabled;
+    }
+
+    public boolean isPresizeEnabled() {
+        return presizeEnabled;
+    }
+
+    // Предварительный проход подсчёта строк перед разбором (см. ObjByteParser.presize).
+    public void setPresizeEnabled(boolean presizeEnabled) {
+        this.presizeEnabled = presizeEnabled;
+    }
+
+    public ObjReadProgress getProgress() {
+        return progress;
+    }
+
+    public void setProgress(ObjReadProgress progress) {
+        this.progress = progress;
+    }
+
+    public ObjReadStatistics getStatistics() {
+        return statistics;
+    }
+
+    // Заполняется при чтении; передавать новый объект на каждый файл.
+    public void setStatistics(ObjReadStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    public boolean isWeldEnabled() {
+        return weldEpsilon >= 0;
+    }
+
+    public float getWeldEpsilon() {
+        return weldEpsilon;
+    }
+
+    // Сварка совпадающих вершин после загрузки (Model.weldVertices); отрицательное
+    // значение отключает её. Кэш хранит модель до сварки.
+    public void setWeldEpsilon(float weldEpsilon) {
+        this.weldEpsilon = weldEpsilon;
+    }
+
+    public boolean isLayoutOptimized() {
+        return layoutOptimized;
+    }
+
+    // Перестановка вершин и граней для локальности (Model.optimizeLayout) после загрузки
+    // и сварки. Номера вершин и граней перестают совпадать с файлом.
+    public void setLayoutOptimized(boolean layoutOptimized) {
+        this.layoutOptimized = layoutOptimized;
+    }
+
+    public boolean isPacked() {
+        return packed;
+    }
+
+    // Упаковка геометрии после загрузки (Model.pack) - последним шагом, после сварки
+    // и перестановки.
+    public void setPacked(boolean packed) {
+        this.packed = packed;
+    }
+}
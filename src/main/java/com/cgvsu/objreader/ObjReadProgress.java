@@ -0,0 +1,70 @@
+package com.cgvsu.objreader;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Прогресс и отмена чтения OBJ. Работа считается в байтах: проход CRC32C для кэша
+// и разбор текста; при попадании в кэш прогресс сразу доходит до конца.
+// Listener вызывается из потоков разбора, не из потока JavaFX.
+public class ObjReadProgress {
+
+    public interface Listener {
+        void progressChanged(long workDone, long totalWork);
+    }
+
+    private final AtomicLong workDone = new AtomicLong();
+    private final Listener listener;
+    private volatile long totalWork;
+    private volatile boolean cancelled;
+
+    public ObjReadProgress() {
+        this(null);
+    }
+
+    public ObjReadProgress(Listener listener) {
+        this.listener = listener;
+    }
+
+    public long getWorkDone() {
+        return workDone.get();
+    }
+
+    public long getTotalWork() {
+        return totalWork;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    void start(long totalWork) {
+        this.totalWork = totalWork;
+        workDone.set(0);
+        notifyListener(0);
+    }
+
+    void advance(long work) {
+        notifyListener(workDone.addAndGet(work));
+    }
+
+    void complete() {
+        workDone.set(totalWork);
+        notifyListener(totalWork);
+    }
+
+    void checkCancelled() {
+        if (cancelled) {
+            throw new CancellationException("OBJ reading cancelled");
+        }
+    }
+
+    private void notifyListener(long done) {
+        if (listener != null) {
+            listener.progressChanged(done, totalWork);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.cgvsu.objreader;
+
+import com.cgvsu.model.MeshGeometry;
+
+// Сведения о прочитанном файле, которые собираются по ходу единственного разбора:
+// число элементов, габариты по вершинам, число строк и строк, ушедших в медленный
+// разбор через ObjReader.parseLine, время чтения и признак попадания в MeshCache.
+public class ObjReadStatistics {
+    private int vertexCount;
+    private int textureVertexCount;
+    private int normalCount;
+    private int polygonCount;
+    private int lineCount;
+    private int fallbackLineCount;
+    private long byteCount;
+    private long readTimeNanos;
+    private boolean fromCache;
+
+    private float minX = Float.POSITIVE_INFINITY;
+    private float minY = Float.POSITIVE_INFINITY;
+    private float minZ = Float.POSITIVE_INFINITY;
+    private float maxX = Float.NEGATIVE_INFINITY;
+    private float maxY = Float.NEGATIVE_INFINITY;
+    private float maxZ = Float.NEGATIVE_INFINITY;
+
+    // Прежняя проверка формата искала хотя бы одну строку "v x y z".
+    public boolean isValid() {
+        return vertexCount > 0;
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    public int getTextureVertexCount() {
+        return textureVertexCount;
+    }
+
+    public int getNormalCount() {
+        return normalCount;
+    }
+
+    public int getPolygonCount() {
+        return polygonCount;
+    }
+
+    // Для модели из MeshCache строки не читаются, здесь 0.
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    public int getFallbackLineCount() {
+        return fallbackLineCount;
+    }
+
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    public long getReadTimeNanos() {
+        return readTimeNanos;
+    }
+
+    public boolean isFromCache() {
+        return fromCache;
+    }
+
+    public float getMinX() {
+        return minX;
+    }
+
+    public float getMinY() {
+        return minY;
+    }
+
+    public float getMinZ() {
+        return minZ;
+    }
+
+    public float getMaxX() {
+        return maxX;
+    }
+
+    public float getMaxY() {
+        return maxY;
+    }
+
+    public float getMaxZ() {
+        return maxZ;
+    }
+
+    void includeVertex(float x, float y, float z) {
+        minX = Math.min(minX, x);
+        minY = Math.min(minY, y);
+        minZ = Math.min(minZ, z);
+        maxX = Math.max(maxX, x);
+        maxY = Math.max(maxY, y);
+        maxZ = Math.max(maxZ, z);
+    }
+
+    void addFallbackLine() {
+        fallbackLineCount++;
+    }
+
+    void setLineCount(int lineCount) {
+        this.lineCount = lineCount;
+    }
+
+    void setFromCache(boolean fromCache) {
+        this.fromCache = fromCache;
+    }
+
+    // Склейка статистики кусков параллельного разбора (кроме числа строк).
+    void merge(ObjReadStatistics other) {
+        fallbackLineCount += other.fallbackLineCount;
+        minX = Math.min(minX, other.minX);
+        minY = Math.min(minY, other.minY);
+        minZ = Math.min(minZ, other.minZ);
+        maxX = Math.max(maxX, other.maxX);
+        maxY = Math.max(maxY, other.maxY);
+        maxZ = Math.max(maxZ, other.maxZ);
+    }
+
+    void finish(MeshGeometry geometry, long byteCount, long readTimeNanos) {
+        vertexCount = geometry.getVertexCount();
+        textureVertexCount = geometry.getTextureVertexCount();
+        normalCount = geometry.getNormalCount();
+        polygonCount = geometry.getFaceCount();
+        this.byteCount = byteCount;
+        this.readTimeNanos = readTimeNanos;
+    }
+}
@@ -3,11 +3,22 @@ package com.cgvsu.objreader;
 import com.cgvsu.math.Vector2f;
 import com.cgvsu.math.Vector3f;
 import com.cgvsu.model.Model;
+import com.cgvsu.model.ModelBounds;
+import com.cgvsu.model.OffHeapGeometry;
 import com.cgvsu.model.Polygon;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
 
 public class ObjReader {
 
@@ -16,54 +27,234 @@ public class ObjReader {
     private static final String OBJ_NORMAL_TOKEN = "vn";
     private static final String OBJ_FACE_TOKEN = "f";
 
+    private static final long MAX_MAPPING_SIZE = Integer.MAX_VALUE;
+    private static final long MIN_CHUNK_SIZE = 1 << 20;
+
+    private static final ThreadLocal<ObjNumberScanner> NUMBER_SCANNER = ThreadLocal.withInitial(ObjNumberScanner::new);
+
     public static Model read(String fileContent) {
         Model result = new Model();
 
         int lineInd = 0;
         Scanner scanner = new Scanner(fileContent);
         while (scanner.hasNextLine()) {
-            final String line = scanner.nextLine().trim();
+            lineInd++;
+            parseLine(scanner.nextLine(), lineInd, result);
+        }
 
-            if (line.isEmpty() || line.startsWith("#")) {
-                lineInd++;
-                continue;
-            }
+        return result;
+    }
+
+    public static Model read(Path path) throws IOException {
+        return read(path, new ObjReadOptions());
+    }
+
+    public static Model readParallel(Path path) throws IOException {
+        return readParallel(path, ForkJoinPool.commonPool());
+    }
+
+    public static Model readParallel(Path path, ForkJoinPool pool) throws IOException {
+        ObjReadOptions options = new ObjReadOptions();
+        options.setParallel(true);
+        options.setPool(pool);
+        return read(path, options);
+    }
+
+    static Model readParallel(Path path, ForkJoinPool pool, int chunkSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return ObjParallelReader.read(mapLines(channel, path), pool, chunkSize, true, null, new ObjReadStatistics());
+        }
+    }
 
-            ArrayList<String> wordsInLine = new ArrayList<>(Arrays.asList(line.split("\\s+")));
-            if (wordsInLine.isEmpty() || wordsInLine.get(0).isEmpty()) {
-                lineInd++;
-                continue;
+    // Читает через MeshCache, если кэш рядом с файлом совпадает с ним по размеру,
+    // времени изменения и CRC32C; иначе разбирает OBJ и перезаписывает кэш.
+    public static Model readCached(Path path) throws IOException {
+        ObjReadOptions options = new ObjReadOptions();
+        options.setParallel(true);
+        options.setCacheEnabled(true);
+        return read(path, options);
+    }
+
+    // Отмена через ObjReadProgress.cancel() прерывает чтение CancellationException.
+    // Если задан options.getStatistics(), он заполняется по ходу того же разбора.
+    public static Model read(Path path, ObjReadOptions options) throws IOException {
+        long startTime = System.nanoTime();
+        ObjReadProgress progress = options.getProgress() != null ? options.getProgress() : new ObjReadProgress();
+        ObjReadStatistics statistics = options.getStatistics() != null ? options.getStatistics() : new ObjReadStatistics();
+        long size = Files.size(path);
+        progress.start(options.isCacheEnabled() ? 2 * size : size);
+
+        MeshCache.Key key = null;
+        if (options.isCacheEnabled()) {
+            key = MeshCache.keyOf(path, progress);
+            Model cached = MeshCache.read(path, key, statistics);
+            if (cached != null) {
+                postProcess(cached, options);
+                statistics.setFromCache(true);
+                statistics.finish(cached, size, System.nanoTime() - startTime);
+                progress.complete();
+                return cached;
             }
+        }
 
-            final String token = wordsInLine.get(0);
-            wordsInLine.remove(0);
+        Model result = parse(path, options, progress, statistics, size);
 
-            lineInd++;
+        if (key != null) {
             try {
-                switch (token) {
-                    case OBJ_VERTEX_TOKEN:
-                        result.vertices.add(parseVertex(wordsInLine, lineInd));
-                        break;
-                    case OBJ_TEXTURE_TOKEN:
-                        result.textureVertices.add(parseTextureVertex(wordsInLine, lineInd));
-                        break;
-                    case OBJ_NORMAL_TOKEN:
-                        result.normals.add(parseNormal(wordsInLine, lineInd));
-                        break;
-                    case OBJ_FACE_TOKEN:
-                        result.polygons.add(parseFace(wordsInLine, lineInd));
-                        break;
-                    default:
-                        break;
-                }
-            } catch (ObjReaderException e) {
-                throw new ObjReaderException("Error parsing OBJ file on line: " + lineInd + ". " + e.getMessage(), lineInd);
+                MeshCache.write(path, key, result);
+            } catch (IOException e) {
+                System.err.println("Failed to write mesh cache: " + e.getMessage());
+            }
+        }
+        postProcess(result, options);
+        statistics.finish(result, size, System.nanoTime() - startTime);
+        progress.complete();
+        return result;
+    }
+
+    // Геометрия вне кучи, отображённая из MeshCache без копирования (OffHeapGeometry).
+    // Если кэш устарел, OBJ один раз разбирается на куче, кэш перезаписывается и
+    // отображается, а модель с кучи отпускается; если перезаписать кэш не удалось,
+    // геометрия копируется из модели в direct-буферы. Опции постобработки (сварка,
+    // перестановка, упаковка) здесь не применяются: кэш хранит модель до них.
+    public static OffHeapGeometry readOffHeap(Path path, ObjReadOptions options) throws IOException {
+        long startTime = System.nanoTime();
+        ObjReadProgress progress = options.getProgress() != null ? options.getProgress() : new ObjReadProgress();
+        ObjReadStatistics statistics = options.getStatistics() != null ? options.getStatistics() : new ObjReadStatistics();
+        long size = Files.size(path);
+        progress.start(2 * size);
+
+        MeshCache.Key key = MeshCache.keyOf(path, progress);
+        OffHeapGeometry geometry = MeshCache.map(path, key);
+        if (geometry != null) {
+            ModelBounds bounds = geometry.getBounds();
+            if (!bounds.isEmpty()) {
+                statistics.includeVertex(bounds.getMinX(), bounds.getMinY(), bounds.getMinZ());
+                statistics.includeVertex(bounds.getMaxX(), bounds.getMaxY(), bounds.getMaxZ());
+            }
+            statistics.setFromCache(true);
+        } else {
+            Model model = parse(path, options, progress, statistics, size);
+            try {
+                MeshCache.write(path, key, model);
+                geometry = MeshCache.map(path, key);
+            } catch (IOException e) {
+                // Например, на Windows старый кэш нельзя заменить, пока его отображает
+                // другая открытая модель.
+                System.err.println("Failed to write mesh cache: " + e.getMessage());
+            }
+            // Без кэша геометрия копируется в direct-буферы; кэш перепишет следующая загрузка.
+            if (geometry == null) {
+                geometry = OffHeapGeometry.copyOf(model);
             }
         }
+        statistics.finish(geometry, size, System.nanoTime() - startTime);
+        progress.complete();
+        return geometry;
+    }
 
+    private static Model parse(Path path, ObjReadOptions options, ObjReadProgress progress,
+                               ObjReadStatistics statistics, long size) throws IOException {
+        Model result;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            List<ByteBuffer> buffers = mapLines(channel, path);
+            if (options.isParallel()) {
+                ForkJoinPool pool = options.getPool();
+                long chunkSize = Math.max(MIN_CHUNK_SIZE, size / (pool.getParallelism() * 4L));
+                result = ObjParallelReader.read(buffers, pool, (int) Math.min(chunkSize, MAX_MAPPING_SIZE),
+                        options.isPresizeEnabled(), progress, statistics);
+            } else {
+                result = new Model();
+                ObjByteParser parser = new ObjByteParser(result, progress, statistics);
+                for (ByteBuffer buffer : buffers) {
+                    if (options.isPresizeEnabled()) {
+                        parser.presize(buffer, 0, buffer.limit());
+                    }
+                    parser.parse(buffer, 0, buffer.limit());
+                }
+                statistics.setLineCount(parser.getLineIndex());
+            }
+        }
         return result;
     }
 
+    // Необязательные шаги после чтения; кэш хранит модель до них.
+    private static void postProcess(Model model, ObjReadOptions options) {
+        if (options.isWeldEnabled()) {
+            model.weldVertices(options.getWeldEpsilon());
+        }
+        if (options.isLayoutOptimized()) {
+            model.optimizeLayout();
+        }
+        if (options.isPacked()) {
+            model.pack();
+        }
+    }
+
+    // Отображает файл окнами не больше MAX_MAPPING_SIZE; limit() каждого окна стоит
+    // сразу за концом строки, так что ни одна строка не делится между окнами.
+    static List<ByteBuffer> mapLines(FileChannel channel, Path path) throws IOException {
+        List<ByteBuffer> buffers = new ArrayList<>();
+
+        long size = channel.size();
+        long position = 0;
+        while (position < size) {
+            long length = Math.min(size - position, MAX_MAPPING_SIZE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+
+            int end = (int) length;
+            if (position + length < size) {
+                end = ObjByteParser.lastLineEnd(buffer, end);
+                if (end == 0) {
+                    throw new IOException("OBJ line is longer than " + MAX_MAPPING_SIZE + " bytes: " + path);
+                }
+            }
+
+            buffer.limit(end);
+            buffers.add(buffer);
+            position += end;
+        }
+
+        return buffers;
+    }
+
+    static void parseLine(String rawLine, int lineInd, Model result) {
+        final String line = rawLine.trim();
+
+        if (line.isEmpty() || line.startsWith("#")) {
+            return;
+        }
+
+        ArrayList<String> wordsInLine = new ArrayList<>(Arrays.asList(line.split("\\s+")));
+        if (wordsInLine.isEmpty() || wordsInLine.get(0).isEmpty()) {
+            return;
+        }
+
+        final String token = wordsInLine.get(0);
+        wordsInLine.remove(0);
+
+        try {
+            switch (token) {
+                case OBJ_VERTEX_TOKEN:
+                    result.vertices.add(parseVertex(wordsInLine, lineInd));
+                    break;
+                case OBJ_TEXTURE_TOKEN:
+                    result.textureVertices.add(parseTextureVertex(wordsInLine, lineInd));
+                    break;
+                case OBJ_NORMAL_TOKEN:
+                    result.normals.add(parseNormal(wordsInLine, lineInd));
+                    break;
+                case OBJ_FACE_TOKEN:
+                    result.polygons.add(parseFace(wordsInLine, lineInd));
+                    break;
+                default:
+                    break;
+            }
+        } catch (ObjReaderException e) {
+            throw new ObjReaderException("Error parsing OBJ file on line: " + lineInd + ". " + e.getMessage(), lineInd);
+        }
+    }
+
     protected static Vector3f parseVertex(final ArrayList<String> wordsInLineWithoutToken, int lineInd) {
         wordsInLineWithoutToken.removeIf(String::isEmpty);
 
@@ -117,24 +308,15 @@ public class ObjReader {
         }
     }
 
-    private static float parseFloatSafe(String value, int lineInd) {
-        try {
-            String cleanedValue = value
-                    .replace('Φ', ' ')
-                    .replace('φ', ' ')
-                    .replace(',', '.')
-                    .trim();
-
-            cleanedValue = cleanedValue.replaceAll("[^0-9.Ee-]", "");
-
-            if (cleanedValue.isEmpty()) {
-                throw new ObjReaderException("Empty coordinate value: '" + value + "'", lineInd);
-            }
-
-            return Float.parseFloat(cleanedValue);
-        } catch (NumberFormatException e) {
-            throw new ObjReaderException("Failed to parse coordinate value: '" + value + "'", lineInd);
+    static float parseFloatSafe(String value, int lineInd) {
+        ObjNumberScanner scanner = NUMBER_SCANNER.get();
+        if (scanner.scanFloat(value, 0, value.length())) {
+            return scanner.floatValue();
+        }
+        if (scanner.isEmpty()) {
+            throw new ObjReaderException("Empty coordinate value: '" + value + "'", lineInd);
         }
+        throw new ObjReaderException("Failed to parse coordinate value: '" + value + "'", lineInd);
     }
 
     protected static Polygon parseFace(final ArrayList<String> wordsInLineWithoutToken, int lineInd) {
@@ -211,11 +393,11 @@ public class ObjReader {
         }
     }
 
-    private static int parseIntSafe(String value, int lineInd) {
-        try {
-            return Integer.parseInt(value.trim());
-        } catch (NumberFormatException e) {
-            throw new ObjReaderException("Failed to parse index: '" + value + "'", lineInd);
+    static int parseIntSafe(String value, int lineInd) {
+        ObjNumberScanner scanner = NUMBER_SCANNER.get();
+        if (scanner.scanInt(value, 0, value.length())) {
+            return scanner.intValue();
         }
+        throw new ObjReaderException("Failed to parse index: '" + value + "'", lineInd);
     }
-}
\ No newline at end of file
+}
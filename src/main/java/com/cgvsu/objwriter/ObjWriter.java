@@ -2,10 +2,14 @@ package com.cgvsu.objwriter;
 
 import com.cgvsu.math.Vector2f;
 import com.cgvsu.math.Vector3f;
+import com.cgvsu.model.FaceTable;
+import com.cgvsu.model.MeshGeometry;
 import com.cgvsu.model.Model;
 import com.cgvsu.model.Polygon;
+import com.cgvsu.model.TriangleBuffer;
 
 import java.io.IOException;
+import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
@@ -13,6 +17,9 @@ import java.util.Locale;
 
 public class ObjWriter {
 
+    // Вершин (текстурных координат, нормалей) за одно чтение из MeshGeometry.
+    private static final int BLOCK_SIZE = 1 << 12;
+
     public static void write(Model model, String filePath) throws IOException {
         String content = modelToString(model);
         Files.writeString(Path.of(filePath), content);
@@ -22,7 +29,17 @@ public class ObjWriter {
         return modelToString(model, "Exported by Lapin Nikita ObjWriter");
     }
 
+    // Грани пишутся треугольниками из Model.getTriangles().
+    public static void writeTriangulated(Model model, String filePath) throws IOException {
+        String content = modelToString(model, "Exported by Lapin Nikita ObjWriter", true);
+        Files.writeString(Path.of(filePath), content);
+    }
+
     public static String modelToString(Model model, String comment) {
+        return modelToString(model, comment, false);
+    }
+
+    public static String modelToString(Model model, String comment, boolean triangulate) {
         if (model == null) {
             throw new ObjWriterException("Model cannot be null");
         }
@@ -94,6 +111,8 @@ public class ObjWriter {
             }
 
             List<Polygon> polygons = model.getPolygons();
+            FaceTable faceTable = model.polygons.getTable();
+            TriangleBuffer triangles = triangulate ? model.getTriangles() : null;
             for (int i = 0; i < polygons.size(); i++) {
                 Polygon polygon = polygons.get(i);
                 validatePolygon(polygon, i,
@@ -101,29 +120,26 @@ public class ObjWriter {
                         textureVertices != null ? textureVertices.size() : 0,
                         normals != null ? normals.size() : 0);
 
-                sb.append("f");
-                List<Integer> vertexIndices = polygon.getVertexIndices();
-                List<Integer> textureVertexIndices = polygon.getTextureVertexIndices();
-                List<Integer> normalIndices = polygon.getNormalIndices();
+                boolean hasTextures = polygon.hasTextureCoordinates();
+                boolean hasNormals = polygon.hasNormals();
 
-                boolean hasTextures = textureVertexIndices != null && !textureVertexIndices.isEmpty();
-                boolean hasNormals = normalIndices != null && !normalIndices.isEmpty();
-
-                for (int j = 0; j < vertexIndices.size(); j++) {
-                    sb.append(" ");
-                    sb.append(vertexIndices.get(j) + 1);
-
-                    if (hasTextures || hasNormals) {
-                        sb.append("/");
-
-                        if (hasTextures) {
-                            sb.append(textureVertexIndices.get(j) + 1);
-                        }
-
-                        if (hasNormals) {
-                            sb.append("/").append(normalIndices.get(j) + 1);;
+                if (triangles != null) {
+                    int faceStart = faceTable.getFaceStart(i);
+                    int[] corners = triangles.getCorners();
+                    for (int t = triangles.getFaceStart(i); t < triangles.getFaceStart(i + 1); t++) {
+                        sb.append("f");
+                        for (int k = 0; k < 3; k++) {
+                            appendCorner(sb, polygon, corners[3 * t + k] - faceStart, hasTextures, hasNormals);
                         }
+                        sb.append("\n");
                     }
+                    continue;
+                }
+
+                sb.append("f");
+                int vertexCount = polygon.getVertexCount();
+                for (int j = 0; j < vertexCount; j++) {
+                    appendCorner(sb, polygon, j, hasTextures, hasNormals);
                 }
                 sb.append("\n");
             }
@@ -137,6 +153,129 @@ public class ObjWriter {
         return sb.toString();
     }
 
+    // Потоковая запись любой MeshGeometry, в том числе вне кучи, без сборки всего файла
+    // в одной строке. Для Model вывод совпадает с modelToString().
+    public static void write(MeshGeometry geometry, String filePath) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(Path.of(filePath))) {
+            write(geometry, writer, "Exported by Lapin Nikita ObjWriter");
+        }
+    }
+
+    public static void write(MeshGeometry geometry, Writer writer, String comment) throws IOException {
+        if (geometry == null) {
+            throw new ObjWriterException("Model cannot be null");
+        }
+
+        if (comment != null && !comment.isEmpty()) {
+            writer.append("# ").append(comment).append("\n");
+        }
+
+        int vertexCount = geometry.getVertexCount();
+        int textureVertexCount = geometry.getTextureVertexCount();
+        int normalCount = geometry.getNormalCount();
+        int faceCount = geometry.getFaceCount();
+        float[] block = new float[3 * BLOCK_SIZE];
+
+        for (int from = 0; from < vertexCount; from += BLOCK_SIZE) {
+            int to = Math.min(vertexCount, from + BLOCK_SIZE);
+            geometry.getVertexCoordinates(from, to, block, 0);
+            for (int i = from; i < to; i++) {
+                int o = 3 * (i - from);
+                validateVertex(new Vector3f(block[o], block[o + 1], block[o + 2]), i);
+                writer.append("v ")
+                        .append(formatFloatCompact(block[o]))
+                        .append(" ")
+                        .append(formatFloatCompact(block[o + 1]))
+                        .append(" ")
+                        .append(formatFloatCompact(block[o + 2]))
+                        .append("\n");
+            }
+        }
+
+        if (vertexCount > 0 && (textureVertexCount > 0 || normalCount > 0)) {
+            writer.append("\n");
+        }
+
+        for (int from = 0; from < textureVertexCount; from += BLOCK_SIZE) {
+            int to = Math.min(textureVertexCount, from + BLOCK_SIZE);
+            geometry.getTextureVertexCoordinates(from, to, block, 0);
+            for (int i = from; i < to; i++) {
+                int o = 2 * (i - from);
+                validateTextureVertex(new Vector2f(block[o], block[o + 1]), i);
+                writer.append("vt ")
+                        .append(formatFloatCompact(block[o]))
+                        .append(" ")
+                        .append(formatFloatCompact(block[o + 1]))
+                        .append("\n");
+            }
+        }
+
+        if (textureVertexCount > 0 && normalCount > 0) {
+            writer.append("\n");
+        }
+
+        for (int from = 0; from < normalCount; from += BLOCK_SIZE) {
+            int to = Math.min(normalCount, from + BLOCK_SIZE);
+            geometry.getNormalCoordinates(from, to, block, 0);
+            for (int i = from; i < to; i++) {
+                int o = 3 * (i - from);
+                validateNormal(new Vector3f(block[o], block[o + 1], block[o + 2]), i);
+                writer.append("vn ")
+                        .append(formatFloatCompact(block[o]))
+                        .append(" ")
+                        .append(formatFloatCompact(block[o + 1]))
+                        .append(" ")
+                        .append(formatFloatCompact(block[o + 2]))
+                        .append("\n");
+            }
+        }
+
+        if ((vertexCount > 0 || textureVertexCount > 0 || normalCount > 0) && faceCount > 0) {
+            writer.append("\n");
+        }
+
+        // Индексы грани по атрибутам (FaceTable.VERTEX, TEXTURE, NORMAL) и их число.
+        int[][] corners = new int[3][8];
+        int[] counts = new int[3];
+        for (int face = 0; face < faceCount; face++) {
+            int size = geometry.getFaceSize(face);
+            for (int attribute = FaceTable.VERTEX; attribute <= FaceTable.NORMAL; attribute++) {
+                if (corners[attribute].length < size) {
+                    corners[attribute] = new int[Math.max(size, 2 * corners[attribute].length)];
+                }
+                int count = 0;
+                if (geometry.hasFaceAttribute(attribute)) {
+                    while (count < size) {
+                        int index = geometry.getFaceIndex(attribute, face, count);
+                        if (index == FaceTable.ABSENT) {
+                            break;
+                        }
+                        corners[attribute][count++] = index;
+                    }
+                }
+                counts[attribute] = count;
+            }
+            validateFace(face, corners, counts, vertexCount, textureVertexCount, normalCount);
+
+            boolean hasTextures = counts[FaceTable.TEXTURE] > 0;
+            boolean hasNormals = counts[FaceTable.NORMAL] > 0;
+            writer.append("f");
+            for (int j = 0; j < counts[FaceTable.VERTEX]; j++) {
+                writer.append(" ").append(Integer.toString(corners[FaceTable.VERTEX][j] + 1));
+                if (hasTextures || hasNormals) {
+                    writer.append("/");
+                    if (hasTextures) {
+                        writer.append(Integer.toString(corners[FaceTable.TEXTURE][j] + 1));
+                    }
+                    if (hasNormals) {
+                        writer.append("/").append(Integer.toString(corners[FaceTable.NORMAL][j] + 1));
+                    }
+                }
+            }
+            writer.append("\n");
+        }
+    }
+
     protected static String formatFloatCompact(float value) {
         if (Float.isNaN(value)) {
             throw new ObjWriterException("Cannot format NaN value");
@@ -193,6 +332,79 @@ public class ObjWriter {
         }
     }
 
+    private static void appendCorner(StringBuilder sb, Polygon polygon, int j,
+                                     boolean hasTextures, boolean hasNormals) {
+        sb.append(" ");
+        sb.append(polygon.getVertexIndex(j) + 1);
+
+        if (hasTextures || hasNormals) {
+            sb.append("/");
+
+            if (hasTextures) {
+                sb.append(polygon.getTextureVertexIndex(j) + 1);
+            }
+
+            if (hasNormals) {
+                sb.append("/").append(polygon.getNormalIndex(j) + 1);
+            }
+        }
+    }
+
+    // Те же проверки и сообщения, что у validatePolygon(), по индексам из MeshGeometry.
+    private static void validateFace(int face, int[][] corners, int[] counts, int vertexCount,
+                                     int textureVertexCount, int normalCount) {
+        int cornerCount = counts[FaceTable.VERTEX];
+        if (cornerCount == 0) {
+            throw new ObjWriterException("Polygon at index " + face + " has no vertices");
+        }
+        if (cornerCount < 3) {
+            throw new ObjWriterException("Polygon at index " + face + " has less than 3 vertices");
+        }
+        for (int j = 0; j < cornerCount; j++) {
+            int vertexIndex = corners[FaceTable.VERTEX][j];
+            if (vertexIndex < 0 || vertexIndex >= vertexCount) {
+                throw new ObjWriterException(
+                        "Polygon at index " + face + " references invalid vertex index " +
+                                vertexIndex + " (available vertices: 0-" + (vertexCount - 1) + ")"
+                );
+            }
+        }
+
+        if (counts[FaceTable.TEXTURE] > 0) {
+            if (counts[FaceTable.TEXTURE] != cornerCount) {
+                throw new ObjWriterException(
+                        "Polygon at index " + face + " has mismatched vertex and texture vertex counts"
+                );
+            }
+            for (int j = 0; j < cornerCount; j++) {
+                int texIndex = corners[FaceTable.TEXTURE][j];
+                if (texIndex < 0 || texIndex >= textureVertexCount) {
+                    throw new ObjWriterException(
+                            "Polygon at index " + face + " references invalid texture vertex index " +
+                                    texIndex + " (available texture vertices: 0-" + (textureVertexCount - 1) + ")"
+                    );
+                }
+            }
+        }
+
+        if (counts[FaceTable.NORMAL] > 0) {
+            if (counts[FaceTable.NORMAL] != cornerCount) {
+                throw new ObjWriterException(
+                        "Polygon at index " + face + " has mismatched vertex and normal counts"
+                );
+            }
+            for (int j = 0; j < cornerCount; j++) {
+                int normalIndex = corners[FaceTable.NORMAL][j];
+                if (normalIndex < 0 || normalIndex >= normalCount) {
+                    throw new ObjWriterException(
+                            "Polygon at index " + face + " references invalid normal index " +
+                                    normalIndex + " (available normals: 0-" + (normalCount - 1) + ")"
+                    );
+                }
+            }
+        }
+    }
+
     protected static void validatePolygon(Polygon polygon, int polyIndex, int vertexCount,
                                           int textureVertexCount, int normalCount) {
         if (polygon == null) {
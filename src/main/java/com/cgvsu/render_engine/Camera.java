@@ -1,23 +1,37 @@
 package com.cgvsu.render_engine;
 
+import com.cgvsu.math.Matrix4f;
 import com.cgvsu.math.Vector3f;
 import com.cgvsu.scene.EditModeManager;
 import com.cgvsu.scene.SimpleSceneRenderer;
 import javafx.scene.canvas.GraphicsContext;
 
+// Перспективная камера: смотрит из position на target, ось Y мира - вверх. fov - полный
+// вертикальный угол обзора в радианах. Видовая и проекционная матрицы кэшируются и
+// пересчитываются только после изменения соответствующих параметров; как и в SceneObject,
+// векторы копируются на входе и выходе, чтобы кэш не устарел незаметно.
 public class Camera {
-    private Vector3f position;
-    private Vector3f target;
+    private final Vector3f position = new Vector3f(0, 0, 0);
+    private final Vector3f target = new Vector3f(0, 0, 0);
     private float fov;
     private float aspectRatio;
     private float nearPlane;
     private float farPlane;
 
+    private final Matrix4f viewMatrix = new Matrix4f();
+    private final Matrix4f projectionMatrix = new Matrix4f();
+    private boolean viewMatrixValid;
+    private boolean projectionMatrixValid;
+
+    private static final Vector3f UP = new Vector3f(0, 1, 0);
+    // Для взгляда вдоль оси Y, где UP не задаёт поворот.
+    private static final Vector3f UP_ALONG_Y = new Vector3f(0, 0, -1);
+
     public Camera(Vector3f position, Vector3f target,
                   float fov, float aspectRatio,
                   float nearPlane, float farPlane) {
-        this.position = position;
-        this.target = target;
+        this.position.set(position.getX(), position.getY(), position.getZ());
+        this.target.set(target.getX(), target.getY(), target.getZ());
         this.fov = fov;
         this.aspectRatio = aspectRatio;
         this.nearPlane = nearPlane;
@@ -25,19 +39,21 @@ public class Camera {
     }
 
     public Vector3f getPosition() {
-        return position;
+        return new Vector3f(position);
     }
 
     public void setPosition(Vector3f position) {
-        this.position = position;
+        this.position.set(position.getX(), position.getY(), position.getZ());
+        viewMatrixValid = false;
     }
 
     public Vector3f getTarget() {
-        return target;
+        return new Vector3f(target);
     }
 
     public void setTarget(Vector3f target) {
-        this.target = target;
+        this.target.set(target.getX(), target.getY(), target.getZ());
+        viewMatrixValid = false;
     }
 
     public float getFov() {
@@ -46,6 +62,7 @@ public class Camera {
 
     public void setFov(float fov) {
         this.fov = fov;
+        projectionMatrixValid = false;
     }
 
     public float getAspectRatio() {
@@ -53,7 +70,10 @@ public class Camera {
     }
 
     public void setAspectRatio(float aspectRatio) {
-        this.aspectRatio = aspectRatio;
+        if (this.aspectRatio != aspectRatio) {
+            this.aspectRatio = aspectRatio;
+            projectionMatrixValid = false;
+        }
     }
 
     public float getNearPlane() {
@@ -64,24 +84,50 @@ public class Camera {
         return farPlane;
     }
 
+    // Мировые координаты -> координаты камеры (камера в начале, смотрит вдоль -Z).
+    // Возвращается кэш камеры: его нельзя менять. Пока position совпадает с target,
+    // остаётся последняя корректная матрица.
+    public Matrix4f getViewMatrix() {
+        if (!viewMatrixValid) {
+            float dx = target.x - position.x;
+            float dy = target.y - position.y;
+            float dz = target.z - position.z;
+            if (dx != 0 || dy != 0 || dz != 0) {
+                boolean alongY = Math.abs(dx) <= 1e-6f * Math.abs(dy) && Math.abs(dz) <= 1e-6f * Math.abs(dy);
+                viewMatrix.setLookAt(position, target, alongY ? UP_ALONG_Y : UP);
+            }
+            viewMatrixValid = true;
+        }
+        return viewMatrix;
+    }
+
+    // Координаты камеры -> координаты отсечения; видимое - от nearPlane до farPlane.
+    // Некорректные параметры - IllegalArgumentException из Matrix4f.setPerspective.
+    public Matrix4f getProjectionMatrix() {
+        if (!projectionMatrixValid) {
+            projectionMatrix.setPerspective(fov, aspectRatio, nearPlane, farPlane);
+            projectionMatrixValid = true;
+        }
+        return projectionMatrix;
+    }
+
     public void move(Vector3f translation) {
-        position = position.add(translation);
+        position.addInPlace(translation);
+        viewMatrixValid = false;
     }
 
     public Vector3f getDirection() {
-        Vector3f direction = target.subtract(position);
-        direction.normalize();
-        return direction;
+        return target.subtract(position).normalize();
     }
 
     public void moveForward(float distance) {
         Vector3f dir = getDirection();
-        position = position.add(dir.multiply(distance));
+        move(dir.multiply(distance));
     }
 
     public void moveRight(float distance) {
         Vector3f dir = getDirection();
         Vector3f right = new Vector3f(dir.getZ(), 0, -dir.getX()).normalize();
-        position = position.add(right.multiply(distance));
+        move(right.multiply(distance));
     }
-}
\ No newline at end of file
+}
@@ -1,26 +1,33 @@
 package com.cgvsu.render_engine;
 
+import com.cgvsu.math.Matrix4f;
 import com.cgvsu.math.Vector2f;
 import com.cgvsu.math.Vector3f;
 
 public class GraphicConveyor {
 
-    private static final float SCALE_FACTOR = 2.0f;
-
-    public static Vector2f vertexToScreen(Vector3f vertex, int screenWidth, int screenHeight) {
-        float x = vertex.getX() * SCALE_FACTOR;
-        float y = vertex.getY() * SCALE_FACTOR;
-        float z = vertex.getZ() * SCALE_FACTOR;
-
-        float screenX = (x - z) * 0.7071f;
-        float screenY = y + (x + z) * 0.4082f;
-
-        screenX += screenWidth / 2.0f;
-        screenY = screenHeight / 2.0f - screenY;
-
+    // Проекция одной точки: modelViewProjection = P * V * M, затем деление на w и вьюпорт
+    // (ось Y экрана вниз). Для массивов вершин - BatchTransform.project.
+    public static Vector2f vertexToScreen(Vector3f vertex, Matrix4f modelViewProjection,
+                                          int screenWidth, int screenHeight) {
+        Vector3f projected = new Vector3f(0, 0, 0);
+        modelViewProjection.transformPoint(vertex, projected);
+        float screenX = (projected.getX() + 1) * screenWidth / 2.0f;
+        float screenY = (1 - projected.getY()) * screenHeight / 2.0f;
         return new Vector2f(screenX, screenY);
     }
 
+    // Матрица модели T * Rz * Ry * Rx * S; углы в градусах, как в rotateX/Y/Z. Для массива
+    // вершин это один расчёт синусов на объект и Matrix4f.transformPoints без выделений
+    // вместо rotateX/Y/Z на каждую вершину.
+    public static Matrix4f modelMatrix(Vector3f position, Vector3f rotationDegrees, Vector3f scale, Matrix4f target) {
+        return target.setTransform(position.x, position.y, position.z,
+                (float) Math.toRadians(rotationDegrees.x),
+                (float) Math.toRadians(rotationDegrees.y),
+                (float) Math.toRadians(rotationDegrees.z),
+                scale.x, scale.y, scale.z);
+    }
+
     public static Vector3f rotateX(Vector3f v, float angleDegrees) {
         float rad = (float) Math.toRadians(angleDegrees);
         float cos = (float) Math.cos(rad);
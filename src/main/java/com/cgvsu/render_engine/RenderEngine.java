@@ -1,126 +1,514 @@
 package com.cgvsu.render_engine;
 
+import com.cgvsu.math.BatchTransform;
+import com.cgvsu.math.Matrix4f;
 import com.cgvsu.math.Vector3f;
+import com.cgvsu.model.FaceTable;
+import com.cgvsu.model.MeshGeometry;
 import com.cgvsu.model.Model;
+import com.cgvsu.model.ModelBounds;
+import com.cgvsu.model.ModelLod;
+import com.cgvsu.model.OffHeapGeometry;
 import com.cgvsu.model.Polygon;
+import com.cgvsu.model.TriangleBuffer;
+import com.cgvsu.model.Vector3fList;
 import com.cgvsu.scene.SceneObject;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
+// Отрисовка через камеру: вершины каждого объекта один раз проецируются матрицей
+// P * V * M в экранный буфер (BatchTransform), затем грани заливаются и обводятся по
+// индексам из этого буфера. Видовая и проекционная матрицы кэшируются в Camera, их
+// произведение считается один раз на кадр, матрица модели - в SceneObject. Грани, часть
+// вершин которых за ближней плоскостью камеры, обрезаются по ней в системе камеры; грани
+// целиком за ближней или целиком за дальней плоскостью не рисуются.
+//
+// Буферы проекции статические и переиспользуются между объектами и кадрами, поэтому
+// рисовать можно только из одного потока (потока JavaFX).
 public class RenderEngine {
 
+    // Оттенки серого для заливки по косинусу угла между нормалью грани и лучом из камеры.
+    private static final Color[] SHADES = new Color[64];
+
+    static {
+        for (int i = 0; i < SHADES.length; i++) {
+            double light = 0.35 + 0.65 * i / (SHADES.length - 1);
+            SHADES[i] = Color.gray(Math.min(1.0, light * 200 / 255.0));
+        }
+    }
+
+    // Вершин за одно чтение позиций и один вызов BatchTransform.
+    private static final int PROJECTION_BLOCK = 1 << 10;
+
+    // Угол обзора камеры, которая ставится, если render вызван без камеры.
+    private static final float DEFAULT_FOV = (float) Math.toRadians(60);
+
+    // Грань целиком перед ближней плоскостью и не целиком за дальней, частично за ближней
+    // или не видна вовсе (visibility).
+    private static final int VISIBLE = 0;
+    private static final int CLIPPED = 1;
+    private static final int HIDDEN = 2;
+
+    private static final Frame FRAME = new Frame();
+
     public static void render(GraphicsContext gc, Camera camera,
                               SceneObject object, int width, int height) {
+        render(gc, camera, object == null ? Collections.emptyList() : Collections.singletonList(object),
+                width, height);
+    }
+
+    // Кадр из нескольких объектов: фон очищается один раз, объекты рисуются в порядке
+    // списка. Без камеры она ставится так, чтобы все объекты поместились в окно.
+    public static void render(GraphicsContext gc, Camera camera,
+                              List<SceneObject> objects, int width, int height) {
 
         gc.clearRect(0, 0, width, height);
         gc.setFill(Color.WHITE);
         gc.fillRect(0, 0, width, height);
 
-        if (object == null) {
-            drawNoModel(gc, width, height);
-            return;
+        List<SceneObject> drawn = new ArrayList<>();
+        List<MeshGeometry> geometries = new ArrayList<>();
+        for (SceneObject object : objects) {
+            MeshGeometry geometry = drawableGeometry(object);
+            if (geometry != null) {
+                drawn.add(object);
+                geometries.add(geometry);
+            }
         }
-
-        Model model = object.getModel();
-        if (model == null) {
+        if (drawn.isEmpty()) {
             drawNoModel(gc, width, height);
             return;
         }
+        if (camera == null) {
+            camera = fitCamera(drawn, geometries, width / (float) height);
+        }
 
-        List<Vector3f> vertices = model.getVertices();
-        List<Polygon> polygons = model.getPolygons();
+        Matrix4f projection = camera.getProjectionMatrix();
+        FRAME.viewProjection.mul(projection, camera.getViewMatrix());
+        FRAME.projection = projection;
+        FRAME.nearZ = -camera.getNearPlane();
+        FRAME.farZ = -camera.getFarPlane();
+        FRAME.width = width;
+        FRAME.height = height;
 
-        if (vertices == null || vertices.isEmpty()) {
-            drawNoModel(gc, width, height);
-            return;
-        }
+        gc.setStroke(Color.BLACK);
+        gc.setLineWidth(1.0);
 
-        if (polygons == null || polygons.isEmpty()) {
-            drawNoModel(gc, width, height);
-            return;
+        int vertexCount = 0;
+        int drawnPolygons = 0;
+        for (int i = 0; i < drawn.size(); i++) {
+            SceneObject object = drawn.get(i);
+            MeshGeometry geometry = geometries.get(i);
+            FRAME.modelView.mul(camera.getViewMatrix(), object.getModelMatrix());
+            FRAME.modelViewProjection.mul(FRAME.viewProjection, object.getModelMatrix());
+            if (geometry instanceof Model) {
+                Model model = (Model) geometry;
+                // Если для модели построены уровни детализации, рисуется уровень по её размеру на экране.
+                ModelLod lod = model.getLod();
+                Model level = lod == null ? model
+                        : lod.select(projectedSize(model.getBounds(), object, projection, height));
+                projectVertices(level, level.vertices.size(), width, height);
+                drawnPolygons += drawModel(gc, level);
+                vertexCount += drawVertices(gc, level.vertices.size());
+            } else {
+                projectVertices(geometry, geometry.getVertexCount(), width, height);
+                drawnPolygons += drawGeometry(gc, geometry);
+                vertexCount += drawVertices(gc, geometry.getVertexCount());
+            }
         }
 
-        float minX = Float.MAX_VALUE;
-        float maxX = -Float.MAX_VALUE;
-        float minY = Float.MAX_VALUE;
-        float maxY = -Float.MAX_VALUE;
+        drawOverlay(gc, drawn, camera, vertexCount, drawnPolygons, width, height);
+    }
 
-        for (Vector3f vertex : vertices) {
-            if (vertex.x < minX) minX = vertex.x;
-            if (vertex.x > maxX) maxX = vertex.x;
-            if (vertex.y < minY) minY = vertex.y;
-            if (vertex.y > maxY) maxY = vertex.y;
+    // Что рисовать у объекта: открытую геометрию вне кучи, иначе непустую модель.
+    private static MeshGeometry drawableGeometry(SceneObject object) {
+        OffHeapGeometry offHeapGeometry = object.getOffHeapGeometry();
+        if (offHeapGeometry != null && !offHeapGeometry.isClosed()) {
+            return offHeapGeometry.getVertexCount() > 0 && offHeapGeometry.getFaceCount() > 0 ? offHeapGeometry : null;
         }
+        Model model = object.getModel();
+        if (model == null || model.vertices == null || model.vertices.isEmpty()
+                || model.polygons == null || model.polygons.isEmpty()) {
+            return null;
+        }
+        return model;
+    }
 
-        float centerX = (minX + maxX) / 2.0f;
-        float centerY = (minY + maxY) / 2.0f;
-
-        float modelWidth = maxX - minX;
-        float modelHeight = maxY - minY;
+    // Экранные x, y и координаты в системе камеры всех вершин - в FRAME, по
+    // FRAME.modelViewProjection и FRAME.modelView. Упакованные позиции (Model.pack) не
+    // распаковываются: x = origin + q * step - ещё один множитель в матрицах.
+    private static void projectVertices(MeshGeometry geometry, int vertexCount, int width, int height) {
+        FRAME.ensureCapacity(vertexCount);
+        Matrix4f modelView = FRAME.modelView;
+        Matrix4f modelViewProjection = FRAME.modelViewProjection;
+        Vector3fList vertices = geometry instanceof Model ? ((Model) geometry).vertices : null;
+        short[] packed = null;
+        if (vertices != null && vertices.getPacking() == Vector3fList.Packing.QUANTIZED) {
+            packed = vertices.packedArray();
+            FRAME.dequantization.setTransform(
+                    vertices.getQuantizationOrigin(0), vertices.getQuantizationOrigin(1),
+                    vertices.getQuantizationOrigin(2), 0, 0, 0,
+                    vertices.getQuantizationStep(0), vertices.getQuantizationStep(1),
+                    vertices.getQuantizationStep(2));
+            modelView = FRAME.quantizedModelView.mul(modelView, FRAME.dequantization);
+            modelViewProjection = FRAME.quantizedModelViewProjection.mul(modelViewProjection, FRAME.dequantization);
+        }
 
-        float scale = 50.0f;
-        if (modelWidth > 0 && modelHeight > 0) {
-            float scaleX = (width * 0.7f) / modelWidth;
-            float scaleY = (height * 0.7f) / modelHeight;
-            scale = Math.min(scaleX, scaleY);
-            scale = Math.max(10.0f, Math.min(500.0f, scale));
+        float[] xs = FRAME.blockX;
+        float[] ys = FRAME.blockY;
+        float[] zs = FRAME.blockZ;
+        for (int from = 0; from < vertexCount; from += PROJECTION_BLOCK) {
+            int to = Math.min(vertexCount, from + PROJECTION_BLOCK);
+            int count = to - from;
+            if (packed != null) {
+                for (int k = 0; k < count; k++) {
+                    int o = 3 * (from + k);
+                    xs[k] = packed[o] & 0xffff;
+                    ys[k] = packed[o + 1] & 0xffff;
+                    zs[k] = packed[o + 2] & 0xffff;
+                }
+            } else {
+                geometry.getVertexCoordinates(from, to, FRAME.blockXyz, 0);
+                BatchTransform.deinterleave(FRAME.blockXyz, count, xs, ys, zs);
+            }
+            BatchTransform.project(xs, ys, zs, count, modelViewProjection, width, height,
+                    FRAME.blockScreenX, FRAME.blockScreenY, FRAME.blockDepth);
+            BatchTransform.transform(xs, ys, zs, count, modelView,
+                    FRAME.blockViewX, FRAME.blockViewY, FRAME.blockViewZ, FRAME.blockViewW);
+            System.arraycopy(FRAME.blockScreenX, 0, FRAME.screenX, from, count);
+            System.arraycopy(FRAME.blockScreenY, 0, FRAME.screenY, from, count);
+            System.arraycopy(FRAME.blockViewX, 0, FRAME.viewX, from, count);
+            System.arraycopy(FRAME.blockViewY, 0, FRAME.viewY, from, count);
+            System.arraycopy(FRAME.blockViewZ, 0, FRAME.viewZ, from, count);
         }
+    }
 
-        gc.setStroke(Color.BLACK);
-        gc.setFill(Color.rgb(200, 200, 200));
-        gc.setLineWidth(1.0);
+    // Заливка - по кэшированному буферу треугольников модели, контуры - по исходным
+    // граням, чтобы не рисовать внутренние диагонали. Возвращает число обведённых граней.
+    private static int drawModel(GraphicsContext gc, Model model) {
+        int vertexCount = model.vertices.size();
+        TriangleBuffer triangles = model.getTriangles();
+        int[] triangleIndices = triangles.getIndices();
+        int[] corners = FRAME.corners;
+        for (int t = 0; t < triangles.getTriangleCount(); t++) {
+            int a = triangleIndices[3 * t];
+            int b = triangleIndices[3 * t + 1];
+            int c = triangleIndices[3 * t + 2];
+            if (a < 0 || a >= vertexCount || b < 0 || b >= vertexCount || c < 0 || c >= vertexCount) {
+                continue;
+            }
+            corners[0] = a;
+            corners[1] = b;
+            corners[2] = c;
+            int visibility = visibility(corners, 3);
+            if (visibility == HIDDEN) {
+                continue;
+            }
+            gc.setFill(shade(a, b, c));
+            if (visibility == VISIBLE) {
+                FRAME.xPoints[0] = FRAME.screenX[a];
+                FRAME.xPoints[1] = FRAME.screenX[b];
+                FRAME.xPoints[2] = FRAME.screenX[c];
+                FRAME.yPoints[0] = FRAME.screenY[a];
+                FRAME.yPoints[1] = FRAME.screenY[b];
+                FRAME.yPoints[2] = FRAME.screenY[c];
+                gc.fillPolygon(FRAME.xPoints, FRAME.yPoints, 3);
+            } else {
+                int clipped = clipToNearPlane(corners, 3);
+                gc.fillPolygon(FRAME.xPoints, FRAME.yPoints, clipped);
+            }
+        }
 
         int drawnPolygons = 0;
-        for (Polygon polygon : polygons) {
-            List<Integer> vertexIndices = polygon.getVertexIndices();
-            if (vertexIndices == null || vertexIndices.size() < 3) {
+        for (Polygon polygon : model.getPolygons()) {
+            int polygonVertexCount = polygon.getVertexCount();
+            if (polygonVertexCount < 3) {
                 continue;
             }
-
-            double[] xPoints = new double[vertexIndices.size()];
-            double[] yPoints = new double[vertexIndices.size()];
+            FRAME.ensurePolygonCapacity(polygonVertexCount);
+            corners = FRAME.corners;
             boolean valid = true;
-
-            for (int i = 0; i < vertexIndices.size(); i++) {
-                int vertexIndex = vertexIndices.get(i);
-                if (vertexIndex < 0 || vertexIndex >= vertices.size()) {
+            for (int i = 0; i < polygonVertexCount; i++) {
+                int vertexIndex = polygon.getVertexIndex(i);
+                if (vertexIndex < 0 || vertexIndex >= vertexCount) {
                     valid = false;
                     break;
                 }
+                corners[i] = vertexIndex;
+            }
+            if (valid && strokeFace(gc, corners, polygonVertexCount)) {
+                drawnPolygons++;
+            }
+        }
+        return drawnPolygons;
+    }
+
+    // То же через MeshGeometry (геометрия вне кучи): грани режутся веером на лету, оттенок
+    // грани - по нормали Ньюэлла в системе камеры.
+    private static int drawGeometry(GraphicsContext gc, MeshGeometry geometry) {
+        int vertexCount = geometry.getVertexCount();
+        int faceCount = geometry.getFaceCount();
+        double[] xTriangle = new double[3];
+        double[] yTriangle = new double[3];
+        for (int face = 0; face < faceCount; face++) {
+            int size = geometry.getFaceSize(face);
+            FRAME.ensurePolygonCapacity(size);
+            int[] corners = FRAME.corners;
+            int count = readFaceVertices(geometry, face, size, vertexCount, corners);
+            if (count < 3) {
+                continue;
+            }
+            int visibility = visibility(corners, count);
+            if (visibility == HIDDEN) {
+                continue;
+            }
+            double nx = 0;
+            double ny = 0;
+            double nz = 0;
+            for (int j = 0; j < count; j++) {
+                int a = corners[j];
+                int b = corners[(j + 1) % count];
+                nx += (FRAME.viewY[a] - FRAME.viewY[b]) * (FRAME.viewZ[a] + FRAME.viewZ[b]);
+                ny += (FRAME.viewZ[a] - FRAME.viewZ[b]) * (FRAME.viewX[a] + FRAME.viewX[b]);
+                nz += (FRAME.viewX[a] - FRAME.viewX[b]) * (FRAME.viewY[a] + FRAME.viewY[b]);
+            }
+            gc.setFill(shade(nx, ny, nz, corners[0]));
+            if (visibility == CLIPPED) {
+                int clipped = clipToNearPlane(corners, count);
+                gc.fillPolygon(FRAME.xPoints, FRAME.yPoints, clipped);
+                continue;
+            }
+            xTriangle[0] = FRAME.screenX[corners[0]];
+            yTriangle[0] = FRAME.screenY[corners[0]];
+            for (int j = 1; j < count - 1; j++) {
+                xTriangle[1] = FRAME.screenX[corners[j]];
+                yTriangle[1] = FRAME.screenY[corners[j]];
+                xTriangle[2] = FRAME.screenX[corners[j + 1]];
+                yTriangle[2] = FRAME.screenY[corners[j + 1]];
+                gc.fillPolygon(xTriangle, yTriangle, 3);
+            }
+        }
 
-                Vector3f vertex = vertices.get(vertexIndex);
+        // Контуры - вторым проходом, поверх всех заливок, как и для Model.
+        int drawnPolygons = 0;
+        for (int face = 0; face < faceCount; face++) {
+            int size = geometry.getFaceSize(face);
+            FRAME.ensurePolygonCapacity(size);
+            int count = readFaceVertices(geometry, face, size, vertexCount, FRAME.corners);
+            if (count >= 3 && strokeFace(gc, FRAME.corners, count)) {
+                drawnPolygons++;
+            }
+        }
+        return drawnPolygons;
+    }
 
-                float x = (vertex.x - centerX) * scale;
-                float y = (vertex.y - centerY) * scale;
+    // Индексы вершин грани в target; -1, если какой-то индекс вне [0, vertexCount).
+    private static int readFaceVertices(MeshGeometry geometry, int face, int size, int vertexCount, int[] target) {
+        int count = 0;
+        while (count < size) {
+            int vertex = geometry.getFaceIndex(FaceTable.VERTEX, face, count);
+            if (vertex == FaceTable.ABSENT) {
+                break;
+            }
+            if (vertex < 0 || vertex >= vertexCount) {
+                return -1;
+            }
+            target[count++] = vertex;
+        }
+        return count;
+    }
 
-                xPoints[i] = x + width / 2.0;
-                yPoints[i] = height / 2.0 - y;
+    private static int visibility(int[] corners, int count) {
+        int inFront = 0;
+        boolean beyondFar = true;
+        for (int j = 0; j < count; j++) {
+            float z = FRAME.viewZ[corners[j]];
+            if (z <= FRAME.nearZ) {
+                inFront++;
             }
+            beyondFar &= z < FRAME.farZ;
+        }
+        if (inFront == 0 || beyondFar) {
+            return HIDDEN;
+        }
+        return inFront == count ? VISIBLE : CLIPPED;
+    }
 
-            if (valid) {
-                gc.fillPolygon(xPoints, yPoints, vertexIndices.size());
-                gc.strokePolygon(xPoints, yPoints, vertexIndices.size());
-                drawnPolygons++;
+    // Обводка грани; если часть вершин за ближней плоскостью, каждое ребро обрезается по
+    // ней, чтобы не рисовать линию вдоль самой плоскости. false - грань не видна.
+    private static boolean strokeFace(GraphicsContext gc, int[] corners, int count) {
+        int visibility = visibility(corners, count);
+        if (visibility == HIDDEN) {
+            return false;
+        }
+        if (visibility == VISIBLE) {
+            for (int j = 0; j < count; j++) {
+                FRAME.xPoints[j] = FRAME.screenX[corners[j]];
+                FRAME.yPoints[j] = FRAME.screenY[corners[j]];
+            }
+            gc.strokePolygon(FRAME.xPoints, FRAME.yPoints, count);
+            return true;
+        }
+        for (int j = 0; j < count; j++) {
+            int a = corners[j];
+            int b = corners[(j + 1) % count];
+            boolean aInFront = FRAME.viewZ[a] <= FRAME.nearZ;
+            boolean bInFront = FRAME.viewZ[b] <= FRAME.nearZ;
+            if (aInFront && bInFront) {
+                gc.strokeLine(FRAME.screenX[a], FRAME.screenY[a], FRAME.screenX[b], FRAME.screenY[b]);
+            } else if (aInFront || bInFront) {
+                int front = aInFront ? a : b;
+                projectNearIntersection(front, aInFront ? b : a, 0);
+                gc.strokeLine(FRAME.screenX[front], FRAME.screenY[front], FRAME.xPoints[0], FRAME.yPoints[0]);
+            }
+        }
+        return true;
+    }
+
+    // Многоугольник, обрезанный по ближней плоскости в системе камеры (Сазерленд - Ходжман),
+    // - в экранных координатах в FRAME.xPoints/yPoints; возвращает число его вершин.
+    private static int clipToNearPlane(int[] corners, int count) {
+        FRAME.ensurePolygonCapacity(2 * count);
+        int clipped = 0;
+        for (int j = 0; j < count; j++) {
+            int a = corners[j];
+            int b = corners[(j + 1) % count];
+            boolean aInFront = FRAME.viewZ[a] <= FRAME.nearZ;
+            boolean bInFront = FRAME.viewZ[b] <= FRAME.nearZ;
+            if (aInFront) {
+                FRAME.xPoints[clipped] = FRAME.screenX[a];
+                FRAME.yPoints[clipped] = FRAME.screenY[a];
+                clipped++;
+            }
+            if (aInFront != bInFront) {
+                projectNearIntersection(a, b, clipped++);
             }
         }
+        return clipped;
+    }
+
+    // Точка пересечения ребра a-b с ближней плоскостью - на экран, в FRAME.xPoints/yPoints[index].
+    private static void projectNearIntersection(int a, int b, int index) {
+        double t = (FRAME.nearZ - FRAME.viewZ[a]) / (double) (FRAME.viewZ[b] - FRAME.viewZ[a]);
+        double x = FRAME.viewX[a] + t * (FRAME.viewX[b] - FRAME.viewX[a]);
+        double y = FRAME.viewY[a] + t * (FRAME.viewY[b] - FRAME.viewY[a]);
+        double z = FRAME.nearZ;
+        Matrix4f p = FRAME.projection;
+        double w = p.m30 * x + p.m31 * y + p.m32 * z + p.m33;
+        FRAME.xPoints[index] = ((p.m00 * x + p.m01 * y + p.m02 * z + p.m03) / w + 1) * FRAME.width / 2;
+        FRAME.yPoints[index] = (1 - (p.m10 * x + p.m11 * y + p.m12 * z + p.m13) / w) * FRAME.height / 2;
+    }
+
+    private static Color shade(int a, int b, int c) {
+        float[] x = FRAME.viewX;
+        float[] y = FRAME.viewY;
+        float[] z = FRAME.viewZ;
+        double ux = x[b] - x[a];
+        double uy = y[b] - y[a];
+        double uz = z[b] - z[a];
+        double vx = x[c] - x[a];
+        double vy = y[c] - y[a];
+        double vz = z[c] - z[a];
+        return shade(uy * vz - uz * vy, uz * vx - ux * vz, ux * vy - uy * vx, a);
+    }
+
+    // Оттенок по |cos| угла между нормалью (nx, ny, nz) и лучом из камеры в вершину.
+    private static Color shade(double nx, double ny, double nz, int vertex) {
+        double px = FRAME.viewX[vertex];
+        double py = FRAME.viewY[vertex];
+        double pz = FRAME.viewZ[vertex];
+        double length = Math.sqrt((nx * nx + ny * ny + nz * nz) * (px * px + py * py + pz * pz));
+        double light = length > 0 ? Math.min(1, Math.abs(nx * px + ny * py + nz * pz) / length) : 0;
+        return SHADES[(int) (light * (SHADES.length - 1))];
+    }
 
+    // Диаметр описанной сферы модели на экране в пикселях; для камеры внутри сферы -
+    // бесконечность, то есть полная детализация.
+    private static float projectedSize(ModelBounds bounds, SceneObject object, Matrix4f projection, int height) {
+        Vector3f scale = object.getScale();
+        float radius = bounds.getRadius()
+                * Math.max(Math.abs(scale.getX()), Math.max(Math.abs(scale.getY()), Math.abs(scale.getZ())));
+        Vector3f center = FRAME.point;
+        center.set(bounds.getCenterX(), bounds.getCenterY(), bounds.getCenterZ());
+        FRAME.modelView.transformPoint(center, center);
+        float distance = -center.getZ();
+        if (distance <= radius) {
+            return Float.POSITIVE_INFINITY;
+        }
+        return radius * projection.m11 * height / distance;
+    }
+
+    // Камера на оси +Z от центра сферы, описанной вокруг всех объектов, так что сфера
+    // целиком в поле зрения.
+    private static Camera fitCamera(List<SceneObject> objects, List<MeshGeometry> geometries, float aspectRatio) {
+        float minX = Float.POSITIVE_INFINITY;
+        float minY = Float.POSITIVE_INFINITY;
+        float minZ = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY;
+        float maxY = Float.NEGATIVE_INFINITY;
+        float maxZ = Float.NEGATIVE_INFINITY;
+        Vector3f center = FRAME.point;
+        for (int i = 0; i < objects.size(); i++) {
+            SceneObject object = objects.get(i);
+            MeshGeometry geometry = geometries.get(i);
+            ModelBounds bounds = geometry instanceof OffHeapGeometry ? ((OffHeapGeometry) geometry).getBounds()
+                    : ((Model) geometry).getBounds();
+            Vector3f scale = object.getScale();
+            float radius = bounds.getRadius()
+                    * Math.max(Math.abs(scale.getX()), Math.max(Math.abs(scale.getY()), Math.abs(scale.getZ())));
+            center.set(bounds.getCenterX(), bounds.getCenterY(), bounds.getCenterZ());
+            object.getModelMatrix().transformPoint(center, center);
+            minX = Math.min(minX, center.getX() - radius);
+            minY = Math.min(minY, center.getY() - radius);
+            minZ = Math.min(minZ, center.getZ() - radius);
+            maxX = Math.max(maxX, center.getX() + radius);
+            maxY = Math.max(maxY, center.getY() + radius);
+            maxZ = Math.max(maxZ, center.getZ() + radius);
+        }
+        float radius = Math.max(1e-3f, 0.5f * (float) Math.sqrt(
+                (maxX - minX) * (maxX - minX) + (maxY - minY) * (maxY - minY) + (maxZ - minZ) * (maxZ - minZ)));
+        Vector3f target = new Vector3f((minX + maxX) / 2, (minY + maxY) / 2, (minZ + maxZ) / 2);
+        double halfFov = DEFAULT_FOV / 2;
+        double halfHorizontalFov = Math.atan(Math.tan(halfFov) * aspectRatio);
+        float distance = radius / (float) Math.sin(Math.min(halfFov, halfHorizontalFov));
+        Vector3f position = new Vector3f(target.getX(), target.getY(), target.getZ() + distance);
+        return new Camera(position, target, DEFAULT_FOV, aspectRatio, (distance - radius) / 2, 2 * (distance + radius));
+    }
+
+    // Красные точки в вершинах последнего спроецированного объекта; возвращает их число.
+    private static int drawVertices(GraphicsContext gc, int vertexCount) {
         gc.setFill(Color.RED);
-        for (Vector3f vertex : vertices) {
-            float x = (vertex.x - centerX) * scale + width / 2.0f;
-            float y = height / 2.0f - (vertex.y - centerY) * scale;
-            gc.fillOval(x - 2, y - 2, 4, 4);
+        for (int i = 0; i < vertexCount; i++) {
+            if (FRAME.viewZ[i] <= FRAME.nearZ && FRAME.viewZ[i] >= FRAME.farZ) {
+                gc.fillOval(FRAME.screenX[i] - 2, FRAME.screenY[i] - 2, 4, 4);
+            }
         }
+        return vertexCount;
+    }
 
+    private static void drawOverlay(GraphicsContext gc, List<SceneObject> objects, Camera camera,
+                                    int vertexCount, int drawnPolygons, int width, int height) {
         gc.setFill(Color.BLUE);
-        gc.fillText("Модель: " + object.getName(), 10, 20);
-        gc.fillText("Вершин: " + vertices.size(), 10, 40);
+        gc.fillText(objects.size() == 1 ? "Модель: " + objects.get(0).getName() : "Объектов: " + objects.size(), 10, 20);
+        gc.fillText("Вершин: " + vertexCount, 10, 40);
         gc.fillText("Полигонов: " + drawnPolygons, 10, 60);
-        gc.fillText("Масштаб: " + String.format("%.1f", scale), 10, 80);
+        Vector3f position = camera.getPosition();
+        gc.fillText(String.format("Камера: (%.1f, %.1f, %.1f)", position.getX(), position.getY(), position.getZ()),
+                10, 80);
 
-        gc.setFill(Color.GREEN);
-        gc.fillOval(width/2 - 3, height/2 - 3, 6, 6);
+        // Начало мировых координат, если оно в поле зрения.
+        Vector3f origin = FRAME.point;
+        origin.set(0, 0, 0);
+        FRAME.viewProjection.transformPoint(origin, origin);
+        if (origin.getZ() >= -1 && origin.getZ() <= 1) {
+            gc.setFill(Color.GREEN);
+            gc.fillOval((origin.getX() + 1) * width / 2 - 3, (1 - origin.getY()) * height / 2 - 3, 6, 6);
+        }
     }
 
     private static void drawNoModel(GraphicsContext gc, int width, int height) {
@@ -129,4 +517,62 @@ public class RenderEngine {
         gc.setFill(Color.BLACK);
         gc.fillText("Нет модели для отображения", width/2 - 100, height/2);
     }
-}
\ No newline at end of file
+
+    // Матрицы кадра и буферы проекции; массивы вершин растут до самой большой модели.
+    private static final class Frame {
+        final Matrix4f viewProjection = new Matrix4f();
+        final Matrix4f modelView = new Matrix4f();
+        final Matrix4f modelViewProjection = new Matrix4f();
+        final Matrix4f dequantization = new Matrix4f();
+        final Matrix4f quantizedModelView = new Matrix4f();
+        final Matrix4f quantizedModelViewProjection = new Matrix4f();
+        final Vector3f point = new Vector3f(0, 0, 0);
+        Matrix4f projection;
+        // Ближняя и дальняя плоскости как z в системе камеры (камера смотрит вдоль -Z).
+        float nearZ;
+        float farZ;
+        int width;
+        int height;
+
+        float[] screenX = new float[0];
+        float[] screenY = new float[0];
+        float[] viewX = new float[0];
+        float[] viewY = new float[0];
+        float[] viewZ = new float[0];
+
+        final float[] blockXyz = new float[3 * PROJECTION_BLOCK];
+        final float[] blockX = new float[PROJECTION_BLOCK];
+        final float[] blockY = new float[PROJECTION_BLOCK];
+        final float[] blockZ = new float[PROJECTION_BLOCK];
+        final float[] blockScreenX = new float[PROJECTION_BLOCK];
+        final float[] blockScreenY = new float[PROJECTION_BLOCK];
+        final float[] blockDepth = new float[PROJECTION_BLOCK];
+        final float[] blockViewX = new float[PROJECTION_BLOCK];
+        final float[] blockViewY = new float[PROJECTION_BLOCK];
+        final float[] blockViewZ = new float[PROJECTION_BLOCK];
+        final float[] blockViewW = new float[PROJECTION_BLOCK];
+
+        double[] xPoints = new double[8];
+        double[] yPoints = new double[8];
+        int[] corners = new int[8];
+
+        void ensureCapacity(int vertexCount) {
+            if (screenX.length < vertexCount) {
+                int capacity = Math.max(vertexCount, screenX.length + (screenX.length >> 1));
+                screenX = new float[capacity];
+                screenY = new float[capacity];
+                viewX = new float[capacity];
+                viewY = new float[capacity];
+                viewZ = new float[capacity];
+            }
+        }
+
+        void ensurePolygonCapacity(int cornerCount) {
+            if (xPoints.length < cornerCount) {
+                xPoints = new double[Math.max(cornerCount, 2 * xPoints.length)];
+                yPoints = new double[xPoints.length];
+                corners = Arrays.copyOf(corners, xPoints.length);
+            }
+        }
+    }
+}
@@ -1,8 +1,7 @@
 package com.cgvsu.scene;
 
 import com.cgvsu.model.Model;
-import java.util.HashSet;
-import java.util.Set;
+import com.cgvsu.model.Selection;
 
 public class EditModeManager {
     public enum EditMode {
@@ -41,14 +40,70 @@ public class EditModeManager {
     }
 
     public void deleteSelectedVertices() {
-        if (currentMode == EditMode.VERTEX_MODE && currentEditingObject != null) {
+        if (currentMode == EditMode.VERTEX_MODE && currentEditingObject != null && currentEditingObject.hasModel()) {
             currentEditingObject.getModel().deleteSelectedVertices();
         }
     }
 
     public void deleteSelectedPolygons() {
-        if (currentMode == EditMode.POLYGON_MODE && currentEditingObject != null) {
+        if (currentMode == EditMode.POLYGON_MODE && currentEditingObject != null && currentEditingObject.hasModel()) {
             currentEditingObject.getModel().deleteSelectedPolygons();
         }
     }
-}
\ No newline at end of file
+
+    // Выделение текущего режима (вершины или грани); null вне режима редактирования.
+    public Selection getCurrentSelection() {
+        Model model = getCurrentModel();
+        if (model == null) return null;
+        if (currentMode == EditMode.VERTEX_MODE) return model.getVertexSelection();
+        if (currentMode == EditMode.POLYGON_MODE) return model.getPolygonSelection();
+        return null;
+    }
+
+    public void selectAll() {
+        Model model = getCurrentModel();
+        if (model == null) return;
+        if (currentMode == EditMode.VERTEX_MODE) {
+            model.selectAllVertices();
+        } else if (currentMode == EditMode.POLYGON_MODE) {
+            model.selectAllPolygons();
+        }
+    }
+
+    public void invertSelection() {
+        Model model = getCurrentModel();
+        if (model == null) return;
+        if (currentMode == EditMode.VERTEX_MODE) {
+            model.invertVertexSelection();
+        } else if (currentMode == EditMode.POLYGON_MODE) {
+            model.invertPolygonSelection();
+        }
+    }
+
+    public void growSelection() {
+        Model model = getCurrentModel();
+        if (model == null) return;
+        if (currentMode == EditMode.VERTEX_MODE) {
+            model.growVertexSelection();
+        } else if (currentMode == EditMode.POLYGON_MODE) {
+            model.growPolygonSelection();
+        }
+    }
+
+    public void shrinkSelection() {
+        Model model = getCurrentModel();
+        if (model == null) return;
+        if (currentMode == EditMode.VERTEX_MODE) {
+            model.shrinkVertexSelection();
+        } else if (currentMode == EditMode.POLYGON_MODE) {
+            model.shrinkPolygonSelection();
+        }
+    }
+
+    public void clearSelection() {
+        Selection selection = getCurrentSelection();
+        if (selection != null) {
+            selection.clear();
+        }
+    }
+}
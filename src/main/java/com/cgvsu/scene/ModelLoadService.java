@@ -0,0 +1,205 @@
+package com.cgvsu.scene;
+
+import com.cgvsu.model.Model;
+import com.cgvsu.model.ModelLod;
+import com.cgvsu.objreader.ObjReadOptions;
+import com.cgvsu.objreader.ObjReadProgress;
+import com.cgvsu.objreader.ObjReadStatistics;
+import com.cgvsu.objreader.ObjReader;
+import javafx.concurrent.Task;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Загружает модели в фоне: не больше maxConcurrentLoads файлов одновременно, остальные
+// ждут в очереди. Сам разбор каждого файла идёт параллельно в общем ForkJoinPool.
+// Готовый SceneObject добавляется в Scene уже в потоке JavaFX, при переходе задачи в SUCCEEDED.
+// Для больших моделей уровни детализации строятся в той же задаче, до добавления в Scene.
+public class ModelLoadService {
+
+    public static final int DEFAULT_MAX_CONCURRENT_LOADS = 2;
+    // С какого числа треугольников модели строятся уровни детализации.
+    public static final int LOD_MIN_TRIANGLES = 100_000;
+
+    private final Scene scene;
+    private final ThreadPoolExecutor executor;
+    // Файлы не меньше этого размера грузятся вне кучи (OffHeapGeometry: только просмотр
+    // и экспорт, без правки); по умолчанию выключено.
+    private volatile long offHeapMinFileSize = Long.MAX_VALUE;
+    // Меняется только в потоке JavaFX.
+    private final List<LoadTask> activeLoads = new ArrayList<>();
+
+    public ModelLoadService(Scene scene) {
+        this(scene, DEFAULT_MAX_CONCURRENT_LOADS);
+    }
+
+    public ModelLoadService(Scene scene, int maxConcurrentLoads) {
+        if (maxConcurrentLoads < 1) {
+            throw new IllegalArgumentException("maxConcurrentLoads must be positive: " + maxConcurrentLoads);
+        }
+        this.scene = scene;
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(maxConcurrentLoads, maxConcurrentLoads,
+                30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "model-loader-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    public int getMaxConcurrentLoads() {
+        return executor.getMaximumPoolSize();
+    }
+
+    public void setMaxConcurrentLoads(int maxConcurrentLoads) {
+        if (maxConcurrentLoads < 1) {
+            throw new IllegalArgumentException("maxConcurrentLoads must be positive: " + maxConcurrentLoads);
+        }
+        if (maxConcurrentLoads > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(maxConcurrentLoads);
+            executor.setCorePoolSize(maxConcurrentLoads);
+        } else {
+            executor.setCorePoolSize(maxConcurrentLoads);
+            executor.setMaximumPoolSize(maxConcurrentLoads);
+        }
+    }
+
+    public long getOffHeapMinFileSize() {
+        return offHeapMinFileSize;
+    }
+
+    public void setOffHeapMinFileSize(long offHeapMinFileSize) {
+        this.offHeapMinFileSize = offHeapMinFileSize;
+    }
+
+    public LoadTask load(File file) {
+        LoadTask task = new LoadTask(file);
+        activeLoads.add(task);
+        executor.execute(task);
+        return task;
+    }
+
+    public List<LoadTask> getActiveLoads() {
+        return Collections.unmodifiableList(activeLoads);
+    }
+
+    public boolean isLoading() {
+        return !activeLoads.isEmpty();
+    }
+
+    public void cancelAll() {
+        for (LoadTask task : new ArrayList<>(activeLoads)) {
+            task.cancel();
+        }
+    }
+
+    public void shutdown() {
+        cancelAll();
+        executor.shutdownNow();
+    }
+
+    public class LoadTask extends Task<SceneObject> {
+        private final File file;
+        private final String name;
+        private final ObjReadProgress progress = new ObjReadProgress(this::updateProgress);
+        private final ObjReadStatistics statistics = new ObjReadStatistics();
+        // Объект с геометрией вне кучи, пока он не попал в сцену: при отмене его освобождает
+        // тот, кто заберёт его отсюда первым, - call() или слушатель состояния.
+        private final AtomicReference<SceneObject> offHeapResult = new AtomicReference<>();
+
+        private LoadTask(File file) {
+            this.file = file;
+            this.name = file.getName().replaceFirst("[.][^.]+$", "");
+            updateMessage("Waiting: " + file.getName());
+            // Слушатели состояния вызываются раньше обработчиков setOnSucceeded/setOnFailed/
+            // setOnCancelled и раньше succeeded()/failed()/cancelled(): обработчики уже видят
+            // задачу вне activeLoads, а загруженный объект - в сцене.
+            stateProperty().addListener((observable, oldState, state) -> {
+                if (state == State.SUCCEEDED) {
+                    activeLoads.remove(this);
+                    offHeapResult.set(null);
+                    publish(getValue());
+                } else if (state == State.FAILED || state == State.CANCELLED) {
+                    activeLoads.remove(this);
+                    releaseOffHeapResult();
+                }
+            });
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        // Заполнена после успешной загрузки.
+        public ObjReadStatistics getStatistics() {
+            return statistics;
+        }
+
+        @Override
+        protected SceneObject call() throws Exception {
+            updateMessage("Loading: " + file.getName());
+
+            ObjReadOptions options = new ObjReadOptions();
+            options.setParallel(true);
+            options.setCacheEnabled(true);
+            options.setProgress(progress);
+            options.setStatistics(statistics);
+
+            if (file.length() >= offHeapMinFileSize) {
+                SceneObject object = new SceneObject(ObjReader.readOffHeap(file.toPath(), options), name);
+                offHeapResult.set(object);
+                // Результат отменённой задачи в сцену не попадёт.
+                if (isCancelled()) {
+                    releaseOffHeapResult();
+                }
+                return object;
+            }
+            Model model = ObjReader.read(file.toPath(), options);
+            // Буфер треугольников строится здесь, а не на первом кадре в потоке JavaFX.
+            // Уровни детализации - тоже здесь, пока модель не попала в сцену: потом её
+            // правят в потоке JavaFX, и MeshSimplifier читал бы массивы во время правки.
+            if (model.getTriangles().getTriangleCount() >= LOD_MIN_TRIANGLES
+                    && statistics.isValid() && !isCancelled()) {
+                updateMessage("Building LOD: " + file.getName());
+                model.buildLod(ModelLod.DEFAULT_RATIOS);
+            }
+            return new SceneObject(model, name);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            progress.cancel();
+            return super.cancel(mayInterruptIfRunning);
+        }
+
+        private void releaseOffHeapResult() {
+            SceneObject object = offHeapResult.getAndSet(null);
+            if (object != null) {
+                object.release();
+            }
+        }
+
+        private void publish(SceneObject object) {
+            if (!statistics.isValid()) {
+                object.release();
+                return;
+            }
+            scene.addObject(object);
+            scene.clearSelection();
+            scene.selectObject(object, false);
+        }
+    }
+}
@@ -20,6 +20,7 @@ public class Scene {
         selectedObjects.remove(object);
         if (object != null) {
             object.setSelected(false);
+            releaseIfUnused(object);
         }
     }
 
@@ -123,6 +124,7 @@ public class Scene {
     public void clear() {
         for (SceneObject obj : objects) {
             obj.setSelected(false);
+            obj.release();
         }
         objects.clear();
         selectedObjects.clear();
@@ -133,6 +135,9 @@ public class Scene {
             obj.setSelected(false);
         }
         objects.removeAll(selectedObjects);
+        for (SceneObject obj : selectedObjects) {
+            releaseIfUnused(obj);
+        }
         selectedObjects.clear();
     }
 
@@ -150,6 +155,7 @@ public class Scene {
                     obj.getRotation(),
                     obj.getScale()
             );
+            copy.setOffHeapGeometry(obj.getOffHeapGeometry());
             copy.setVisible(obj.isVisible());
             duplicated.add(copy);
         }
@@ -161,6 +167,21 @@ public class Scene {
         }
     }
 
+    // Геометрия вне кучи освобождается, когда в сцене не осталось объектов с ней.
+    private void releaseIfUnused(SceneObject removed) {
+        if (removed.getOffHeapGeometry() == null || objects.contains(removed)) {
+            return;
+        }
+        for (SceneObject obj : objects) {
+            if (obj.getOffHeapGeometry() == removed.getOffHeapGeometry()) {
+                return;
+            }
+        }
+        removed.release();
+    }
+
+    // Все видимые объекты - одним кадром RenderEngine: фон очищается один раз, матрицы
+    // камеры считаются один раз на кадр.
     public void render(GraphicsContext gc, Camera camera, int width, int height) {
         if (gc == null || camera == null) {
             return;
@@ -172,11 +193,7 @@ public class Scene {
             return;
         }
 
-        for (SceneObject object : objects) {
-            if (object.isVisible()) {
-                RenderEngine.render(gc, camera, object, width, height);
-            }
-        }
+        renderVisible(gc, camera, objects, width, height);
     }
 
     public void renderAll(GraphicsContext gc, Camera camera, int width, int height) {
@@ -186,11 +203,7 @@ public class Scene {
 
         gc.clearRect(0, 0, width, height);
 
-        for (SceneObject object : objects) {
-            if (object.isVisible()) {
-                RenderEngine.render(gc, camera, object, width, height);
-            }
-        }
+        renderVisible(gc, camera, objects, width, height);
     }
 
     public void renderOnlySelected(GraphicsContext gc, Camera camera, int width, int height) {
@@ -200,10 +213,19 @@ public class Scene {
 
         gc.clearRect(0, 0, width, height);
 
-        for (SceneObject object : selectedObjects) {
+        renderVisible(gc, camera, selectedObjects, width, height);
+    }
+
+    private static void renderVisible(GraphicsContext gc, Camera camera, List<SceneObject> objects,
+                                      int width, int height) {
+        List<SceneObject> visible = new ArrayList<>();
+        for (SceneObject object : objects) {
             if (object.isVisible()) {
-                RenderEngine.render(gc, camera, object, width, height);
+                visible.add(object);
             }
         }
+        if (!visible.isEmpty()) {
+            RenderEngine.render(gc, camera, visible, width, height);
+        }
     }
 }
\ No newline at end of file
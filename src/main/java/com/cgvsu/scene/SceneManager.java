@@ -2,15 +2,16 @@ package com.cgvsu.scene;
 
 import com.cgvsu.model.Model;
 import com.cgvsu.objreader.ObjReader;
+import javafx.concurrent.WorkerStateEvent;
 
 import java.io.File;
-import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.Map;
 
 public class SceneManager {
     private Scene currentScene = new Scene();
     private final Map<Integer, SceneObject> objectMap = new HashMap<>();
+    private final ModelLoadService loadService = new ModelLoadService(currentScene);
     private static int objectCounter = 0;
 
     public Scene getCurrentScene() {
@@ -19,8 +20,7 @@ public class SceneManager {
 
     public SceneObject loadModel(File file, ObjReader reader) {
         try {
-            String content = Files.readString(file.toPath());
-            Model model = reader.read(content);
+            Model model = ObjReader.readCached(file.toPath());
 
             String name = file.getName().replace(".obj", "");
             SceneObject obj = new SceneObject(model, name);
@@ -38,6 +38,25 @@ public class SceneManager {
         }
     }
 
+    // Загрузка в фоне; объект попадает в сцену в потоке JavaFX после успешного чтения.
+    public ModelLoadService.LoadTask loadModelAsync(File file) {
+        ModelLoadService.LoadTask task = loadService.load(file);
+        task.addEventHandler(WorkerStateEvent.WORKER_STATE_SUCCEEDED, event -> {
+            if (task.getStatistics().isValid()) {
+                objectMap.put(objectCounter++, task.getValue());
+            }
+        });
+        return task;
+    }
+
+    public ModelLoadService getModelLoadService() {
+        return loadService;
+    }
+
+    public void shutdown() {
+        loadService.shutdown();
+    }
+
     public void removeSelectedObjects() {
         currentScene.removeSelectedObjects();
     }
@@ -1,14 +1,32 @@
 package com.cgvsu.scene;
 
+import com.cgvsu.math.Matrix4f;
 import com.cgvsu.math.Vector3f;
+import com.cgvsu.model.MeshGeometry;
 import com.cgvsu.model.Model;
+import com.cgvsu.model.OffHeapGeometry;
+import com.cgvsu.render_engine.GraphicConveyor;
 
 public class SceneObject {
     private Model model;
+    // Геометрия вне кучи (ModelLoadService для больших файлов); у такого объекта нет Model.
+    // Копии объекта делят её, Scene освобождает её вместе с последним из них.
+    private OffHeapGeometry offHeapGeometry;
     private String name;
-    private Vector3f position = new Vector3f(0, 0, 0);
-    private Vector3f rotation = new Vector3f(0, 0, 0);
-    private Vector3f scale = new Vector3f(1, 1, 1);
+    // Преобразование меняется только через методы объекта: векторы копируются на входе и
+    // на выходе, поэтому кэш матриц ниже не может устареть незаметно.
+    private final Vector3f position = new Vector3f(0, 0, 0);
+    // Углы Эйлера в градусах.
+    private final Vector3f rotation = new Vector3f(0, 0, 0);
+    private final Vector3f scale = new Vector3f(1, 1, 1);
+    // Матрица модели T * Rz * Ry * Rx * S и обратная к ней пересчитываются лениво, при
+    // первом запросе после изменения преобразования; transformVersion растёт при каждом
+    // изменении, по нему можно кэшировать производные данные (мировые габариты и т.п.).
+    private final Matrix4f modelMatrix = new Matrix4f();
+    private final Matrix4f inverseModelMatrix = new Matrix4f();
+    private boolean modelMatrixValid = true;
+    private boolean inverseModelMatrixValid = true;
+    private long transformVersion;
     private boolean visible = true;
     private boolean selected = false;
 
@@ -17,12 +35,17 @@ public class SceneObject {
         this.name = name;
     }
 
+    public SceneObject(OffHeapGeometry geometry, String name) {
+        this.offHeapGeometry = geometry;
+        this.name = name;
+    }
+
     public SceneObject(Model model, String name, Vector3f position, Vector3f rotation, Vector3f scale) {
         this.model = model;
         this.name = name;
-        this.position = position;
-        this.rotation = rotation;
-        this.scale = scale;
+        setPosition(position);
+        setRotation(rotation);
+        setScale(scale);
     }
 
     public void setSelected(boolean selected) {
@@ -41,6 +64,26 @@ public class SceneObject {
         this.model = model;
     }
 
+    public OffHeapGeometry getOffHeapGeometry() {
+        return offHeapGeometry;
+    }
+
+    public void setOffHeapGeometry(OffHeapGeometry offHeapGeometry) {
+        this.offHeapGeometry = offHeapGeometry;
+    }
+
+    // Что рисовать и экспортировать: геометрия вне кучи, если она есть, иначе модель.
+    public MeshGeometry getGeometry() {
+        return offHeapGeometry != null ? offHeapGeometry : model;
+    }
+
+    // Сразу освобождает память геометрии вне кучи; Model остаётся сборщику мусора.
+    public void release() {
+        if (offHeapGeometry != null) {
+            offHeapGeometry.close();
+        }
+    }
+
     public String getName() {
         return name;
     }
@@ -50,27 +93,51 @@ public class SceneObject {
     }
 
     public Vector3f getPosition() {
-        return position;
+        return new Vector3f(position);
     }
 
     public void setPosition(Vector3f position) {
-        this.position = position;
+        setPosition(position.getX(), position.getY(), position.getZ());
     }
 
     public Vector3f getRotation() {
-        return rotation;
+        return new Vector3f(rotation);
     }
 
     public void setRotation(Vector3f rotation) {
-        this.rotation = rotation;
+        setRotation(rotation.getX(), rotation.getY(), rotation.getZ());
     }
 
     public Vector3f getScale() {
-        return scale;
+        return new Vector3f(scale);
     }
 
     public void setScale(Vector3f scale) {
-        this.scale = scale;
+        setScale(scale.getX(), scale.getY(), scale.getZ());
+    }
+
+    // Матрица модели (локальные координаты -> мировые). Возвращается кэш объекта: его
+    // нельзя менять, и он меняется вместе с преобразованием.
+    public Matrix4f getModelMatrix() {
+        if (!modelMatrixValid) {
+            GraphicConveyor.modelMatrix(position, rotation, scale, modelMatrix);
+            modelMatrixValid = true;
+        }
+        return modelMatrix;
+    }
+
+    // Обратная матрица модели (мировые координаты -> локальные), тоже кэш объекта.
+    // При нулевом масштабе по какой-то оси - ArithmeticException.
+    public Matrix4f getInverseModelMatrix() {
+        if (!inverseModelMatrixValid) {
+            inverseModelMatrix.invert(getModelMatrix());
+            inverseModelMatrixValid = true;
+        }
+        return inverseModelMatrix;
+    }
+
+    public long getTransformVersion() {
+        return transformVersion;
     }
 
     public boolean isVisible() {
@@ -82,55 +149,57 @@ public class SceneObject {
     }
 
     public void move(Vector3f delta) {
-        this.position = new Vector3f(
-                position.getX() + delta.getX(),
-                position.getY() + delta.getY(),
-                position.getZ() + delta.getZ()
-        );
+        position.addInPlace(delta);
+        transformChanged();
     }
 
     public void rotate(Vector3f delta) {
-        this.rotation = new Vector3f(
-                rotation.getX() + delta.getX(),
-                rotation.getY() + delta.getY(),
-                rotation.getZ() + delta.getZ()
-        );
+        rotation.addInPlace(delta);
+        transformChanged();
     }
 
     public void scale(Vector3f factor) {
-        this.scale = new Vector3f(
-                scale.getX() * factor.getX(),
-                scale.getY() * factor.getY(),
-                scale.getZ() * factor.getZ()
-        );
+        scale.set(scale.getX() * factor.getX(), scale.getY() * factor.getY(), scale.getZ() * factor.getZ());
+        transformChanged();
     }
 
     public void setPosition(float x, float y, float z) {
-        this.position = new Vector3f(x, y, z);
+        position.set(x, y, z);
+        transformChanged();
     }
 
     public void setRotation(float x, float y, float z) {
-        this.rotation = new Vector3f(x, y, z);
+        rotation.set(x, y, z);
+        transformChanged();
     }
 
     public void setScale(float x, float y, float z) {
-        this.scale = new Vector3f(x, y, z);
+        scale.set(x, y, z);
+        transformChanged();
     }
 
     public void resetTransform() {
-        this.position = new Vector3f(0, 0, 0);
-        this.rotation = new Vector3f(0, 0, 0);
-        this.scale = new Vector3f(1, 1, 1);
+        position.set(0, 0, 0);
+        rotation.set(0, 0, 0);
+        scale.set(1, 1, 1);
+        transformChanged();
+    }
+
+    private void transformChanged() {
+        transformVersion++;
+        modelMatrixValid = false;
+        inverseModelMatrixValid = false;
     }
 
     public SceneObject copy() {
         SceneObject copy = new SceneObject(
                 this.model,
                 this.name + " Copy",
-                new Vector3f(this.position),
-                new Vector3f(this.rotation),
-                new Vector3f(this.scale)
+                this.position,
+                this.rotation,
+                this.scale
         );
+        copy.setOffHeapGeometry(this.offHeapGeometry);
         copy.setVisible(this.visible);
         copy.setSelected(this.selected);
         return copy;
@@ -141,11 +210,13 @@ public class SceneObject {
     }
 
     public int getVertexCount() {
-        return model != null ? model.vertices.size() : 0;
+        MeshGeometry geometry = getGeometry();
+        return geometry != null ? geometry.getVertexCount() : 0;
     }
 
     public int getPolygonCount() {
-        return model != null ? model.polygons.size() : 0;
+        MeshGeometry geometry = getGeometry();
+        return geometry != null ? geometry.getFaceCount() : 0;
     }
 
     @Override
@@ -165,7 +236,8 @@ public class SceneObject {
                 this.scale.equals(other.scale) &&
                 this.visible == other.visible &&
                 this.selected == other.selected &&
-                this.model == other.model;
+                this.model == other.model &&
+                this.offHeapGeometry == other.offHeapGeometry;
     }
 
     @Override
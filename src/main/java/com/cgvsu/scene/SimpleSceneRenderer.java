@@ -141,15 +141,15 @@ public class SimpleSceneRenderer {
         gc.setFill(Color.RED);
         gc.setStroke(Color.RED);
 
-        for (Integer vertexIndex : model.getSelectedVertexIndices()) {
-            if (vertexIndex >= 0 && vertexIndex < model.vertices.size()) {
-                Vector3f vertex = model.vertices.get(vertexIndex);
-                double screenX = viewportWidth / 2 + vertex.x;
-                double screenY = viewportHeight / 2 - vertex.y;
-
-                gc.fillOval(screenX - 4, screenY - 4, 8, 8);
-                gc.strokeOval(screenX - 6, screenY - 6, 12, 12);
-            }
+        com.cgvsu.model.Selection selection = model.getVertexSelection();
+        int vertexCount = model.vertices.size();
+        for (int vertexIndex = selection.next(0); vertexIndex >= 0 && vertexIndex < vertexCount;
+             vertexIndex = selection.next(vertexIndex + 1)) {
+            double screenX = viewportWidth / 2 + model.vertices.getX(vertexIndex);
+            double screenY = viewportHeight / 2 - model.vertices.getY(vertexIndex);
+
+            gc.fillOval(screenX - 4, screenY - 4, 8, 8);
+            gc.strokeOval(screenX - 6, screenY - 6, 12, 12);
         }
     }
 
@@ -157,10 +157,11 @@ public class SimpleSceneRenderer {
         gc.setStroke(Color.YELLOW);
         gc.setLineWidth(2);
 
-        for (Integer polygonIndex : model.getSelectedPolygonIndices()) {
-            if (polygonIndex >= 0 && polygonIndex < model.polygons.size()) {
-                renderPolygonOutline(model, polygonIndex);
-            }
+        com.cgvsu.model.Selection selection = model.getPolygonSelection();
+        int polygonCount = model.polygons.size();
+        for (int polygonIndex = selection.next(0); polygonIndex >= 0 && polygonIndex < polygonCount;
+             polygonIndex = selection.next(polygonIndex + 1)) {
+            renderPolygonOutline(model, polygonIndex);
         }
 
         gc.setLineWidth(1);
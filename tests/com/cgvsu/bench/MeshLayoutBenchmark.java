@@ -0,0 +1,78 @@
+package com.cgvsu.bench;
+
+import com.cgvsu.model.FaceTable;
+import com.cgvsu.model.MeshAdjacency;
+import com.cgvsu.model.MeshFixtures;
+import com.cgvsu.model.MeshLayoutOptimizer;
+import com.cgvsu.model.MeshNormals;
+import com.cgvsu.model.Model;
+import com.cgvsu.model.TriangleBuffer;
+
+import java.util.Arrays;
+
+// Замер до и после Model.optimizeLayout() на сетке квадов с перемешанными вершинами
+// и гранями. Не тест: запускается вручную, например
+//   java -cp target/classes:<tests> com.cgvsu.bench.MeshLayoutBenchmark 1000
+// Аргумент - сторона сетки в квадах (по умолчанию 700, около миллиона треугольников).
+public class MeshLayoutBenchmark {
+
+    private static final int WARMUP = 3;
+    private static final int RUNS = 7;
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 700;
+        Model model = MeshFixtures.createShuffledGrid(size, 42);
+        System.out.printf("Grid %dx%d: %d vertices, %d faces%n", size, size,
+                model.vertices.size(), model.polygons.size());
+
+        double[] before = measure(model);
+        long start = System.nanoTime();
+        model.optimizeLayout();
+        double optimizeMillis = (System.nanoTime() - start) / 1e6;
+        double[] after = measure(model);
+
+        System.out.printf("optimizeLayout: %.1f ms%n", optimizeMillis);
+        System.out.printf("%-22s %12s %12s%n", "", "before", "after");
+        String[] names = {"ACMR (LRU 32)", "adjacency, ms", "normals, ms", "vertex fetch, ms"};
+        for (int i = 0; i < names.length; i++) {
+            System.out.printf("%-22s %12.3f %12.3f%n", names[i], before[i], after[i]);
+        }
+    }
+
+    private static double[] measure(Model model) {
+        FaceTable table = model.polygons.getTable();
+        int vertexCount = model.vertices.size();
+        double acmr = MeshLayoutOptimizer.averageCacheMissRatio(table, vertexCount, MeshLayoutOptimizer.CACHE_SIZE);
+        double adjacency = median(() -> MeshAdjacency.build(table, vertexCount));
+        MeshAdjacency built = MeshAdjacency.build(table, vertexCount);
+        double normals = median(() -> MeshNormals.compute(table, model.vertices, built, MeshNormals.Weighting.AREA));
+        TriangleBuffer triangles = TriangleBuffer.build(table, model.vertices, TriangleBuffer.Triangulation.FAN);
+        double fetch = median(() -> fetchVertices(triangles, model.vertices.array()));
+        return new double[]{acmr, adjacency, normals, fetch};
+    }
+
+    // Обход треугольников с чтением координат вершин, как при проекции и растеризации.
+    private static float fetchVertices(TriangleBuffer triangles, float[] positions) {
+        int[] indices = triangles.getIndices();
+        float sum = 0;
+        for (int i = 0; i < 3 * triangles.getTriangleCount(); i++) {
+            int o = 3 * indices[i];
+            sum += positions[o] + positions[o + 1] + positions[o + 2];
+        }
+        return sum;
+    }
+
+    private static double median(Runnable action) {
+        for (int i = 0; i < WARMUP; i++) {
+            action.run();
+        }
+        double[] times = new double[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            action.run();
+            times[i] = (System.nanoTime() - start) / 1e6;
+        }
+        Arrays.sort(times);
+        return times[RUNS / 2];
+    }
+}
@@ -0,0 +1,99 @@
+package com.cgvsu.bench;
+
+import com.cgvsu.math.BatchTransform;
+import com.cgvsu.math.Matrix4f;
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.render_engine.GraphicConveyor;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Сравнение путей преобразования вершин: поворот Vector3f на каждую вершину, скалярный
+// Matrix4f.transformPoints по координатам подряд с делением и вьюпортом, и
+// BatchTransform.project по раздельным массивам (векторизуется C2). Не тест: запускается
+// вручную, например
+//   java -cp target/classes:<tests> com.cgvsu.bench.TransformBenchmark 4000000
+// Для сравнения со скалярным выполнением тех же циклов - с -XX:-UseSuperWord.
+// Аргумент - число вершин (по умолчанию миллион).
+public class TransformBenchmark {
+
+    private static final int WARMUP = 20;
+    private static final int RUNS = 21;
+    private static final int WIDTH = 1920;
+    private static final int HEIGHT = 1080;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Random random = new Random(42);
+        float[] xyz = new float[3 * count];
+        for (int i = 0; i < xyz.length; i++) {
+            xyz[i] = random.nextFloat() * 2 - 1;
+        }
+        float[] xs = new float[count];
+        float[] ys = new float[count];
+        float[] zs = new float[count];
+        BatchTransform.deinterleave(xyz, count, xs, ys, zs);
+
+        Vector3f rotation = new Vector3f(20, 35, -10);
+        Matrix4f mvp = new Matrix4f().setPerspective((float) Math.toRadians(60), WIDTH / (float) HEIGHT, 0.1f, 100)
+                .mul(new Matrix4f().setLookAt(new Vector3f(0, 1, 4), new Vector3f(0, 0, 0), new Vector3f(0, 1, 0)))
+                .mul(GraphicConveyor.modelMatrix(new Vector3f(0, 0, 0), rotation, new Vector3f(1, 1, 1),
+                        new Matrix4f()));
+
+        float[] transformed = new float[3 * count];
+        float[] screenX = new float[count];
+        float[] screenY = new float[count];
+        float[] depth = new float[count];
+
+        double perVertex = median(() -> rotatePerVertex(xyz, count, rotation));
+        double interleaved = median(() -> projectInterleaved(xyz, count, mvp, transformed));
+        double separate = median(() -> BatchTransform.project(xs, ys, zs, count, mvp, WIDTH, HEIGHT,
+                screenX, screenY, depth));
+
+        System.out.printf("%d vertices%n", count);
+        System.out.printf("%-36s %10s %12s%n", "", "ms", "Mvertex/s");
+        print("rotateX/Y/Z per Vector3f", perVertex, count);
+        print("Matrix4f.transformPoints + viewport", interleaved, count);
+        print("BatchTransform.project (SoA)", separate, count);
+    }
+
+    private static float rotatePerVertex(float[] xyz, int count, Vector3f rotation) {
+        float sum = 0;
+        for (int i = 0; i < count; i++) {
+            Vector3f v = new Vector3f(xyz[3 * i], xyz[3 * i + 1], xyz[3 * i + 2]);
+            v = GraphicConveyor.rotateX(v, rotation.x);
+            v = GraphicConveyor.rotateY(v, rotation.y);
+            v = GraphicConveyor.rotateZ(v, rotation.z);
+            sum += v.x;
+        }
+        return sum;
+    }
+
+    private static void projectInterleaved(float[] xyz, int count, Matrix4f mvp, float[] target) {
+        Matrix4f.transformPoints(xyz, 0, target, 0, count, mvp);
+        float halfWidth = WIDTH / 2.0f;
+        float halfHeight = HEIGHT / 2.0f;
+        for (int i = 0; i < count; i++) {
+            target[3 * i] = (target[3 * i] + 1) * halfWidth;
+            target[3 * i + 1] = (1 - target[3 * i + 1]) * halfHeight;
+        }
+    }
+
+    private static void print(String name, double millis, int count) {
+        System.out.printf("%-36s %10.2f %12.1f%n", name, millis, count / millis / 1e3);
+    }
+
+    private static double median(Runnable action) {
+        for (int i = 0; i < WARMUP; i++) {
+            action.run();
+        }
+        double[] times = new double[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            action.run();
+            times[i] = (System.nanoTime() - start) / 1e6;
+        }
+        Arrays.sort(times);
+        return times[RUNS / 2];
+    }
+}
@@ -0,0 +1,116 @@
+package com.cgvsu.math;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+class BatchTransformTest {
+
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 600;
+
+    // Не кратно BLOCK_SIZE, чтобы проверить последний неполный блок.
+    private static final int COUNT = 2 * BatchTransform.BLOCK_SIZE + 77;
+
+    @Test
+    public void testProject01_MatchesSinglePointTransform() {
+        Matrix4f mvp = createViewProjection();
+        float[][] points = createPoints(COUNT, 1);
+        float[] screenX = new float[COUNT];
+        float[] screenY = new float[COUNT];
+        float[] depth = new float[COUNT];
+        BatchTransform.project(points[0], points[1], points[2], COUNT, mvp, WIDTH, HEIGHT, screenX, screenY, depth);
+
+        Vector3f point = new Vector3f(0, 0, 0);
+        for (int i = 0; i < COUNT; i++) {
+            point.set(points[0][i], points[1][i], points[2][i]);
+            mvp.transformPoint(point, point);
+            Assertions.assertEquals((point.x + 1) * WIDTH / 2, screenX[i], 1e-3f);
+            Assertions.assertEquals((1 - point.y) * HEIGHT / 2, screenY[i], 1e-3f);
+            Assertions.assertEquals(point.z, depth[i], 1e-5f);
+        }
+    }
+
+    @Test
+    public void testProject02_StagesMatchFusedProjection() {
+        Matrix4f mvp = createViewProjection();
+        float[][] points = createPoints(COUNT, 2);
+        float[] x = new float[COUNT];
+        float[] y = new float[COUNT];
+        float[] z = new float[COUNT];
+        float[] w = new float[COUNT];
+        BatchTransform.transform(points[0], points[1], points[2], COUNT, mvp, x, y, z, w);
+        BatchTransform.perspectiveDivide(x, y, z, w, COUNT);
+        BatchTransform.toViewport(x, y, COUNT, WIDTH, HEIGHT);
+
+        float[] screenX = new float[COUNT];
+        float[] screenY = new float[COUNT];
+        float[] depth = new float[COUNT];
+        BatchTransform.project(points[0], points[1], points[2], COUNT, mvp, WIDTH, HEIGHT, screenX, screenY, depth);
+        for (int i = 0; i < COUNT; i++) {
+            Assertions.assertEquals(x[i], screenX[i], 1e-3f);
+            Assertions.assertEquals(y[i], screenY[i], 1e-3f);
+            Assertions.assertEquals(z[i], depth[i], 1e-5f);
+        }
+    }
+
+    @Test
+    public void testProject03_DepthRejectsPointsBehindCamera() {
+        // Камера в начале координат смотрит вдоль -Z.
+        Matrix4f projection = new Matrix4f().setPerspective(1, 1, 0.5f, 50);
+        float[] xs = {0, 0, 0, 0, 0};
+        float[] ys = {0, 0, 0, 0, 0};
+        float[] zs = {-0.5f, -10, -50, 0.1f, 20};
+        float[] screenX = new float[5];
+        float[] screenY = new float[5];
+        float[] depth = new float[5];
+        BatchTransform.project(xs, ys, zs, 5, projection, WIDTH, HEIGHT, screenX, screenY, depth);
+        Assertions.assertEquals(-1, depth[0], 1e-5f);
+        Assertions.assertTrue(depth[1] > -1 && depth[1] < 1);
+        Assertions.assertEquals(1, depth[2], 1e-5f);
+        Assertions.assertTrue(depth[3] > 1);
+        Assertions.assertTrue(depth[4] > 1);
+        Assertions.assertEquals(WIDTH / 2.0f, screenX[1], 1e-3f);
+        Assertions.assertEquals(HEIGHT / 2.0f, screenY[1], 1e-3f);
+    }
+
+    @Test
+    public void testInterleave01_RoundTripAndRangeChecks() {
+        float[][] points = createPoints(COUNT, 3);
+        float[] xyz = new float[3 * COUNT];
+        BatchTransform.interleave(points[0], points[1], points[2], COUNT, xyz);
+        float[] xs = new float[COUNT];
+        float[] ys = new float[COUNT];
+        float[] zs = new float[COUNT];
+        BatchTransform.deinterleave(xyz, COUNT, xs, ys, zs);
+        Assertions.assertArrayEquals(points[0], xs);
+        Assertions.assertArrayEquals(points[1], ys);
+        Assertions.assertArrayEquals(points[2], zs);
+        Assertions.assertEquals(points[1][5], xyz[16]);
+
+        Assertions.assertThrows(IndexOutOfBoundsException.class,
+                () -> BatchTransform.deinterleave(xyz, COUNT + 1, new float[COUNT + 1], ys, zs));
+        Assertions.assertThrows(IndexOutOfBoundsException.class,
+                () -> BatchTransform.toViewport(xs, new float[1], COUNT, WIDTH, HEIGHT));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> BatchTransform.perspectiveDivide(xs, ys, zs, xs, -1));
+    }
+
+    private static Matrix4f createViewProjection() {
+        return new Matrix4f().setPerspective((float) Math.toRadians(70), WIDTH / (float) HEIGHT, 0.1f, 100)
+                .mul(new Matrix4f().setLookAt(new Vector3f(2, 3, 6), new Vector3f(0, 0, 0), new Vector3f(0, 1, 0)))
+                .mul(new Matrix4f().setTransform(0.2f, -0.1f, 0, 0.5f, 1.2f, -0.3f, 1, 1.5f, 0.8f));
+    }
+
+    private static float[][] createPoints(int count, long seed) {
+        Random random = new Random(seed);
+        float[][] points = new float[3][count];
+        for (int axis = 0; axis < 3; axis++) {
+            for (int i = 0; i < count; i++) {
+                points[axis][i] = random.nextFloat() * 2 - 1;
+            }
+        }
+        return points;
+    }
+}
@@ -0,0 +1,186 @@
+package com.cgvsu.math;
+
+import com.cgvsu.render_engine.GraphicConveyor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+class Matrix4fTest {
+
+    @Test
+    public void testInvert01_RandomMatricesRoundTrip() {
+        Random random = new Random(1);
+        float[] values = new float[16];
+        Matrix4f identity = new Matrix4f();
+        for (int i = 0; i < 1000; i++) {
+            for (int j = 0; j < values.length; j++) {
+                values[j] = random.nextFloat() * 4 - 2;
+            }
+            Matrix4f m = new Matrix4f().set(values, 0);
+            if (Math.abs(m.determinant()) < 0.1f) {
+                continue;
+            }
+            Matrix4f inverse = new Matrix4f(m).invert();
+            Assertions.assertTrue(new Matrix4f(m).mul(inverse).epsilonEquals(identity, 1e-3f), m.toString());
+            Assertions.assertTrue(new Matrix4f(inverse).mul(m).epsilonEquals(identity, 1e-3f), m.toString());
+            Assertions.assertEquals(1 / m.determinant(), inverse.determinant(), 1e-3f / Math.abs(m.determinant()));
+        }
+    }
+
+    @Test
+    public void testInvert02_SingularThrows() {
+        Matrix4f m = new Matrix4f().setScale(1, 0, 1);
+        Assertions.assertThrows(ArithmeticException.class, m::invert);
+        Assertions.assertEquals(0, m.m11);
+        Assertions.assertThrows(ArithmeticException.class, () -> new Matrix3f().set(m).invert());
+    }
+
+    @Test
+    public void testTransform01_MatchesPerVertexRotation() {
+        Vector3f position = new Vector3f(1, -2, 3);
+        Vector3f rotation = new Vector3f(30, -45, 110);
+        Vector3f scale = new Vector3f(2, 0.5f, 3);
+        Matrix4f model = GraphicConveyor.modelMatrix(position, rotation, scale, new Matrix4f());
+
+        Matrix4f composed = new Matrix4f().setTranslation(position.x, position.y, position.z)
+                .mul(new Matrix4f().setRotationZ((float) Math.toRadians(rotation.z)))
+                .mul(new Matrix4f().setRotationY((float) Math.toRadians(rotation.y)))
+                .mul(new Matrix4f().setRotationX((float) Math.toRadians(rotation.x)))
+                .mul(new Matrix4f().setScale(scale.x, scale.y, scale.z));
+        Assertions.assertTrue(model.epsilonEquals(composed, 1e-5f));
+
+        Random random = new Random(2);
+        Vector3f transformed = new Vector3f(0, 0, 0);
+        for (int i = 0; i < 100; i++) {
+            Vector3f v = new Vector3f(random.nextFloat() - 0.5f, random.nextFloat() - 0.5f, random.nextFloat() - 0.5f);
+            Vector3f expected = new Vector3f(v.x * scale.x, v.y * scale.y, v.z * scale.z);
+            expected = GraphicConveyor.rotateX(expected, rotation.x);
+            expected = GraphicConveyor.rotateY(expected, rotation.y);
+            expected = GraphicConveyor.rotateZ(expected, rotation.z);
+            expected = expected.add(position);
+            model.transformPoint(v, transformed);
+            Assertions.assertEquals(expected.x, transformed.x, 1e-5f);
+            Assertions.assertEquals(expected.y, transformed.y, 1e-5f);
+            Assertions.assertEquals(expected.z, transformed.z, 1e-5f);
+        }
+    }
+
+    @Test
+    public void testTransform02_BatchMatchesSinglePoint() {
+        Matrix4f mvp = new Matrix4f().setPerspective((float) Math.toRadians(60), 1.5f, 0.1f, 100)
+                .mul(new Matrix4f().setLookAt(new Vector3f(3, 2, 5), new Vector3f(0, 0, 0), new Vector3f(0, 1, 0)))
+                .mul(new Matrix4f().setTransform(0.5f, 0, 0, 0.3f, 0.2f, 0.1f, 1, 2, 1));
+        Random random = new Random(3);
+        float[] src = new float[3 * 1000];
+        for (int i = 0; i < src.length; i++) {
+            src[i] = random.nextFloat() * 2 - 1;
+        }
+        float[] dst = new float[src.length];
+        Matrix4f.transformPoints(src, dst, mvp);
+        Vector3f point = new Vector3f(0, 0, 0);
+        for (int i = 0; i < src.length / 3; i++) {
+            point.set(src[3 * i], src[3 * i + 1], src[3 * i + 2]);
+            mvp.transformPoint(point, point);
+            Assertions.assertEquals(point.x, dst[3 * i]);
+            Assertions.assertEquals(point.y, dst[3 * i + 1]);
+            Assertions.assertEquals(point.z, dst[3 * i + 2]);
+        }
+
+        Matrix4f.transformPoints(src, src, mvp);
+        Assertions.assertArrayEquals(dst, src);
+        Assertions.assertThrows(IndexOutOfBoundsException.class,
+                () -> Matrix4f.transformPoints(src, 3, dst, 0, 1000, mvp));
+    }
+
+    @Test
+    public void testTransform03_MillionVerticesWithoutAllocation() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        float[] src = new float[3 * 1_000_000];
+        for (int i = 0; i < src.length; i++) {
+            src[i] = (i % 1000) * 0.001f;
+        }
+        float[] dst = new float[src.length];
+        Matrix4f model = new Matrix4f();
+        Matrix4f view = new Matrix4f();
+        Matrix4f projection = new Matrix4f();
+        Matrix4f mvp = new Matrix4f();
+        Vector3f eye = new Vector3f(2, 2, 4);
+        Vector3f target = new Vector3f(0, 0, 0);
+        Vector3f up = new Vector3f(0, 1, 0);
+
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int frame = 0; frame < 3; frame++) {
+            model.setTransform(0, 0, 0, 0.1f * frame, 0.2f, 0, 1, 1, 1);
+            view.setLookAt(eye, target, up);
+            projection.setPerspective(1, 1, 0.1f, 10);
+            mvp.set(projection).mul(view).mul(model);
+            Matrix4f.transformPoints(src, dst, mvp);
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+        // Запас на сам замер; по объекту на вершину было бы больше 10^7 байт.
+        Assertions.assertTrue(allocated < 1024, "allocated " + allocated);
+    }
+
+    @Test
+    public void testPerspective01_NearAndFarPlanes() {
+        Matrix4f projection = new Matrix4f().setPerspective((float) Math.toRadians(90), 2, 1, 10);
+        Vector3f point = new Vector3f(2, 1, -1);
+        projection.transformPoint(point, point);
+        Assertions.assertEquals(1, point.x, 1e-6f);
+        Assertions.assertEquals(1, point.y, 1e-6f);
+        Assertions.assertEquals(-1, point.z, 1e-6f);
+
+        point.set(0, -10, -10);
+        projection.transformPoint(point, point);
+        Assertions.assertEquals(-1, point.y, 1e-6f);
+        Assertions.assertEquals(1, point.z, 1e-5f);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> projection.setPerspective(1, 1, 0, 10));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> projection.setPerspective(1, 1, 2, 1));
+    }
+
+    @Test
+    public void testLookAt01_CameraAtOriginLookingDownNegativeZ() {
+        Vector3f eye = new Vector3f(4, 3, -2);
+        Vector3f target = new Vector3f(1, 1, 1);
+        Matrix4f view = new Matrix4f().setLookAt(eye, target, new Vector3f(0, 1, 0));
+
+        Vector3f point = new Vector3f(eye);
+        view.transformPoint(point, point);
+        Assertions.assertEquals(0, point.length(), 1e-5f);
+
+        point.set(target.x, target.y, target.z);
+        view.transformPoint(point, point);
+        Assertions.assertEquals(0, point.x, 1e-5f);
+        Assertions.assertEquals(0, point.y, 1e-5f);
+        Assertions.assertEquals(-target.subtract(eye).length(), point.z, 1e-5f);
+
+        Assertions.assertThrows(ArithmeticException.class,
+                () -> view.setLookAt(eye, eye, new Vector3f(0, 1, 0)));
+    }
+
+    @Test
+    public void testNormalMatrix01_NonUniformScale() {
+        Matrix4f model = new Matrix4f().setTransform(1, 2, 3, 0.4f, -0.7f, 1.1f, 3, 0.5f, 2);
+        Matrix3f normalMatrix = new Matrix3f().setNormalMatrix(model);
+
+        // Грань с рёбрами u, v и нормалью u x v; после преобразования нормаль остаётся
+        // перпендикулярной преобразованным рёбрам.
+        float[] edges = {1, 0.5f, -0.25f, -0.3f, 1, 0.8f};
+        float[] normal = {
+                edges[1] * edges[5] - edges[2] * edges[4],
+                edges[2] * edges[3] - edges[0] * edges[5],
+                edges[0] * edges[4] - edges[1] * edges[3]
+        };
+        Matrix4f.transformDirections(edges, edges, model);
+        Matrix3f.transformNormals(normal, normal, normalMatrix);
+        Assertions.assertEquals(1, Math.sqrt(normal[0] * normal[0] + normal[1] * normal[1] + normal[2] * normal[2]), 1e-6);
+        for (int e = 0; e < 2; e++) {
+            float dot = edges[3 * e] * normal[0] + edges[3 * e + 1] * normal[1] + edges[3 * e + 2] * normal[2];
+            Assertions.assertEquals(0, dot, 1e-5f);
+        }
+    }
+}
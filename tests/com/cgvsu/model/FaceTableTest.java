@@ -0,0 +1,57 @@
+package com.cgvsu.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+class FaceTableTest {
+
+    @Test
+    public void testFaceTable01_PolygonViewEditsRow() {
+        PolygonList polygons = new PolygonList();
+        polygons.add(Polygon.createTriangle(0, 1, 2));
+        polygons.add(Polygon.createTriangleWithAll(3, 0, 0, 4, 1, 1, 5, 2, 2));
+
+        Polygon first = polygons.get(0);
+        first.addVertexIndex(6);
+        first.getVertexIndices().set(0, 7);
+
+        Assertions.assertEquals(Arrays.asList(7, 1, 2, 6), polygons.get(0).getVertexIndices());
+        Assertions.assertFalse(polygons.get(0).hasTextureCoordinates());
+        Assertions.assertEquals(Arrays.asList(3, 4, 5), polygons.get(1).getVertexIndices());
+        Assertions.assertEquals(Arrays.asList(0, 1, 2), polygons.get(1).getNormalIndices());
+        Assertions.assertEquals(7, polygons.getTable().getSlotCount());
+    }
+
+    @Test
+    public void testFaceTable02_RemoveFacesIf() {
+        PolygonList polygons = new PolygonList();
+        for (int i = 0; i < 5; i++) {
+            polygons.add(Polygon.createQuad(i, i + 1, i + 2, i + 3));
+        }
+
+        polygons.removeIf(polygon -> polygon.getVertexIndex(0) % 2 == 1);
+
+        Assertions.assertEquals(3, polygons.size());
+        Assertions.assertEquals(Polygon.createQuad(2, 3, 4, 5), polygons.get(1));
+        Assertions.assertEquals(Polygon.createQuad(4, 5, 6, 7), polygons.get(2));
+        Assertions.assertEquals(12, polygons.getTable().getSlotCount());
+    }
+
+    @Test
+    public void testFaceTable03_InsertAndRemoveKeepsCopies() {
+        PolygonList polygons = new PolygonList();
+        polygons.add(Polygon.createTriangle(0, 1, 2));
+        polygons.add(Polygon.createTriangle(3, 4, 5));
+        polygons.add(0, polygons.get(1));
+
+        Polygon removed = polygons.remove(1);
+
+        Assertions.assertEquals(Polygon.createTriangle(0, 1, 2), removed);
+        Assertions.assertEquals(Polygon.createTriangle(3, 4, 5), polygons.get(0));
+        Assertions.assertEquals(Polygon.createTriangle(3, 4, 5), polygons.get(1));
+        Assertions.assertEquals(31 * (31 * Arrays.asList(0, 1, 2).hashCode() + 1) + 1,
+                removed.hashCode());
+    }
+}
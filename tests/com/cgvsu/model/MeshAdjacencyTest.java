@@ -0,0 +1,94 @@
+package com.cgvsu.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class MeshAdjacencyTest {
+
+    @Test
+    public void testMeshAdjacency01_StripTopology() {
+        Model model = MeshFixtures.createStrip(3);
+        MeshAdjacency adjacency = model.getAdjacency();
+
+        Assertions.assertEquals(10, adjacency.getEdgeCount());
+        List<Integer> faces = new ArrayList<>();
+        adjacency.forEachFaceOfVertex(2, faces::add);
+        Assertions.assertEquals(Arrays.asList(0, 1), faces);
+
+        // Ребро 2-3 квада 0 (ячейка 1) и 3-2 квада 1 (ячейка 7).
+        Assertions.assertEquals(7, adjacency.getTwin(1));
+        Assertions.assertEquals(1, adjacency.getTwin(7));
+        Assertions.assertEquals(adjacency.getEdge(1), adjacency.getEdge(7));
+        Assertions.assertTrue(adjacency.isBoundary(0));
+        Assertions.assertEquals(3, adjacency.getPrev(0));
+        Assertions.assertEquals(0, adjacency.getNext(3));
+
+        model.selectPolygon(1, false);
+        model.growPolygonSelection();
+        Assertions.assertEquals(Arrays.asList(0, 1, 2), new ArrayList<>(model.getSelectedPolygonIndices()));
+    }
+
+    @Test
+    public void testMeshAdjacency02_RebuiltAfterEdit() {
+        Model model = MeshFixtures.createStrip(3);
+        MeshAdjacency before = model.getAdjacency();
+        Assertions.assertSame(before, model.getAdjacency());
+
+        model.selectPolygon(2, false);
+        model.deleteSelectedPolygons();
+
+        MeshAdjacency after = model.getAdjacency();
+        Assertions.assertNotSame(before, after);
+        Assertions.assertEquals(7, after.getEdgeCount());
+        Assertions.assertEquals(6, after.getVertexCount());
+    }
+
+    @Test
+    public void testMeshAdjacency03_LargeMeshParallelBuild() {
+        Model model = MeshFixtures.createStrip(100_000);
+        MeshAdjacency adjacency = model.getAdjacency();
+
+        Assertions.assertEquals(300_001, adjacency.getEdgeCount());
+        Assertions.assertEquals(2, adjacency.getVertexDegree(100));
+        model.selectVertex(100, false);
+        model.growVertexSelection();
+        Assertions.assertArrayEquals(new int[]{98, 100, 101, 102}, model.getVertexSelection().stream().toArray());
+        model.shrinkVertexSelection();
+        Assertions.assertArrayEquals(new int[]{100}, model.getVertexSelection().stream().toArray());
+    }
+
+    @Test
+    public void testMeshAdjacency04_NonManifoldEdgeTwinsArePaired() {
+        // Три треугольника на общем ребре 0-1.
+        Model model = new Model();
+        model.vertices.add(0, 0, 0);
+        model.vertices.add(1, 0, 0);
+        model.vertices.add(0, 1, 0);
+        model.vertices.add(0, -1, 0);
+        model.vertices.add(0, 0, 1);
+        model.polygons.add(Polygon.createTriangle(0, 1, 2));
+        model.polygons.add(Polygon.createTriangle(1, 0, 3));
+        model.polygons.add(Polygon.createTriangle(1, 0, 4));
+        MeshAdjacency adjacency = model.getAdjacency();
+
+        int paired = 0;
+        for (int h = 0; h < 9; h++) {
+            int twin = adjacency.getTwin(h);
+            if (twin >= 0) {
+                Assertions.assertEquals(h, adjacency.getTwin(twin));
+                Assertions.assertEquals(adjacency.getEdge(h), adjacency.getEdge(twin));
+                paired++;
+            }
+        }
+        Assertions.assertEquals(2, paired);
+        Assertions.assertEquals(8, adjacency.getEdgeCount());
+
+        List<Integer> neighbors = new ArrayList<>();
+        adjacency.forEachEdgeNeighbor(2, neighbors::add);
+        Assertions.assertTrue(neighbors.isEmpty());
+    }
+}
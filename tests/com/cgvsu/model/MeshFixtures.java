@@ -0,0 +1,97 @@
+package com.cgvsu.model;
+
+import java.util.Random;
+
+// Сетки для тестов и замеров пакета model.
+public final class MeshFixtures {
+
+    private MeshFixtures() {
+    }
+
+    // Полоса из quadCount квадов вдоль X, вершины (i, 0, 0) и (i, 1, 0) парами.
+    public static Model createStrip(int quadCount) {
+        Model model = new Model();
+        for (int i = 0; i <= quadCount; i++) {
+            model.vertices.add(i, 0, 0);
+            model.vertices.add(i, 1, 0);
+        }
+        for (int i = 0; i < quadCount; i++) {
+            model.polygons.add(Polygon.createQuad(2 * i, 2 * i + 2, 2 * i + 3, 2 * i + 1));
+        }
+        return model;
+    }
+
+    // Плоская сетка size x size единичных квадов в z = 0; вершина (x, y) имеет индекс y * (size + 1) + x.
+    public static Model createGrid(int size) {
+        Model model = new Model();
+        for (int y = 0; y <= size; y++) {
+            for (int x = 0; x <= size; x++) {
+                model.vertices.add(x, y, 0);
+            }
+        }
+        addGridQuads(model, size);
+        return model;
+    }
+
+    // Волнистая сетка size x size квадов с нормалями и текстурными координатами.
+    public static Model createTexturedGrid(int size) {
+        Model model = new Model();
+        for (int y = 0; y <= size; y++) {
+            for (int x = 0; x <= size; x++) {
+                model.vertices.add(x * 0.37f, y * 0.91f, (float) Math.sin(x * 0.1) * 5);
+                model.normals.add(0, (float) Math.sin(x * 0.1), (float) Math.cos(x * 0.1));
+                model.textureVertices.add(x / 4f, y / (float) size);
+            }
+        }
+        addGridQuads(model, size);
+        return model;
+    }
+
+    // Та же плоская сетка с вершинами и гранями в случайном порядке, как после экспортёра.
+    public static Model createShuffledGrid(int size, long seed) {
+        Random random = new Random(seed);
+        int vertexCount = (size + 1) * (size + 1);
+        int[] vertexOrder = shuffled(vertexCount, random);
+        int[] newIndices = new int[vertexCount];
+        for (int i = 0; i < vertexCount; i++) {
+            newIndices[vertexOrder[i]] = i;
+        }
+
+        Model model = new Model();
+        model.vertices.ensureCapacity(vertexCount);
+        for (int i = 0; i < vertexCount; i++) {
+            int old = vertexOrder[i];
+            model.vertices.add(old % (size + 1), old / (size + 1), 0);
+        }
+        model.polygons.ensureCapacity(size * size);
+        for (int face : shuffled(size * size, random)) {
+            int v = face / size * (size + 1) + face % size;
+            model.polygons.add(Polygon.createQuad(newIndices[v], newIndices[v + 1],
+                    newIndices[v + size + 2], newIndices[v + size + 1]));
+        }
+        return model;
+    }
+
+    private static void addGridQuads(Model model, int size) {
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                int v = y * (size + 1) + x;
+                model.polygons.add(Polygon.createQuad(v, v + 1, v + size + 2, v + size + 1));
+            }
+        }
+    }
+
+    private static int[] shuffled(int count, Random random) {
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = i;
+        }
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+        return values;
+    }
+}
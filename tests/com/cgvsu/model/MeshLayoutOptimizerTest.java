@@ -0,0 +1,85 @@
+package com.cgvsu.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+class MeshLayoutOptimizerTest {
+
+    @Test
+    public void testLayout01_GeometryAndSelectionPreserved() {
+        Model model = MeshFixtures.createShuffledGrid(10, 1);
+        Set<String> facesBefore = describeFaces(model);
+        model.selectVertex(findVertex(model, 4, 7), false);
+        model.selectPolygon(0, false);
+        String selectedFace = describeFace(model, 0);
+
+        model.optimizeLayout();
+
+        Assertions.assertEquals(facesBefore, describeFaces(model));
+        int selectedVertex = model.getVertexSelection().next(0);
+        Assertions.assertEquals(4, model.vertices.getX(selectedVertex));
+        Assertions.assertEquals(7, model.vertices.getY(selectedVertex));
+        Assertions.assertEquals(1, model.getSelectedPolygonCount());
+        Assertions.assertEquals(selectedFace, describeFace(model, model.getPolygonSelection().next(0)));
+    }
+
+    @Test
+    public void testLayout02_MortonOrderKeepsNeighboursClose() {
+        Model model = MeshFixtures.createShuffledGrid(64, 2);
+
+        MeshLayoutOptimizer.reorderVertices(model);
+
+        Assertions.assertEquals(0, model.vertices.getX(0));
+        Assertions.assertEquals(0, model.vertices.getY(0));
+        Assertions.assertEquals(1, model.vertices.getX(1));
+        Assertions.assertEquals(0, model.vertices.getY(1));
+        Assertions.assertEquals(0, model.vertices.getX(2));
+        Assertions.assertEquals(1, model.vertices.getY(2));
+    }
+
+    @Test
+    public void testLayout03_CacheMissRatioDrops() {
+        Model model = MeshFixtures.createShuffledGrid(300, 3);
+        double before = MeshLayoutOptimizer.averageCacheMissRatio(model.polygons.getTable(),
+                model.vertices.size(), MeshLayoutOptimizer.CACHE_SIZE);
+
+        model.optimizeLayout();
+
+        double after = MeshLayoutOptimizer.averageCacheMissRatio(model.polygons.getTable(),
+                model.vertices.size(), MeshLayoutOptimizer.CACHE_SIZE);
+        Assertions.assertTrue(before > 1.5, "before " + before);
+        Assertions.assertTrue(after < 0.9, "after " + after);
+        Assertions.assertEquals(90000, model.polygons.size());
+        Assertions.assertEquals(2 * 300 * 301, model.getAdjacency().getEdgeCount());
+    }
+
+    private static int findVertex(Model model, float x, float y) {
+        for (int i = 0; i < model.vertices.size(); i++) {
+            if (model.vertices.getX(i) == x && model.vertices.getY(i) == y) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Set<String> describeFaces(Model model) {
+        Set<String> faces = new HashSet<>();
+        for (int face = 0; face < model.polygons.size(); face++) {
+            faces.add(describeFace(model, face));
+        }
+        return faces;
+    }
+
+    // Координаты углов грани по контуру, начиная с первого угла.
+    private static String describeFace(Model model, int face) {
+        StringBuilder builder = new StringBuilder();
+        for (int vertex : model.polygons.get(face).getVertexIndices()) {
+            builder.append(model.vertices.get(vertex).getX()).append(',')
+                    .append(model.vertices.get(vertex).getY()).append(';');
+        }
+        return builder.toString();
+    }
+}
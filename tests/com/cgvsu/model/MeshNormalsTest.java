@@ -0,0 +1,33 @@
+package com.cgvsu.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class MeshNormalsTest {
+
+    @Test
+    public void testMeshNormals01_FlatGrid() {
+        Model model = MeshFixtures.createGrid(3);
+        MeshNormals normals = model.getComputedNormals();
+
+        Assertions.assertEquals(1, normals.getFaceNormal(4).getZ(), 1e-6);
+        Assertions.assertEquals(1, normals.getFaceAreas()[4], 1e-6);
+        Assertions.assertEquals(1, normals.getVertexNormal(5).getZ(), 1e-6);
+        Assertions.assertSame(normals, model.getComputedNormals());
+    }
+
+    @Test
+    public void testMeshNormals02_PartialUpdateMatchesFullCompute() {
+        Model model = MeshFixtures.createGrid(300);
+        model.getComputedNormals(MeshNormals.Weighting.ANGLE);
+
+        model.selectVertex(150 * 301 + 150, false);
+        model.translateSelectedVertices(0, 0, 2);
+        float[] updated = model.getComputedNormals(MeshNormals.Weighting.ANGLE).getVertexNormals().clone();
+
+        float[] expected = MeshNormals.compute(model.polygons.getTable(), model.vertices, model.getAdjacency(),
+                MeshNormals.Weighting.ANGLE).getVertexNormals();
+        Assertions.assertArrayEquals(expected, updated, 1e-6f);
+        Assertions.assertNotEquals(1, updated[3 * (150 * 301 + 151) + 2], 1e-3);
+    }
+}
@@ -0,0 +1,107 @@
+package com.cgvsu.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class MeshSimplifierTest {
+
+    // UV-сфера радиуса 1 с внешними нормалями граней.
+    private static Model createSphere(int rings, int segments) {
+        Model model = new Model();
+        model.vertices.add(0, 0, 1);
+        for (int r = 1; r < rings; r++) {
+            double theta = Math.PI * r / rings;
+            for (int s = 0; s < segments; s++) {
+                double phi = 2 * Math.PI * s / segments;
+                model.vertices.add((float) (Math.sin(theta) * Math.cos(phi)),
+                        (float) (Math.sin(theta) * Math.sin(phi)), (float) Math.cos(theta));
+            }
+        }
+        int south = model.vertices.size();
+        model.vertices.add(0, 0, -1);
+        for (int s = 0; s < segments; s++) {
+            int next = (s + 1) % segments;
+            model.polygons.add(Polygon.createTriangle(0, 1 + s, 1 + next));
+            int last = 1 + (rings - 2) * segments;
+            model.polygons.add(Polygon.createTriangle(south, last + next, last + s));
+            for (int r = 0; r < rings - 2; r++) {
+                int ring = 1 + r * segments;
+                model.polygons.add(Polygon.createQuad(ring + s, ring + segments + s,
+                        ring + segments + next, ring + next));
+            }
+        }
+        return model;
+    }
+
+    @Test
+    public void testSimplify01_FlatGridKeepsPlaneAndBorder() {
+        Model model = MeshFixtures.createGrid(20);
+
+        Model simplified = MeshSimplifier.simplify(model, 100);
+
+        Assertions.assertTrue(simplified.polygons.size() <= 100);
+        Assertions.assertTrue(simplified.polygons.size() > 0);
+        ModelBounds bounds = simplified.getBounds();
+        Assertions.assertEquals(0, bounds.getMinX(), 1e-4);
+        Assertions.assertEquals(20, bounds.getMaxX(), 1e-4);
+        Assertions.assertEquals(0, bounds.getMinY(), 1e-4);
+        Assertions.assertEquals(20, bounds.getMaxY(), 1e-4);
+        Assertions.assertEquals(0, bounds.getDepth(), 1e-6);
+        Assertions.assertEquals(400, sumOfAreas(simplified), 1e-2);
+        Assertions.assertEquals(800, model.getTriangles().getTriangleCount());
+    }
+
+    @Test
+    public void testSimplify02_SphereStaysCloseAndOriented() {
+        Model model = createSphere(40, 80);
+
+        Model simplified = MeshSimplifier.simplify(model, 600);
+
+        Assertions.assertTrue(simplified.polygons.size() <= 600);
+        Assertions.assertTrue(simplified.polygons.size() > 300);
+        for (int i = 0; i < simplified.vertices.size(); i++) {
+            float x = simplified.vertices.getX(i);
+            float y = simplified.vertices.getY(i);
+            float z = simplified.vertices.getZ(i);
+            Assertions.assertEquals(1, Math.sqrt(x * x + y * y + z * z), 0.1);
+        }
+        MeshNormals normals = simplified.getComputedNormals();
+        for (int face = 0; face < simplified.polygons.size(); face++) {
+            int v = simplified.polygons.get(face).getVertexIndex(0);
+            float dot = normals.getFaceNormals()[3 * face] * simplified.vertices.getX(v)
+                    + normals.getFaceNormals()[3 * face + 1] * simplified.vertices.getY(v)
+                    + normals.getFaceNormals()[3 * face + 2] * simplified.vertices.getZ(v);
+            Assertions.assertTrue(dot > 0, "face " + face);
+        }
+    }
+
+    @Test
+    public void testModelLod01_LevelsAndSelection() {
+        Model model = MeshFixtures.createGrid(300);
+
+        ModelLod lod = model.buildLod(ModelLod.DEFAULT_RATIOS);
+
+        Assertions.assertEquals(4, lod.getLevelCount());
+        Assertions.assertSame(model, lod.getLevel(0));
+        Assertions.assertEquals(180000, lod.getTriangleCount(0));
+        Assertions.assertTrue(lod.getTriangleCount(1) <= 90000);
+        Assertions.assertTrue(lod.getTriangleCount(2) <= 18000);
+        Assertions.assertTrue(lod.getTriangleCount(3) <= 1800);
+        Assertions.assertTrue(lod.getTriangleCount(3) > 0);
+        Assertions.assertEquals(0, lod.selectLevel(4000));
+        Assertions.assertEquals(3, lod.selectLevel(20));
+        Assertions.assertSame(lod, model.getLod());
+
+        model.setVertex(0, 0, 0, 1);
+        Assertions.assertNull(model.getLod());
+    }
+
+    private static double sumOfAreas(Model model) {
+        MeshNormals normals = model.getComputedNormals();
+        double area = 0;
+        for (float faceArea : normals.getFaceAreas()) {
+            area += faceArea;
+        }
+        return area;
+    }
+}
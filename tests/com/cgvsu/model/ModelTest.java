@@ -0,0 +1,106 @@
+package com.cgvsu.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+class ModelTest {
+
+    @Test
+    public void testDeleteVertices01_RemapsAndDropsFaces() {
+        Model model = MeshFixtures.createStrip(3);
+        model.selectVertex(2, false);
+
+        model.deleteSelectedVertices();
+
+        Assertions.assertEquals(7, model.vertices.size());
+        Assertions.assertEquals(1, model.vertices.getX(2));
+        Assertions.assertEquals(1, model.vertices.getY(2));
+        Assertions.assertEquals(1, model.polygons.size());
+        Assertions.assertEquals(Arrays.asList(3, 5, 6, 4), model.polygons.get(0).getVertexIndices());
+        Assertions.assertEquals(0, model.getSelectedVertexCount());
+    }
+
+    @Test
+    public void testDeleteVertices02_LargeSelection() {
+        Model model = MeshFixtures.createStrip(100_000);
+        for (int i = 0; i < model.vertices.size(); i += 4) {
+            model.selectVertex(i, true);
+        }
+
+        model.deleteSelectedVertices();
+
+        Assertions.assertEquals(150_001, model.vertices.size());
+        Assertions.assertEquals(0, model.polygons.size());
+    }
+
+    @Test
+    public void testDeletePolygons01_DropsUnreferencedVertices() {
+        Model model = MeshFixtures.createStrip(3);
+        model.selectPolygon(0, false);
+        model.selectPolygon(2, true);
+        model.selectVertex(3, false);
+        model.selectVertex(7, true);
+
+        model.deleteSelectedPolygons();
+
+        Assertions.assertEquals(1, model.polygons.size());
+        Assertions.assertEquals(4, model.vertices.size());
+        Assertions.assertEquals(Arrays.asList(0, 2, 3, 1), model.polygons.get(0).getVertexIndices());
+        Assertions.assertEquals(Collections.singleton(1), model.getSelectedVertexIndices());
+        Assertions.assertEquals(0, model.getSelectedPolygonCount());
+    }
+
+    @Test
+    public void testDeletePolygons02_LargeSelectionKeepsOrder() {
+        Model model = MeshFixtures.createStrip(200_000);
+        for (int i = 0; i < model.polygons.size(); i += 2) {
+            model.selectPolygon(i, true);
+        }
+
+        model.deleteSelectedPolygons(false);
+
+        Assertions.assertEquals(100_000, model.polygons.size());
+        Assertions.assertEquals(400_002, model.vertices.size());
+        Assertions.assertEquals(Polygon.createQuad(2, 4, 5, 3), model.polygons.get(0));
+        Assertions.assertEquals(Polygon.createQuad(399_998, 400_000, 400_001, 399_999),
+                model.polygons.get(99_999));
+    }
+
+    @Test
+    public void testSelection01_RangeInvertAndOrder() {
+        Model model = MeshFixtures.createStrip(4);
+        model.selectVertexRange(2, 100, false);
+        model.deselectVertex(5);
+        model.invertVertexSelection();
+
+        Assertions.assertEquals(Arrays.asList(0, 1, 5), new ArrayList<>(model.getSelectedVertexIndices()));
+        Assertions.assertEquals(3, model.getSelectedVertexCount());
+
+        Selection other = new Selection();
+        other.addRange(1, 6);
+        model.getVertexSelection().intersect(other);
+        Assertions.assertArrayEquals(new int[]{1, 5}, model.getVertexSelection().stream().toArray());
+    }
+
+    @Test
+    public void testBounds01_CachedUntilVerticesChange() {
+        Model model = MeshFixtures.createStrip(200_000);
+        ModelBounds bounds = model.getBounds();
+
+        Assertions.assertEquals(0, bounds.getMinX());
+        Assertions.assertEquals(200_000, bounds.getMaxX());
+        Assertions.assertEquals(1, bounds.getMaxY());
+        Assertions.assertEquals(Math.hypot(100_000, 0.5), bounds.getRadius(), 1e-2);
+        Assertions.assertSame(bounds, model.getBounds());
+
+        model.setVertex(0, -5, 0, 3);
+        ModelBounds edited = model.getBounds();
+        Assertions.assertNotSame(bounds, edited);
+        Assertions.assertEquals(-5, edited.getMinX());
+        Assertions.assertEquals(3, edited.getMaxZ());
+    }
+}
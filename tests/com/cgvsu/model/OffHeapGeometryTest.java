@@ -0,0 +1,103 @@
+package com.cgvsu.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+class OffHeapGeometryTest {
+
+    @Test
+    public void testCopy01_MatchesModel() {
+        Model model = createModel();
+        try (OffHeapGeometry geometry = OffHeapGeometry.copyOf(model)) {
+            Assertions.assertEquals(model.getVertexCount(), geometry.getVertexCount());
+            Assertions.assertEquals(model.getTextureVertexCount(), geometry.getTextureVertexCount());
+            Assertions.assertEquals(model.getNormalCount(), geometry.getNormalCount());
+            Assertions.assertEquals(model.getFaceCount(), geometry.getFaceCount());
+
+            float[] expected = new float[3 * model.getVertexCount()];
+            float[] actual = new float[3 * model.getVertexCount()];
+            model.getVertexCoordinates(0, model.getVertexCount(), expected, 0);
+            geometry.getVertexCoordinates(0, geometry.getVertexCount(), actual, 0);
+            Assertions.assertArrayEquals(expected, actual);
+
+            float[] uv = new float[2];
+            geometry.getTextureVertexCoordinates(2, 3, uv, 0);
+            Assertions.assertArrayEquals(new float[]{model.textureVertices.getX(2), model.textureVertices.getY(2)}, uv);
+
+            for (int face = 0; face < model.getFaceCount(); face++) {
+                Assertions.assertEquals(model.getFaceSize(face), geometry.getFaceSize(face));
+                for (int attribute = FaceTable.VERTEX; attribute <= FaceTable.NORMAL; attribute++) {
+                    for (int corner = 0; corner < model.getFaceSize(face); corner++) {
+                        Assertions.assertEquals(model.getFaceIndex(attribute, face, corner),
+                                geometry.getFaceIndex(attribute, face, corner));
+                    }
+                }
+            }
+            Assertions.assertEquals(model.getBounds().toString(), geometry.getBounds().toString());
+        }
+    }
+
+    @Test
+    public void testCopy02_ToModelRoundTrip() {
+        Model model = createModel();
+        Model copy;
+        try (OffHeapGeometry geometry = OffHeapGeometry.copyOf(model)) {
+            copy = geometry.toModel();
+        }
+        Assertions.assertArrayEquals(Arrays.copyOf(model.vertices.array(), 3 * model.vertices.size()),
+                Arrays.copyOf(copy.vertices.array(), 3 * copy.vertices.size()));
+        Assertions.assertArrayEquals(Arrays.copyOf(model.textureVertices.array(), 2 * model.textureVertices.size()),
+                Arrays.copyOf(copy.textureVertices.array(), 2 * copy.textureVertices.size()));
+        Assertions.assertEquals(1, copy.normals.size());
+        Assertions.assertEquals(model.polygons, copy.polygons);
+    }
+
+    @Test
+    public void testClose01_ReadsRejected() {
+        OffHeapGeometry geometry = OffHeapGeometry.copyOf(createModel());
+        geometry.close();
+        geometry.close();
+
+        Assertions.assertTrue(geometry.isClosed());
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> geometry.getVertexCoordinates(0, 1, new float[3], 0));
+        Assertions.assertThrows(IllegalStateException.class, () -> geometry.getFaceSize(0));
+    }
+
+    @Test
+    public void testRead01_RangeChecked() {
+        try (OffHeapGeometry geometry = OffHeapGeometry.copyOf(createModel())) {
+            Assertions.assertThrows(IndexOutOfBoundsException.class,
+                    () -> geometry.getVertexCoordinates(0, geometry.getVertexCount() + 1,
+                            new float[3 * geometry.getVertexCount() + 3], 0));
+            Assertions.assertThrows(IndexOutOfBoundsException.class, () -> geometry.getFaceIndex(FaceTable.VERTEX, 0, 4));
+        }
+    }
+
+    // Сетка 20 x 20 квадов; у половины граней есть текстурные координаты и нормали.
+    private static Model createModel() {
+        int size = 20;
+        Model model = new Model();
+        for (int y = 0; y <= size; y++) {
+            for (int x = 0; x <= size; x++) {
+                model.vertices.add(x, y, (x * y) % 7 * 0.1f);
+                model.textureVertices.add(x / (float) size, y / (float) size);
+            }
+        }
+        model.normals.add(0, 0, 1);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                int v = y * (size + 1) + x;
+                Polygon polygon = Polygon.createQuad(v, v + 1, v + size + 2, v + size + 1);
+                if ((x + y) % 2 == 0) {
+                    polygon.addTextureVertexIndices(v, v + 1, v + size + 2, v + size + 1);
+                    polygon.addNormalIndices(0, 0, 0, 0);
+                }
+                model.polygons.add(polygon);
+            }
+        }
+        return model;
+    }
+}
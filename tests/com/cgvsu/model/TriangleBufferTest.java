@@ -0,0 +1,73 @@
+package com.cgvsu.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+class TriangleBufferTest {
+
+    // Невыпуклый "наконечник стрелы": вершина 3 вдавлена внутрь.
+    private static Model createArrow() {
+        Model model = new Model();
+        model.vertices.add(0, 0, 0);
+        model.vertices.add(2, 0, 0);
+        model.vertices.add(2, 2, 0);
+        model.vertices.add(1, 0.5f, 0);
+        model.vertices.add(0, 2, 0);
+        Polygon polygon = new Polygon();
+        polygon.addVertexIndices(3, 4, 0, 1, 2);
+        model.polygons.add(polygon);
+        return model;
+    }
+
+    @Test
+    public void testTriangleBuffer01_FanAndFaceIds() {
+        Model model = createArrow();
+        model.polygons.add(Polygon.createTriangle(0, 1, 2));
+
+        TriangleBuffer triangles = model.getTriangles();
+
+        Assertions.assertEquals(4, triangles.getTriangleCount());
+        Assertions.assertArrayEquals(new int[]{3, 4, 0, 3, 0, 1, 3, 1, 2, 0, 1, 2},
+                Arrays.copyOf(triangles.getIndices(), 12));
+        Assertions.assertArrayEquals(new int[]{0, 0, 0, 1}, Arrays.copyOf(triangles.getFaceIds(), 4));
+        Assertions.assertEquals(3, triangles.getFaceStart(1));
+        Assertions.assertSame(triangles, model.getTriangles());
+    }
+
+    @Test
+    public void testTriangleBuffer02_EarClippingAvoidsReflexFan() {
+        Model model = createArrow();
+
+        TriangleBuffer triangles = model.getTriangles(TriangleBuffer.Triangulation.EAR_CLIPPING);
+
+        Assertions.assertEquals(3, triangles.getTriangleCount());
+        // Сумма площадей треугольников равна площади многоугольника (2 * 2 - 1 * 1.5 = 2.5).
+        float area = 0;
+        float[] p = model.vertices.array();
+        int[] indices = triangles.getIndices();
+        for (int t = 0; t < 3; t++) {
+            int a = 3 * indices[3 * t], b = 3 * indices[3 * t + 1], c = 3 * indices[3 * t + 2];
+            area += Math.abs((p[b] - p[a]) * (p[c + 1] - p[a + 1]) - (p[b + 1] - p[a + 1]) * (p[c] - p[a])) / 2;
+        }
+        Assertions.assertEquals(2.5f, area, 1e-5f);
+    }
+
+    @Test
+    public void testTriangleBuffer03_IncrementalUpdate() {
+        Model model = createArrow();
+        model.polygons.add(Polygon.createQuad(0, 1, 2, 4));
+        TriangleBuffer triangles = model.getTriangles();
+        Assertions.assertEquals(5, triangles.getTriangleCount());
+
+        model.polygons.get(1).removeVertexIndex(3);
+        model.polygons.add(Polygon.createTriangle(1, 2, 3));
+        model.getTriangles();
+
+        Assertions.assertEquals(5, triangles.getTriangleCount());
+        Assertions.assertArrayEquals(new int[]{0, 1, 2, 1, 2, 3},
+                Arrays.copyOfRange(triangles.getIndices(), 9, 15));
+        Assertions.assertArrayEquals(new int[]{0, 0, 0, 1, 2}, Arrays.copyOf(triangles.getFaceIds(), 5));
+    }
+}
@@ -0,0 +1,47 @@
+package com.cgvsu.model;
+
+import com.cgvsu.math.Vector3f;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class Vector3fListTest {
+
+    @Test
+    public void testVector3fList01_BehavesLikeArrayList() {
+        List<Vector3f> expected = new ArrayList<>();
+        Vector3fList result = new Vector3fList(1);
+        for (int i = 0; i < 20; i++) {
+            expected.add(new Vector3f(i, -i, i * 0.5f));
+            result.add(i, -i, i * 0.5f);
+        }
+
+        expected.remove(3);
+        result.remove(3);
+        expected.add(5, new Vector3f(7, 8, 9));
+        result.add(5, new Vector3f(7, 8, 9));
+        expected.set(0, new Vector3f(1, 1, 1));
+        result.set(0, 1, 1, 1);
+        expected.removeIf(v -> v.x > 15);
+        result.removeIf(v -> v.x > 15);
+
+        Assertions.assertEquals(expected.size(), result.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assertions.assertEquals(expected.get(i).x, result.getX(i));
+            Assertions.assertEquals(expected.get(i).y, result.get(i).y);
+            Assertions.assertEquals(expected.get(i).z, result.array()[3 * i + 2]);
+        }
+    }
+
+    @Test
+    public void testVector3fList02_GetReturnsCopy() {
+        Vector3fList list = new Vector3fList();
+        list.add(1, 2, 3);
+
+        list.get(0).x = 100;
+
+        Assertions.assertEquals(1, list.getX(0));
+    }
+}
@@ -0,0 +1,151 @@
+package com.cgvsu.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+class VectorPackingTest {
+
+    @Test
+    public void testHalf01_ExactValues() {
+        Assertions.assertEquals((short) 0x3c00, VectorPacking.floatToHalf(1));
+        Assertions.assertEquals(0.5f, VectorPacking.halfToFloat(VectorPacking.floatToHalf(0.5f)));
+        Assertions.assertEquals(-2f, VectorPacking.halfToFloat(VectorPacking.floatToHalf(-2f)));
+        Assertions.assertEquals(65504f, VectorPacking.halfToFloat(VectorPacking.floatToHalf(65504f)));
+        Assertions.assertEquals(0x1p-24f, VectorPacking.halfToFloat(VectorPacking.floatToHalf(0x1p-24f)));
+    }
+
+    @Test
+    public void testHalf02_OverflowAndSpecialValues() {
+        Assertions.assertEquals(Float.POSITIVE_INFINITY, VectorPacking.halfToFloat(VectorPacking.floatToHalf(65520f)));
+        Assertions.assertEquals(Float.NEGATIVE_INFINITY, VectorPacking.halfToFloat(VectorPacking.floatToHalf(-1e6f)));
+        Assertions.assertTrue(Float.isNaN(VectorPacking.halfToFloat(VectorPacking.floatToHalf(Float.NaN))));
+        Assertions.assertEquals(0f, VectorPacking.halfToFloat(VectorPacking.floatToHalf(1e-9f)));
+    }
+
+    @Test
+    public void testHalf03_ErrorOnUnitInterval() {
+        Random random = new Random(1);
+        for (int i = 0; i < 100_000; i++) {
+            float value = random.nextFloat();
+            float decoded = VectorPacking.halfToFloat(VectorPacking.floatToHalf(value));
+            Assertions.assertTrue(Math.abs(decoded - value) <= 0x1p-12f, "value " + value);
+        }
+    }
+
+    @Test
+    public void testDirection01_AngularError() {
+        Random random = new Random(2);
+        short[] encoded = new short[2];
+        float[] decoded = new float[3];
+        for (int i = 0; i < 200_000; i++) {
+            double x = random.nextGaussian();
+            double y = random.nextGaussian();
+            double z = random.nextGaussian();
+            double length = Math.sqrt(x * x + y * y + z * z);
+            VectorPacking.encodeDirection((float) (x / length), (float) (y / length), (float) (z / length), encoded, 0);
+            VectorPacking.decodeDirection(encoded[0], encoded[1], decoded, 0);
+            double cx = y / length * decoded[2] - z / length * decoded[1];
+            double cy = z / length * decoded[0] - x / length * decoded[2];
+            double cz = x / length * decoded[1] - y / length * decoded[0];
+            double dot = (x * decoded[0] + y * decoded[1] + z * decoded[2]) / length;
+            double angle = Math.atan2(Math.sqrt(cx * cx + cy * cy + cz * cz), dot);
+            Assertions.assertTrue(angle <= VectorPacking.DIRECTION_ERROR, "angle " + angle);
+        }
+    }
+
+    @Test
+    public void testDirection02_AxesAndZero() {
+        short[] encoded = new short[2];
+        float[] decoded = new float[3];
+        VectorPacking.encodeDirection(0, 0, -3, encoded, 0);
+        VectorPacking.decodeDirection(encoded[0], encoded[1], decoded, 0);
+        Assertions.assertArrayEquals(new float[]{0, 0, -1}, decoded, 1e-6f);
+        VectorPacking.encodeDirection(0, 0, 0, encoded, 0);
+        VectorPacking.decodeDirection(encoded[0], encoded[1], decoded, 0);
+        Assertions.assertArrayEquals(new float[]{0, 0, 1}, decoded, 1e-6f);
+    }
+
+    @Test
+    public void testDirection03_ComponentReadsMatchVectorWithoutAllocation() {
+        Vector3fList normals = new Vector3fList();
+        Random random = new Random(3);
+        for (int i = 0; i < 10_000; i++) {
+            normals.add((float) random.nextGaussian(), (float) random.nextGaussian(), (float) random.nextGaussian());
+        }
+        normals.pack(Vector3fList.Packing.OCTAHEDRAL);
+        float[] decoded = new float[3 * normals.size()];
+        normals.getCoordinates(0, normals.size(), decoded, 0);
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        float sum = 0;
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < normals.size(); i++) {
+            sum += normals.getX(i) + normals.getY(i) + normals.getZ(i);
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+        Assertions.assertTrue(allocated < 1024, "allocated " + allocated);
+
+        float expected = 0;
+        for (int i = 0; i < normals.size(); i++) {
+            Assertions.assertEquals(decoded[3 * i], normals.getX(i));
+            Assertions.assertEquals(decoded[3 * i + 1], normals.getY(i));
+            Assertions.assertEquals(decoded[3 * i + 2], normals.getZ(i));
+            expected += decoded[3 * i] + decoded[3 * i + 1] + decoded[3 * i + 2];
+        }
+        Assertions.assertEquals(expected, sum);
+    }
+
+    @Test
+    public void testPack01_PositionsWithinHalfStep() {
+        Model model = MeshFixtures.createTexturedGrid(300);
+        float[] before = model.vertices.array().clone();
+        long bytesBefore = model.getGeometryBytes();
+
+        model.pack();
+
+        Assertions.assertTrue(model.isPacked());
+        Assertions.assertEquals(Vector3fList.Packing.QUANTIZED, model.vertices.getPacking());
+        Assertions.assertTrue(model.getGeometryBytes() * 2 <= bytesBefore);
+        float toleranceX = model.vertices.getQuantizationStep(0) / 2 + 1e-4f;
+        float toleranceY = model.vertices.getQuantizationStep(1) / 2 + 1e-4f;
+        float toleranceZ = model.vertices.getQuantizationStep(2) / 2 + 1e-4f;
+        for (int i = 0; i < model.vertices.size(); i++) {
+            Assertions.assertEquals(before[3 * i], model.vertices.getX(i), toleranceX);
+            Assertions.assertEquals(before[3 * i + 1], model.vertices.getY(i), toleranceY);
+            Assertions.assertEquals(before[3 * i + 2], model.vertices.getZ(i), toleranceZ);
+        }
+        Assertions.assertEquals(0.25f, model.textureVertices.getX(1), 0x1p-12f);
+    }
+
+    @Test
+    public void testPack02_ReadsDoNotUnpack() {
+        Model model = MeshFixtures.createTexturedGrid(300);
+        ModelBounds expected = model.getBounds();
+        model.pack();
+
+        ModelBounds bounds = model.getBounds();
+        model.getTriangles();
+
+        Assertions.assertTrue(model.isPacked());
+        Assertions.assertEquals(expected.getMinX(), bounds.getMinX(), 1e-3f);
+        Assertions.assertEquals(expected.getMaxY(), bounds.getMaxY(), 1e-3f);
+    }
+
+    @Test
+    public void testPack03_EditUnpacks() {
+        Model model = MeshFixtures.createTexturedGrid(10);
+        model.pack();
+        int count = model.vertices.getModificationCount();
+
+        model.setVertex(3, 100, 200, 300);
+
+        Assertions.assertEquals(Vector3fList.Packing.NONE, model.vertices.getPacking());
+        Assertions.assertNotEquals(count, model.vertices.getModificationCount());
+        Assertions.assertEquals(100, model.vertices.getX(3));
+        Assertions.assertEquals(300, model.vertices.getZ(3));
+    }
+}
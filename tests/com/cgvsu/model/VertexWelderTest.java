@@ -0,0 +1,64 @@
+package com.cgvsu.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+class VertexWelderTest {
+
+    // Сетка size x size квадов, у каждого квада свои четыре копии вершин (как из CAD).
+    private static Model createQuadSoup(int size, float jitter) {
+        Model model = new Model();
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                int v = model.vertices.size();
+                float d = ((x + y) % 2 == 0 ? jitter : -jitter);
+                model.vertices.add(x + d, y, 0);
+                model.vertices.add(x + 1, y - d, 0);
+                model.vertices.add(x + 1, y + 1, d);
+                model.vertices.add(x, y + 1, 0);
+                model.polygons.add(Polygon.createQuad(v, v + 1, v + 2, v + 3));
+            }
+        }
+        return model;
+    }
+
+    @Test
+    public void testWeld01_SharedCorners() {
+        Model model = createQuadSoup(2, 0);
+
+        int removed = model.weldVertices(1e-4f);
+
+        Assertions.assertEquals(7, removed);
+        Assertions.assertEquals(9, model.vertices.size());
+        Assertions.assertEquals(4, model.polygons.size());
+        Assertions.assertEquals(Arrays.asList(1, 4, 5, 2), model.polygons.get(1).getVertexIndices());
+    }
+
+    @Test
+    public void testWeld02_EpsilonAcrossCellBorder() {
+        Model model = new Model();
+        model.vertices.add(0.9999f, 0, 0);
+        model.vertices.add(1.0001f, 0, 0);
+        model.vertices.add(1.1f, 0, 0);
+        model.polygons.add(Polygon.createTriangle(0, 1, 2));
+
+        Assertions.assertEquals(0, model.weldVertices(0));
+        Assertions.assertEquals(1, model.weldVertices(0.001f));
+        Assertions.assertEquals(2, model.vertices.size());
+        Assertions.assertEquals(0, model.polygons.size());
+    }
+
+    @Test
+    public void testWeld03_LargeSoupInParallel() {
+        Model model = createQuadSoup(300, 1e-5f);
+
+        model.weldVertices(1e-3f);
+
+        Assertions.assertEquals(301 * 301, model.vertices.size());
+        Assertions.assertEquals(300 * 300, model.polygons.size());
+        Assertions.assertEquals(4 * 300 * 300, model.getAdjacency().getHalfEdgeCount());
+        Assertions.assertEquals(2 * 300 * 301, model.getAdjacency().getEdgeCount());
+    }
+}
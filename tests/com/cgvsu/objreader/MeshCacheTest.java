@@ -0,0 +1,135 @@
+package com.cgvsu.objreader;
+
+import com.cgvsu.model.Model;
+import com.cgvsu.model.OffHeapGeometry;
+import com.cgvsu.objwriter.ObjWriter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+public class MeshCacheTest {
+
+    private static final String CONTENT = "v 0 0 0\nv 1 0 0\nv 1 1 0\nv 0 1 0.5\n" +
+            "vt 0 0\nvt 1 0\nvt 1 1\n" +
+            "vn 0 0 1\n" +
+            "f 1/1/1 2/2/1 3/3/1\n" +
+            "f 1//1 3//1 4//1\n" +
+            "f 1 2 3 4\n";
+
+    @Test
+    public void testReadCached01_WritesAndReusesCache() throws IOException {
+        Path path = writeTempObj(CONTENT);
+        Path cachePath = MeshCache.cachePath(path);
+        cachePath.toFile().deleteOnExit();
+
+        Model parsed = ObjReader.readCached(path);
+        Assertions.assertTrue(Files.exists(cachePath));
+
+        Model cached = MeshCache.read(path, MeshCache.keyOf(path));
+        Assertions.assertNotNull(cached);
+        Assertions.assertEquals(parsed.vertices.size(), cached.vertices.size());
+        Assertions.assertEquals(parsed.vertices.get(3).getZ(), cached.vertices.get(3).getZ());
+        Assertions.assertEquals(parsed.textureVertices.size(), cached.textureVertices.size());
+        Assertions.assertEquals(parsed.normals.size(), cached.normals.size());
+        Assertions.assertEquals(parsed.polygons, cached.polygons);
+    }
+
+    @Test
+    public void testReadCached02_StaleCacheIgnored() throws IOException {
+        Path path = writeTempObj(CONTENT);
+        MeshCache.cachePath(path).toFile().deleteOnExit();
+        ObjReader.readCached(path);
+
+        Files.writeString(path, CONTENT + "v 2 2 2\n");
+
+        Assertions.assertNull(MeshCache.read(path, MeshCache.keyOf(path)));
+        Assertions.assertEquals(5, ObjReader.readCached(path).vertices.size());
+    }
+
+    @Test
+    public void testMap01_OffHeapMatchesHeapModel() throws IOException {
+        Path path = writeTempObj(CONTENT);
+        MeshCache.cachePath(path).toFile().deleteOnExit();
+        Model model = ObjReader.read(path);
+
+        ObjReadOptions options = new ObjReadOptions();
+        options.setStatistics(new ObjReadStatistics());
+        OffHeapGeometry parsed = ObjReader.readOffHeap(path, options);
+        Assertions.assertFalse(options.getStatistics().isFromCache());
+        parsed.close();
+
+        options.setStatistics(new ObjReadStatistics());
+        try (OffHeapGeometry mapped = ObjReader.readOffHeap(path, options)) {
+            Assertions.assertTrue(options.getStatistics().isFromCache());
+            Assertions.assertEquals(4, options.getStatistics().getVertexCount());
+            Assertions.assertEquals(0.5f, options.getStatistics().getMaxZ());
+
+            StringWriter writer = new StringWriter();
+            ObjWriter.write(mapped, writer, "test");
+            Assertions.assertEquals(ObjWriter.modelToString(model, "test"), writer.toString());
+        }
+    }
+
+    @Test
+    public void testMap02_StaleCacheNotMapped() throws IOException {
+        Path path = writeTempObj(CONTENT);
+        MeshCache.cachePath(path).toFile().deleteOnExit();
+        ObjReader.readCached(path);
+
+        Files.writeString(path, CONTENT + "v 2 2 2\n");
+
+        Assertions.assertNull(MeshCache.map(path, MeshCache.keyOf(path)));
+    }
+
+    @Test
+    public void testWrite01_ConcurrentWritersKeepCacheValid() throws Exception {
+        Path path = writeTempObj(CONTENT);
+        Path cachePath = MeshCache.cachePath(path);
+        cachePath.toFile().deleteOnExit();
+        Model model = ObjReader.read(path);
+        MeshCache.Key key = MeshCache.keyOf(path);
+
+        Thread[] writers = new Thread[4];
+        IOException[] errors = new IOException[writers.length];
+        for (int t = 0; t < writers.length; t++) {
+            int index = t;
+            writers[t] = new Thread(() -> {
+                try {
+                    for (int i = 0; i < 20; i++) {
+                        MeshCache.write(path, key, model);
+                    }
+                } catch (IOException e) {
+                    errors[index] = e;
+                }
+            });
+            writers[t].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        for (IOException error : errors) {
+            Assertions.assertNull(error);
+        }
+
+        Model cached = MeshCache.read(path, key);
+        Assertions.assertNotNull(cached);
+        Assertions.assertEquals(model.polygons, cached.polygons);
+        try (Stream<Path> siblings = Files.list(cachePath.toAbsolutePath().getParent())) {
+            String prefix = cachePath.getFileName().toString();
+            Assertions.assertEquals(0, siblings.filter(p -> p.getFileName().toString().startsWith(prefix)
+                    && p.getFileName().toString().endsWith(".tmp")).count());
+        }
+    }
+
+    private static Path writeTempObj(String content) throws IOException {
+        Path path = Files.createTempFile("meshcache", ".obj");
+        path.toFile().deleteOnExit();
+        Files.writeString(path, content);
+        return path;
+    }
+}
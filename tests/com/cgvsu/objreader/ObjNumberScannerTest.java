@@ -0,0 +1,157 @@
+package com.cgvsu.objreader;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+public class ObjNumberScannerTest {
+
+    private static final String[] FLOAT_SAMPLES = {
+            "0", "-0", "1", "-1", "1.5", "-0.25", "1,5", "-3,25", ".5", "5.", "-.5",
+            "1e3", "1E3", "2.5e-3", "-2.5E-3", "1e+3", "+1.25", "Φ1.5", "1.5φ", "-Φ2,75",
+            "0.1", "0.2", "0.3", "3.4028235e38", "3.4028236e38", "1e39", "1.4e-45", "1e-46",
+            "123456789.123456789", "0.00000000000000000000000000001234567",
+            "1.00000000000000000000000000001", "16777217", "16777216.5", "9007199254740993",
+            "0.000001", "1234567.0", "-987654.321", "3.14159265358979323846",
+            "", "-", ".", "-.", "e5", "1e", "1e-", "1-2", "1.2.3", "--1", "1e5e5", "abc", "Φ",
+            "1x2", "NaN", "Infinity", "0x10", "1f", "2d", "1,2,3", " 4.5 ", "1e99999999999", "1e-99999999999"
+    };
+
+    private static final String[] INT_SAMPLES = {
+            "0", "1", "-1", "+7", "42", "2147483647", "2147483648", "-2147483648", "-2147483649",
+            "00000000000000000012", "", "+", "-", "1.5", "x", "1 2", " 3", "4 ", "99999999999999999999"
+    };
+
+    @Test
+    public void testScanFloat01_Samples() {
+        for (String sample : FLOAT_SAMPLES) {
+            assertSameFloat(sample);
+        }
+    }
+
+    @Test
+    public void testScanFloat02_RandomDecimals() {
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            StringBuilder sb = new StringBuilder();
+            if (random.nextBoolean()) {
+                sb.append('-');
+            }
+            int intDigits = random.nextInt(8);
+            for (int j = 0; j < intDigits; j++) {
+                sb.append((char) ('0' + random.nextInt(10)));
+            }
+            sb.append(random.nextInt(4) == 0 ? ',' : '.');
+            int fractionDigits = random.nextInt(12);
+            for (int j = 0; j < fractionDigits; j++) {
+                sb.append((char) ('0' + random.nextInt(10)));
+            }
+            if (random.nextInt(5) == 0) {
+                sb.append(random.nextBoolean() ? 'e' : 'E');
+                if (random.nextBoolean()) {
+                    sb.append('-');
+                }
+                sb.append(random.nextInt(40));
+            }
+            assertSameFloat(sb.toString());
+        }
+    }
+
+    @Test
+    public void testScanFloat03_RandomFloatsRoundTrip() {
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++) {
+            float value = Float.intBitsToFloat(random.nextInt());
+            if (Float.isNaN(value) || Float.isInfinite(value)) {
+                continue;
+            }
+            assertSameFloat(Float.toString(value));
+            assertSameFloat(String.format("%.6f", value));
+        }
+    }
+
+    @Test
+    public void testScanFloat04_RandomGarbage() {
+        char[] alphabet = {'0', '1', '5', '9', '.', ',', 'e', 'E', '-', '+', 'Φ', 'φ', 'x', ' '};
+        Random random = new Random(3);
+        for (int i = 0; i < 200_000; i++) {
+            StringBuilder sb = new StringBuilder();
+            int length = random.nextInt(10);
+            for (int j = 0; j < length; j++) {
+                sb.append(alphabet[random.nextInt(alphabet.length)]);
+            }
+            assertSameFloat(sb.toString());
+        }
+    }
+
+    @Test
+    public void testScanInt01_Samples() {
+        ObjNumberScanner scanner = new ObjNumberScanner();
+        for (String sample : INT_SAMPLES) {
+            Integer expected = legacyParseInt(sample);
+
+            boolean parsed = scanner.scanInt(sample, 0, sample.length());
+            Assertions.assertEquals(expected != null, parsed, sample);
+            if (parsed) {
+                Assertions.assertEquals(expected.intValue(), scanner.intValue(), sample);
+            }
+
+            ByteBuffer bytes = ByteBuffer.wrap(sample.getBytes(StandardCharsets.UTF_8));
+            boolean parsedBytes = scanner.scanInt(bytes, 0, bytes.limit());
+            Assertions.assertEquals(expected != null, parsedBytes, sample);
+            if (parsedBytes) {
+                Assertions.assertEquals(expected.intValue(), scanner.intValue(), sample);
+            }
+        }
+    }
+
+    private static void assertSameFloat(String value) {
+        ObjNumberScanner scanner = new ObjNumberScanner();
+        String expected = legacyParseFloat(value);
+
+        Assertions.assertEquals(expected, describe(scanner, scanner.scanFloat(value, 0, value.length())), value);
+
+        ByteBuffer bytes = ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+        Assertions.assertEquals(expected, describe(scanner, scanner.scanFloat(bytes, 0, bytes.limit())), value);
+    }
+
+    private static String describe(ObjNumberScanner scanner, boolean parsed) {
+        if (parsed) {
+            return Integer.toHexString(Float.floatToRawIntBits(scanner.floatValue()));
+        }
+        return scanner.isEmpty() ? "empty" : "invalid";
+    }
+
+    // Прежняя реализация ObjReader.parseFloatSafe.
+    private static String legacyParseFloat(String value) {
+        String cleanedValue = value
+                .replace('Φ', ' ')
+                .replace('φ', ' ')
+                .replace(',', '.')
+                .trim();
+
+        cleanedValue = cleanedValue.replaceAll("[^0-9.Ee-]", "");
+
+        if (cleanedValue.isEmpty()) {
+            return "empty";
+        }
+
+        try {
+            return Integer.toHexString(Float.floatToRawIntBits(Float.parseFloat(cleanedValue)));
+        } catch (NumberFormatException e) {
+            return "invalid";
+        }
+    }
+
+    // Прежняя реализация ObjReader.parseIntSafe.
+    private static Integer legacyParseInt(String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
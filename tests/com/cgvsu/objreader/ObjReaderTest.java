@@ -1,11 +1,17 @@
 package com.cgvsu.objreader;
 
 import com.cgvsu.math.Vector3f;
+import com.cgvsu.model.Model;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Assertions;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
 
 public class ObjReaderTest {
 
@@ -64,4 +70,197 @@ public class ObjReaderTest {
 
         Assertions.assertTrue(exception.getMessage().contains("Too many vertex arguments"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testReadPath01_SameAsReadString() throws IOException {
+        String content = "# cube corner\r\n" +
+                "v 1.0 2,5 -3e1\n" +
+                "vt 0.5 1 \n" +
+                "vn 0 0 1\r" +
+                "\tf 1/1/1 1/1/1 1/1/1\n" +
+                "o ignored\n" +
+                "f 1//1 1//1 1//1 1//1";
+
+        Model expected = ObjReader.read(content);
+        Model result = ObjReader.read(writeTempFile(content));
+
+        Assertions.assertEquals(expected.vertices.size(), result.vertices.size());
+        Assertions.assertEquals(expected.vertices.get(0).getY(), result.vertices.get(0).getY());
+        Assertions.assertEquals(expected.vertices.get(0).getZ(), result.vertices.get(0).getZ());
+        Assertions.assertEquals(expected.textureVertices.size(), result.textureVertices.size());
+        Assertions.assertEquals(expected.normals.size(), result.normals.size());
+        Assertions.assertEquals(expected.polygons, result.polygons);
+    }
+
+    @Test
+    public void testReadPath02_ErrorLineNumber() throws IOException {
+        String content = "v 1 2 3\n\nv 1 2\n";
+
+        ObjReaderException expected = Assertions.assertThrows(
+                ObjReaderException.class,
+                () -> ObjReader.read(content)
+        );
+        Path path = writeTempFile(content);
+        ObjReaderException exception = Assertions.assertThrows(
+                ObjReaderException.class,
+                () -> ObjReader.read(path)
+        );
+
+        Assertions.assertEquals(expected.getMessage(), exception.getMessage());
+        Assertions.assertTrue(exception.getMessage().contains("Error parsing OBJ file on line: 3"));
+    }
+
+    @Test
+    public void testReadParallel01_SameAsSequential() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 1; i <= 200; i++) {
+            content.append("v ").append(i).append(" ").append(i * 0.5f).append(" -").append(i).append("\r\n");
+            content.append("vt 0.").append(i).append(" 1\n");
+            if (i >= 3) {
+                content.append("f ").append(i - 2).append("/1 ").append(i - 1).append("/2 ").append(i).append("/3\n");
+            }
+            if (i % 17 == 0) {
+                content.append("# comment\n\n");
+            }
+        }
+        Path path = writeTempFile(content.toString());
+
+        Model expected = ObjReader.read(path);
+        Model result = ObjReader.readParallel(path, ForkJoinPool.commonPool(), 64);
+
+        Assertions.assertEquals(expected.vertices.size(), result.vertices.size());
+        for (int i = 0; i < expected.vertices.size(); i++) {
+            Assertions.assertEquals(expected.vertices.get(i).getX(), result.vertices.get(i).getX());
+            Assertions.assertEquals(expected.vertices.get(i).getY(), result.vertices.get(i).getY());
+        }
+        Assertions.assertEquals(expected.textureVertices.size(), result.textureVertices.size());
+        Assertions.assertEquals(expected.polygons, result.polygons);
+    }
+
+    @Test
+    public void testReadParallel02_ErrorLineNumber() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 1; i <= 100; i++) {
+            content.append("v 1 2 3\n");
+        }
+        content.append("f 1 2 x\n");
+        content.append("v 1 2\n");
+        Path path = writeTempFile(content.toString());
+
+        ObjReaderException expected = Assertions.assertThrows(
+                ObjReaderException.class,
+                () -> ObjReader.read(path)
+        );
+        ObjReaderException exception = Assertions.assertThrows(
+                ObjReaderException.class,
+                () -> ObjReader.readParallel(path, ForkJoinPool.commonPool(), 32)
+        );
+
+        Assertions.assertEquals(expected.getMessage(), exception.getMessage());
+        Assertions.assertTrue(exception.getMessage().contains("Error parsing OBJ file on line: 101"));
+    }
+
+    @Test
+    public void testReadProgress01_ReachesFileSize() throws IOException {
+        Path path = writeTempFile("v 1 2 3\nv 4 5 6\nv 7 8 9\nf 1 2 3\n");
+        long[] last = new long[2];
+        ObjReadOptions options = new ObjReadOptions();
+        options.setProgress(new ObjReadProgress((workDone, totalWork) -> {
+            last[0] = workDone;
+            last[1] = totalWork;
+        }));
+
+        Model result = ObjReader.read(path, options);
+
+        Assertions.assertEquals(3, result.vertices.size());
+        Assertions.assertEquals(Files.size(path), last[1]);
+        Assertions.assertEquals(last[1], last[0]);
+    }
+
+    @Test
+    public void testReadProgress02_CancelledRead() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 200_000; i++) {
+            content.append("v 1 2 3\n");
+        }
+        Path path = writeTempFile(content.toString());
+
+        ObjReadProgress progress = new ObjReadProgress();
+        progress.cancel();
+        ObjReadOptions options = new ObjReadOptions();
+        options.setParallel(true);
+        options.setProgress(progress);
+
+        Assertions.assertThrows(CancellationException.class, () -> ObjReader.read(path, options));
+    }
+
+    @Test
+    public void testReadStatistics01_CountsAndBounds() throws IOException {
+        StringBuilder content = new StringBuilder("# header\n");
+        for (int i = 0; i < 50; i++) {
+            content.append("v ").append(i).append(" ").append(-i).append(" 0.5\n");
+        }
+        content.append("v 1 2 +7\n");
+        content.append("vn 0 0 1\n");
+        content.append("f 1 2 3\n");
+        Path path = writeTempFile(content.toString());
+
+        for (boolean parallel : new boolean[]{false, true}) {
+            ObjReadStatistics statistics = new ObjReadStatistics();
+            ObjReadOptions options = new ObjReadOptions();
+            options.setParallel(parallel);
+            options.setStatistics(statistics);
+
+            ObjReader.read(path, options);
+
+            Assertions.assertTrue(statistics.isValid());
+            Assertions.assertEquals(51, statistics.getVertexCount());
+            Assertions.assertEquals(1, statistics.getNormalCount());
+            Assertions.assertEquals(1, statistics.getPolygonCount());
+            Assertions.assertEquals(54, statistics.getLineCount());
+            Assertions.assertEquals(0, statistics.getFallbackLineCount());
+            Assertions.assertEquals(Files.size(path), statistics.getByteCount());
+            Assertions.assertEquals(0, statistics.getMinX());
+            Assertions.assertEquals(49, statistics.getMaxX());
+            Assertions.assertEquals(-49, statistics.getMinY());
+            Assertions.assertEquals(7, statistics.getMaxZ());
+        }
+    }
+
+    @Test
+    public void testReadStatistics02_NoVerticesIsInvalid() throws IOException {
+        ObjReadStatistics statistics = new ObjReadStatistics();
+        ObjReadOptions options = new ObjReadOptions();
+        options.setStatistics(statistics);
+
+        ObjReader.read(writeTempFile("# only a comment\nvn 0 0 1\n"), options);
+
+        Assertions.assertFalse(statistics.isValid());
+    }
+
+    @Test
+    public void testReadPresize01_SameAsWithoutPresize() throws IOException {
+        String content = "  v 1 2 3\r\nv\t4 5 6\nvt 0 1\n# v 7 8 9\nvn 0 0 1\n" +
+                "vertex 1 2 3\n\n\rf 1/1/1 2/1/1 3/1/1\nfo 1 2 3\nv 7 8 9";
+        Path path = writeTempFile(content);
+
+        ObjReadOptions options = new ObjReadOptions();
+        options.setPresizeEnabled(false);
+        Model expected = ObjReader.read(path, options);
+        options.setPresizeEnabled(true);
+        Model result = ObjReader.read(path, options);
+
+        Assertions.assertEquals(3, result.vertices.size());
+        Assertions.assertEquals(expected.vertices.get(2).getX(), result.vertices.get(2).getX());
+        Assertions.assertEquals(expected.textureVertices.size(), result.textureVertices.size());
+        Assertions.assertEquals(expected.normals.size(), result.normals.size());
+        Assertions.assertEquals(expected.polygons, result.polygons);
+    }
+
+    private static Path writeTempFile(String content) throws IOException {
+        Path path = Files.createTempFile("objreader", ".obj");
+        path.toFile().deleteOnExit();
+        Files.writeString(path, content);
+        return path;
+    }
+}
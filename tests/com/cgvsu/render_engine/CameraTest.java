@@ -0,0 +1,69 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.Matrix4f;
+import com.cgvsu.math.Vector2f;
+import com.cgvsu.math.Vector3f;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class CameraTest {
+
+    @Test
+    public void testMatrices01_CachedUntilParametersChange() {
+        Camera camera = createCamera();
+        Matrix4f view = camera.getViewMatrix();
+        Matrix4f projection = camera.getProjectionMatrix();
+        Matrix4f viewCopy = new Matrix4f(view);
+        Matrix4f projectionCopy = new Matrix4f(projection);
+        Assertions.assertSame(view, camera.getViewMatrix());
+        Assertions.assertSame(projection, camera.getProjectionMatrix());
+
+        camera.getPosition().set(100, 100, 100);
+        camera.setAspectRatio(camera.getAspectRatio());
+        Assertions.assertTrue(camera.getViewMatrix().epsilonEquals(viewCopy, 0));
+        Assertions.assertTrue(camera.getProjectionMatrix().epsilonEquals(projectionCopy, 0));
+
+        camera.move(new Vector3f(1, 0, 0));
+        camera.setFov(1);
+        Assertions.assertSame(view, camera.getViewMatrix());
+        Assertions.assertFalse(camera.getViewMatrix().epsilonEquals(viewCopy, 1e-4f));
+        Assertions.assertFalse(camera.getProjectionMatrix().epsilonEquals(projectionCopy, 1e-4f));
+    }
+
+    @Test
+    public void testMatrices02_TargetProjectedToScreenCenter() {
+        Camera camera = createCamera();
+        Matrix4f viewProjection = new Matrix4f(camera.getProjectionMatrix()).mul(camera.getViewMatrix());
+        Vector2f center = GraphicConveyor.vertexToScreen(camera.getTarget(), viewProjection, 800, 600);
+        Assertions.assertEquals(400, center.getX(), 1e-3f);
+        Assertions.assertEquals(300, center.getY(), 1e-3f);
+
+        // Точка выше цели - выше на экране.
+        Vector2f above = GraphicConveyor.vertexToScreen(new Vector3f(0, 1, 0), viewProjection, 800, 600);
+        Assertions.assertTrue(above.getY() < 300);
+
+        // Взгляд строго вниз: матрица всё равно корректна.
+        camera.setPosition(new Vector3f(0, 10, 0));
+        center = GraphicConveyor.vertexToScreen(camera.getTarget(),
+                new Matrix4f(camera.getProjectionMatrix()).mul(camera.getViewMatrix()), 800, 600);
+        Assertions.assertEquals(400, center.getX(), 1e-3f);
+        Assertions.assertEquals(300, center.getY(), 1e-3f);
+    }
+
+    @Test
+    public void testDirection01_NormalizedAndMovesForward() {
+        Camera camera = createCamera();
+        Vector3f direction = camera.getDirection();
+        Assertions.assertEquals(1, direction.length(), 1e-5f);
+
+        camera.moveForward(2);
+        Assertions.assertEquals(8, camera.getPosition().getZ(), 1e-5f);
+        camera.moveRight(1);
+        Assertions.assertEquals(1, Math.abs(camera.getPosition().getX()), 1e-5f);
+    }
+
+    private static Camera createCamera() {
+        return new Camera(new Vector3f(0, 0, 10), new Vector3f(0, 0, 0),
+                (float) Math.toRadians(60), 800 / 600.0f, 0.1f, 100);
+    }
+}
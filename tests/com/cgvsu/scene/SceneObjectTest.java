@@ -0,0 +1,77 @@
+package com.cgvsu.scene;
+
+import com.cgvsu.math.Matrix4f;
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.model.Model;
+import com.cgvsu.render_engine.GraphicConveyor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class SceneObjectTest {
+
+    @Test
+    public void testModelMatrix01_IdentityByDefault() {
+        SceneObject object = new SceneObject(new Model(), "Object");
+        Assertions.assertTrue(object.getModelMatrix().epsilonEquals(new Matrix4f(), 0));
+        Assertions.assertTrue(object.getInverseModelMatrix().epsilonEquals(new Matrix4f(), 0));
+        Assertions.assertEquals(0, object.getTransformVersion());
+    }
+
+    @Test
+    public void testModelMatrix02_RebuiltOnlyAfterTransformChange() {
+        SceneObject object = new SceneObject(new Model(), "Object");
+        object.setPosition(1, 2, 3);
+        object.setRotation(10, 20, 30);
+        object.setScale(2, 2, 2);
+        long version = object.getTransformVersion();
+        Matrix4f model = object.getModelMatrix();
+        Assertions.assertTrue(model.epsilonEquals(GraphicConveyor.modelMatrix(new Vector3f(1, 2, 3),
+                new Vector3f(10, 20, 30), new Vector3f(2, 2, 2), new Matrix4f()), 0));
+        Assertions.assertSame(model, object.getModelMatrix());
+        Assertions.assertEquals(version, object.getTransformVersion());
+
+        object.move(new Vector3f(1, 0, 0));
+        object.rotate(new Vector3f(0, 0, 15));
+        object.scale(new Vector3f(1, 0.5f, 1));
+        Assertions.assertEquals(version + 3, object.getTransformVersion());
+        Assertions.assertSame(model, object.getModelMatrix());
+        Assertions.assertTrue(model.epsilonEquals(GraphicConveyor.modelMatrix(new Vector3f(2, 2, 3),
+                new Vector3f(10, 20, 45), new Vector3f(2, 1, 2), new Matrix4f()), 0));
+
+        object.resetTransform();
+        Assertions.assertTrue(object.getModelMatrix().epsilonEquals(new Matrix4f(), 0));
+    }
+
+    @Test
+    public void testModelMatrix03_InverseFollowsModelMatrix() {
+        SceneObject object = new SceneObject(new Model(), "Object",
+                new Vector3f(-1, 4, 2), new Vector3f(45, 0, 90), new Vector3f(1, 3, 0.5f));
+        Matrix4f product = new Matrix4f(object.getModelMatrix()).mul(object.getInverseModelMatrix());
+        Assertions.assertTrue(product.epsilonEquals(new Matrix4f(), 1e-5f));
+
+        object.setScale(2, 2, 2);
+        product.set(object.getModelMatrix()).mul(object.getInverseModelMatrix());
+        Assertions.assertTrue(product.epsilonEquals(new Matrix4f(), 1e-5f));
+
+        object.setScale(0, 1, 1);
+        Assertions.assertThrows(ArithmeticException.class, object::getInverseModelMatrix);
+    }
+
+    @Test
+    public void testTransform01_VectorsNotShared() {
+        Vector3f position = new Vector3f(1, 1, 1);
+        SceneObject object = new SceneObject(new Model(), "Object", position,
+                new Vector3f(0, 0, 0), new Vector3f(1, 1, 1));
+        long version = object.getTransformVersion();
+        position.set(5, 5, 5);
+        object.getPosition().set(7, 7, 7);
+        Assertions.assertEquals(1, object.getPosition().getX());
+        Assertions.assertEquals(version, object.getTransformVersion());
+
+        SceneObject copy = object.copy();
+        copy.move(new Vector3f(1, 0, 0));
+        Assertions.assertEquals(1, object.getPosition().getX());
+        Assertions.assertEquals(2, copy.getPosition().getX());
+        Assertions.assertEquals(1, object.getModelMatrix().m03);
+    }
+}